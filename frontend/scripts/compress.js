@@ -0,0 +1,50 @@
+// Writes gzip (.gz) and brotli (.br) versions of the text files in build/, next
+// to the originals, so that the backend can serve them without compressing
+// anything per request. Runs after `npm run build` (see "postbuild").
+
+const fs = require("fs");
+const path = require("path");
+const zlib = require("zlib");
+
+const buildDir = process.argv[2] || path.join(__dirname, "..", "build");
+const compressible = /\.(html|js|css|json|map|svg|txt|ico)$/;
+// smaller files barely shrink, and aren't worth the extra request handling
+const minBytes = 1024;
+
+function* files(dir) {
+  for (const entry of fs.readdirSync(dir, { withFileTypes: true })) {
+    const file = path.join(dir, entry.name);
+    if (entry.isDirectory()) {
+      yield* files(file);
+    } else if (compressible.test(entry.name)) {
+      yield file;
+    }
+  }
+}
+
+let original = 0;
+let gzipped = 0;
+let brotlied = 0;
+for (const file of files(buildDir)) {
+  const content = fs.readFileSync(file);
+  if (content.length < minBytes) {
+    continue;
+  }
+  const gz = zlib.gzipSync(content, { level: zlib.constants.Z_BEST_COMPRESSION });
+  const br = zlib.brotliCompressSync(content, {
+    params: {
+      [zlib.constants.BROTLI_PARAM_QUALITY]: zlib.constants.BROTLI_MAX_QUALITY,
+      [zlib.constants.BROTLI_PARAM_SIZE_HINT]: content.length,
+    },
+  });
+  fs.writeFileSync(`${file}.gz`, gz);
+  fs.writeFileSync(`${file}.br`, br);
+  original += content.length;
+  gzipped += gz.length;
+  brotlied += br.length;
+}
+
+const kb = (bytes) => `${Math.round(bytes / 1024)} kB`;
+console.log(
+  `Precompressed ${kb(original)} of assets: ${kb(gzipped)} gzip, ${kb(brotlied)} brotli`,
+);
@@ -0,0 +1,34 @@
+package edu.ucsb.cs156.frontiers.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Stand-ins for the repositories and services around the code being measured.
+ *
+ * Mockito's stubbing costs microseconds per call, which would swamp the
+ * cost of the code under test, so the benchmarks use plain proxies instead.
+ */
+public final class Stubs {
+
+  private Stubs() {
+  }
+
+  /**
+   * Creates a stub that answers the named methods with the given functions of
+   * their arguments; any other method returns null.
+   *
+   * @param <T> the stubbed interface
+   * @param type the stubbed interface
+   * @param answers answers by method name
+   * @return the stub
+   */
+  public static <T> T stub(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+    return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+        (proxy, method, args) -> {
+          Function<Object[], Object> answer = answers.get(method.getName());
+          return answer == null ? null : answer.apply(args);
+        }));
+  }
+}
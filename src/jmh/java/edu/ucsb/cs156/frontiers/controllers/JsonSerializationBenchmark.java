@@ -0,0 +1,112 @@
+package edu.ucsb.cs156.frontiers.controllers;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+
+import edu.ucsb.cs156.frontiers.entities.Course;
+import edu.ucsb.cs156.frontiers.entities.RosterStudent;
+import edu.ucsb.cs156.frontiers.entities.User;
+import edu.ucsb.cs156.frontiers.enums.OrgStatus;
+import edu.ucsb.cs156.frontiers.enums.RosterStatus;
+
+/**
+ * Large JSON responses, such as /api/rosterstudents/course and
+ * /api/admin/users for a big course: writing a roster the way UsersController
+ * used to (to a String, then to the response), streaming it straight to the
+ * response as Spring's message converter does, streaming it through gzip as
+ * Tomcat does when response compression is on, and reading it back.
+ *
+ * Each is measured with the ObjectMapper Spring Boot builds, with and without
+ * the Blackbird module that JacksonConfig registers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JsonSerializationBenchmark {
+
+  @Param({ "5000" })
+  public int students;
+
+  @Param({ "default", "blackbird" })
+  public String mapper;
+
+  private ObjectMapper objectMapper;
+  private List<RosterStudent> roster;
+  private byte[] json;
+
+  @Setup
+  public void setup() throws Exception {
+    Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+    if (mapper.equals("blackbird")) {
+      builder.modulesToInstall(new BlackbirdModule());
+    }
+    objectMapper = builder.build();
+
+    Course course = Course.builder().id(1L).courseName("CMPSC 156").orgName("ucsb-cs156-s25").term("S25").school("UCSB")
+        .installationId("12345").build();
+    roster = new ArrayList<>();
+    for (int i = 0; i < students; i++) {
+      User user = i % 2 == 0
+          ? User.builder().id(i).email("cgaucho%d@ucsb.edu".formatted(i)).fullName("Chris Gaucho" + i)
+              .givenName("Chris").githubId(1000 + i).githubLogin("cgaucho" + i).build()
+          : null;
+      roster.add(RosterStudent.builder()
+          .id((long) i)
+          .course(course)
+          .studentId("A%06d".formatted(i))
+          .firstName("Chris")
+          .lastName("Gaucho" + i)
+          .email("cgaucho%d@ucsb.edu".formatted(i))
+          .user(user)
+          .githubId(user == null ? null : 1000 + i)
+          .githubLogin(user == null ? null : "cgaucho" + i)
+          .rosterStatus(RosterStatus.ROSTER)
+          .orgStatus(user == null ? OrgStatus.NONE : OrgStatus.MEMBER)
+          .build());
+    }
+    json = objectMapper.writeValueAsBytes(roster);
+  }
+
+  /** What UsersController did: the whole payload as a String, then encoded */
+  @Benchmark
+  public void writeString() throws Exception {
+    String body = objectMapper.writeValueAsString(roster);
+    OutputStream.nullOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Benchmark
+  public void writeStream() throws Exception {
+    objectMapper.writeValue(OutputStream.nullOutputStream(), roster);
+  }
+
+  @Benchmark
+  public void writeStreamGzipped() throws Exception {
+    try (OutputStream gzip = new GZIPOutputStream(OutputStream.nullOutputStream(), 8192)) {
+      objectMapper.writeValue(gzip, roster);
+    }
+  }
+
+  @Benchmark
+  public List<RosterStudent> read() throws Exception {
+    return objectMapper.readValue(json, new TypeReference<List<RosterStudent>>() {
+    });
+  }
+}
@@ -0,0 +1,101 @@
+package edu.ucsb.cs156.frontiers.controllers;
+
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.opencsv.CSVReader;
+
+import edu.ucsb.cs156.frontiers.benchmarks.Stubs;
+import edu.ucsb.cs156.frontiers.entities.Course;
+import edu.ucsb.cs156.frontiers.entities.RosterStudent;
+import edu.ucsb.cs156.frontiers.enums.OrgStatus;
+import edu.ucsb.cs156.frontiers.enums.RosterStatus;
+import edu.ucsb.cs156.frontiers.repositories.RosterStudentRepository;
+import edu.ucsb.cs156.frontiers.repositories.UserRepository;
+import edu.ucsb.cs156.frontiers.services.UpdateUserService;
+
+/**
+ * eGrades roster upload: parsing the CSV into students, and upserting them.
+ * The repositories are stubbed, so that only the application's own work is
+ * measured; half of the students are already on the roster, and none of them
+ * has an account yet.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RosterStudentsControllerBenchmark {
+
+  @Param({ "50", "500" })
+  public int students;
+
+  private final RosterStudentsController controller = new RosterStudentsController();
+  private final Course course = Course.builder().id(1L).courseName("CMPSC 156").build();
+  private String csv;
+  private List<String[]> rows;
+
+  @Setup
+  public void setup() throws Exception {
+    StringBuilder builder = new StringBuilder(
+        "Enrl Cd,Perm #,Grade,Final Units,Student Last,Student First Middle,Quarter,Course ID,Section,"
+            + "Meeting Time(s) / Location(s),Email,ClassLevel,Major1,Major2,Date/Time,Pronoun\n\n");
+    Map<String, RosterStudent> roster = new HashMap<>();
+    for (int i = 0; i < students; i++) {
+      String perm = "A%06d".formatted(i);
+      builder.append("08235,%s,,4.0,GAUCHO%d,CHRIS FAKE,F23,CMPSC156,0100,".formatted(perm, i))
+          .append("T R   2:00- 3:15 SH 1431     W    5:00- 5:50 PHELP 3525  ,")
+          .append("cgaucho%d@umail.ucsb.edu,SR,CMPSC,,9/27/2023 9:39:25 AM,\n".formatted(i));
+      if (i % 2 == 0) {
+        roster.put(perm, RosterStudent.builder().course(course).studentId(perm).email("cgaucho%d@ucsb.edu".formatted(i))
+            .rosterStatus(RosterStatus.ROSTER).orgStatus(OrgStatus.NONE).build());
+      }
+    }
+    csv = builder.toString();
+    rows = readRows();
+
+    RosterStudentRepository rosterStudentRepository = Stubs.stub(RosterStudentRepository.class, Map.of(
+        "findByCourseIdAndStudentId", args -> Optional.ofNullable(roster.get((String) args[1])),
+        "save", args -> args[0]));
+    UpdateUserService updateUserService = new UpdateUserService();
+    ReflectionTestUtils.setField(updateUserService, "userRepository",
+        Stubs.stub(UserRepository.class, Map.of("findByEmail", args -> Optional.empty())));
+    ReflectionTestUtils.setField(updateUserService, "rosterStudentRepository", rosterStudentRepository);
+    ReflectionTestUtils.setField(controller, "rosterStudentRepository", rosterStudentRepository);
+    ReflectionTestUtils.setField(controller, "updateUserService", updateUserService);
+  }
+
+  private List<String[]> readRows() throws Exception {
+    try (CSVReader csvReader = new CSVReader(new StringReader(csv))) {
+      csvReader.skip(2);
+      return csvReader.readAll();
+    }
+  }
+
+  @Benchmark
+  public void parseEgradesCsv(Blackhole blackhole) throws Exception {
+    for (String[] row : readRows()) {
+      blackhole.consume(controller.fromEgradesCSVRow(row));
+    }
+  }
+
+  @Benchmark
+  public void upsertStudents(Blackhole blackhole) {
+    for (String[] row : rows) {
+      blackhole.consume(controller.upsertStudent(controller.fromEgradesCSVRow(row), course));
+    }
+  }
+}
@@ -0,0 +1,109 @@
+package edu.ucsb.cs156.frontiers.controllers;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.ResponseEntity;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.ucsb.cs156.frontiers.benchmarks.Stubs;
+import edu.ucsb.cs156.frontiers.entities.Course;
+import edu.ucsb.cs156.frontiers.entities.RosterStudent;
+import edu.ucsb.cs156.frontiers.enums.OrgStatus;
+import edu.ucsb.cs156.frontiers.repositories.CourseRepository;
+import edu.ucsb.cs156.frontiers.repositories.RosterStudentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * GitHub webhook handling, from the request body to the response: parsing the
+ * payload and the controller's work on it, with the repositories stubbed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WebhookControllerBenchmark {
+
+  private static final String MEMBER_ADDED = """
+      {
+        "action": "member_added",
+        "membership": {
+          "url": "https://api.github.com/orgs/ucsb-cs156-f24/memberships/cgaucho",
+          "state": "active",
+          "role": "member",
+          "organization_url": "https://api.github.com/orgs/ucsb-cs156-f24",
+          "user": {
+            "login": "cgaucho",
+            "id": 12345678,
+            "node_id": "MDQ6VXNlcjEyMzQ1Njc4",
+            "avatar_url": "https://avatars.githubusercontent.com/u/12345678?v=4",
+            "url": "https://api.github.com/users/cgaucho",
+            "html_url": "https://github.com/cgaucho",
+            "type": "User",
+            "site_admin": false
+          }
+        },
+        "organization": {
+          "login": "ucsb-cs156-f24",
+          "id": 87654321,
+          "url": "https://api.github.com/orgs/ucsb-cs156-f24",
+          "repos_url": "https://api.github.com/orgs/ucsb-cs156-f24/repos",
+          "members_url": "https://api.github.com/orgs/ucsb-cs156-f24/members{/member}",
+          "description": "CMPSC 156, Fall 2024"
+        },
+        "sender": {
+          "login": "cgaucho",
+          "id": 12345678,
+          "type": "User",
+          "site_admin": false
+        },
+        "installation": {
+          "id": 1234,
+          "node_id": "MDIzOkludGVncmF0aW9uSW5zdGFsbGF0aW9uMTIzNA=="
+        }
+      }
+      """;
+
+  private static final String IGNORED = """
+      {
+        "action": "created",
+        "repository": { "id": 1, "name": "jpa01-cgaucho", "full_name": "ucsb-cs156-f24/jpa01-cgaucho" },
+        "sender": { "login": "cgaucho", "id": 12345678 },
+        "installation": { "id": 1234 }
+      }
+      """;
+
+  private final ObjectMapper mapper = new ObjectMapper();
+  private WebhookController controller;
+
+  @Setup
+  public void setup() {
+    Course course = Course.builder().id(1L).courseName("CMPSC 156").installationId("1234").build();
+    RosterStudent student = RosterStudent.builder().id(2L).course(course).githubLogin("cgaucho")
+        .orgStatus(OrgStatus.INVITED).build();
+    CourseRepository courseRepository = Stubs.stub(CourseRepository.class, Map.of(
+        "findByInstallationId", args -> Optional.of(course).filter(c -> c.getInstallationId().equals(args[0]))));
+    RosterStudentRepository rosterStudentRepository = Stubs.stub(RosterStudentRepository.class, Map.of(
+        "findByCourseAndGithubLogin", args -> Optional.of(student).filter(s -> s.getGithubLogin().equals(args[1])),
+        "save", args -> args[0]));
+    controller = new WebhookController(courseRepository, rosterStudentRepository, new SimpleMeterRegistry());
+  }
+
+  @Benchmark
+  public ResponseEntity<String> memberAdded() throws Exception {
+    return controller.createGitHubWebhook(mapper.readTree(MEMBER_ADDED));
+  }
+
+  @Benchmark
+  public ResponseEntity<String> ignoredAction() throws Exception {
+    return controller.createGitHubWebhook(mapper.readTree(IGNORED));
+  }
+}
@@ -0,0 +1,141 @@
+package edu.ucsb.cs156.frontiers.logging;
+
+import java.io.File;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import edu.ucsb.cs156.frontiers.benchmarks.Stubs;
+import edu.ucsb.cs156.frontiers.controllers.WebhookController;
+import edu.ucsb.cs156.frontiers.entities.Course;
+import edu.ucsb.cs156.frontiers.entities.RosterStudent;
+import edu.ucsb.cs156.frontiers.enums.OrgStatus;
+import edu.ucsb.cs156.frontiers.repositories.CourseRepository;
+import edu.ucsb.cs156.frontiers.repositories.RosterStudentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * A burst of GitHub webhooks from several threads at once, with the
+ * controller logging everything (DEBUG, so the full payloads too) to a file.
+ * {@code sync} writes each event on the request thread, as a plain file
+ * appender does; {@code async} is the setup in {@code logback-spring.xml}: a
+ * bounded, non-blocking async appender and the per-logger rate limit.
+ *
+ * Run in sample mode, so JMH reports p50/p90/p99/p99.9 latencies of a webhook.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(4)
+public class AsyncLoggingBenchmark {
+
+  private static final String MEMBER_ADDED = """
+      {
+        "action": "member_added",
+        "membership": {
+          "state": "active",
+          "role": "member",
+          "user": { "login": "cgaucho", "id": 12345678, "type": "User", "site_admin": false }
+        },
+        "organization": { "login": "ucsb-cs156-f24", "id": 87654321 },
+        "sender": { "login": "cgaucho", "id": 12345678, "type": "User", "site_admin": false },
+        "installation": { "id": 1234 }
+      }
+      """;
+
+  @Param({ "sync", "async" })
+  public String logging;
+
+  private WebhookController controller;
+  private JsonNode payload;
+  private File logFile;
+  private Appender<ILoggingEvent> appender;
+  private LogRateLimitFilter rateLimit;
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    Course course = Course.builder().id(1L).courseName("CMPSC 156").installationId("1234").build();
+    RosterStudent student = RosterStudent.builder().id(2L).course(course).githubLogin("cgaucho")
+        .orgStatus(OrgStatus.INVITED).build();
+    CourseRepository courseRepository = Stubs.stub(CourseRepository.class,
+        Map.of("findByInstallationId", args -> Optional.of(course)));
+    RosterStudentRepository rosterStudentRepository = Stubs.stub(RosterStudentRepository.class, Map.of(
+        "findByCourseAndGithubLogin", args -> Optional.of(student),
+        "save", args -> args[0]));
+    controller = new WebhookController(courseRepository, rosterStudentRepository, new SimpleMeterRegistry());
+    payload = new ObjectMapper().readTree(MEMBER_ADDED);
+
+    LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+    context.reset();
+    logFile = File.createTempFile("frontiers-logging-benchmark", ".log");
+
+    PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+    encoder.setContext(context);
+    encoder.setPattern("%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p [%t] %logger{39} : %m%n");
+    encoder.start();
+    FileAppender<ILoggingEvent> file = new FileAppender<>();
+    file.setContext(context);
+    file.setFile(logFile.getAbsolutePath());
+    file.setEncoder(encoder);
+    file.start();
+    appender = file;
+
+    if (logging.equals("async")) {
+      rateLimit = new LogRateLimitFilter();
+      rateLimit.setContext(context);
+      rateLimit.start();
+      context.addTurboFilter(rateLimit);
+      AsyncAppender async = new AsyncAppender();
+      async.setContext(context);
+      async.setQueueSize(8192);
+      async.setNeverBlock(true);
+      async.setIncludeCallerData(false);
+      async.addAppender(file);
+      async.start();
+      appender = async;
+    }
+
+    Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+    root.setLevel(ch.qos.logback.classic.Level.INFO);
+    root.addAppender(appender);
+    context.getLogger(WebhookController.class).setLevel(ch.qos.logback.classic.Level.DEBUG);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    appender.stop();
+    if (rateLimit != null) {
+      System.out.printf("%n%d log events dropped by the rate limit%n", rateLimit.getDropped());
+    }
+    logFile.delete();
+  }
+
+  @Benchmark
+  public ResponseEntity<String> webhook() throws Exception {
+    return controller.createGitHubWebhook(payload);
+  }
+}
@@ -0,0 +1,41 @@
+package edu.ucsb.cs156.frontiers.services;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Finding the next page in the Link header of each page of organization
+ * members.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OrganizationMemberServiceBenchmark {
+
+  private final List<String> middlePage = List.of(
+      "<https://api.github.com/organizations/87654321/members?page=1>; rel=\"prev\", "
+          + "<https://api.github.com/organizations/87654321/members?page=3>; rel=\"next\", "
+          + "<https://api.github.com/organizations/87654321/members?page=9>; rel=\"last\", "
+          + "<https://api.github.com/organizations/87654321/members?page=1>; rel=\"first\"");
+
+  private final List<String> lastPage = List.of(
+      "<https://api.github.com/organizations/87654321/members?page=8>; rel=\"prev\", "
+          + "<https://api.github.com/organizations/87654321/members?page=1>; rel=\"first\"");
+
+  @Benchmark
+  public String nextPageUrl() {
+    return OrganizationMemberService.nextPageUrl(middlePage);
+  }
+
+  @Benchmark
+  public String nextPageUrlOnLastPage() {
+    return OrganizationMemberService.nextPageUrl(lastPage);
+  }
+}
@@ -0,0 +1,83 @@
+package edu.ucsb.cs156.frontiers.services;
+
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import edu.ucsb.cs156.frontiers.benchmarks.Stubs;
+import edu.ucsb.cs156.frontiers.entities.Course;
+import edu.ucsb.cs156.frontiers.entities.RosterStudent;
+import edu.ucsb.cs156.frontiers.entities.User;
+import edu.ucsb.cs156.frontiers.enums.OrgStatus;
+import edu.ucsb.cs156.frontiers.enums.RosterStatus;
+import edu.ucsb.cs156.frontiers.models.RosterStudentDTO;
+import edu.ucsb.cs156.frontiers.repositories.RosterStudentRepository;
+
+/**
+ * Roster download: mapping the roster to {@link RosterStudentDTO}s and writing
+ * them as CSV, as the CSV download endpoint does, to a stream that discards
+ * the output.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RosterStudentDTOServiceBenchmark {
+
+  @Param({ "50", "500" })
+  public int students;
+
+  private final RosterStudentDTOService service = new RosterStudentDTOService();
+  private List<RosterStudentDTO> dtos;
+
+  @Setup
+  public void setup() {
+    Course course = Course.builder().id(1L).courseName("CMPSC 156").build();
+    List<RosterStudent> roster = new ArrayList<>();
+    for (int i = 0; i < students; i++) {
+      roster.add(RosterStudent.builder()
+          .id((long) i)
+          .course(course)
+          .studentId("A%06d".formatted(i))
+          .firstName("Chris")
+          .lastName("Gaucho" + i)
+          .email("cgaucho%d@ucsb.edu".formatted(i))
+          .user(i % 2 == 0 ? User.builder().id(i).build() : null)
+          .githubId(i % 2 == 0 ? 1000 + i : null)
+          .githubLogin(i % 2 == 0 ? "cgaucho" + i : null)
+          .rosterStatus(RosterStatus.ROSTER)
+          .orgStatus(i % 2 == 0 ? OrgStatus.MEMBER : OrgStatus.NONE)
+          .build());
+    }
+    RosterStudentRepository rosterStudentRepository = Stubs.stub(RosterStudentRepository.class,
+        Map.of("findByCourseId", args -> roster));
+    ReflectionTestUtils.setField(service, "rosterStudentRepository", rosterStudentRepository);
+    dtos = service.getRosterStudentDTOs(1L);
+  }
+
+  @Benchmark
+  public List<RosterStudentDTO> mapToDtos() {
+    return service.getRosterStudentDTOs(1L);
+  }
+
+  @Benchmark
+  public void exportCsv() throws Exception {
+    try (Writer writer = new OutputStreamWriter(OutputStream.nullOutputStream(), StandardCharsets.UTF_8)) {
+      service.getStatefulBeanToCSV(writer).write(dtos);
+    }
+  }
+}
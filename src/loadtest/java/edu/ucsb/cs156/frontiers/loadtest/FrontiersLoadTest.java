@@ -0,0 +1,338 @@
+package edu.ucsb.cs156.frontiers.loadtest;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.jwt.JwtDecoderFactory;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import edu.ucsb.cs156.frontiers.entities.Course;
+import edu.ucsb.cs156.frontiers.entities.RosterStudent;
+import edu.ucsb.cs156.frontiers.loadtest.LatencyRecorder.EndpointStats;
+import edu.ucsb.cs156.frontiers.repositories.CourseRepository;
+import edu.ucsb.cs156.frontiers.repositories.RosterStudentRepository;
+import edu.ucsb.cs156.frontiers.services.wiremock.WiremockService;
+import edu.ucsb.cs156.frontiers.services.wiremock.WiremockServiceImpl;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Load test of the whole app: a real server (with the wiremock OAuth provider
+ * and an in-memory H2 database) driven over HTTP by concurrent signed-in
+ * students, an admin and GitHub webhooks, in a realistic mix of traffic. Latency percentiles and throughput
+ * are reported per endpoint, and the test fails if a latency budget in
+ * {@code loadtest.properties} is exceeded.
+ *
+ * Run it with {@code mvn -P loadtest test}; see docs/load-testing.md.
+ */
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+    "spring.security.oauth2.client.registration.my-oauth-provider.redirect-uri={baseUrl}/login/oauth2/code/{registrationId}",
+    "spring.security.oauth2.client.registration.my-oauth-provider.scope=openid,https://www.googleapis.com/auth/userinfo.email,https://www.googleapis.com/auth/userinfo.profile",
+    "spring.security.oauth2.client.provider.my-oauth-provider.user-info-uri=",
+    "logging.level.root=WARN",
+    "logging.level.sql=WARN",
+    "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+    "logging.level.edu.ucsb.cs156.frontiers.loadtest=INFO"
+})
+@ActiveProfiles("wiremock")
+@AutoConfigureObservability(tracing = false)
+// the mocked OAuth provider has a fixed port, so the next load test needs this app stopped
+@DirtiesContext
+class FrontiersLoadTest {
+
+  private static final String INSTALLATION_ID = "4242";
+  private static final String ADMIN_EMAIL = "admingaucho@ucsb.edu";
+
+  @LocalServerPort
+  private int port;
+
+  @Autowired
+  private WiremockService wiremockService;
+
+  @Autowired
+  private CourseRepository courseRepository;
+
+  @Autowired
+  private RosterStudentRepository rosterStudentRepository;
+
+  private final ObjectMapper mapper = new ObjectMapper();
+  private final LatencyRecorder recorder = new LatencyRecorder();
+  private LoadTestSettings settings;
+  private String baseUrl;
+  private long courseId;
+  private String roster;
+  private volatile boolean running = true;
+
+  @Test
+  void endpoints_stay_within_their_latency_budgets() throws Exception {
+    settings = new LoadTestSettings();
+    baseUrl = "http://localhost:" + port;
+    int users = settings.getInt("users");
+
+    // the code the app exchanges is the ID token (see IdTokens)
+    IdTokens.stubTokenEndpoint(((WiremockServiceImpl) wiremockService).getWiremockServer());
+
+    SessionClient admin = new SessionClient(baseUrl);
+    admin.login(ADMIN_EMAIL, "Admin");
+    setUpCourse(admin);
+
+    // each virtual user is a different student on the roster
+    List<SessionClient> students = new ArrayList<>();
+    for (int i = 0; i < users; i++) {
+      SessionClient student = new SessionClient(baseUrl);
+      student.login(studentEmail(i), "Student" + i);
+      students.add(student);
+    }
+    SessionClient github = new SessionClient(baseUrl);
+
+    Map<String, Scenario> scenarios = new LinkedHashMap<>();
+    scenarios.put("currentUser", user -> call("currentUser", () -> user.get("/api/currentUser")));
+    scenarios.put("coursesList", user -> call("coursesList", () -> user.get("/api/courses/list")));
+    scenarios.put("webhookBurst", user -> webhookBurst(github));
+    scenarios.put("csvDownload",
+        user -> call("csvDownload", () -> admin.get("/api/csv/rosterstudents?courseId=" + courseId)));
+    scenarios.put("csvUpload", user -> call("csvUpload", () -> admin
+        .postFile("/api/rosterstudents/upload/egrades?courseId=" + courseId, "egrades.csv", roster)));
+    scenarios.put("jobPolling", user -> jobPolling(admin));
+    List<Scenario> mix = weightedMix(scenarios);
+
+    ExecutorService executor = Executors.newFixedThreadPool(users);
+    List<Future<?>> workers = new ArrayList<>();
+    for (SessionClient student : students) {
+      workers.add(executor.submit(() -> {
+        while (running) {
+          mix.get(ThreadLocalRandom.current().nextInt(mix.size())).run(student);
+        }
+        return null;
+      }));
+    }
+    TimeUnit.SECONDS.sleep(settings.getInt("warmupSeconds"));
+    recorder.start();
+    TimeUnit.SECONDS.sleep(settings.getInt("durationSeconds"));
+    recorder.stop();
+    running = false;
+    for (Future<?> worker : workers) {
+      worker.get();
+    }
+    executor.shutdown();
+
+    List<EndpointStats> stats = recorder.stats();
+    report(stats);
+    saveMetrics(admin);
+    assertFalse(stats.isEmpty(), "no requests were recorded");
+    List<String> violations = violations(stats);
+    assertTrue(violations.isEmpty(), String.join("\n", violations));
+  }
+
+  /**
+   * Creates the course, uploads its roster (which includes the students that
+   * sign in) and gives the students GitHub logins, so that the webhooks find
+   * them.
+   */
+  private void setUpCourse(SessionClient admin) throws Exception {
+    HttpResponse<String> created = admin.postForm(
+        "/api/courses/post?orgName=ucsb-cs156-loadtest&courseName=CMPSC%20156&term=F25&school=UCSB");
+    expectOk(created);
+    courseId = mapper.readTree(created.body()).get("id").asLong();
+    Course course = courseRepository.findById(courseId).orElseThrow();
+    course.setInstallationId(INSTALLATION_ID);
+    courseRepository.save(course);
+
+    roster = egradesCsv(settings.getInt("students"));
+    expectOk(admin.postFile("/api/rosterstudents/upload/egrades?courseId=" + courseId, "egrades.csv", roster));
+    for (RosterStudent student : rosterStudentRepository.findByCourseId(courseId)) {
+      student.setGithubLogin(githubLogin(student.getStudentId()));
+      rosterStudentRepository.save(student);
+    }
+  }
+
+  private static String egradesCsv(int students) {
+    StringBuilder csv = new StringBuilder(
+        "Enrl Cd,Perm #,Grade,Final Units,Student Last,Student First Middle,Quarter,Course ID,Section,"
+            + "Meeting Time(s) / Location(s),Email,ClassLevel,Major1,Major2,Date/Time,Pronoun\n\n");
+    for (int i = 0; i < students; i++) {
+      csv.append("08235,A%06d,,4.0,GAUCHO%d,CHRIS FAKE,F25,CMPSC156,0100,".formatted(i, i))
+          .append("T R   2:00- 3:15 SH 1431,")
+          .append(studentEmail(i))
+          .append(",SR,CMPSC,,9/27/2025 9:39:25 AM,\n");
+    }
+    return csv.toString();
+  }
+
+  private static String studentEmail(int i) {
+    return "student%04d@ucsb.edu".formatted(i);
+  }
+
+  private static String githubLogin(String studentId) {
+    return "student-" + studentId.substring(1);
+  }
+
+  private void webhookBurst(SessionClient github) throws Exception {
+    int students = settings.getInt("students");
+    for (int i = 0; i < settings.getInt("webhookBurst") && running; i++) {
+      String action = i % 2 == 0 ? "member_invited" : "member_added";
+      String login = githubLogin("A%06d".formatted(ThreadLocalRandom.current().nextInt(students)));
+      String payload = """
+          {
+            "action": "%s",
+            "membership": { "state": "active", "role": "member", "user": { "login": "%s", "type": "User" } },
+            "user": { "login": "%s", "type": "User" },
+            "organization": { "login": "ucsb-cs156-loadtest" },
+            "installation": { "id": %s }
+          }
+          """.formatted(action, login, login, INSTALLATION_ID);
+      call("webhook", () -> github.post("/api/webhooks/github", "application/json", payload));
+    }
+  }
+
+  /** Launches a job and polls its progress until it is done, as the jobs page does. */
+  private void jobPolling(SessionClient admin) throws Exception {
+    HttpResponse<String> launched = call("jobLaunch", () -> admin.postForm(
+        "/api/jobs/launch/testjob?fail=false&sleepMs=" + settings.getInt("jobSleepMs")));
+    if (launched.statusCode() != 200) {
+      return;
+    }
+    long jobId = mapper.readTree(launched.body()).get("id").asLong();
+    String status = "running";
+    while (running && status.equals("running")) {
+      TimeUnit.MILLISECONDS.sleep(50);
+      HttpResponse<String> progress = call("jobProgress", () -> admin.get("/api/jobs/progress/" + jobId));
+      if (progress.statusCode() != 200) {
+        return;
+      }
+      JsonNode body = mapper.readTree(progress.body());
+      status = body.path("status").asText("running");
+    }
+  }
+
+  private HttpResponse<String> call(String endpoint, Request request) throws Exception {
+    long start = System.nanoTime();
+    HttpResponse<String> response;
+    try {
+      response = request.send();
+    } catch (IOException e) {
+      recorder.record(endpoint, System.nanoTime() - start, false);
+      throw e;
+    }
+    recorder.record(endpoint, System.nanoTime() - start, response.statusCode() / 100 == 2);
+    return response;
+  }
+
+  private static void expectOk(HttpResponse<String> response) {
+    if (response.statusCode() != 200) {
+      throw new IllegalStateException("setup failed: %d %s".formatted(response.statusCode(), response.body()));
+    }
+  }
+
+  private List<Scenario> weightedMix(Map<String, Scenario> scenarios) {
+    List<Scenario> mix = new ArrayList<>();
+    scenarios.forEach((name, scenario) -> {
+      for (int i = 0; i < settings.getInt("mix." + name); i++) {
+        mix.add(scenario);
+      }
+    });
+    return mix;
+  }
+
+  private List<String> violations(List<EndpointStats> stats) {
+    List<String> violations = new ArrayList<>();
+    int requests = 0;
+    int errors = 0;
+    for (EndpointStats s : stats) {
+      requests += s.requests();
+      errors += s.errors();
+      check(violations, s, "p50", s.p50());
+      check(violations, s, "p95", s.p95());
+      check(violations, s, "p99", s.p99());
+    }
+    double errorRate = requests == 0 ? 0 : (double) errors / requests;
+    if (errorRate > settings.getDouble("maxErrorRate")) {
+      violations.add("error rate %.4f exceeds %s".formatted(errorRate, settings.getDouble("maxErrorRate")));
+    }
+    return violations;
+  }
+
+  private void check(List<String> violations, EndpointStats stats, String percentile, double millis) {
+    settings.budget(stats.endpoint(), percentile).ifPresent(budget -> {
+      if (millis > budget) {
+        violations.add("%s %s is %.1f ms, over its budget of %.0f ms"
+            .formatted(stats.endpoint(), percentile, millis, budget));
+      }
+    });
+  }
+
+  private void report(List<EndpointStats> stats) throws IOException {
+    StringBuilder table = new StringBuilder(
+        "%n%-12s %9s %7s %10s %9s %9s %9s %9s%n".formatted("endpoint", "requests", "errors", "req/s",
+            "p50 ms", "p95 ms", "p99 ms", "max ms"));
+    for (EndpointStats s : stats) {
+      table.append("%-12s %9d %7d %10.1f %9.1f %9.1f %9.1f %9.1f%n".formatted(s.endpoint(), s.requests(),
+          s.errors(), s.throughputPerSecond(), s.p50(), s.p95(), s.p99(), s.max()));
+    }
+    log.info("Load test results:{}", table);
+
+    Path results = Path.of("target", "loadtest", "results-%d.json".formatted(Instant.now().getEpochSecond()));
+    Files.createDirectories(results.getParent());
+    Map<String, Object> json = new LinkedHashMap<>();
+    json.put("settings", settings.asMap());
+    json.put("endpoints", stats);
+    mapper.copy().enable(SerializationFeature.INDENT_OUTPUT).writeValue(results.toFile(), json);
+    log.info("Load test results written to {}", results);
+  }
+
+  /** Keeps the app's own view of the run (GitHub calls, Hikari pool, Hibernate queries, ...) next to the results */
+  private void saveMetrics(SessionClient admin) throws Exception {
+    HttpResponse<String> metrics = admin.get("/actuator/prometheus");
+    expectOk(metrics);
+    Path file = Path.of("target", "loadtest", "metrics-%d.prom".formatted(Instant.now().getEpochSecond()));
+    Files.writeString(file, metrics.body());
+    log.info("Metrics at the end of the run written to {}", file);
+  }
+
+  @TestConfiguration
+  static class IdTokenConfig {
+    @Bean
+    JwtDecoderFactory<ClientRegistration> idTokenDecoderFactory() {
+      return IdTokens.decoderFactory();
+    }
+  }
+
+  @FunctionalInterface
+  private interface Scenario {
+    void run(SessionClient user) throws Exception;
+  }
+
+  @FunctionalInterface
+  private interface Request {
+    HttpResponse<String> send() throws Exception;
+  }
+}
@@ -0,0 +1,71 @@
+package edu.ucsb.cs156.frontiers.loadtest;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.okJson;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoderFactory;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.tomakehurst.wiremock.WireMockServer;
+
+/**
+ * OpenID Connect ID tokens for the mocked OAuth provider. The load test signs
+ * in with an authorization code that is the ID token's claims, base64url
+ * encoded; the provider (wiremock) answers the token request with the code as
+ * the ID token, and the decoder below turns it back into claims. This way the
+ * app signs users in through its usual OIDC path (and grants their roles),
+ * and every virtual user can be a different student, without the provider
+ * having to sign tokens.
+ */
+final class IdTokens {
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private IdTokens() {
+  }
+
+  static String encode(Map<String, Object> claims) {
+    try {
+      return Base64.getUrlEncoder().withoutPadding().encodeToString(MAPPER.writeValueAsBytes(claims));
+    } catch (JsonProcessingException e) {
+      throw new IllegalArgumentException(e);
+    }
+  }
+
+  /** Makes the mocked provider answer token requests with the code as the ID token */
+  static void stubTokenEndpoint(WireMockServer provider) {
+    provider.stubFor(post(urlPathEqualTo("/oauth/token"))
+        .willReturn(okJson("""
+            {"access_token": "{{randomValue length=20 type='ALPHANUMERIC'}}", "token_type": "Bearer",
+             "expires_in": 3600, "id_token": "{{formData request.body 'form' urlDecode=true}}{{{form.code}}}"}
+            """)));
+  }
+
+  static JwtDecoderFactory<ClientRegistration> decoderFactory() {
+    return registration -> token -> {
+      Map<String, Object> claims;
+      try {
+        claims = MAPPER.readValue(Base64.getUrlDecoder().decode(token), new TypeReference<Map<String, Object>>() {
+        });
+      } catch (IOException e) {
+        throw new IllegalArgumentException(e);
+      }
+      Instant now = Instant.now();
+      return Jwt.withTokenValue(token)
+          .header("alg", "none")
+          .claims(c -> c.putAll(claims))
+          .issuedAt(now)
+          .expiresAt(now.plusSeconds(3600))
+          .build();
+    };
+  }
+}
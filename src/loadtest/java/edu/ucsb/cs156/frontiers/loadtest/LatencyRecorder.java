@@ -0,0 +1,77 @@
+package edu.ucsb.cs156.frontiers.loadtest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects the latency of every request, per endpoint, while recording is on
+ * (so that warmup traffic is left out), and summarizes them.
+ */
+final class LatencyRecorder {
+
+  /** Latency percentiles (ms) and throughput of one endpoint */
+  record EndpointStats(String endpoint, int requests, int errors, double throughputPerSecond,
+      double p50, double p95, double p99, double max) {
+  }
+
+  private final Map<String, Samples> samples = new ConcurrentHashMap<>();
+  private volatile boolean recording;
+  private long startedNanos;
+  private long stoppedNanos;
+
+  void start() {
+    startedNanos = System.nanoTime();
+    recording = true;
+  }
+
+  void stop() {
+    recording = false;
+    stoppedNanos = System.nanoTime();
+  }
+
+  void record(String endpoint, long nanos, boolean ok) {
+    if (recording) {
+      samples.computeIfAbsent(endpoint, key -> new Samples()).add(nanos, ok);
+    }
+  }
+
+  List<EndpointStats> stats() {
+    double seconds = (stoppedNanos - startedNanos) / 1e9;
+    List<EndpointStats> stats = new ArrayList<>();
+    samples.forEach((endpoint, s) -> stats.add(s.stats(endpoint, seconds)));
+    stats.sort((a, b) -> a.endpoint().compareTo(b.endpoint()));
+    return stats;
+  }
+
+  private static final class Samples {
+    private long[] nanos = new long[1024];
+    private int count;
+    private int errors;
+
+    synchronized void add(long latency, boolean ok) {
+      if (count == nanos.length) {
+        nanos = Arrays.copyOf(nanos, count * 2);
+      }
+      nanos[count++] = latency;
+      if (!ok) {
+        errors++;
+      }
+    }
+
+    synchronized EndpointStats stats(String endpoint, double seconds) {
+      long[] sorted = Arrays.copyOf(nanos, count);
+      Arrays.sort(sorted);
+      return new EndpointStats(endpoint, count, errors, count / seconds,
+          percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99), sorted[count - 1] / 1e6);
+    }
+
+    /** nearest-rank percentile, in milliseconds */
+    private static double percentile(long[] sorted, int percentile) {
+      int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+      return sorted[Math.max(rank, 1) - 1] / 1e6;
+    }
+  }
+}
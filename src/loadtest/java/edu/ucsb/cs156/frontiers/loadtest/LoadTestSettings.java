@@ -0,0 +1,54 @@
+package edu.ucsb.cs156.frontiers.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Settings of the load test: the defaults in {@code loadtest.properties},
+ * each of which can be overridden with a system property of the same name,
+ * e.g. {@code mvn -P loadtest test -Dloadtest.users=32}.
+ */
+final class LoadTestSettings {
+  private final Properties properties = new Properties();
+
+  LoadTestSettings() throws IOException {
+    try (InputStream defaults = LoadTestSettings.class.getResourceAsStream("/loadtest.properties")) {
+      properties.load(defaults);
+    }
+    for (String name : System.getProperties().stringPropertyNames()) {
+      if (name.startsWith("loadtest.")) {
+        properties.setProperty(name, System.getProperty(name));
+      }
+    }
+  }
+
+  int getInt(String name) {
+    return Integer.parseInt(properties.getProperty("loadtest." + name));
+  }
+
+  double getDouble(String name) {
+    return Double.parseDouble(properties.getProperty("loadtest." + name));
+  }
+
+  /**
+   * @param endpoint label of the endpoint
+   * @param percentile p50, p95 or p99
+   * @return the latency budget in milliseconds, if there is one
+   */
+  OptionalDouble budget(String endpoint, String percentile) {
+    String value = properties.getProperty("loadtest.budget.%s.%s".formatted(endpoint, percentile));
+    return value == null ? OptionalDouble.empty() : OptionalDouble.of(Double.parseDouble(value));
+  }
+
+  Map<String, String> asMap() {
+    Map<String, String> map = new TreeMap<>();
+    for (String name : properties.stringPropertyNames()) {
+      map.put(name, properties.getProperty(name));
+    }
+    return map;
+  }
+}
@@ -0,0 +1,142 @@
+package edu.ucsb.cs156.frontiers.loadtest;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.HttpCookie;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * The browser of one user: an HTTP client with its own cookies (session and
+ * XSRF token) that signs in through the mocked OAuth provider.
+ */
+final class SessionClient {
+  private final String baseUrl;
+  private final CookieManager cookies;
+  private final HttpClient client;
+
+  SessionClient(String baseUrl) {
+    this(baseUrl, new CookieManager());
+  }
+
+  private SessionClient(String baseUrl, CookieManager cookies) {
+    this.baseUrl = baseUrl;
+    this.cookies = cookies;
+    this.client = HttpClient.newBuilder()
+        .cookieHandler(cookies)
+        .followRedirects(HttpClient.Redirect.NEVER)
+        .connectTimeout(Duration.ofSeconds(10))
+        .build();
+  }
+
+  /**
+   * Signs in the way a browser does: the app redirects to the provider's
+   * authorize endpoint, and the provider redirects back to the app with a
+   * code for the same state, which the app exchanges for the user's ID token
+   * (see {@link IdTokens}).
+   *
+   * @param email email of the user
+   * @param givenName given name of the user
+   */
+  void login(String email, String givenName) throws IOException, InterruptedException {
+    HttpResponse<Void> authorize = send(request("/oauth2/authorization/my-oauth-provider").GET(),
+        BodyHandlers.discarding());
+    Map<String, String> query = queryParameters(URI.create(location(authorize)));
+    Map<String, Object> claims = new HashMap<>();
+    claims.put("iss", "http://localhost:8090");
+    claims.put("sub", "loadtest-" + email);
+    claims.put("aud", List.of(query.get("client_id")));
+    claims.put("nonce", query.get("nonce"));
+    claims.put("email", email);
+    claims.put("email_verified", true);
+    claims.put("given_name", givenName);
+    claims.put("family_name", "Gaucho");
+    claims.put("name", givenName + " Gaucho");
+    claims.put("picture", "https://example.org/" + givenName + ".png");
+    String callback = query.get("redirect_uri") + "?code=" + IdTokens.encode(claims) + "&state="
+        + URLEncoder.encode(query.get("state"), StandardCharsets.UTF_8);
+    HttpResponse<Void> signedIn = client.send(HttpRequest.newBuilder(URI.create(callback)).GET().build(),
+        BodyHandlers.discarding());
+    if (signedIn.statusCode() != 302 || location(signedIn).contains("error")) {
+      throw new IllegalStateException("login failed: " + signedIn.statusCode() + " " + location(signedIn));
+    }
+    // the XSRF-TOKEN cookie is set on the first request that needs it
+    get("/csrf");
+  }
+
+  /**
+   * @param otherBaseUrl base URL of another instance of the app
+   * @return the same browser (with the same cookies), talking to the other instance
+   */
+  SessionClient at(String otherBaseUrl) {
+    return new SessionClient(otherBaseUrl, cookies);
+  }
+
+  HttpResponse<String> get(String path) throws IOException, InterruptedException {
+    return send(request(path).GET(), BodyHandlers.ofString());
+  }
+
+  HttpResponse<String> post(String path, String contentType, String body)
+      throws IOException, InterruptedException {
+    return send(withCsrf(request(path)).header("Content-Type", contentType)
+        .POST(BodyPublishers.ofString(body)), BodyHandlers.ofString());
+  }
+
+  HttpResponse<String> postForm(String path) throws IOException, InterruptedException {
+    return send(withCsrf(request(path)).POST(BodyPublishers.noBody()), BodyHandlers.ofString());
+  }
+
+  HttpResponse<String> postFile(String path, String fileName, String content)
+      throws IOException, InterruptedException {
+    String boundary = "----loadtest" + UUID.randomUUID();
+    String body = "--" + boundary + "\r\n"
+        + "Content-Disposition: form-data; name=\"file\"; filename=\"" + fileName + "\"\r\n"
+        + "Content-Type: text/csv\r\n\r\n"
+        + content + "\r\n"
+        + "--" + boundary + "--\r\n";
+    return post(path, "multipart/form-data; boundary=" + boundary, body);
+  }
+
+  private HttpRequest.Builder request(String path) {
+    return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30));
+  }
+
+  private HttpRequest.Builder withCsrf(HttpRequest.Builder builder) {
+    return cookies.getCookieStore().getCookies().stream()
+        .filter(cookie -> cookie.getName().equals("XSRF-TOKEN"))
+        .map(HttpCookie::getValue)
+        .findFirst()
+        .map(token -> builder.header("X-XSRF-TOKEN", token))
+        .orElse(builder);
+  }
+
+  private <T> HttpResponse<T> send(HttpRequest.Builder builder, HttpResponse.BodyHandler<T> handler)
+      throws IOException, InterruptedException {
+    return client.send(builder.build(), handler);
+  }
+
+  private static String location(HttpResponse<?> response) {
+    return response.headers().firstValue("Location").orElse("");
+  }
+
+  private static Map<String, String> queryParameters(URI uri) {
+    return Arrays.stream(uri.getRawQuery().split("&"))
+        .map(pair -> pair.split("=", 2))
+        .collect(Collectors.toMap(pair -> pair[0],
+            pair -> URLDecoder.decode(pair.length > 1 ? pair[1] : "", StandardCharsets.UTF_8)));
+  }
+}
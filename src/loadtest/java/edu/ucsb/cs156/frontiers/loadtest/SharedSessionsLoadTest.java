@@ -0,0 +1,108 @@
+package edu.ucsb.cs156.frontiers.loadtest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.http.HttpResponse;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.ucsb.cs156.frontiers.FrontiersMain;
+import edu.ucsb.cs156.frontiers.services.wiremock.WiremockService;
+import edu.ucsb.cs156.frontiers.services.wiremock.WiremockServiceImpl;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Two instances of the app sharing one database, with the JDBC session store
+ * ({@code app.sessions.store=jdbc}): a user who signs in on one instance is
+ * signed in on the other, as behind a load balancer without sticky sessions,
+ * and signing out on either signs them out of both.
+ */
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    SharedSessionsLoadTest.DATABASE,
+    SharedSessionsLoadTest.SESSION_STORE,
+    "spring.security.oauth2.client.registration.my-oauth-provider.redirect-uri={baseUrl}/login/oauth2/code/{registrationId}",
+    "spring.security.oauth2.client.registration.my-oauth-provider.scope=openid,https://www.googleapis.com/auth/userinfo.email,https://www.googleapis.com/auth/userinfo.profile",
+    "spring.security.oauth2.client.provider.my-oauth-provider.user-info-uri=",
+    "logging.level.root=WARN",
+    "logging.level.sql=WARN",
+    "logging.level.edu.ucsb.cs156.frontiers.loadtest=INFO"
+})
+@ActiveProfiles("wiremock")
+@Import(FrontiersLoadTest.IdTokenConfig.class)
+// the mocked OAuth provider has a fixed port, so the next load test needs this app stopped
+@DirtiesContext
+class SharedSessionsLoadTest {
+
+  static final String DATABASE = "spring.datasource.url=jdbc:h2:mem:sharedsessions;DB_CLOSE_DELAY=-1";
+  static final String SESSION_STORE = "app.sessions.store=jdbc";
+
+  @LocalServerPort
+  private int port;
+
+  @Autowired
+  private WiremockService wiremockService;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  @Test
+  void sessions_are_shared_between_instances() throws Exception {
+    IdTokens.stubTokenEndpoint(((WiremockServiceImpl) wiremockService).getWiremockServer());
+
+    // the second instance has no OAuth provider of its own: it never sees the sign-in
+    try (ConfigurableApplicationContext other = new SpringApplicationBuilder(FrontiersMain.class)
+        .run("--spring.profiles.active=development", "--server.port=0", "--" + DATABASE, "--" + SESSION_STORE,
+            "--spring.devtools.restart.enabled=false", "--logging.level.root=WARN", "--logging.level.sql=WARN")) {
+      SessionClient browser = new SessionClient("http://localhost:" + port);
+      browser.login("cgaucho@ucsb.edu", "Chris");
+      SessionClient sameBrowserOnOther = browser.at("http://localhost:" + other.getEnvironment()
+          .getProperty("local.server.port"));
+
+      assertSignedIn(browser);
+      assertSignedIn(sameBrowserOnOther);
+
+      long lastAccess = lastAccessTime();
+      for (int i = 0; i < 5; i++) {
+        assertSignedIn(i % 2 == 0 ? browser : sameBrowserOnOther);
+      }
+      assertEquals(lastAccess, lastAccessTime(), "unchanged sessions should not be written back");
+
+      int stored = jdbcTemplate.queryForObject(
+          "select sum(length(attribute_bytes)) from spring_session_attributes", Integer.class);
+      log.info("stored session attributes: {} bytes", stored);
+
+      sameBrowserOnOther.get("/csrf");
+      HttpResponse<String> logout = sameBrowserOnOther.postForm("/logout");
+      assertEquals(302, logout.statusCode());
+      assertEquals(403, browser.get("/api/currentUser").statusCode());
+    }
+  }
+
+  private void assertSignedIn(SessionClient client) throws Exception {
+    HttpResponse<String> response = client.get("/api/currentUser");
+    assertEquals(200, response.statusCode(), response.body());
+    JsonNode currentUser = mapper.readTree(response.body());
+    assertEquals("cgaucho@ucsb.edu", currentUser.path("user").path("email").asText());
+    assertTrue(currentUser.path("roles").toString().contains("ROLE_USER"), currentUser.toString());
+  }
+
+  private long lastAccessTime() {
+    return jdbcTemplate.queryForObject("select last_access_time from spring_session", Long.class);
+  }
+}
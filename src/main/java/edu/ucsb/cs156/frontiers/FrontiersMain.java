@@ -3,7 +3,6 @@ package edu.ucsb.cs156.frontiers;
 import java.time.ZonedDateTime;
 import java.util.Optional;
 
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
@@ -32,16 +31,16 @@ import lombok.extern.slf4j.Slf4j;
 // enables automatic population of @CreatedDate and @LastModifiedDate
 public class FrontiersMain {
 
-  @Autowired
-  WiremockService wiremockService;
-
   /**
    * When using the wiremock profile, this method will call the code needed to set
    * up the wiremock services
+   *
+   * @param wiremockService the service that sets up the mocked OAuth provider
+   * @return the runner
    */
   @Profile("wiremock")
   @Bean
-  public ApplicationRunner wiremockApplicationRunner() {
+  public ApplicationRunner wiremockApplicationRunner(WiremockService wiremockService) {
     return arg -> {
       log.info("wiremock mode");
       wiremockService.init();
@@ -1,26 +1,39 @@
 package edu.ucsb.cs156.frontiers.aop;
 
+import edu.ucsb.cs156.frontiers.controllers.FrontendProxyController;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
-import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
-import org.aspectj.lang.annotation.Before;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
-import java.util.ArrayList;
-import java.util.Arrays;
+import java.lang.reflect.Method;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
- * This class is an Aspect that logs all invocations of controller methods that are annotated
+ * This class is an Aspect that times all invocations of controller methods that are annotated
  * with {@code @RequestMapping}, {@code @GetMapping}, {@code @PostMapping}, {@code @PutMapping}, {@code @DeleteMapping},
  * or {@code @PatchMapping}.
- * 
+ *
+ * Each handler's latency is recorded in the {@code frontiers.controller.requests} timer, tagged with the
+ * controller and the handler method. Requests slower than {@code app.logging.slowRequestMs} are logged at WARN;
+ * every other request is only logged at DEBUG.
+ *
  * For more information on Aspect Oriented Programming (AOP)
- * and AspectJ, including what a {@code JoinPoint} is, 
- * refer to <a href="https://www.baeldung.com/aspectj">https://www.baeldung.com/aspectj</a> 
+ * and AspectJ, including what a {@code JoinPoint} is,
+ * refer to <a href="https://www.baeldung.com/aspectj">https://www.baeldung.com/aspectj</a>
  */
 
 
@@ -38,31 +51,62 @@ public class LoggingAspect {
       @annotation(org.springframework.web.bind.annotation.PatchMapping)
       """;
 
-  private ArrayList<String> stoplist = new ArrayList<String>(Arrays.asList(
-      "edu.ucsb.cs156.example.controllers.FrontendProxyController"));
+  private static final Set<String> stoplist = Set.of(FrontendProxyController.class.getName());
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Value("${app.logging.slowRequestMs:1000}")
+  private long slowRequestMs;
+
+  /** one timer per handler method, so that the meter isn't looked up on every request */
+  private final Map<Method, Timer> timers = new ConcurrentHashMap<>();
 
   /**
-   * This method is called before any controller method that is annotated with
+   * This method wraps any controller method that is annotated with
    * {@code @RequestMapping}, {@code @GetMapping}, {@code @PostMapping}, {@code @PutMapping}, {@code @DeleteMapping},
-   * or {@code @PatchMapping}.
+   * or {@code @PatchMapping}, and records how long it took.
    * @param joinPoint the join point (injected by Spring framework)
+   * @return whatever the controller method returns
+   * @throws Throwable whatever the controller method throws
    */
-  @Before(pointcut)
-  public void logControllers(JoinPoint joinPoint) {
-    getCurrentHttpRequest().ifPresent(
-        request -> {
-          String declaringTypeName = joinPoint.getSignature().getDeclaringTypeName();
-          if (!stoplist.contains(declaringTypeName)) {
-            log.info("===== %s %s handled by %s in %s".formatted(request.getMethod(), request.getRequestURI(),
-                joinPoint.getSignature().getName(), declaringTypeName));
-          }
-        });
+  @Around(pointcut)
+  public Object logControllers(ProceedingJoinPoint joinPoint) throws Throwable {
+    String declaringTypeName = joinPoint.getSignature().getDeclaringTypeName();
+    if (stoplist.contains(declaringTypeName)) {
+      return joinPoint.proceed();
+    }
+    long start = System.nanoTime();
+    try {
+      return joinPoint.proceed();
+    } finally {
+      long elapsed = System.nanoTime() - start;
+      Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+      timers.computeIfAbsent(method, this::timer).record(elapsed, TimeUnit.NANOSECONDS);
+      long elapsedMs = TimeUnit.NANOSECONDS.toMillis(elapsed);
+      if (elapsedMs >= slowRequestMs) {
+        getCurrentHttpRequest().ifPresent(request -> log.warn("===== slow request: {} {} handled by {} in {} took {} ms",
+            request.getMethod(), request.getRequestURI(), method.getName(), declaringTypeName, elapsedMs));
+      } else if (log.isDebugEnabled()) {
+        getCurrentHttpRequest().ifPresent(request -> log.debug("===== {} {} handled by {} in {} took {} ms",
+            request.getMethod(), request.getRequestURI(), method.getName(), declaringTypeName, elapsedMs));
+      }
+    }
+  }
+
+  private Timer timer(Method method) {
+    return Timer.builder("frontiers.controller.requests")
+        .description("Time spent in controller handler methods")
+        .tag("controller", method.getDeclaringClass().getSimpleName())
+        .tag("handler", method.getName())
+        .publishPercentileHistogram()
+        .register(meterRegistry);
   }
 
   /**
    * The function `getCurrentHttpRequest` returns an `Optional` containing the current
    * `HttpServletRequest` if available.
-   * 
+   *
    * @return An Optional object containing the current HttpServletRequest, if available.
    */
   private static Optional<HttpServletRequest> getCurrentHttpRequest() {
@@ -0,0 +1,82 @@
+package edu.ucsb.cs156.frontiers.config;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Hibernate's second-level cache, for entities that are read far more often
+ * than they are written (courses, users, admins, instructors), and its query
+ * cache, for the queries that look them up by something other than their id.
+ *
+ * Each cached entity has its own region, a Caffeine cache with the size and
+ * time to live set under {@code app.cache.regions.<region>} in
+ * application.properties. Writes through JPA update the regions in the same
+ * transaction; the time to live bounds how stale a region can get when the
+ * tables are changed some other way (or by another instance of the app).
+ */
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(HibernateCacheConfig.CacheRegions.class)
+public class HibernateCacheConfig {
+
+  /** Sizes and times to live of the cache regions, by region name */
+  @Data
+  @ConfigurationProperties("app.cache")
+  public static class CacheRegions {
+    private Map<String, Region> regions = new LinkedHashMap<>();
+  }
+
+  @Data
+  public static class Region {
+    private long maxSize = 1000;
+    private Duration ttl = Duration.ofMinutes(10);
+  }
+
+  /**
+   * Each application context gets a cache manager of its own, so that two
+   * instances of the app in one JVM (as in the tests) don't share entities.
+   */
+  @Bean
+  public CacheManager hibernateCacheManager(CacheRegions cacheRegions) {
+    CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+        .getCacheManager(URI.create("frontiers-" + UUID.randomUUID()), getClass().getClassLoader());
+    cacheRegions.getRegions().forEach((name, region) -> {
+      CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+      configuration.setMaximumSize(OptionalLong.of(region.getMaxSize()));
+      configuration.setExpireAfterWrite(OptionalLong.of(region.getTtl().toNanos()));
+      cacheManager.createCache(name, configuration);
+      log.info("Cache region {}: at most {} entries, for {}", name, region.getMaxSize(), region.getTtl());
+    });
+    // when each table was last written to, which cached query results are checked against;
+    // it has one entry per table, and must not expire before the query results do
+    cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+        new CaffeineConfiguration<>());
+    return cacheManager;
+  }
+
+  @Bean
+  public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+    return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+  }
+}
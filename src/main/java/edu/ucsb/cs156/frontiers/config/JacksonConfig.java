@@ -0,0 +1,24 @@
+package edu.ucsb.cs156.frontiers.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+
+/**
+ * Speeds up the application's ObjectMapper, which writes every JSON response
+ * (e.g. a course's whole roster) and reads every JSON request.
+ *
+ * Spring Boot registers any Jackson module bean with the ObjectMapper. Blackbird
+ * replaces Jackson's reflective getter, setter and constructor calls with
+ * generated lambdas; the JSON itself doesn't change. See
+ * JsonSerializationBenchmark for its effect on large payloads.
+ */
+@Configuration
+public class JacksonConfig {
+
+  @Bean
+  public BlackbirdModule blackbirdModule() {
+    return new BlackbirdModule();
+  }
+}
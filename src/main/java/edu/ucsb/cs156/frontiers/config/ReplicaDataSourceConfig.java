@@ -0,0 +1,86 @@
+package edu.ucsb.cs156.frontiers.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.liquibase.LiquibaseDataSource;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import edu.ucsb.cs156.frontiers.datasource.ReadFromReplica;
+import edu.ucsb.cs156.frontiers.datasource.ReplicaDataSource;
+import edu.ucsb.cs156.frontiers.datasource.ReplicaLagMonitor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Sends reads in the read-only transactions of {@link ReadFromReplica} methods
+ * to a read replica of the database, when {@code app.datasource.replica.url}
+ * (JDBC_REPLICA_URL) is set.
+ *
+ * The primary and the replica each get a Hikari pool of their own
+ * ({@code spring.datasource.hikari.*} and {@code app.datasource.replica.hikari.*}).
+ * Migrations and everything that writes use the primary. While the replica is
+ * more than {@code app.datasource.replica.maxLagSeconds} behind, or can't be
+ * reached, reads go to the primary too; see {@link ReplicaLagMonitor}.
+ */
+@Configuration
+@ConditionalOnExpression("!'${app.datasource.replica.url:}'.isEmpty()")
+public class ReplicaDataSourceConfig {
+
+  @Bean
+  @LiquibaseDataSource
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+    HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    dataSource.setPoolName("primary");
+    return dataSource;
+  }
+
+  @Bean
+  @ConfigurationProperties("app.datasource.replica.hikari")
+  public HikariDataSource replicaDataSource(
+      @Value("${app.datasource.replica.url}") String url,
+      @Value("${app.datasource.replica.username:}") String username,
+      @Value("${app.datasource.replica.password:}") String password) {
+    HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class)
+        .url(url).username(username).password(password).build();
+    dataSource.setPoolName("replica");
+    dataSource.setReadOnly(true);
+    return dataSource;
+  }
+
+  @Bean
+  public ReplicaLagMonitor replicaLagMonitor(
+      @Qualifier("replicaDataSource") DataSource replicaDataSource,
+      @Value("${app.datasource.replica.lagQuery}") String lagQuery,
+      @Value("${app.datasource.replica.maxLagSeconds:5}") double maxLagSeconds,
+      MeterRegistry meterRegistry) {
+    ReplicaLagMonitor monitor = new ReplicaLagMonitor(replicaDataSource, lagQuery, maxLagSeconds);
+    Gauge.builder("frontiers.datasource.replica.lag", monitor, ReplicaLagMonitor::getLagSeconds)
+        .description("How far behind the primary the read replica was at the last check")
+        .baseUnit("seconds")
+        .register(meterRegistry);
+    Gauge.builder("frontiers.datasource.replica.usable", monitor, m -> m.isUsable() ? 1 : 0)
+        .description("1 while reads go to the read replica, 0 while they go to the primary")
+        .register(meterRegistry);
+    return monitor;
+  }
+
+  @Bean
+  @Primary
+  public DataSource dataSource(
+      @Qualifier("primaryDataSource") DataSource primaryDataSource,
+      @Qualifier("replicaDataSource") DataSource replicaDataSource,
+      ReplicaLagMonitor replicaLagMonitor) {
+    return ReplicaDataSource.routing(primaryDataSource, replicaDataSource, replicaLagMonitor);
+  }
+}
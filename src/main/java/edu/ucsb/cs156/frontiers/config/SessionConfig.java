@@ -0,0 +1,71 @@
+package edu.ucsb.cs156.frontiers.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.BeanClassLoaderAware;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.GenericConversionService;
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.session.config.SessionRepositoryCustomizer;
+import org.springframework.session.jdbc.JdbcIndexedSessionRepository;
+import org.springframework.session.jdbc.config.annotation.web.http.EnableJdbcHttpSession;
+
+import edu.ucsb.cs156.frontiers.sessions.CompressedSessionSerializer;
+import edu.ucsb.cs156.frontiers.sessions.LazySessionRepository;
+
+/**
+ * Keeps HTTP sessions (and so who is signed in) in the database instead of in
+ * the memory of one instance, when {@code app.sessions.store=jdbc}. Any
+ * instance can then serve any request, and restarts don't sign everyone out.
+ *
+ * The tables are created by the Liquibase migrations. Spring Boot's own
+ * session auto-configuration is excluded in application.properties, since it
+ * would otherwise turn the JDBC store on whenever spring-session-jdbc is on
+ * the classpath.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.sessions.store", havingValue = "jdbc")
+@EnableJdbcHttpSession
+public class SessionConfig implements BeanClassLoaderAware {
+
+  private ClassLoader classLoader;
+
+  @Value("${server.servlet.session.timeout:30m}")
+  private Duration timeout;
+
+  @Value("${app.sessions.touchInterval:60s}")
+  private Duration touchInterval;
+
+  @Override
+  public void setBeanClassLoader(ClassLoader classLoader) {
+    this.classLoader = classLoader;
+  }
+
+  /** Session attributes are stored gzip-compressed */
+  @Bean("springSessionConversionService")
+  public ConversionService springSessionConversionService() {
+    CompressedSessionSerializer serializer = new CompressedSessionSerializer(classLoader);
+    GenericConversionService conversionService = new GenericConversionService();
+    conversionService.addConverter(Object.class, byte[].class, new SerializingConverter(serializer));
+    conversionService.addConverter(byte[].class, Object.class, new DeserializingConverter(serializer));
+    return conversionService;
+  }
+
+  @Bean
+  public SessionRepositoryCustomizer<JdbcIndexedSessionRepository> sessionTimeoutCustomizer() {
+    return repository -> repository.setDefaultMaxInactiveInterval(timeout);
+  }
+
+  /** Requests that don't change their session don't write it back */
+  @Bean
+  @Primary
+  public LazySessionRepository<?> lazySessionRepository(JdbcIndexedSessionRepository sessionRepository) {
+    return new LazySessionRepository<>(sessionRepository, touchInterval);
+  }
+}
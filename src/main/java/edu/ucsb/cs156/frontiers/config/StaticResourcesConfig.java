@@ -0,0 +1,35 @@
+package edu.ucsb.cs156.frontiers.config;
+
+import java.time.Duration;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+
+/**
+ * Serves the frontend's bundles (everything under /static/) as immutable.
+ *
+ * The frontend build puts a content hash in the name of every file under
+ * static/, so a given URL never changes and browsers and proxies can keep it
+ * for a year without asking again. The build also writes .br and .gz copies of
+ * them (frontend/scripts/compress.js), which are sent to clients that accept
+ * them instead of compressing on every request.
+ *
+ * index.html is served by {@link edu.ucsb.cs156.frontiers.services.IndexHtmlService};
+ * the other files at the top level (favicon, manifest, ...) by Spring Boot's
+ * default handler, see spring.web.resources.* in application.properties.
+ */
+@Configuration
+public class StaticResourcesConfig implements WebMvcConfigurer {
+
+  @Override
+  public void addResourceHandlers(ResourceHandlerRegistry registry) {
+    registry.addResourceHandler("/static/**")
+        .addResourceLocations("classpath:/public/static/")
+        .setCacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable())
+        .resourceChain(true)
+        .addResolver(new EncodedResourceResolver());
+  }
+}
@@ -4,6 +4,7 @@ package edu.ucsb.cs156.frontiers.controllers;
 import edu.ucsb.cs156.frontiers.entities.Admin;
 import edu.ucsb.cs156.frontiers.errors.EntityNotFoundException;
 import edu.ucsb.cs156.frontiers.repositories.AdminRepository;
+import edu.ucsb.cs156.frontiers.services.UserRolesService.RolesChanged;
 
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -17,6 +18,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -49,6 +51,9 @@ public class AdminsController extends ApiController {
    @Autowired
    AdminRepository adminRepository;
 
+   @Autowired
+   ApplicationEventPublisher eventPublisher;
+
    /**
    * Create a new admin
    * @param adminEmail       the email in typical email format
@@ -63,6 +68,7 @@ public class AdminsController extends ApiController {
       
       Admin admin = new Admin(email);
       Admin savedAdmin = adminRepository.save(admin);
+      eventPublisher.publishEvent(new RolesChanged(email));
       return savedAdmin;
   }
 
@@ -99,6 +105,7 @@ public class AdminsController extends ApiController {
         throw new UnsupportedOperationException("Forbidden to delete an admin from ADMIN_EMAILS list");
       }
        adminRepository.delete(admin);
+       eventPublisher.publishEvent(new RolesChanged(email));
        return genericMessage("Admin with id %s deleted".formatted(email));
    }
 
@@ -20,6 +20,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.security.core.Authentication;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -30,6 +31,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 
+import edu.ucsb.cs156.frontiers.datasource.ReadFromReplica;
 import edu.ucsb.cs156.frontiers.entities.Course;
 import edu.ucsb.cs156.frontiers.entities.RosterStudent;
 import edu.ucsb.cs156.frontiers.entities.User;
@@ -202,6 +204,8 @@ public class CoursesController extends ApiController {
     @Operation(summary = "List all courses for the current student, including their org status")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/list")
+    @Transactional(readOnly = true)
+    @ReadFromReplica
     public List<Map<String, Object>> listCoursesForCurrentUser() {
         String email = getCurrentUser().getUser().getEmail();
         Iterable<RosterStudent> rosterStudentsIterable = rosterStudentRepository.findAllByEmail(email);
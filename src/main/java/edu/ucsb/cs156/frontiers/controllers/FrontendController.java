@@ -3,10 +3,12 @@ package edu.ucsb.cs156.frontiers.controllers;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 
-import edu.ucsb.cs156.frontiers.services.wiremock.WiremockService;
+import edu.ucsb.cs156.frontiers.services.IndexHtmlService;
 
 /**
  * The FrontendController is used to serve the frontend of the application.
@@ -22,16 +24,20 @@ import edu.ucsb.cs156.frontiers.services.wiremock.WiremockService;
 public class FrontendController {
 
   @Autowired
-  WiremockService wiremockService;
+  IndexHtmlService indexHtmlService;
   
   /**
    * Serve home page of application
-   * @return the home page (via index.html)
+   * @param ifNoneMatch the ETag of the copy the browser already has, if any
+   * @param acceptEncoding the encodings the browser accepts
+   * @return the home page (index.html, from memory)
    */
 
-  @GetMapping("/**/{path:[^\\.]*}")
-  public String index() {
-    return "forward:/index.html";
+  @GetMapping({"/", "/index.html", "/**/{path:[^\\.]*}"})
+  public ResponseEntity<byte[]> index(
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+    return indexHtmlService.response(ifNoneMatch, acceptEncoding);
   }
 
   /**
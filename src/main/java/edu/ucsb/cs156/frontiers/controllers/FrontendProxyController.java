@@ -1,6 +1,5 @@
 package edu.ucsb.cs156.frontiers.controllers;
 
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cloud.gateway.mvc.ProxyExchange;
 import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
@@ -8,8 +7,6 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.client.ResourceAccessException;
 
-import edu.ucsb.cs156.frontiers.services.wiremock.WiremockService;
-
 import java.net.ConnectException;
 
 /**
@@ -27,9 +24,6 @@ import java.net.ConnectException;
 @RestController
 public class FrontendProxyController {
 
-  @Autowired
-  WiremockService wiremockService;
-  
   /**
    * This method proxies requests to the frontend server.  It is only used in development.
    * The regular expression is used to exclude the paths that should NOT be proxied to the
@@ -0,0 +1,36 @@
+package edu.ucsb.cs156.frontiers.controllers;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import edu.ucsb.cs156.frontiers.models.GithubRateLimitStatus;
+import edu.ucsb.cs156.frontiers.services.GithubRateLimitGovernor;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+/**
+ * This is a REST controller for monitoring how much of its GitHub API budget
+ * each app installation has left.
+ *
+ * @see edu.ucsb.cs156.frontiers.services.GithubRateLimitGovernor
+ */
+@Tag(name = "GitHub Rate Limits")
+@RequestMapping("/api/github/ratelimit")
+@RestController
+public class GithubRateLimitController extends ApiController {
+
+  @Autowired
+  private GithubRateLimitGovernor governor;
+
+  @Operation(summary = "Get the remaining GitHub API budget of each installation")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @GetMapping("")
+  public List<GithubRateLimitStatus> getStatus() {
+    return governor.getStatus();
+  }
+}
@@ -4,8 +4,10 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 
 import edu.ucsb.cs156.frontiers.entities.Instructor;
 import edu.ucsb.cs156.frontiers.repositories.InstructorRepository;
+import edu.ucsb.cs156.frontiers.services.UserRolesService.RolesChanged;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -36,6 +38,9 @@ public class InstructorsController extends ApiController {
     @Autowired
     ObjectMapper mapper;
 
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
     /**
      * Create a new Instructor, available only to Admins.
      * 
@@ -51,6 +56,7 @@ public class InstructorsController extends ApiController {
                 .email(email)
                 .build();
         instructorRepository.save(instructor);
+        eventPublisher.publishEvent(new RolesChanged(email));
         return instructor;
     }
 
@@ -83,6 +89,7 @@ public class InstructorsController extends ApiController {
         }
 
         instructorRepository.delete(instructor);
+        eventPublisher.publishEvent(new RolesChanged(email));
         return ResponseEntity.status(200).body(String.format("Instructor with email %s deleted.", email));
     }
 }
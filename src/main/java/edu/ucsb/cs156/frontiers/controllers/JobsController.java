@@ -3,27 +3,44 @@ package edu.ucsb.cs156.frontiers.controllers;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import edu.ucsb.cs156.frontiers.datasource.ReadFromReplica;
 import edu.ucsb.cs156.frontiers.entities.Job;
 import edu.ucsb.cs156.frontiers.errors.EntityNotFoundException;
 import edu.ucsb.cs156.frontiers.jobs.TestJob;
 import edu.ucsb.cs156.frontiers.jobs.UpdateAllJob;
+import edu.ucsb.cs156.frontiers.models.JobProgress;
+import edu.ucsb.cs156.frontiers.models.JobRetentionStats;
+import edu.ucsb.cs156.frontiers.models.JobSummary;
+import edu.ucsb.cs156.frontiers.models.JobSummaryPage;
 import edu.ucsb.cs156.frontiers.repositories.JobsRepository;
 import edu.ucsb.cs156.frontiers.services.UpdateUserService;
+import edu.ucsb.cs156.frontiers.services.jobs.JobRetentionService;
 import edu.ucsb.cs156.frontiers.services.jobs.JobService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @Tag(name = "Jobs")
 @RequestMapping("/api/jobs")
@@ -34,16 +51,40 @@ public class JobsController extends ApiController {
 
   @Autowired private JobService jobService;
 
+  @Autowired private JobRetentionService jobRetentionService;
+
   @Autowired private UpdateUserService updateUserService; 
   
   @Autowired ObjectMapper mapper;
 
-  @Operation(summary = "List all jobs")
+  public static final int DEFAULT_PAGE_SIZE = 50;
+  public static final int MAX_PAGE_SIZE = 200;
+
+  /**
+   * Lists jobs newest first, one page at a time. Logs are not included; use
+   * {@code /api/jobs/logs/{id}} to fetch the log of a single job.
+   *
+   * @param before cursor returned as {@code nextCursor} by the previous page (omit for the first page)
+   * @param size number of jobs per page (capped at {@value #MAX_PAGE_SIZE})
+   * @param status only list jobs with this status
+   * @param createdById only list jobs launched by the user with this id
+   * @return a page of job summaries
+   */
+  @Operation(summary = "List jobs (newest first, without logs)")
   @PreAuthorize("hasRole('ROLE_ADMIN')")
   @GetMapping("/all")
-  public Iterable<Job> allJobs() {
-    Iterable<Job> jobs = jobsRepository.findAll();
-    return jobs;
+  @Transactional(readOnly = true)
+  @ReadFromReplica
+  public JobSummaryPage allJobs(
+      @Parameter(name = "before", description = "nextCursor from the previous page") @RequestParam Optional<Long> before,
+      @Parameter(name = "size", description = "page size") @RequestParam Optional<Integer> size,
+      @Parameter(name = "status", description = "e.g. running, complete, error") @RequestParam Optional<String> status,
+      @Parameter(name = "createdById", description = "id of the user that launched the job") @RequestParam Optional<Long> createdById) {
+    int pageSize = Math.min(Math.max(size.orElse(DEFAULT_PAGE_SIZE), 1), MAX_PAGE_SIZE);
+    List<JobSummary> jobs = jobsRepository.findSummaries(
+        status.orElse(null), createdById.orElse(null), before.orElse(null), PageRequest.of(0, pageSize));
+    Long nextCursor = jobs.size() == pageSize ? jobs.getLast().getId() : null;
+    return JobSummaryPage.builder().jobs(jobs).nextCursor(nextCursor).build();
   }
 
   @Operation(summary = "Delete all job records")
@@ -54,7 +95,14 @@ public class JobsController extends ApiController {
     return Map.of("message", "All jobs deleted");
   }
 
-  @Operation(summary = "Get a specific Job Log by ID if it is in the database")
+  @Operation(summary = "Get what the job retention policy has reclaimed since startup")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @GetMapping("/retention")
+  public JobRetentionStats retentionStats() {
+    return jobRetentionService.getStats();
+  }
+
+  @Operation(summary = "Get a specific Job by ID if it is in the database, without its log (see /api/jobs/logs/{id})")
   @PreAuthorize("hasRole('ROLE_ADMIN')")
   @GetMapping("")
   public Job getJobLogById(
@@ -78,6 +126,23 @@ public class JobsController extends ApiController {
     return Map.of("message", String.format("Job with id %d deleted", id));
   }
 
+  @Operation(summary = "Get the progress of a job (units done/total, failures, throughput and ETA)")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @GetMapping("/progress/{id}")
+  public JobProgress getJobProgress(@Parameter(name = "id", description = "Job ID") @PathVariable Long id) {
+    return jobService.getProgress(id);
+  }
+
+  @Operation(summary = "Cancel a running job")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @PostMapping("/cancel/{id}")
+  public Map<String, String> cancelJob(@Parameter(name = "id", description = "Job ID") @PathVariable Long id) {
+    if (!jobService.cancelJob(id)) {
+      return Map.of("message", String.format("Job with id %d is not running", id));
+    }
+    return Map.of("message", String.format("Job with id %d is being cancelled", id));
+  }
+
   @Operation(summary = "Launch Test Job (click fail if you want to test exception handling)")
   @PreAuthorize("hasRole('ROLE_ADMIN')")
   @PostMapping("/launch/testjob")
@@ -93,9 +158,39 @@ public class JobsController extends ApiController {
   @Operation(summary = "Get long job logs")
   @PreAuthorize("hasRole('ROLE_ADMIN')")
   @GetMapping("/logs/{id}")
-  public String getJobLogs(@Parameter(name = "id", description = "Job ID") @PathVariable Long id) {
+  public ResponseEntity<StreamingResponseBody> getJobLogs(
+      @Parameter(name = "id", description = "Job ID") @PathVariable Long id) throws IOException {
+    InputStream log = jobService.openJobLog(id);
+    StreamingResponseBody stream = (outputStream) -> {
+      try (log) {
+        log.transferTo(outputStream);
+      }
+    };
+    return ResponseEntity.ok()
+        .contentType(MediaType.parseMediaType("text/plain; charset=UTF-8"))
+        .body(stream);
+  }
 
-    return jobService.getJobLogs(id);
+  /**
+   * Streams a job's log as Server-Sent Events: one {@code log} event per line
+   * (with the line number as the event id) and a {@code status} event with the
+   * job's status. For a running job the stream stays open and new lines are
+   * pushed as they are logged, until the job finishes.
+   *
+   * @param id job id
+   * @param lastEventId line number of the last line already received; sent
+   *     automatically by EventSource when it reconnects
+   * @param offset same as lastEventId, for the first connection
+   * @return the event stream
+   */
+  @Operation(summary = "Stream job log lines and status changes (Server-Sent Events)")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @GetMapping("/stream/{id}")
+  public SseEmitter streamJob(
+      @Parameter(name = "id", description = "Job ID") @PathVariable Long id,
+      @Parameter(hidden = true) @RequestHeader(value = "Last-Event-ID", required = false) Optional<Long> lastEventId,
+      @Parameter(name = "offset", description = "number of log lines already received") @RequestParam Optional<Long> offset) {
+    return jobService.streamJob(id, lastEventId.orElse(offset.orElse(0L)));
   }
 
   @Operation(summary = "Launch UpdateAll job")
@@ -3,6 +3,7 @@ package edu.ucsb.cs156.frontiers.controllers;
 
 import edu.ucsb.cs156.frontiers.entities.Course;
 import edu.ucsb.cs156.frontiers.entities.Job;
+import edu.ucsb.cs156.frontiers.enums.RepositoryAccessMode;
 import edu.ucsb.cs156.frontiers.errors.EntityNotFoundException;
 import edu.ucsb.cs156.frontiers.errors.NoLinkedOrganizationException;
 import edu.ucsb.cs156.frontiers.jobs.CreateStudentRepositoriesJob;
@@ -11,6 +12,7 @@ import edu.ucsb.cs156.frontiers.services.RepositoryService;
 import edu.ucsb.cs156.frontiers.services.jobs.JobService;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -35,18 +37,25 @@ public class RepositoryController extends ApiController {
     @Autowired
     CourseRepository courseRepository;
 
+    @Value("${app.github.repos.concurrency:4}")
+    int concurrency;
+
 
     /**
     * Fires a job that creates a repo for every RosterStudent with a linked user with a GitHub account.
     * @param courseId ID of course to create repos for
     * @param repoPrefix each repo created will begin with this prefix, followed by a dash and the student's GitHub username
     * @param isPrivate determines whether the repository being created is private
+    * @param accessMode how students are given access to their repos: as collaborators (the default) or through a team of their own
+    * @param templateRepo template repository to generate each repo from, as "owner/repo", or just "repo" for one in the course's organization
     *
     * @return the {@link edu.ucsb.cs156.frontiers.entities.Job Job} started to create the repos.
     */
     @PostMapping("/createRepos")
     @PreAuthorize("hasRole('ROLE_PROFESSOR')")
-    public Job createRepos(@RequestParam Long courseId, @RequestParam String repoPrefix, @RequestParam Optional<Boolean> isPrivate) {
+    public Job createRepos(@RequestParam Long courseId, @RequestParam String repoPrefix, @RequestParam Optional<Boolean> isPrivate,
+                           @RequestParam Optional<RepositoryAccessMode> accessMode,
+                           @RequestParam Optional<String> templateRepo) {
         Course course = courseRepository.findById(courseId).orElseThrow(() -> new EntityNotFoundException(Course.class, courseId));
         if (getCurrentUser().getUser().getId() == course.getCreator().getId()) {
             if (course.getOrgName() == null || course.getInstallationId() == null) {
@@ -55,6 +64,12 @@ public class RepositoryController extends ApiController {
                 CreateStudentRepositoriesJob job = CreateStudentRepositoriesJob.builder()
                         .repositoryPrefix(repoPrefix)
                         .isPrivate(isPrivate.orElse(false))
+                        .accessMode(accessMode.orElse(RepositoryAccessMode.COLLABORATOR))
+                        .templateRepository(templateRepo
+                                .filter(template -> !template.isBlank())
+                                .map(template -> template.contains("/") ? template : course.getOrgName() + "/" + template)
+                                .orElse(null))
+                        .concurrency(concurrency)
                         .repositoryService(repositoryService)
                         .course(course)
                         .build();
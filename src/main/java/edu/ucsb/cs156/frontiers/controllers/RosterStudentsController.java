@@ -10,6 +10,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
+import edu.ucsb.cs156.frontiers.datasource.ReadFromReplica;
 import edu.ucsb.cs156.frontiers.entities.Job;
 import edu.ucsb.cs156.frontiers.entities.User;
 import edu.ucsb.cs156.frontiers.errors.NoLinkedOrganizationException;
@@ -116,6 +117,8 @@ public class RosterStudentsController extends ApiController {
     @Operation(summary = "List all roster students for a course")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @GetMapping("/course")
+    @Transactional(readOnly = true)
+    @ReadFromReplica
     public Iterable<RosterStudent> rosterStudentForCourse(
             @Parameter(name = "courseId") @RequestParam Long courseId) throws EntityNotFoundException {
         courseRepository.findById(courseId).orElseThrow(() -> new EntityNotFoundException(Course.class, courseId));
@@ -1,14 +1,25 @@
 package edu.ucsb.cs156.frontiers.controllers;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.annotation.PostConstruct;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import edu.ucsb.cs156.frontiers.models.SystemInfo;
 import edu.ucsb.cs156.frontiers.services.SystemInfoService;
 
@@ -33,15 +44,51 @@ public class SystemInfoController extends ApiController {
     @Autowired
     private SystemInfoService systemInfoService;
 
+    @Autowired
+    private ObjectMapper mapper;
+
+    /** System information and its JSON, worked out once */
+    record SerializedSystemInfo(SystemInfo systemInfo, byte[] json, String etag) {
+    }
+
+    private volatile SerializedSystemInfo serialized;
+
+    @PostConstruct
+    void serialize() throws JsonProcessingException {
+        serialized = serialize(systemInfoService.getSystemInfo());
+    }
+
+    private SerializedSystemInfo serialize(SystemInfo systemInfo) throws JsonProcessingException {
+        byte[] json = mapper.writeValueAsBytes(systemInfo);
+        return new SerializedSystemInfo(systemInfo, json, "\"" + DigestUtils.md5DigestAsHex(json) + "\"");
+    }
+
     /**
      * This method returns the system information.
+     *
+     * The JSON is made once, when the app starts, and has an ETag, so a browser
+     * that already has it gets 304 Not Modified.
+     *
      * @return the system information
+     * @throws JsonProcessingException if the system information can't be serialized
      */
 
     @Operation(summary = "Get global information about the application")
+    @ApiResponse(responseCode = "200", content = @Content(mediaType = "application/json", schema = @Schema(implementation = SystemInfo.class)))
     @GetMapping("")
-    public SystemInfo getSystemInfo() {
-        return systemInfoService.getSystemInfo();
+    public ResponseEntity<byte[]> getSystemInfo() throws JsonProcessingException {
+        SystemInfo systemInfo = systemInfoService.getSystemInfo();
+        SerializedSystemInfo current = serialized;
+        if (current.systemInfo() != systemInfo) {
+            // SystemInfoServiceImpl always returns the same object; this is for other implementations
+            current = serialize(systemInfo);
+            serialized = current;
+        }
+        return ResponseEntity.ok()
+            .eTag(current.etag())
+            .cacheControl(CacheControl.noCache())
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(current.json());
     }
 
-}
\ No newline at end of file
+}
@@ -1,14 +1,23 @@
 package edu.ucsb.cs156.frontiers.controllers;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpSession;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+
 import edu.ucsb.cs156.frontiers.models.CurrentUser;
+import edu.ucsb.cs156.frontiers.services.CurrentUserResponseCache;
 
 /**
  * This is a REST controller for getting information about the current user.
@@ -18,16 +27,26 @@ import edu.ucsb.cs156.frontiers.models.CurrentUser;
 @RequestMapping("/api/currentUser")
 @RestController
 public class UserInfoController extends ApiController {
+
+  @Autowired
+  private CurrentUserResponseCache currentUserResponseCache;
  
   /**
    * This method returns the current user.
+   *
+   * The response is kept in the session (see CurrentUserResponseCache) and has
+   * an ETag, so a browser that already has it gets 304 Not Modified.
+   *
+   * @param session the current user's session
    * @return the current user
+   * @throws JsonProcessingException if the user can't be serialized
    */
 
   @Operation(summary= "Get information about current user")
+  @ApiResponse(responseCode = "200", content = @Content(mediaType = "application/json", schema = @Schema(implementation = CurrentUser.class)))
   @PreAuthorize("hasRole('ROLE_USER')")
   @GetMapping("")
-  public CurrentUser getCurrentUser() {
-    return super.getCurrentUser();
+  public ResponseEntity<byte[]> getCurrentUser(HttpSession session) throws JsonProcessingException {
+    return currentUserResponseCache.response(session);
   }
 }
@@ -10,6 +10,7 @@ import edu.ucsb.cs156.frontiers.enums.OrgStatus;
 import edu.ucsb.cs156.frontiers.repositories.CourseRepository;
 import edu.ucsb.cs156.frontiers.repositories.RosterStudentRepository;
 import edu.ucsb.cs156.frontiers.repositories.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -29,10 +30,13 @@ public class WebhookController {
 
     private final CourseRepository courseRepository;
     private final RosterStudentRepository rosterStudentRepository;
+    private final MeterRegistry meterRegistry;
 
-    public WebhookController(CourseRepository courseRepository, RosterStudentRepository rosterStudentRepository) {
+    public WebhookController(CourseRepository courseRepository, RosterStudentRepository rosterStudentRepository,
+            MeterRegistry meterRegistry) {
         this.courseRepository = courseRepository;
         this.rosterStudentRepository = rosterStudentRepository;
+        this.meterRegistry = meterRegistry;
     }
 
     /**
@@ -43,10 +47,10 @@ public class WebhookController {
     */
     @PostMapping("/github")
     public ResponseEntity<String> createGitHubWebhook(@RequestBody JsonNode jsonBody) throws JsonProcessingException {
-        log.info("Received GitHub webhook: {}", jsonBody.toString());
+        log.debug("Received GitHub webhook: {}", jsonBody);
 
         if(!jsonBody.has("action")){
-            return ResponseEntity.ok().body("success");
+            return success("none", "ignored");
         }
         
         String action = jsonBody.get("action").asText();
@@ -54,7 +58,7 @@ public class WebhookController {
         
         // Early return if not an action we care about
         if(!action.equals("member_added") && !action.equals("member_invited")) {
-            return ResponseEntity.ok().body("success");
+            return success(action, "ignored");
         }
         
         // Extract GitHub login based on payload structure
@@ -68,7 +72,7 @@ public class WebhookController {
                 !jsonBody.get("membership").get("user").has("login") ||
                 !jsonBody.has("installation") || 
                 !jsonBody.get("installation").has("id")) {
-                return ResponseEntity.ok().body("success");
+                return success(action, "malformed");
             }
             
             githubLogin = jsonBody.get("membership").get("user").get("login").asText();
@@ -80,7 +84,7 @@ public class WebhookController {
                 !jsonBody.get("user").has("login") || 
                 !jsonBody.has("installation") || 
                 !jsonBody.get("installation").has("id")) {
-                return ResponseEntity.ok().body("success");
+                return success(action, "malformed");
             }
             
             githubLogin = jsonBody.get("user").get("login").asText();
@@ -94,7 +98,7 @@ public class WebhookController {
         
         if(!course.isPresent()){
             log.warn("No course found with installation ID: {}", installationId);
-            return ResponseEntity.ok().body("success");
+            return success(action, "unknown_course");
         }
         
         Optional<RosterStudent> student = rosterStudentRepository.findByCourseAndGithubLogin(course.get(), githubLogin);
@@ -102,7 +106,7 @@ public class WebhookController {
         
         if(!student.isPresent()){
             log.warn("No student found with GitHub login: {} in course: {}", githubLogin, course.get().getCourseName());
-            return ResponseEntity.ok().body("success");
+            return success(action, "unknown_student");
         }
         
         RosterStudent updatedStudent = student.get();
@@ -119,6 +123,24 @@ public class WebhookController {
         
         rosterStudentRepository.save(updatedStudent);
         log.info("Student saved with new org status: {}", updatedStudent.getOrgStatus());
+        countEvent(action, "updated");
         return ResponseEntity.ok(updatedStudent.toString());
     }
+
+    private ResponseEntity<String> success(String action, String outcome) {
+        countEvent(action, outcome);
+        return ResponseEntity.ok().body("success");
+    }
+
+    /**
+     * Counts the webhook in frontiers.webhook.events, tagged with its action and
+     * what came of it: ignored, malformed, unknown_course, unknown_student or updated.
+     * The action comes from the unauthenticated request body, so every action other
+     * than member_added and member_invited is tagged as other, to keep the number
+     * of counters bounded.
+     */
+    private void countEvent(String action, String outcome) {
+        String actionTag = action.equals("member_added") || action.equals("member_invited") ? action : "other";
+        meterRegistry.counter("frontiers.webhook.events", "action", actionTag, "outcome", outcome).increment();
+    }
 }
@@ -0,0 +1,22 @@
+package edu.ucsb.cs156.frontiers.datasource;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Lets the reads of a {@code @Transactional(readOnly = true)} method be served
+ * by the read replica, when one is configured. Read-only transactions without
+ * it, including Spring Data's finders, read from the primary, so that they see
+ * the writes made just before them.
+ *
+ * Only put it on methods that can show data a little out of date, by at most
+ * the replica's lag.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReadFromReplica {
+}
@@ -0,0 +1,78 @@
+package edu.ucsb.cs156.frontiers.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Where read-only transactions get their connections: the read replica for
+ * those in a {@link ReadFromReplica} method, or the primary for all others and
+ * while the replica is too far behind or can't be reached.
+ *
+ * Use {@link #routing} to get the data source the app itself uses.
+ */
+public class ReplicaDataSource extends DelegatingDataSource {
+
+  private final DataSource primary;
+  private final ReplicaLagMonitor monitor;
+
+  /**
+   * @param replica the replica's connection pool
+   * @param primary the primary's connection pool
+   * @param monitor tells whether the replica can be used
+   */
+  public ReplicaDataSource(DataSource replica, DataSource primary, ReplicaLagMonitor monitor) {
+    super(replica);
+    this.primary = primary;
+    this.monitor = monitor;
+  }
+
+  /**
+   * A data source that hands out connections from the primary, except in
+   * read-only transactions ({@code @Transactional(readOnly = true)}) of
+   * {@link ReadFromReplica} methods, which read from the replica while it is
+   * usable.
+   *
+   * Connections are only taken from a pool once the first statement runs, by
+   * when the transaction manager has marked read-only transactions' connections
+   * as read-only.
+   *
+   * @param primary the primary's connection pool
+   * @param replica the replica's connection pool
+   * @param monitor tells whether the replica can be used
+   * @return the routing data source
+   */
+  public static DataSource routing(DataSource primary, DataSource replica, ReplicaLagMonitor monitor) {
+    LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+    dataSource.setReadOnlyDataSource(new ReplicaDataSource(replica, primary, monitor));
+    return dataSource;
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    if (ReplicaRouting.isRequested() && monitor.isUsable()) {
+      try {
+        return super.getConnection();
+      } catch (SQLException e) {
+        monitor.markUnavailable(e);
+      }
+    }
+    return primary.getConnection();
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    if (ReplicaRouting.isRequested() && monitor.isUsable()) {
+      try {
+        return super.getConnection(username, password);
+      } catch (SQLException e) {
+        monitor.markUnavailable(e);
+      }
+    }
+    return primary.getConnection(username, password);
+  }
+}
@@ -0,0 +1,83 @@
+package edu.ucsb.cs156.frontiers.datasource;
+
+import javax.sql.DataSource;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps track of whether the read replica can serve reads: it has to answer,
+ * and be no more than {@code maxLagSeconds} behind the primary.
+ *
+ * Until the first check, and whenever a check fails, the replica is not used.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+  private final JdbcTemplate replica;
+  private final String lagQuery;
+  private final double maxLagSeconds;
+
+  private volatile boolean usable;
+
+  /** How far behind the primary the replica was at the last check, or NaN if it didn't answer */
+  @Getter
+  private volatile double lagSeconds = Double.NaN;
+
+  /**
+   * @param replica the replica's connection pool
+   * @param lagQuery a query returning how many seconds behind the primary the replica is
+   * @param maxLagSeconds how far behind the replica may be and still serve reads
+   */
+  public ReplicaLagMonitor(DataSource replica, String lagQuery, double maxLagSeconds) {
+    this.replica = new JdbcTemplate(replica);
+    this.lagQuery = lagQuery;
+    this.maxLagSeconds = maxLagSeconds;
+  }
+
+  /** @return whether reads can go to the replica */
+  public boolean isUsable() {
+    return usable;
+  }
+
+  /** Asks the replica how far behind it is */
+  @Scheduled(fixedDelayString = "${app.datasource.replica.checkIntervalMs:5000}")
+  public void check() {
+    Double lag;
+    try {
+      lag = replica.queryForObject(lagQuery, Double.class);
+    } catch (DataAccessException e) {
+      markUnavailable(e);
+      return;
+    }
+    lagSeconds = lag == null ? 0 : lag;
+    if (lagSeconds <= maxLagSeconds) {
+      if (!usable) {
+        log.info("Read replica is {}s behind; reading from it", lagSeconds);
+      }
+      usable = true;
+    } else {
+      if (usable) {
+        log.warn("Read replica is {}s behind (more than {}s); reading from the primary", lagSeconds, maxLagSeconds);
+      }
+      usable = false;
+    }
+  }
+
+  /**
+   * Stops reads going to the replica until the next successful check.
+   *
+   * @param e why the replica can't be used
+   */
+  public void markUnavailable(Exception e) {
+    if (usable) {
+      log.warn("Read replica is unavailable; reading from the primary: {}", e.getMessage());
+    }
+    usable = false;
+    lagSeconds = Double.NaN;
+  }
+}
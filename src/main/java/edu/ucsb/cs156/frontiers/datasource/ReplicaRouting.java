@@ -0,0 +1,45 @@
+package edu.ucsb.cs156.frontiers.datasource;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Remembers, for the current thread, whether it is running a
+ * {@link ReadFromReplica} method, and so whether {@link ReplicaDataSource} may
+ * hand it a connection to the replica.
+ */
+@Aspect
+@Component
+public class ReplicaRouting {
+
+  private static final ThreadLocal<Boolean> REQUESTED = ThreadLocal.withInitial(() -> false);
+
+  /**
+   * @return whether the current thread's read-only transactions may read from the replica
+   */
+  public static boolean isRequested() {
+    return REQUESTED.get();
+  }
+
+  /**
+   * @param requested whether the current thread's read-only transactions may read from the replica
+   * @return whether they could before
+   */
+  static boolean setRequested(boolean requested) {
+    boolean previous = REQUESTED.get();
+    REQUESTED.set(requested);
+    return previous;
+  }
+
+  @Around("@annotation(edu.ucsb.cs156.frontiers.datasource.ReadFromReplica)")
+  public Object readFromReplica(ProceedingJoinPoint joinPoint) throws Throwable {
+    boolean previous = setRequested(true);
+    try {
+      return joinPoint.proceed();
+    } finally {
+      setRequested(previous);
+    }
+  }
+}
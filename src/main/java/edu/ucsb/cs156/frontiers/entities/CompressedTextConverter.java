@@ -0,0 +1,99 @@
+package edu.ucsb.cs156.frontiers.entities;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores text in a binary column, gzip-compressing it once it is longer than
+ * {@link #COMPRESSION_THRESHOLD} bytes.
+ *
+ * Short text is stored as plain UTF-8. A stored value is known to be compressed
+ * when it starts with the gzip magic number, which can never begin valid UTF-8,
+ * so both forms can live in the same column and are read back transparently.
+ */
+@Converter
+public class CompressedTextConverter implements AttributeConverter<String, byte[]> {
+  /** Text up to this many UTF-8 bytes is stored uncompressed */
+  public static final int COMPRESSION_THRESHOLD = 1024;
+
+  @Override
+  public byte[] convertToDatabaseColumn(String text) {
+    if (text == null) {
+      return null;
+    }
+    byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+    return utf8.length <= COMPRESSION_THRESHOLD ? utf8 : gzip(utf8);
+  }
+
+  @Override
+  public String convertToEntityAttribute(byte[] stored) {
+    if (stored == null) {
+      return null;
+    }
+    try (InputStream in = open(stored)) {
+      return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Opens a stored value for reading, decompressing it on the fly if needed.
+   *
+   * @param stored the value as stored in the database; may be null
+   * @return a stream of the UTF-8 bytes of the text (empty if stored is null)
+   * @throws IOException if the compressed value is corrupt
+   */
+  public static InputStream open(byte[] stored) throws IOException {
+    if (stored == null) {
+      return InputStream.nullInputStream();
+    }
+    InputStream in = new ByteArrayInputStream(stored);
+    return isCompressed(stored) ? new GZIPInputStream(in) : in;
+  }
+
+  /**
+   * @param text text to store
+   * @return number of bytes the text takes up once stored
+   */
+  public static long storedSize(String text) {
+    byte[] stored = new CompressedTextConverter().convertToDatabaseColumn(text);
+    return stored == null ? 0 : stored.length;
+  }
+
+  static boolean isCompressed(byte[] stored) {
+    return stored.length >= 2
+        && (stored[0] & 0xff) == (GZIPInputStream.GZIP_MAGIC & 0xff)
+        && (stored[1] & 0xff) == (GZIPInputStream.GZIP_MAGIC >> 8);
+  }
+
+  private static byte[] gzip(byte[] utf8) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(utf8.length / 4);
+    gzip(utf8, out);
+    return out.toByteArray();
+  }
+
+  static void gzip(byte[] utf8, OutputStream out) {
+    // logs are rewritten on every line, so favor speed over ratio
+    try (GZIPOutputStream gz = new GZIPOutputStream(out) {
+      {
+        def.setLevel(Deflater.BEST_SPEED);
+      }
+    }) {
+      gz.write(utf8);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
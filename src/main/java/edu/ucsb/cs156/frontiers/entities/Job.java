@@ -30,10 +30,18 @@ public class Job {
 
   private String status;
 
-  // 1048576 is 2^20, which is the max size of a mediumtext in MySQL
-  @Column(
-      columnDefinition = "TEXT",
-      length = 1048576) // needed for long strings, i.e. log entries longer than 255
-  // characters
+  // structured progress, reported through JobContext; progressTotal is null
+  // for jobs that don't report progress
+  private Integer progressTotal;
+  private int progressDone;
+  private int progressFailed;
+  private ZonedDateTime progressStartedAt;
+
+  // stored gzip-compressed once it grows past 1 KiB; see CompressedTextConverter.
+  // Left out of JSON, so that a job's log is only sent by /api/jobs/logs/{id}
+  // and the job's event stream
+  @JsonIgnore
+  @Convert(converter = CompressedTextConverter.class)
+  @Column(name = "log_data")
   private String log;
 }
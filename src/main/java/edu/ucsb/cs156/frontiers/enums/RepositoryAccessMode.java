@@ -0,0 +1,12 @@
+package edu.ucsb.cs156.frontiers.enums;
+
+/**
+ * How students are given access to the repositories created for them.
+ *
+ * COLLABORATOR adds the student to each repository, which sends an invitation
+ * per repository. TEAM gives each student a team of their own, created once,
+ * and grants that team access to each repository; no invitations are sent.
+ */
+public enum RepositoryAccessMode {
+    COLLABORATOR, TEAM
+}
@@ -0,0 +1,16 @@
+package edu.ucsb.cs156.frontiers.errors;
+
+/**
+ * Thrown when GitHub answers a GraphQL query with errors other than missing
+ * objects.
+ */
+public class GithubGraphQLException extends RuntimeException {
+    /**
+     * Constructor for the exception
+     *
+     * @param message the messages of the errors GitHub returned
+     */
+    public GithubGraphQLException(String message) {
+        super("GitHub GraphQL query failed: " + message);
+    }
+}
@@ -3,26 +3,179 @@ package edu.ucsb.cs156.frontiers.jobs;
 import edu.ucsb.cs156.frontiers.entities.Course;
 import edu.ucsb.cs156.frontiers.entities.RosterStudent;
 import edu.ucsb.cs156.frontiers.enums.OrgStatus;
+import edu.ucsb.cs156.frontiers.enums.RepositoryAccessMode;
 import edu.ucsb.cs156.frontiers.services.RepositoryService;
+import edu.ucsb.cs156.frontiers.services.jobs.FailureCategory;
+import edu.ucsb.cs156.frontiers.services.jobs.JobCancelledException;
 import edu.ucsb.cs156.frontiers.services.jobs.JobContext;
 import edu.ucsb.cs156.frontiers.services.jobs.JobContextConsumer;
+import edu.ucsb.cs156.frontiers.services.jobs.RetryPolicy;
 import lombok.Builder;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Creates a repository for each student in a course who is a member of the
+ * course's organization.
+ *
+ * When the repository service can look repositories up in bulk (over
+ * GraphQL), students whose repositories already exist are skipped up front
+ * instead of being checked one request at a time.
+ *
+ * In {@link RepositoryAccessMode#TEAM TEAM} mode, the organization's teams
+ * are listed once, each student's team is created the first time it is
+ * needed, and new repositories are granted to the student's team instead of
+ * inviting the student as a collaborator.
+ *
+ * Repositories are empty, or generated from a template repository. Up to
+ * {@code concurrency} students are processed at once, on threads that are
+ * kept for the whole run, retries included; requests are paced by
+ * the GitHub rate limit governor, and outcomes are handled in roster order
+ * as they complete.
+ *
+ * A failure for one student does not stop the job. Failures that may go away
+ * (rate limits, 5xx responses, network errors) are queued and retried with
+ * exponential backoff according to the {@link RetryPolicy}; the rest, and
+ * those that run out of attempts, are logged and summarized by category at the
+ * end.
+ */
 @Builder
 public class CreateStudentRepositoriesJob implements JobContextConsumer {
     Course course;
     RepositoryService repositoryService;
     String repositoryPrefix;
     Boolean isPrivate;
+    @Builder.Default
+    RepositoryAccessMode accessMode = RepositoryAccessMode.COLLABORATOR;
+    /** "owner/repo" of a template to generate the repositories from, or null for empty repositories */
+    String templateRepository;
+    @Builder.Default
+    int concurrency = 1;
+    @Builder.Default
+    RetryPolicy retryPolicy = RetryPolicy.DEFAULT;
 
     @Override
     public void accept(JobContext ctx) throws Exception {
         ctx.log("Processing...");
-        for(RosterStudent student : course.getRosterStudents()){
-            if(student.getGithubLogin() != null && student.getOrgStatus() == OrgStatus.MEMBER){
-                repositoryService.createStudentRepository(course, student, repositoryPrefix, isPrivate);
+        List<RosterStudent> students = course.getRosterStudents().stream()
+                .filter(student -> student.getGithubLogin() != null && student.getOrgStatus() == OrgStatus.MEMBER)
+                .toList();
+        ctx.startProgress(students.size());
+        Optional<Set<String>> existing = findExistingRepositories(ctx, students);
+        Set<String> teams = ConcurrentHashMap.newKeySet();
+        if(accessMode == RepositoryAccessMode.TEAM){
+            teams.addAll(repositoryService.findTeamSlugs(course));
+        }
+        Map<FailureCategory, List<String>> failures = new EnumMap<>(FailureCategory.class);
+        List<RosterStudent> pending = students;
+        if(existing.isPresent()){
+            pending = students.stream()
+                    .filter(student -> !existing.get().contains(RepositoryService.studentRepositoryName(repositoryPrefix, student)))
+                    .toList();
+            ctx.log("%d of %d repositories already exist".formatted(students.size() - pending.size(), students.size()));
+            for(int i = pending.size(); i < students.size(); i++){
+                ctx.unitDone();
+            }
+        }
+        List<Exception> retryCauses = List.of();
+        // closing the executor waits for the students being worked on to be finished, without interrupting them
+        try (ExecutorService executor = Executors.newFixedThreadPool(concurrency)) {
+            for(int attempt = 1; !pending.isEmpty(); attempt++){
+                if(attempt > 1){
+                    Duration backoff = retryPolicy.backoff(attempt - 1, retryCauses);
+                    ctx.log("Retrying %d students in %d seconds".formatted(pending.size(), backoff.toSeconds()));
+                    retryPolicy.sleep(backoff);
+                }
+                ctx.checkCancelled();
+                List<RosterStudent> retry = new ArrayList<>();
+                List<Exception> causes = new ArrayList<>();
+                List<Future<Exception>> outcomes = new ArrayList<>();
+                for(RosterStudent student : pending){
+                    // bound to the job, so that its GitHub calls are paced as job traffic
+                    outcomes.add(executor.submit(ctx.bind(() -> provision(ctx, student, existing.isPresent(), teams))));
+                }
+                // outcomes are handled in roster order, whatever order they complete in
+                for(int i = 0; i < pending.size(); i++){
+                    RosterStudent student = pending.get(i);
+                    Exception e = outcomes.get(i).get();
+                    if(e == null){
+                        ctx.unitDone();
+                    } else if(e instanceof JobCancelledException cancelled){
+                        throw cancelled;
+                    } else {
+                        FailureCategory category = FailureCategory.of(e);
+                        if(category.isRetryable() && attempt < retryPolicy.getMaxAttempts()){
+                            retry.add(student);
+                            causes.add(e);
+                        } else {
+                            ctx.unitFailed();
+                            failures.computeIfAbsent(category, c -> new ArrayList<>()).add(student.getGithubLogin());
+                            ctx.log("Failed for %s (%s): %s".formatted(student.getGithubLogin(), category.label(), e.getMessage()));
+                        }
+                    }
+                }
+                pending = retry;
+                retryCauses = causes;
             }
         }
+        if(!failures.isEmpty()){
+            int failed = failures.values().stream().mapToInt(List::size).sum();
+            StringBuilder summary = new StringBuilder("Failed for %d of %d students:".formatted(failed, students.size()));
+            failures.forEach((category, logins) ->
+                    summary.append("\n  ").append(category.label()).append(": ").append(String.join(", ", logins)));
+            ctx.log(summary.toString());
+        }
         ctx.log("Done");
     }
+
+    /**
+     * Creates one student's repository. Once started, it is finished even if
+     * the job is cancelled meanwhile, so that no repository is left without
+     * the student's access.
+     *
+     * @return null on success, otherwise the reason it failed
+     */
+    private Exception provision(JobContext ctx, RosterStudent student, boolean knownMissing, Set<String> teams) {
+        if(ctx.isCancelled()){
+            return new JobCancelledException();
+        }
+        try {
+            return JobContext.runToCompletion(() -> {
+                if(accessMode == RepositoryAccessMode.TEAM && !teams.contains(RepositoryService.studentTeamSlug(student))){
+                    repositoryService.createStudentTeam(course, student);
+                    teams.add(RepositoryService.studentTeamSlug(student));
+                }
+                if(knownMissing){
+                    repositoryService.createMissingStudentRepository(course, student, repositoryPrefix, isPrivate, accessMode, templateRepository);
+                } else {
+                    repositoryService.createStudentRepository(course, student, repositoryPrefix, isPrivate, accessMode, templateRepository);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            return e;
+        }
+    }
+
+    private Optional<Set<String>> findExistingRepositories(JobContext ctx, List<RosterStudent> students) {
+        List<String> names = students.stream()
+                .map(student -> RepositoryService.studentRepositoryName(repositoryPrefix, student))
+                .toList();
+        try {
+            return repositoryService.findExistingRepositories(course, names);
+        } catch (Exception e) {
+            ctx.log("Could not look up existing repositories, checking each one instead: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
 }
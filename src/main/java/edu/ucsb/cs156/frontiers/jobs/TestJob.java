@@ -19,7 +19,8 @@ public class TestJob implements JobContextConsumer {
     Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
     ctx.log("Hello World! from test job!");
-    Thread.sleep(sleepMs);
+    JobContext.sleep(sleepMs);
+    ctx.checkCancelled();
     if (fail) {
       throw new Exception("Fail!");
     }
@@ -14,6 +14,8 @@ import edu.ucsb.cs156.frontiers.services.jobs.JobContextConsumer;
 import lombok.Builder;
 
 import java.util.Optional;
+import java.util.stream.StreamSupport;
+
 @Builder
 public class UpdateOrgMembershipJob implements JobContextConsumer {
     Course course;
@@ -24,13 +26,16 @@ public class UpdateOrgMembershipJob implements JobContextConsumer {
     public void accept(JobContext ctx) throws Exception {
         ctx.log("Processing...");
         Iterable<OrgMember> members = organizationMemberService.getOrganizationMembers(course);
+        ctx.startProgress((int) StreamSupport.stream(members.spliterator(), false).count());
         for(OrgMember member : members){
+                ctx.checkCancelled();
                 Optional<RosterStudent> student = rosterStudentRepository.findByCourseAndGithubId(course, member.getGithubId());
                 if(student.isPresent()){
                     RosterStudent foundStudent = student.get();
                     foundStudent.setOrgStatus(OrgStatus.MEMBER);
                     rosterStudentRepository.save(foundStudent);
                 }
+                ctx.unitDone();
         }
         ctx.log("Done");
     }
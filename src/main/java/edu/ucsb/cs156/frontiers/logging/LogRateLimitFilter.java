@@ -0,0 +1,80 @@
+package edu.ucsb.cs156.frontiers.logging;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Marker;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Logback turbo filter that lets each logger write at most {@code maxPerSecond}
+ * events below WARN a second; the rest are dropped, and counted in
+ * {@link #getDropped()}. WARN and ERROR events always get through.
+ *
+ * This keeps a hot request path (a burst of webhooks, say) from flooding the
+ * async appender's queue and pushing out everything else. Configured in
+ * {@code logback-spring.xml}.
+ */
+public class LogRateLimitFilter extends TurboFilter {
+
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  @Getter
+  @Setter
+  private int maxPerSecond = 200;
+
+  private final LongSupplier nanoTime;
+  private final Map<String, Window> windows = new ConcurrentHashMap<>();
+  private final AtomicLong dropped = new AtomicLong();
+
+  public LogRateLimitFilter() {
+    this(System::nanoTime);
+  }
+
+  LogRateLimitFilter(LongSupplier nanoTime) {
+    this.nanoTime = nanoTime;
+  }
+
+  @Override
+  public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+    // format is null for isXxxEnabled() checks, which must not use up the budget;
+    // events the logger's level turns away anyway aren't counted either
+    if (format == null || level.isGreaterOrEqual(Level.WARN) || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+      return FilterReply.NEUTRAL;
+    }
+    Window window = windows.computeIfAbsent(logger.getName(), name -> new Window());
+    if (window.tryAcquire(nanoTime.getAsLong(), maxPerSecond)) {
+      return FilterReply.NEUTRAL;
+    }
+    dropped.incrementAndGet();
+    return FilterReply.DENY;
+  }
+
+  /** @return how many events have been dropped since the filter started */
+  public long getDropped() {
+    return dropped.get();
+  }
+
+  /** One logger's count of events in the current one second window */
+  private static class Window {
+    private long start = Long.MIN_VALUE;
+    private int count;
+
+    synchronized boolean tryAcquire(long now, int max) {
+      if (start == Long.MIN_VALUE || now - start >= SECOND) {
+        start = now;
+        count = 0;
+      }
+      return ++count <= max;
+    }
+  }
+}
@@ -0,0 +1,28 @@
+package edu.ucsb.cs156.frontiers.models;
+
+import java.time.ZonedDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is a model class that represents the GitHub API budget of one app
+ * installation (or of the app itself), as last reported by GitHub and paced
+ * by the rate limit governor.
+ *
+ * @see edu.ucsb.cs156.frontiers.services.GithubRateLimitGovernor
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class GithubRateLimitStatus {
+  private String installation;
+  private Integer limit;
+  private Integer remaining;
+  private ZonedDateTime resetAt;
+  private double permitsPerSecond;
+  private ZonedDateTime pausedUntil;
+}
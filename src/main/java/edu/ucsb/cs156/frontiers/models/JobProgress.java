@@ -0,0 +1,64 @@
+package edu.ucsb.cs156.frontiers.models;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+
+import edu.ucsb.cs156.frontiers.entities.Job;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is a model class that represents how far along a job is.
+ *
+ * {@code total} is null if the job does not report progress; throughput and
+ * ETA are null until they can be estimated.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class JobProgress {
+  private Long jobId;
+  private String status;
+  private Integer total;
+  private int done;
+  private int failed;
+  private Double unitsPerSecond;
+  private Long etaSeconds;
+
+  /**
+   * Computes the progress of a job from its progress columns.
+   *
+   * @param job the job
+   * @param now the current time; the rate of a job that is no longer running
+   *     is measured up to its last update instead
+   * @return the progress of the job
+   */
+  public static JobProgress of(Job job, ZonedDateTime now) {
+    JobProgress progress = JobProgress.builder()
+        .jobId(job.getId())
+        .status(job.getStatus())
+        .total(job.getProgressTotal())
+        .done(job.getProgressDone())
+        .failed(job.getProgressFailed())
+        .build();
+    int processed = job.getProgressDone() + job.getProgressFailed();
+    ZonedDateTime end = "running".equals(job.getStatus()) || job.getUpdatedAt() == null ? now : job.getUpdatedAt();
+    if (job.getProgressStartedAt() == null || processed == 0) {
+      return progress;
+    }
+    double seconds = Duration.between(job.getProgressStartedAt(), end).toMillis() / 1000.0;
+    if (seconds <= 0) {
+      return progress;
+    }
+    double rate = processed / seconds;
+    progress.setUnitsPerSecond(rate);
+    if (job.getProgressTotal() != null) {
+      int remaining = Math.max(job.getProgressTotal() - processed, 0);
+      progress.setEtaSeconds(Math.round(remaining / rate));
+    }
+    return progress;
+  }
+}
@@ -0,0 +1,25 @@
+package edu.ucsb.cs156.frontiers.models;
+
+import java.time.ZonedDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is a model class that represents what the job retention policy has
+ * reclaimed since the application started.
+ *
+ * @see edu.ucsb.cs156.frontiers.services.jobs.JobRetentionService
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class JobRetentionStats {
+  private ZonedDateTime lastRunAt;
+  private long jobsDeleted;
+  private long logsTruncated;
+  private long bytesReclaimed;
+}
@@ -0,0 +1,27 @@
+package edu.ucsb.cs156.frontiers.models;
+
+import java.time.ZonedDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is a model class that represents a row in the list of jobs.
+ *
+ * Unlike {@link edu.ucsb.cs156.frontiers.entities.Job Job}, it does not carry the
+ * job log, which can be up to a megabyte per job. Logs are fetched one job at a
+ * time from {@code /api/jobs/logs/{id}}.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class JobSummary {
+  private Long id;
+  private Long createdById;
+  private ZonedDateTime createdAt;
+  private ZonedDateTime updatedAt;
+  private String status;
+}
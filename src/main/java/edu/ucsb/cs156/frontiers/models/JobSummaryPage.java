@@ -0,0 +1,24 @@
+package edu.ucsb.cs156.frontiers.models;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is a model class that represents one page of the job list.
+ *
+ * Pages are ordered newest first. To get the next page, pass {@code nextCursor}
+ * as the {@code before} parameter of {@code /api/jobs/all}; it is null on the
+ * last page.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class JobSummaryPage {
+  private List<JobSummary> jobs;
+  private Long nextCursor;
+}
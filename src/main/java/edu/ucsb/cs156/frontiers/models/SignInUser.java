@@ -0,0 +1,29 @@
+package edu.ucsb.cs156.frontiers.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is a model class with the columns of a {@link edu.ucsb.cs156.frontiers.entities.User User}
+ * that signing in with Google looks at.
+ *
+ * Unlike the entity, loading it does not also load the user's linked students
+ * and course staff roles.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class SignInUser {
+  private long id;
+  private String email;
+  private String fullName;
+  private String givenName;
+  private String pictureUrl;
+  private boolean admin;
+  private boolean professor;
+  private int githubId;
+  private String githubLogin;
+}
@@ -1,10 +1,17 @@
 package edu.ucsb.cs156.frontiers.repositories;
 
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import edu.ucsb.cs156.frontiers.entities.Admin;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -14,5 +21,19 @@ public interface AdminRepository extends CrudRepository<Admin, String> {
    * @param email email address of the admin
    * @return Optional of Admin (empty if not found)
    */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
   Optional<Admin> findByEmail(String email);
-} 
\ No newline at end of file
+
+  /**
+   * This method looks an email up in both the admins and the instructors
+   * tables, by primary key, in a single query.
+   * @param email email address of the user
+   * @return ADMIN and/or INSTRUCTOR, one for each table the email is in
+   */
+  @Query(nativeQuery = true, value = """
+      select 'ADMIN' from admins where email = :email
+      union all
+      select 'INSTRUCTOR' from instructors where email = :email
+      """)
+  List<String> findRolesByEmail(@Param("email") String email);
+}
\ No newline at end of file
@@ -1,6 +1,10 @@
 package edu.ucsb.cs156.frontiers.repositories;
 
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import edu.ucsb.cs156.frontiers.entities.Course;
 
@@ -10,5 +14,6 @@ import java.util.Optional;
 public interface CourseRepository extends JpaRepository<Course,Long>
 {
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Course> findByInstallationId(String installationId);
 }
@@ -1,5 +1,9 @@
 package edu.ucsb.cs156.frontiers.repositories;
 
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
@@ -17,5 +21,6 @@ public interface InstructorRepository extends CrudRepository<Instructor, String>
    * @param email email address of the instructor
    * @return Optional of Instructor (empty if not found)
    */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
   Optional<Instructor> findByEmail(String email);
 }
@@ -1,9 +1,97 @@
 package edu.ucsb.cs156.frontiers.repositories;
 
-import org.springframework.data.repository.CrudRepository;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import edu.ucsb.cs156.frontiers.entities.Job;
+import edu.ucsb.cs156.frontiers.models.JobSummary;
 
 @Repository
-public interface JobsRepository extends CrudRepository<Job, Long> {}
+public interface JobsRepository extends JpaRepository<Job, Long> {
+
+  /**
+   * Returns jobs newest first without loading their logs.
+   *
+   * This uses keyset pagination on the id (ids are assigned in creation order), so
+   * each page is an index range scan no matter how deep into the list it is.
+   *
+   * @param status only return jobs with this status (null for any)
+   * @param createdById only return jobs created by this user (null for any)
+   * @param before only return jobs with an id less than this (null for the first page)
+   * @param pageable the page size; the page number should always be 0
+   * @return summaries of the matching jobs
+   */
+  @Query("""
+      select new edu.ucsb.cs156.frontiers.models.JobSummary(j.id, u.id, j.createdAt, j.updatedAt, j.status)
+      from jobs j left join j.createdBy u
+      where (:status is null or j.status = :status)
+        and (:createdById is null or u.id = :createdById)
+        and (:before is null or j.id < :before)
+      order by j.id desc
+      """)
+  List<JobSummary> findSummaries(
+      @Param("status") String status,
+      @Param("createdById") Long createdById,
+      @Param("before") Long before,
+      Pageable pageable);
+
+  /**
+   * Returns the ids of jobs created before a cutoff, oldest first.
+   *
+   * @param cutoff only jobs created before this are returned
+   * @param pageable the batch size; the page number should always be 0
+   * @return job ids
+   */
+  @Query("select j.id from jobs j where j.createdAt < :cutoff order by j.id")
+  List<Long> findIdsCreatedBefore(@Param("cutoff") ZonedDateTime cutoff, Pageable pageable);
+
+  /**
+   * Returns the ids of completed jobs created before a cutoff whose stored log
+   * is larger than a number of bytes, in id order. Stored logs may be
+   * compressed, so this is their size in the database, not their length.
+   *
+   * @param cutoff only jobs created before this are returned
+   * @param maxBytes only jobs whose stored log is larger than this are returned
+   * @param afterId only jobs with a larger id than this are returned
+   * @param pageable the batch size; the page number should always be 0
+   * @return job ids
+   */
+  @Query(nativeQuery = true, value = """
+      select id from jobs
+      where status = 'complete' and created_at < :cutoff and octet_length(log_data) > :maxBytes
+        and id > :afterId
+      order by id
+      """)
+  List<Long> findIdsOfCompletedJobsWithLargeLogs(
+      @Param("cutoff") ZonedDateTime cutoff,
+      @Param("maxBytes") int maxBytes,
+      @Param("afterId") long afterId,
+      Pageable pageable);
+
+  /**
+   * @param ids job ids
+   * @return the total size in bytes of the stored logs of the given jobs
+   */
+  @Query(nativeQuery = true,
+      value = "select coalesce(sum(octet_length(log_data)), 0) from jobs where id in :ids")
+  long sumLogBytes(@Param("ids") Collection<Long> ids);
+
+  /**
+   * Returns a job's log as stored, i.e. possibly still compressed, so that it
+   * can be streamed without building the whole log as a String.
+   *
+   * @param id job id
+   * @return a single element (null if the job has no log), or none if there is
+   *     no such job
+   * @see edu.ucsb.cs156.frontiers.entities.CompressedTextConverter#open(byte[])
+   */
+  @Query(nativeQuery = true, value = "select log_data from jobs where id = :id")
+  List<byte[]> findStoredLog(@Param("id") Long id);
+}
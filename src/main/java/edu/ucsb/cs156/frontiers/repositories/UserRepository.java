@@ -1,9 +1,16 @@
 package edu.ucsb.cs156.frontiers.repositories;
 
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import edu.ucsb.cs156.frontiers.entities.User;
+import edu.ucsb.cs156.frontiers.models.SignInUser;
 
 import javax.swing.text.html.Option;
 import java.util.Optional;
@@ -18,10 +25,24 @@ public interface UserRepository extends CrudRepository<User, Long> {
    * @param email email address of the user
    * @return Optional of User (empty if not found)
    */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
   Optional<User> findByEmail(String email);
 
   Optional<User> findByGoogleSub(String googleSub);
 
+  /**
+   * This method returns what signing in needs to know about the user with a
+   * given Google subject, in a single query.
+   * @param googleSub the user's Google subject
+   * @return Optional of SignInUser (empty if not found)
+   */
+  @Query("""
+      select new edu.ucsb.cs156.frontiers.models.SignInUser(u.id, u.email, u.fullName, u.givenName, u.pictureUrl,
+          u.admin, u.professor, u.githubId, u.githubLogin)
+      from users u where u.googleSub = :googleSub
+      """)
+  Optional<SignInUser> findSignInUserByGoogleSub(@Param("googleSub") String googleSub);
+
   Optional<User> findByGithubLogin(String githubLogin);
 
   Optional<User> findByGithubId(int githubId);
@@ -0,0 +1,134 @@
+package edu.ucsb.cs156.frontiers.services;
+
+import java.io.Serializable;
+import java.time.Clock;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.ucsb.cs156.frontiers.models.CurrentUser;
+import edu.ucsb.cs156.frontiers.services.UserRolesService.RolesChanged;
+import jakarta.servlet.http.HttpSession;
+
+/**
+ * Keeps the JSON of /api/currentUser in the user's session, so that the
+ * frontend asking for it on every page load doesn't look the user up and
+ * serialize them every time.
+ *
+ * A cached response is used until the session's sign-in changes (e.g. a
+ * GitHub account is linked, which adds ROLE_GITHUB), the user's role changes
+ * ({@link RolesChanged}), something else about the user changes
+ * ({@link UserChanged}), or it is {@code app.currentUser.cacheSeconds} old; the
+ * expiry covers changes made through other instances of the app.
+ */
+@Service
+public class CurrentUserResponseCache {
+
+  /**
+   * Published when something shown in a user's /api/currentUser changes other
+   * than their role, e.g. their GitHub account is linked.
+   *
+   * @param email the user's email
+   */
+  public record UserChanged(String email) {
+  }
+
+  /** A response, for the sign-in {@code key}, made at {@code createdAt} */
+  record CachedResponse(String key, String email, byte[] json, String etag, long createdAt) implements Serializable {
+  }
+
+  static final String SESSION_ATTRIBUTE = CurrentUserResponseCache.class.getName();
+
+  @Autowired
+  private CurrentUserService currentUserService;
+
+  @Autowired
+  private ObjectMapper mapper;
+
+  @Value("${app.currentUser.cacheSeconds:300}")
+  private long cacheSeconds;
+
+  private Clock clock = Clock.systemUTC();
+
+  /** When each user last changed; only kept for as long as a cached response can live */
+  private final Map<String, Long> changedAt = new ConcurrentHashMap<>();
+
+  /**
+   * @param session the current user's session
+   * @return the current user as JSON, with an ETag so that the browser can ask
+   *         whether it has changed
+   * @throws JsonProcessingException if the user can't be serialized
+   */
+  public ResponseEntity<byte[]> response(HttpSession session) throws JsonProcessingException {
+    String key = key(SecurityContextHolder.getContext().getAuthentication());
+    CachedResponse cached = session.getAttribute(SESSION_ATTRIBUTE) instanceof CachedResponse c && isCurrent(c, key)
+        ? c
+        : null;
+    if (cached == null) {
+      long now = clock.millis();
+      CurrentUser currentUser = currentUserService.getCurrentUser();
+      byte[] json = mapper.writeValueAsBytes(currentUser);
+      String email = currentUser.getUser() == null ? null : currentUser.getUser().getEmail();
+      cached = new CachedResponse(key, email, json, "\"" + DigestUtils.md5DigestAsHex(json) + "\"", now);
+      session.setAttribute(SESSION_ATTRIBUTE, cached);
+    }
+    return ResponseEntity.ok()
+        .eTag(cached.etag())
+        .cacheControl(CacheControl.noCache().cachePrivate())
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(cached.json());
+  }
+
+  /** Who is signed in, and with which roles */
+  private static String key(Authentication authentication) {
+    return authentication.getName() + " "
+        + authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).sorted().toList();
+  }
+
+  private boolean isCurrent(CachedResponse cached, String key) {
+    if (!cached.key().equals(key) || clock.millis() >= cached.createdAt() + cacheSeconds * 1000) {
+      return false;
+    }
+    return cached.email() == null || cached.createdAt() > changedAt.getOrDefault(cached.email(), Long.MIN_VALUE);
+  }
+
+  private void changed(String email) {
+    long now = clock.millis();
+    changedAt.values().removeIf(at -> at < now - cacheSeconds * 1000);
+    changedAt.put(email, now);
+  }
+
+  /**
+   * Stops using cached responses for a user whose role may have changed.
+   *
+   * @param event the user's email
+   */
+  @EventListener
+  public void rolesChanged(RolesChanged event) {
+    changed(event.email());
+  }
+
+  /**
+   * Stops using cached responses for a user who has changed.
+   *
+   * @param event the user's email
+   */
+  @EventListener
+  public void userChanged(UserChanged event) {
+    changed(event.email());
+  }
+}
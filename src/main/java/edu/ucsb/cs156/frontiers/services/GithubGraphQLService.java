@@ -0,0 +1,96 @@
+package edu.ucsb.cs156.frontiers.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ucsb.cs156.frontiers.entities.Course;
+import edu.ucsb.cs156.frontiers.errors.GithubGraphQLException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.spec.InvalidKeySpecException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs queries against GitHub's GraphQL API as a course's app installation.
+ *
+ * A single GraphQL query can look up many objects at once (GitHub allows 100
+ * nodes per connection page, and any number of aliased fields), so the
+ * services use it for bulk lookups that would otherwise take one REST request
+ * each. It is off unless {@code app.github.graphql.enabled} is set, in which
+ * case {@link OrganizationMemberService} and {@link RepositoryService} switch
+ * to their batched lookups.
+ */
+@Service
+public class GithubGraphQLService {
+    /** Most nodes GitHub returns per page, and most lookups we put in one query */
+    public static final int PAGE_SIZE = 100;
+
+    private final JwtService jwtService;
+    private final ObjectMapper objectMapper;
+    private final RestTemplate restTemplate;
+    private final boolean enabled;
+    private final String endpoint;
+
+    public GithubGraphQLService(JwtService jwtService, ObjectMapper objectMapper, RestTemplateBuilder builder,
+                                @Value("${app.github.graphql.enabled:false}") boolean enabled,
+                                @Value("${app.github.graphql.url:${app.github.api.url:https://api.github.com}/graphql}") String endpoint) {
+        this.jwtService = jwtService;
+        this.objectMapper = objectMapper;
+        this.restTemplate = builder.build();
+        this.enabled = enabled;
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * @return whether the services should use GraphQL for bulk lookups
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Runs a query as the course's installation.
+     *
+     * Errors of type NOT_FOUND are not treated as failures: GitHub reports a
+     * missing object as null data plus such an error, and callers looking
+     * objects up want the null.
+     *
+     * @param course course whose installation runs the query
+     * @param query the GraphQL query
+     * @param variables values for the query's variables
+     * @return the {@code data} of the response
+     * @throws GithubGraphQLException if GitHub reports any other error
+     */
+    public JsonNode query(Course course, String query, Map<String, Object> variables)
+            throws NoSuchAlgorithmException, InvalidKeySpecException, JsonProcessingException {
+        String token = jwtService.getInstallationToken(course);
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("Authorization", "Bearer " + token);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        String body = objectMapper.writeValueAsString(Map.of("query", query, "variables", variables));
+        HttpEntity<String> entity = new HttpEntity<>(body, headers);
+        ResponseEntity<String> response = restTemplate.exchange(endpoint, HttpMethod.POST, entity, String.class);
+        JsonNode responseJson = objectMapper.readTree(response.getBody());
+        List<String> errors = new ArrayList<>();
+        for (JsonNode error : responseJson.path("errors")) {
+            if (!"NOT_FOUND".equals(error.path("type").asText())) {
+                errors.add(error.path("message").asText());
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new GithubGraphQLException(String.join("; ", errors));
+        }
+        return responseJson.path("data");
+    }
+}
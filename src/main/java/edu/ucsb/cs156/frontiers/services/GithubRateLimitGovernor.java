@@ -0,0 +1,338 @@
+package edu.ucsb.cs156.frontiers.services;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BooleanSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+
+import edu.ucsb.cs156.frontiers.models.GithubRateLimitStatus;
+import edu.ucsb.cs156.frontiers.services.jobs.JobCancelledException;
+import edu.ucsb.cs156.frontiers.services.jobs.JobContext;
+import edu.ucsb.cs156.frontiers.services.jobs.RetryPolicy.Sleeper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Paces calls to the GitHub API so that jobs slow down before GitHub starts
+ * refusing them, instead of failing and backing off afterwards.
+ *
+ * Each app installation gets a token bucket for each of GitHub's rate limits
+ * (x-ratelimit-resource): the REST API's "core" limit is kept under the
+ * installation's own key, others, such as "graphql", under
+ * {@link #bucketFor(String, String)}, so that one limit's headers never set the
+ * pace of requests counted against another. Permits are handed out in the
+ * order they are asked for, so concurrent jobs working against the same
+ * installation take turns rather than one of them starving the others. The
+ * bucket is refilled at whatever rate spends the budget GitHub reports
+ * (x-ratelimit-remaining, less a reserve kept back for interactive requests)
+ * evenly until x-ratelimit-reset, but never faster than {@code maxPerSecond},
+ * which keeps bursts under GitHub's secondary rate limits. Once the budget is
+ * down to the reserve, or GitHub sends Retry-After, the installation is paused
+ * until GitHub says to come back.
+ *
+ * Only job traffic is paced. Requests made while serving a user (anything not
+ * running for a {@link JobContext}) go straight through, spending the reserve
+ * that was kept back for them, so a page never hangs behind a paused job.
+ *
+ * Requests are attributed to an installation through the token they carry;
+ * {@link JwtService} registers each installation token it obtains. Requests
+ * made with the app's own JWT (or an unknown token) share the {@link #APP}
+ * bucket.
+ *
+ * Each installation's budget is published as the gauges
+ * frontiers.github.ratelimit.remaining and
+ * frontiers.github.ratelimit.permits_per_second.
+ */
+@Service
+@Slf4j
+public class GithubRateLimitGovernor implements MeterBinder {
+  /** Key for requests that are not made as a known installation */
+  public static final String APP = "app";
+
+  /** The rate limit of GitHub's REST API */
+  public static final String CORE = "core";
+
+  private static final int MAX_REGISTERED_TOKENS = 1000;
+
+  private final double maxPerSecond;
+  private final int burst;
+  private final int reserve;
+  private final Clock clock;
+  private final Sleeper sleeper;
+  private final BooleanSupplier jobTraffic;
+
+  private final Map<String, String> installationsByToken = Collections.synchronizedMap(
+      new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+          return size() > MAX_REGISTERED_TOKENS;
+        }
+      });
+
+  private final ConcurrentMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+  private volatile MeterRegistry meterRegistry;
+
+  @Autowired
+  public GithubRateLimitGovernor(
+      @Value("${app.github.ratelimit.maxPerSecond:10}") double maxPerSecond,
+      @Value("${app.github.ratelimit.burst:10}") int burst,
+      @Value("${app.github.ratelimit.reserve:100}") int reserve) {
+    this(maxPerSecond, burst, reserve, Clock.systemUTC(), JobContext::sleep, JobContext::inJob);
+  }
+
+  GithubRateLimitGovernor(double maxPerSecond, int burst, int reserve, Clock clock, Sleeper sleeper,
+      BooleanSupplier jobTraffic) {
+    this.maxPerSecond = maxPerSecond;
+    this.burst = burst;
+    this.reserve = reserve;
+    this.clock = clock;
+    this.sleeper = sleeper;
+    this.jobTraffic = jobTraffic;
+  }
+
+  /**
+   * Remembers which installation a token acts as.
+   *
+   * @param token installation token returned by GitHub
+   * @param installationId the installation it acts as
+   */
+  public void registerToken(String token, String installationId) {
+    installationsByToken.put(token, installationId);
+  }
+
+  /**
+   * @param authorization value of the Authorization header of a request, may be null
+   * @return the installation the request is made as, or {@link #APP}
+   */
+  public String installationFor(String authorization) {
+    if (authorization == null) {
+      return APP;
+    }
+    String token = authorization.replaceFirst("^(?i)(bearer|token)\\s+", "");
+    return installationsByToken.getOrDefault(token, APP);
+  }
+
+  /**
+   * @param installation installation a request is made as
+   * @param resource the GitHub rate limit the request counts against, may be null for {@link #CORE}
+   * @return the key of the installation's bucket for that rate limit
+   */
+  public static String bucketFor(String installation, String resource) {
+    return resource == null || resource.equals(CORE) ? installation : installation + "/" + resource;
+  }
+
+  /**
+   * Blocks until the installation may make another request. A caller that
+   * stops waiting gives its permit back, so a cancelled job doesn't hold up
+   * the requests queued behind it. Requests that aren't made for a job never
+   * wait.
+   *
+   * @param installation installation the request is made as
+   * @throws JobCancelledException if the job the request is for is cancelled while waiting
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public void acquire(String installation) throws InterruptedException {
+    Bucket bucket = bucket(installation);
+    if (!jobTraffic.getAsBoolean()) {
+      return;
+    }
+    long waitMillis = bucket.reserve(clock.millis());
+    if (waitMillis > 0) {
+      log.debug("Waiting {} ms for GitHub rate limit of {}", waitMillis, installation);
+      try {
+        sleeper.sleep(waitMillis);
+      } catch (InterruptedException | JobCancelledException e) {
+        bucket.release(clock.millis());
+        throw e;
+      }
+    }
+  }
+
+  /**
+   * Adjusts the installation's pace to the rate limit headers of a response.
+   *
+   * @param installation installation the request was made as
+   * @param headers headers of GitHub's response
+   */
+  public void update(String installation, HttpHeaders headers) {
+    Integer limit = header(headers, "x-ratelimit-limit");
+    Integer remaining = header(headers, "x-ratelimit-remaining");
+    Integer reset = header(headers, "x-ratelimit-reset");
+    Integer retryAfter = header(headers, HttpHeaders.RETRY_AFTER);
+    if (limit == null && remaining == null && reset == null && retryAfter == null) {
+      return;
+    }
+    bucket(installation).update(clock.millis(), limit, remaining, reset, retryAfter);
+  }
+
+  /**
+   * @return the budget of every installation seen since startup, ordered by installation
+   */
+  public List<GithubRateLimitStatus> getStatus() {
+    return buckets.values().stream()
+        .map(Bucket::status)
+        .sorted(Comparator.comparing(GithubRateLimitStatus::getInstallation))
+        .toList();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    meterRegistry = registry;
+    buckets.values().forEach(bucket -> bucket.register(registry));
+  }
+
+  private Bucket bucket(String installation) {
+    return buckets.computeIfAbsent(installation, key -> {
+      Bucket bucket = new Bucket(key);
+      MeterRegistry registry = meterRegistry;
+      if (registry != null) {
+        bucket.register(registry);
+      }
+      return bucket;
+    });
+  }
+
+  private static Integer header(HttpHeaders headers, String name) {
+    String value = headers.getFirst(name);
+    if (value == null) {
+      return null;
+    }
+    try {
+      return Integer.valueOf(value.trim());
+    } catch (NumberFormatException e) {
+      // e.g. an HTTP date in Retry-After
+      return null;
+    }
+  }
+
+  private static ZonedDateTime toDateTime(long epochMillis) {
+    return epochMillis <= 0 ? null : Instant.ofEpochMilli(epochMillis).atZone(ZoneOffset.UTC);
+  }
+
+  private class Bucket {
+    private final String installation;
+    private double permitsPerSecond = maxPerSecond;
+    private double storedPermits = burst;
+    private long nextFreeMillis;
+    private long pausedUntilMillis;
+
+    private Integer limit;
+    private Integer remaining;
+    private long resetAtMillis;
+
+    Bucket(String installation) {
+      this.installation = installation;
+    }
+
+    /**
+     * Reserves the next permit.
+     *
+     * @return how long the caller has to wait before using it
+     */
+    synchronized long reserve(long now) {
+      if (pausedUntilMillis > nextFreeMillis) {
+        // resume with a single request, then build up to the pace again
+        nextFreeMillis = pausedUntilMillis;
+        storedPermits = 1;
+      }
+      if (now > nextFreeMillis) {
+        storedPermits = Math.min(burst, storedPermits + (now - nextFreeMillis) * permitsPerSecond / 1000);
+        nextFreeMillis = now;
+      }
+      if (storedPermits >= 1) {
+        storedPermits -= 1;
+      } else {
+        nextFreeMillis += (long) Math.ceil((1 - storedPermits) * 1000 / permitsPerSecond);
+        storedPermits = 0;
+      }
+      return nextFreeMillis - now;
+    }
+
+    /** Gives back a permit reserved by a caller that stopped waiting for it */
+    synchronized void release(long now) {
+      if (nextFreeMillis > now) {
+        nextFreeMillis = Math.max(now, nextFreeMillis - (long) Math.ceil(1000 / permitsPerSecond));
+      } else {
+        storedPermits = Math.min(burst, storedPermits + 1);
+      }
+    }
+
+    synchronized void update(long now, Integer limit, Integer remaining, Integer resetEpochSecond, Integer retryAfterSeconds) {
+      if (limit != null) {
+        this.limit = limit;
+      }
+      if (remaining != null) {
+        this.remaining = remaining;
+      }
+      if (resetEpochSecond != null) {
+        this.resetAtMillis = resetEpochSecond * 1000L;
+      }
+      if (retryAfterSeconds != null) {
+        pauseUntil(now + retryAfterSeconds * 1000L);
+      }
+      if (remaining == null || resetAtMillis <= now) {
+        return;
+      }
+      int spendable = remaining - reserve;
+      if (spendable <= 0) {
+        log.warn("GitHub rate limit of {} is down to {} requests; pausing until {}",
+            installation, remaining, toDateTime(resetAtMillis));
+        pauseUntil(resetAtMillis);
+        // the first response after the reset sets the pace for the new window
+        permitsPerSecond = maxPerSecond;
+      } else {
+        permitsPerSecond = Math.min(maxPerSecond, spendable * 1000.0 / (resetAtMillis - now));
+      }
+    }
+
+    private void pauseUntil(long millis) {
+      pausedUntilMillis = Math.max(pausedUntilMillis, millis);
+    }
+
+    void register(MeterRegistry registry) {
+      Gauge.builder("frontiers.github.ratelimit.remaining", this, Bucket::remainingOrNaN)
+          .description("Requests left in the installation's GitHub rate limit window")
+          .tag("installation", installation)
+          .register(registry);
+      Gauge.builder("frontiers.github.ratelimit.permits_per_second", this, Bucket::permitsPerSecond)
+          .description("Pace at which requests as the installation are let through")
+          .tag("installation", installation)
+          .register(registry);
+    }
+
+    synchronized double remainingOrNaN() {
+      return remaining == null ? Double.NaN : remaining;
+    }
+
+    synchronized double permitsPerSecond() {
+      return permitsPerSecond;
+    }
+
+    synchronized GithubRateLimitStatus status() {
+      return GithubRateLimitStatus.builder()
+          .installation(installation)
+          .limit(limit)
+          .remaining(remaining)
+          .resetAt(toDateTime(resetAtMillis))
+          .permitsPerSecond(permitsPerSecond)
+          .pausedUntil(pausedUntilMillis > clock.millis() ? toDateTime(pausedUntilMillis) : null)
+          .build();
+    }
+  }
+}
@@ -0,0 +1,115 @@
+package edu.ucsb.cs156.frontiers.services;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateCustomizer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Sends every request to the GitHub API through the
+ * {@link GithubRateLimitGovernor}: waits for a permit before the request and
+ * reports the rate limit headers of the response.
+ *
+ * As a {@link RestTemplateCustomizer}, it is added to every RestTemplate
+ * built from the application's RestTemplateBuilder, which is how all of the
+ * GitHub services get theirs. Only requests to the host (and port) of
+ * {@code app.github.api.url} are governed, so that the GitHub API simulator is
+ * paced the same way as the real API.
+ *
+ * GraphQL requests count against GitHub's separate GraphQL rate limit, so they
+ * are paced by their own bucket, and a response's headers are reported to the
+ * bucket of the limit they describe (x-ratelimit-resource).
+ *
+ * Each call is also timed in {@code frontiers.github.requests}, tagged with the
+ * method, the endpoint (the path with its names and ids replaced by
+ * <code>{}</code>, e.g. <code>/orgs/{}/members</code>) and the status of the
+ * response; the wait for a permit is not included.
+ */
+@Component
+public class GithubRateLimitInterceptor implements ClientHttpRequestInterceptor, RestTemplateCustomizer {
+  /** Path segments that name a kind of resource, rather than a particular one */
+  private static final Set<String> RESOURCES = Set.of("app", "installation", "installations", "access_tokens",
+      "orgs", "members", "memberships", "invitations", "teams", "repos", "collaborators", "generate", "user",
+      "users", "graphql");
+
+  @Autowired
+  private GithubRateLimitGovernor governor;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Value("${app.github.api.url:https://api.github.com}")
+  private String githubApiUrl;
+
+  @Override
+  public void customize(RestTemplate restTemplate) {
+    restTemplate.getInterceptors().add(this);
+  }
+
+  @Override
+  public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+      throws IOException {
+    String githubAuthority = URI.create(githubApiUrl).getAuthority();
+    if (!githubAuthority.equalsIgnoreCase(request.getURI().getAuthority())) {
+      return execution.execute(request, body);
+    }
+    String installation = governor.installationFor(request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION));
+    String bucket = GithubRateLimitGovernor.bucketFor(installation, resource(request.getURI().getPath()));
+    try {
+      governor.acquire(bucket);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for GitHub rate limit");
+    }
+    Timer.Sample sample = Timer.start(meterRegistry);
+    String status = "IO_ERROR";
+    try {
+      ClientHttpResponse response = execution.execute(request, body);
+      status = String.valueOf(response.getStatusCode().value());
+      String reported = response.getHeaders().getFirst("x-ratelimit-resource");
+      governor.update(reported == null ? bucket : GithubRateLimitGovernor.bucketFor(installation, reported),
+          response.getHeaders());
+      return response;
+    } finally {
+      sample.stop(meterRegistry.timer("frontiers.github.requests",
+          "method", request.getMethod().name(),
+          "endpoint", endpoint(request.getURI().getPath()),
+          "status", status));
+    }
+  }
+
+  /**
+   * @param path path of a GitHub API request
+   * @return the rate limit the request counts against
+   */
+  static String resource(String path) {
+    return path.endsWith("/graphql") ? "graphql" : GithubRateLimitGovernor.CORE;
+  }
+
+  /**
+   * @param path path of a GitHub API request
+   * @return the path with every segment that is not a kind of resource replaced by <code>{}</code>
+   */
+  static String endpoint(String path) {
+    return Arrays.stream(path.split("/"))
+        .filter(segment -> !segment.isEmpty())
+        .map(segment -> RESOURCES.contains(segment) ? segment : "{}")
+        .collect(Collectors.joining("/", "/", ""));
+  }
+}
@@ -5,7 +5,10 @@ import edu.ucsb.cs156.frontiers.errors.NotAuthenticatedWithGoogleException;
 import edu.ucsb.cs156.frontiers.repositories.RosterStudentRepository;
 import edu.ucsb.cs156.frontiers.repositories.UserRepository;
 
+import edu.ucsb.cs156.frontiers.services.CurrentUserResponseCache.UserChanged;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -31,12 +34,14 @@ public class GithubSignInServiceImpl extends DefaultOAuth2UserService implements
     private final CurrentUserService currentUserService;
     private final RosterStudentRepository rosterStudentRepository;
     private final UpdateUserService updateUserService;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public GithubSignInServiceImpl(@Autowired UserRepository userRepository, @Autowired CurrentUserService currentUserService, @Autowired RosterStudentRepository rosterStudentRepository, @Autowired UpdateUserService updateUserService) {
+    public GithubSignInServiceImpl(@Autowired UserRepository userRepository, @Autowired CurrentUserService currentUserService, @Autowired RosterStudentRepository rosterStudentRepository, @Autowired UpdateUserService updateUserService, @Autowired ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
         this.currentUserService = currentUserService;
         this.rosterStudentRepository = rosterStudentRepository;
         this.updateUserService = updateUserService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -63,6 +68,7 @@ public class GithubSignInServiceImpl extends DefaultOAuth2UserService implements
                 currentLocalUser.setGithubLogin((String) oAuth2User.getAttributes().get("login"));
                 updateUserService.attachRosterStudents(currentLocalUser);
                 userRepository.save(currentLocalUser);
+                eventPublisher.publishEvent(new UserChanged(currentLocalUser.getEmail()));
             }
             authorities.add(new SimpleGrantedAuthority("ROLE_GITHUB"));
             authorities.addAll(currentUser.getAuthorities());
@@ -1,9 +1,9 @@
 package edu.ucsb.cs156.frontiers.services;
 
 import edu.ucsb.cs156.frontiers.entities.User;
+import edu.ucsb.cs156.frontiers.models.SignInUser;
 import edu.ucsb.cs156.frontiers.repositories.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.client.oidc.userinfo.OidcUserRequest;
@@ -20,12 +20,12 @@ public class GoogleSignInServiceImpl extends OidcUserService implements GoogleSi
 
     private final UserRepository userRepository;
 
-    @Value("${app.admin.emails}")
-    private final List<String> adminEmails = new ArrayList<>();
+    private final UserRolesService userRolesService;
 
     @Autowired
-    public GoogleSignInServiceImpl(UserRepository userRepository) {
+    public GoogleSignInServiceImpl(UserRepository userRepository, UserRolesService userRolesService) {
         this.userRepository = userRepository;
+        this.userRolesService = userRolesService;
     }
 
     @Override
@@ -34,46 +34,41 @@ public class GoogleSignInServiceImpl extends OidcUserService implements GoogleSi
         return managePrimarySignIn(oidcUser);
     }
 
+    /**
+     * Works out the user's role, and creates or updates their row in the users table.
+     * The user is looked up with a single query that doesn't load their linked students
+     * or course roles, and their row is only written when something has changed.
+     */
     private OidcUser managePrimarySignIn(OidcUser oidcUser) {
-        Optional<User> currentUser = userRepository.findByGoogleSub(oidcUser.getSubject());
+        GrantedAuthority role = userRolesService.getRole(oidcUser.getEmail());
+        boolean admin = role.equals(UserRolesService.ADMIN);
+        boolean professor = role.equals(UserRolesService.PROFESSOR);
         Set<GrantedAuthority> authorities = new HashSet<>();
-        boolean changed = false;
+        authorities.add(role);
+
+        Optional<SignInUser> currentUser = userRepository.findSignInUserByGoogleSub(oidcUser.getSubject());
         if (currentUser.isPresent()) {
-            User user = currentUser.get();
-            if (user.getAdmin()) {
-                authorities.add(new SimpleGrantedAuthority("ROLE_ADMIN"));
-            } else if (adminEmails.contains(user.getEmail())) {
-                authorities.add(new SimpleGrantedAuthority("ROLE_ADMIN"));
-                user.setAdmin(true);
-                changed = true;
-            } else if (user.getProfessor()) {
-                authorities.add(new SimpleGrantedAuthority("ROLE_PROFESSOR"));
-            } else {
-                authorities.add(new SimpleGrantedAuthority("ROLE_USER"));
-            }
-            if (!user.getFullName().equals(oidcUser.getFullName())) {
-                user.setFullName(oidcUser.getFullName());
-                changed = true;
-            }
-            if (!user.getEmail().equals(oidcUser.getEmail())) {
-                user.setEmail(oidcUser.getEmail());
-                changed = true;
-            }
-            if (!user.getGivenName().equals(oidcUser.getGivenName())) {
-                user.setGivenName(oidcUser.getGivenName());
-                changed = true;
-            }
-            if (!user.getPictureUrl().equals(oidcUser.getPicture())) {
-                user.setPictureUrl(oidcUser.getPicture());
-                changed = true;
+            SignInUser user = currentUser.get();
+            boolean changed = user.getAdmin() != admin
+                    || user.getProfessor() != professor
+                    || !Objects.equals(user.getFullName(), oidcUser.getFullName())
+                    || !Objects.equals(user.getEmail(), oidcUser.getEmail())
+                    || !Objects.equals(user.getGivenName(), oidcUser.getGivenName())
+                    || !Objects.equals(user.getPictureUrl(), oidcUser.getPicture());
+            if (changed) {
+                userRepository.findById(user.getId()).ifPresent(entity -> {
+                    entity.setAdmin(admin);
+                    entity.setProfessor(professor);
+                    entity.setFullName(oidcUser.getFullName());
+                    entity.setEmail(oidcUser.getEmail());
+                    entity.setGivenName(oidcUser.getGivenName());
+                    entity.setPictureUrl(oidcUser.getPicture());
+                    userRepository.save(entity);
+                });
             }
             if (user.getGithubId() != 0 && user.getGithubLogin() != null) {
                 authorities.add(new SimpleGrantedAuthority("ROLE_GITHUB"));
             }
-
-            if (changed) {
-                userRepository.save(user);
-            }
         } else {
             User newUser = User.builder()
                     .googleSub(oidcUser.getSubject())
@@ -81,13 +76,9 @@ public class GoogleSignInServiceImpl extends OidcUserService implements GoogleSi
                     .email(oidcUser.getEmail())
                     .givenName(oidcUser.getGivenName())
                     .pictureUrl(oidcUser.getPicture())
+                    .admin(admin)
+                    .professor(professor)
                     .build();
-            if (adminEmails.contains(oidcUser.getEmail())) {
-                newUser.setAdmin(true);
-                authorities.add(new SimpleGrantedAuthority("ROLE_ADMIN"));
-            } else {
-                authorities.add(new SimpleGrantedAuthority("ROLE_USER"));
-            }
             userRepository.save(newUser);
         }
         authorities.addAll(oidcUser.getAuthorities());
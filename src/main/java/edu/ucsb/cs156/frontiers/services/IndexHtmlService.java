@@ -0,0 +1,138 @@
+package edu.ucsb.cs156.frontiers.services;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Serves the frontend's index.html from memory.
+ *
+ * index.html, and the index.html.br and index.html.gz that the frontend build
+ * writes next to it, are read once at startup. Each variant has a strong ETag
+ * derived from its content, so browsers revalidate (index.html must never be
+ * cached without checking, as it names the current hashed bundles) and
+ * usually get a 304 back.
+ */
+@Slf4j
+@Service
+public class IndexHtmlService {
+
+  private static final MediaType TEXT_HTML_UTF8 = MediaType.parseMediaType("text/html;charset=UTF-8");
+
+  /** The variants, keyed by Content-Encoding ("" for none), in order of preference */
+  private final Map<String, Variant> variants = new LinkedHashMap<>();
+
+  record Variant(String encoding, byte[] body, String etag) {
+  }
+
+  /**
+   * @param resourceLoader used to find index.html
+   * @param location       where index.html is, e.g. classpath:/public/index.html
+   */
+  public IndexHtmlService(ResourceLoader resourceLoader,
+      @Value("${app.frontend.index:classpath:/public/index.html}") String location) throws IOException {
+    Resource index = resourceLoader.getResource(location);
+    if (!index.exists()) {
+      log.info("No frontend at {}; / will return 404", location);
+      return;
+    }
+    byte[] html = index.getContentAsByteArray();
+    String etag = DigestUtils.md5DigestAsHex(html);
+    add("br", index, ".br", etag);
+    add("gzip", index, ".gz", etag);
+    variants.put("", new Variant("", html, "\"" + etag + "\""));
+    log.info("Serving {} from memory ({} bytes; encodings: {})", location, html.length, variants.keySet());
+  }
+
+  private void add(String encoding, Resource index, String extension, String etag) throws IOException {
+    Resource encoded = index.createRelative(index.getFilename() + extension);
+    if (encoded.exists()) {
+      variants.put(encoding, new Variant(encoding, encoded.getContentAsByteArray(), "\"" + etag + "-" + encoding + "\""));
+    }
+  }
+
+  /**
+   * The response to a request for index.html.
+   *
+   * @param ifNoneMatch    the request's If-None-Match header, or null
+   * @param acceptEncoding the request's Accept-Encoding header, or null
+   * @return index.html in the best encoding the client accepts, 304 if the
+   *         client already has it, or 404 if there is no frontend
+   */
+  public ResponseEntity<byte[]> response(String ifNoneMatch, String acceptEncoding) {
+    Variant variant = variants.values().stream()
+        .filter(v -> accepts(acceptEncoding, v.encoding()))
+        .findFirst()
+        .orElse(null);
+    if (variant == null) {
+      return ResponseEntity.notFound().build();
+    }
+    boolean notModified = ifNoneMatch != null && matches(ifNoneMatch, variant.etag());
+    ResponseEntity.BodyBuilder builder = ResponseEntity.status(notModified ? HttpStatus.NOT_MODIFIED : HttpStatus.OK)
+        .eTag(variant.etag())
+        .cacheControl(CacheControl.noCache())
+        .varyBy(HttpHeaders.ACCEPT_ENCODING)
+        .contentType(TEXT_HTML_UTF8);
+    if (!variant.encoding().isEmpty()) {
+      builder.header(HttpHeaders.CONTENT_ENCODING, variant.encoding());
+    }
+    return notModified ? builder.build() : builder.body(variant.body());
+  }
+
+  static boolean matches(String ifNoneMatch, String etag) {
+    for (String candidate : ifNoneMatch.split(",")) {
+      String tag = candidate.trim();
+      if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return whether an Accept-Encoding header allows an encoding; no encoding is
+   *         always acceptable
+   */
+  static boolean accepts(String acceptEncoding, String encoding) {
+    if (encoding.isEmpty()) {
+      return true;
+    }
+    if (acceptEncoding == null) {
+      return false;
+    }
+    for (String entry : acceptEncoding.split(",")) {
+      String[] parts = entry.split(";");
+      if (parts[0].trim().equalsIgnoreCase(encoding)) {
+        return !isZeroQuality(parts);
+      }
+    }
+    return false;
+  }
+
+  private static boolean isZeroQuality(String[] parts) {
+    for (int i = 1; i < parts.length; i++) {
+      String parameter = parts[i].trim();
+      if (parameter.startsWith("q=")) {
+        try {
+          return Double.parseDouble(parameter.substring(2)) == 0;
+        } catch (NumberFormatException e) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+}
@@ -35,16 +35,23 @@ public class JwtService {
     @Value("${app.client.id:no-client-id}")
     private String clientId;
 
+    @Value("${app.github.api.url:https://api.github.com}")
+    private String githubApiUrl;
+
     private final RestTemplate restTemplate;
 
     private final ObjectMapper objectMapper;
 
     private final DateTimeProvider  dateTimeProvider;
 
-    public JwtService(RestTemplateBuilder restTemplateBuilder,  ObjectMapper objectMapper, DateTimeProvider dateTimeProvider) {
+    private final GithubRateLimitGovernor rateLimitGovernor;
+
+    public JwtService(RestTemplateBuilder restTemplateBuilder,  ObjectMapper objectMapper, DateTimeProvider dateTimeProvider,
+                      GithubRateLimitGovernor rateLimitGovernor) {
         this.restTemplate = restTemplateBuilder.build();
         this.objectMapper = objectMapper;
         this.dateTimeProvider = dateTimeProvider;
+        this.rateLimitGovernor = rateLimitGovernor;
     }
 
     private RSAPrivateKey getPrivateKey() throws NoSuchAlgorithmException, InvalidKeySpecException {
@@ -75,7 +82,9 @@ public class JwtService {
     }
 
     /**
-     * Method to retrieve a token to act as a particular app installation in a particular organization
+     * Method to retrieve a token to act as a particular app installation in a particular organization.
+     * The token is registered with the {@link GithubRateLimitGovernor} so that requests made with it
+     * count against that installation's rate limit.
      *
      * @param course ID of the particular app installation to act as
      * @return Token accepted by GitHub to act as a particular installation.
@@ -85,7 +94,7 @@ public class JwtService {
             throw new NoLinkedOrganizationException(course.getCourseName());
         }else {
             String token = getJwt();
-            String ENDPOINT = "https://api.github.com/app/installations/" + course.getOrgName() + "/access_tokens";
+            String ENDPOINT = githubApiUrl + "/app/installations/" + course.getOrgName() + "/access_tokens";
             HttpHeaders headers = new HttpHeaders();
             headers.add("Authorization", "Bearer " + token);
             headers.add("Accept", "application/vnd.github+json");
@@ -94,6 +103,7 @@ public class JwtService {
             ResponseEntity<String> response = restTemplate.exchange(ENDPOINT, HttpMethod.POST, entity, String.class);
             JsonNode responseJson = objectMapper.readTree(response.getBody());
             String installationToken = responseJson.get("token").asText();
+            rateLimitGovernor.registerToken(installationToken, course.getInstallationId());
             return installationToken;
         }
     }
@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import edu.ucsb.cs156.frontiers.errors.InvalidInstallationTypeException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -20,6 +21,9 @@ import java.security.spec.InvalidKeySpecException;
 public class OrganizationLinkerService {
     private RestTemplate restTemplate;
 
+    @Value("${app.github.api.url:https://api.github.com}")
+    private String githubApiUrl;
+
     @Autowired
     JwtService jwtService;
 
@@ -40,7 +44,7 @@ public class OrganizationLinkerService {
         requestHeaders.add("Authorization", "Bearer " + token);
         requestHeaders.add("Accept", "application/vnd.github+json");
         requestHeaders.add("X-GitHub-Api-Version", "2022-11-28");
-        String ENDPOINT = "https://api.github.com/app";
+        String ENDPOINT = githubApiUrl + "/app";
         HttpEntity<String> newEntity = new HttpEntity<>(requestHeaders);
         ResponseEntity<String> response = restTemplate.exchange(ENDPOINT, HttpMethod.GET,  newEntity, String.class);
 
@@ -57,7 +61,7 @@ public class OrganizationLinkerService {
      */
     public String getOrgName(String installation_id) throws NoSuchAlgorithmException, InvalidKeySpecException, JsonProcessingException {
         String token = jwtService.getJwt();
-        String ENDPOINT = "https://api.github.com/app/installations/" + installation_id;
+        String ENDPOINT = githubApiUrl + "/app/installations/" + installation_id;
 
         HttpHeaders headers = new HttpHeaders();
         headers.add("Authorization", "Bearer " + token);
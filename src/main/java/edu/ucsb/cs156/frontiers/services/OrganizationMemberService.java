@@ -3,9 +3,11 @@ package edu.ucsb.cs156.frontiers.services;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import edu.ucsb.cs156.frontiers.entities.Course;
 import edu.ucsb.cs156.frontiers.models.OrgMember;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -29,18 +31,46 @@ public class OrganizationMemberService {
     private final JwtService jwtService;
     private final ObjectMapper objectMapper;
     private final RestTemplate restTemplate;
+    private final GithubGraphQLService graphQLService;
 
-    public OrganizationMemberService(JwtService jwtService, ObjectMapper objectMapper, RestTemplateBuilder builder) {
+    @Value("${app.github.api.url:https://api.github.com}")
+    private String githubApiUrl;
+
+    //happily stolen directly from GitHub: https://docs.github.com/en/rest/using-the-rest-api/using-pagination-in-the-rest-api?apiVersion=2022-11-28
+    private static final Pattern NEXT_PAGE = Pattern.compile("(?<=<)([\\S]*)(?=>; rel=\"next\")");
+
+    private static final String MEMBERS_QUERY = """
+            query($org: String!, $cursor: String) {
+              organization(login: $org) {
+                membersWithRole(first: %d, after: $cursor) {
+                  pageInfo { hasNextPage endCursor }
+                  nodes { login databaseId }
+                }
+              }
+            }
+            """.formatted(GithubGraphQLService.PAGE_SIZE);
+
+    public OrganizationMemberService(JwtService jwtService, ObjectMapper objectMapper, RestTemplateBuilder builder,
+                                     GithubGraphQLService graphQLService) {
         this.jwtService = jwtService;
+        this.graphQLService = graphQLService;
         this.objectMapper = objectMapper;
         this.objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
         this.restTemplate = builder.build();
     }
 
+    /**
+     * Lists the members of the course's organization: over GraphQL, 100 members per request, when
+     * {@link GithubGraphQLService#isEnabled() enabled}, otherwise page by page over REST.
+     *
+     * @param course the course whose organization is listed
+     * @return the members of the organization
+     */
     public Iterable<OrgMember> getOrganizationMembers(Course course) throws NoSuchAlgorithmException, InvalidKeySpecException, JsonProcessingException {
-        String ENDPOINT = "https://api.github.com/orgs/" + course.getOrgName() + "/members";
-        //happily stolen directly from GitHub: https://docs.github.com/en/rest/using-the-rest-api/using-pagination-in-the-rest-api?apiVersion=2022-11-28
-        Pattern pattern = Pattern.compile("(?<=<)([\\S]*)(?=>; rel=\"next\")");
+        if (graphQLService.isEnabled()) {
+            return getOrganizationMembersWithGraphQL(course);
+        }
+        String ENDPOINT = githubApiUrl + "/orgs/" + course.getOrgName() + "/members";
         String token = jwtService.getInstallationToken(course);
         HttpHeaders headers = new HttpHeaders();
         headers.add("Authorization", "Bearer " + token);
@@ -48,18 +78,46 @@ public class OrganizationMemberService {
         headers.add("X-GitHub-Api-Version", "2022-11-28");
         HttpEntity<String> entity = new HttpEntity<>(headers);
         ResponseEntity<String> response = restTemplate.exchange(ENDPOINT, HttpMethod.GET, entity, String.class);
-        List<String> responseLinks = response.getHeaders().getOrEmpty("link");
         List<OrgMember> orgMembers = new ArrayList<>();
-        while (!responseLinks.isEmpty()&&responseLinks.getFirst().contains("next")) {
+        String nextPage = nextPageUrl(response.getHeaders().getOrEmpty("link"));
+        while (nextPage != null) {
             orgMembers.addAll(objectMapper.convertValue(objectMapper.readTree(response.getBody()), new TypeReference<List<OrgMember>>() {
             }));
-            Matcher matcher = pattern.matcher(responseLinks.getFirst());
-            matcher.find();
-            response = restTemplate.exchange(matcher.group(0), HttpMethod.GET, entity, String.class);
-            responseLinks = response.getHeaders().getOrEmpty("link");
+            response = restTemplate.exchange(nextPage, HttpMethod.GET, entity, String.class);
+            nextPage = nextPageUrl(response.getHeaders().getOrEmpty("link"));
         }
         orgMembers.addAll(objectMapper.convertValue(objectMapper.readTree(response.getBody()), new TypeReference<List<OrgMember>>() {
         }));
         return orgMembers;
     }
+
+    /**
+     * Finds the URL of the next page in the Link header of a paginated REST response.
+     *
+     * @param linkHeaders values of the response's Link header
+     * @return the URL of the next page, or null on the last page
+     */
+    static String nextPageUrl(List<String> linkHeaders) {
+        if (linkHeaders.isEmpty()) {
+            return null;
+        }
+        Matcher matcher = NEXT_PAGE.matcher(linkHeaders.getFirst());
+        return matcher.find() ? matcher.group() : null;
+    }
+
+    private List<OrgMember> getOrganizationMembersWithGraphQL(Course course) throws NoSuchAlgorithmException, InvalidKeySpecException, JsonProcessingException {
+        List<OrgMember> orgMembers = new ArrayList<>();
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("org", course.getOrgName());
+        boolean hasNextPage = true;
+        while (hasNextPage) {
+            JsonNode members = graphQLService.query(course, MEMBERS_QUERY, variables).path("organization").path("membersWithRole");
+            for (JsonNode node : members.path("nodes")) {
+                orgMembers.add(OrgMember.builder().githubId(node.path("databaseId").asInt()).githubLogin(node.path("login").asText()).build());
+            }
+            hasNextPage = members.path("pageInfo").path("hasNextPage").asBoolean();
+            variables.put("cursor", members.path("pageInfo").path("endCursor").asText());
+        }
+        return orgMembers;
+    }
 }
@@ -1,9 +1,13 @@
 package edu.ucsb.cs156.frontiers.services;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import edu.ucsb.cs156.frontiers.entities.Course;
 import edu.ucsb.cs156.frontiers.entities.RosterStudent;
+import edu.ucsb.cs156.frontiers.enums.RepositoryAccessMode;
+import edu.ucsb.cs156.frontiers.services.jobs.JobContext;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
@@ -13,18 +17,120 @@ import org.springframework.web.client.RestTemplate;
 import java.security.NoSuchAlgorithmException;
 import java.security.spec.InvalidKeySpecException;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class RepositoryService {
+
     private final JwtService  jwtService;
     private final RestTemplate restTemplate;
     private final ObjectMapper mapper;
+    private final GithubGraphQLService graphQLService;
+
+    @Value("${app.github.api.url:https://api.github.com}")
+    private String githubApiUrl;
+
+    @Value("${app.github.template.readyAttempts:10}")
+    private int templateReadyAttempts;
 
-    public RepositoryService(JwtService jwtService, RestTemplateBuilder restTemplateBuilder, ObjectMapper mapper) {
+    @Value("${app.github.template.readyPollMillis:1000}")
+    private long templateReadyPollMillis;
+
+    public RepositoryService(JwtService jwtService, RestTemplateBuilder restTemplateBuilder, ObjectMapper mapper,
+                             GithubGraphQLService graphQLService) {
         this.jwtService = jwtService;
         this.restTemplate = restTemplateBuilder.build();
         this.mapper = mapper;
+        this.graphQLService = graphQLService;
+    }
+
+    /**
+     * @param repoPrefix Name of the project or assignment
+     * @param student RosterStudent the repository is for
+     * @return the name of the student's repository, in the format repoPrefix-githubLogin
+     */
+    public static String studentRepositoryName(String repoPrefix, RosterStudent student) {
+        return repoPrefix+"-"+student.getGithubLogin();
+    }
+
+    /**
+     * @param student RosterStudent the team is for
+     * @return the slug of the student's team in {@link RepositoryAccessMode#TEAM TEAM} mode
+     */
+    public static String studentTeamSlug(RosterStudent student) {
+        return ("student-"+student.getGithubLogin()).toLowerCase();
+    }
+
+    /**
+     * Lists the teams of the course's organization, 100 per request.
+     * @param course The Course in question
+     * @return the slugs of the organization's teams
+     */
+    public Set<String> findTeamSlugs(Course course) throws NoSuchAlgorithmException, InvalidKeySpecException, JsonProcessingException {
+        HttpEntity<String> entity = new HttpEntity<>(githubHeaders(jwtService.getInstallationToken(course)));
+        Set<String> slugs = new HashSet<>();
+        String endpoint = githubApiUrl + "/orgs/"+course.getOrgName()+"/teams?per_page=100";
+        while (endpoint != null) {
+            ResponseEntity<String> response = restTemplate.exchange(endpoint, HttpMethod.GET, entity, String.class);
+            for (JsonNode team : mapper.readTree(response.getBody())) {
+                slugs.add(team.get("slug").asText());
+            }
+            endpoint = OrganizationMemberService.nextPageUrl(response.getHeaders().getOrEmpty("link"));
+        }
+        return slugs;
+    }
+
+    /**
+     * Creates the student's own team, with the student as its maintainer, for {@link RepositoryAccessMode#TEAM TEAM} mode.
+     * The team is secret, so that only its member and the organization's owners can see it.
+     * @param course The Course in question
+     * @param student RosterStudent the team is for
+     */
+    public void createStudentTeam(Course course, RosterStudent student) throws NoSuchAlgorithmException, InvalidKeySpecException, JsonProcessingException {
+        Map<String, Object> body = new HashMap<>();
+        body.put("name", studentTeamSlug(student));
+        body.put("privacy", "secret");
+        body.put("maintainers", List.of(student.getGithubLogin()));
+        HttpEntity<String> entity = new HttpEntity<>(mapper.writeValueAsString(body), githubHeaders(jwtService.getInstallationToken(course)));
+        restTemplate.exchange(githubApiUrl + "/orgs/"+course.getOrgName()+"/teams", HttpMethod.POST, entity, String.class);
+    }
+
+    /**
+     * Looks up which of the named repositories already exist in the course's organization, 100 per GraphQL query.
+     * @param course The Course in question
+     * @param repositoryNames names of the repositories to look for
+     * @return the names of those that exist, or empty if GraphQL is not {@link GithubGraphQLService#isEnabled() enabled},
+     * in which case callers should rely on the existence check in {@link #createStudentRepository}
+     */
+    public Optional<Set<String>> findExistingRepositories(Course course, List<String> repositoryNames) throws NoSuchAlgorithmException, InvalidKeySpecException, JsonProcessingException {
+        if (!graphQLService.isEnabled()) {
+            return Optional.empty();
+        }
+        Set<String> existing = new HashSet<>();
+        for (int start = 0; start < repositoryNames.size(); start += GithubGraphQLService.PAGE_SIZE) {
+            List<String> batch = repositoryNames.subList(start, Math.min(start + GithubGraphQLService.PAGE_SIZE, repositoryNames.size()));
+            StringBuilder parameters = new StringBuilder("$owner: String!");
+            StringBuilder fields = new StringBuilder();
+            Map<String, Object> variables = new HashMap<>();
+            variables.put("owner", course.getOrgName());
+            for (int i = 0; i < batch.size(); i++) {
+                parameters.append(", $n").append(i).append(": String!");
+                fields.append("  r").append(i).append(": repository(owner: $owner, name: $n").append(i).append(") { name }\n");
+                variables.put("n" + i, batch.get(i));
+            }
+            String query = "query(" + parameters + ") {\n" + fields + "}";
+            JsonNode data = graphQLService.query(course, query, variables);
+            for (int i = 0; i < batch.size(); i++) {
+                if (data.hasNonNull("r" + i)) {
+                    existing.add(batch.get(i));
+                }
+            }
+        }
+        return Optional.of(existing);
     }
 
     /**
@@ -34,12 +140,23 @@ public class RepositoryService {
      * @param repoPrefix Name of the project or assignment. Used to title the repository, in the format repoPrefix-githubLogin
      * @param isPrivate Whether the repository is private or not
      */
-    public void createStudentRepository(Course course, RosterStudent student, String repoPrefix, Boolean isPrivate) throws NoSuchAlgorithmException, InvalidKeySpecException, JsonProcessingException {
-        String newRepoName = repoPrefix+"-"+student.getGithubLogin();
+    public void createStudentRepository(Course course, RosterStudent student, String repoPrefix, Boolean isPrivate) throws NoSuchAlgorithmException, InvalidKeySpecException, JsonProcessingException, InterruptedException {
+        createStudentRepository(course, student, repoPrefix, isPrivate, RepositoryAccessMode.COLLABORATOR, null);
+    }
+
+    /**
+     * Creates a single student repository if it doesn't already exist, and provisions access to the repository by that student
+     * @param course The Course in question
+     * @param student RosterStudent of the student the repository should be created for
+     * @param repoPrefix Name of the project or assignment. Used to title the repository, in the format repoPrefix-githubLogin
+     * @param isPrivate Whether the repository is private or not
+     * @param accessMode How the student is given access; in {@link RepositoryAccessMode#TEAM TEAM} mode the student's team must already exist
+     * @param templateRepository "owner/repo" of a template repository to generate the repository from, or null for an empty repository
+     */
+    public void createStudentRepository(Course course, RosterStudent student, String repoPrefix, Boolean isPrivate, RepositoryAccessMode accessMode, String templateRepository) throws NoSuchAlgorithmException, InvalidKeySpecException, JsonProcessingException, InterruptedException {
+        String newRepoName = studentRepositoryName(repoPrefix, student);
         String token = jwtService.getInstallationToken(course);
-        String existenceEndpoint = "https://api.github.com/repos/"+course.getOrgName()+"/"+newRepoName;
-        String createEndpoint = "https://api.github.com/orgs/"+course.getOrgName()+"/repos";
-        String provisionEndpoint = "https://api.github.com/repos/"+course.getOrgName()+"/"+newRepoName+"/collaborators/"+student.getGithubLogin();
+        String existenceEndpoint = githubApiUrl + "/repos/"+course.getOrgName()+"/"+newRepoName;
         HttpHeaders existenceHeaders = new HttpHeaders();
         existenceHeaders.add("Authorization", "Bearer " + token);
         existenceHeaders.add("Accept", "application/vnd.github+json");
@@ -51,27 +168,89 @@ public class RepositoryService {
             restTemplate.exchange(existenceEndpoint, HttpMethod.GET, existenceEntity, String.class);
         } catch(HttpClientErrorException e){
             if(e.getStatusCode().equals(HttpStatus.NOT_FOUND)){
-                HttpHeaders createHeaders = new HttpHeaders();
-                createHeaders.add("Authorization", "Bearer " + token);
-                createHeaders.add("Accept", "application/vnd.github+json");
-                createHeaders.add("X-GitHub-Api-Version", "2022-11-28");
+                createRepository(course, student, newRepoName, isPrivate, accessMode, templateRepository, token);
+            } else {
+                // e.g. a rate limit, which the caller may retry
+                throw e;
+            }
+        }
 
-                Map<String, Object> body  = new HashMap<>();
-                body.put("name", newRepoName);
-                body.put("private",  isPrivate);
-                String bodyAsJson =  mapper.writeValueAsString(body);
+    }
 
-                HttpEntity<String> createEntity = new HttpEntity<>(bodyAsJson, createHeaders);
+    /**
+     * Creates a student repository that is already known not to exist, e.g. from {@link #findExistingRepositories},
+     * and provisions access to it by that student
+     * @param course The Course in question
+     * @param student RosterStudent of the student the repository should be created for
+     * @param repoPrefix Name of the project or assignment. Used to title the repository, in the format repoPrefix-githubLogin
+     * @param isPrivate Whether the repository is private or not
+     * @param accessMode How the student is given access; in {@link RepositoryAccessMode#TEAM TEAM} mode the student's team must already exist
+     * @param templateRepository "owner/repo" of a template repository to generate the repository from, or null for an empty repository
+     */
+    public void createMissingStudentRepository(Course course, RosterStudent student, String repoPrefix, Boolean isPrivate, RepositoryAccessMode accessMode, String templateRepository) throws NoSuchAlgorithmException, InvalidKeySpecException, JsonProcessingException, InterruptedException {
+        createRepository(course, student, studentRepositoryName(repoPrefix, student), isPrivate, accessMode, templateRepository, jwtService.getInstallationToken(course));
+    }
 
-                restTemplate.exchange(createEndpoint, HttpMethod.POST, createEntity, String.class);
-                Map<String, Object> provisionBody  = new HashMap<>();
-                provisionBody.put("permission", "admin");
-                String provisionAsJson =  mapper.writeValueAsString(provisionBody);
+    private void createRepository(Course course, RosterStudent student, String newRepoName, Boolean isPrivate, RepositoryAccessMode accessMode, String templateRepository, String token) throws JsonProcessingException, InterruptedException {
+        String createEndpoint = templateRepository == null
+                ? githubApiUrl + "/orgs/"+course.getOrgName()+"/repos"
+                : githubApiUrl + "/repos/"+templateRepository+"/generate";
+        String provisionEndpoint = accessMode == RepositoryAccessMode.TEAM
+                ? githubApiUrl + "/orgs/"+course.getOrgName()+"/teams/"+studentTeamSlug(student)+"/repos/"+course.getOrgName()+"/"+newRepoName
+                : githubApiUrl + "/repos/"+course.getOrgName()+"/"+newRepoName+"/collaborators/"+student.getGithubLogin();
+        HttpHeaders createHeaders = githubHeaders(token);
 
-                HttpEntity<String> provisionEntity = new HttpEntity<>(provisionAsJson, createHeaders);
-                restTemplate.exchange(provisionEndpoint, HttpMethod.PUT, provisionEntity, String.class);
-            }
+        Map<String, Object> body  = new HashMap<>();
+        body.put("name", newRepoName);
+        body.put("private",  isPrivate);
+        if (templateRepository != null) {
+            body.put("owner", course.getOrgName());
+        }
+        String bodyAsJson =  mapper.writeValueAsString(body);
+
+        HttpEntity<String> createEntity = new HttpEntity<>(bodyAsJson, createHeaders);
+
+        restTemplate.exchange(createEndpoint, HttpMethod.POST, createEntity, String.class);
+        if (templateRepository != null) {
+            awaitTemplateContents(course, newRepoName, createHeaders);
+        }
+        Map<String, Object> provisionBody  = new HashMap<>();
+        provisionBody.put("permission", "admin");
+        String provisionAsJson =  mapper.writeValueAsString(provisionBody);
+
+        HttpEntity<String> provisionEntity = new HttpEntity<>(provisionAsJson, createHeaders);
+        restTemplate.exchange(provisionEndpoint, HttpMethod.PUT, provisionEntity, String.class);
+    }
+
+    /**
+     * GitHub copies the template's contents into a generated repository after /generate has returned.
+     * Waits, checking up to templateReadyAttempts times, templateReadyPollMillis apart, until the repository
+     * has a branch, so that the student is not given access to a repository that is still being filled.
+     * Access is given anyway once the checks run out, as it was before the wait was added.
+     */
+    private void awaitTemplateContents(Course course, String repoName, HttpHeaders headers) throws JsonProcessingException, InterruptedException {
+        String endpoint = githubApiUrl + "/repos/"+course.getOrgName()+"/"+repoName+"/branches?per_page=1";
+        HttpEntity<String> entity = new HttpEntity<>(headers);
+        for (int attempt = 1; !hasBranch(endpoint, entity) && attempt < templateReadyAttempts; attempt++) {
+            JobContext.sleep(templateReadyPollMillis);
+        }
+    }
+
+    private boolean hasBranch(String branchesEndpoint, HttpEntity<String> entity) throws JsonProcessingException {
+        try {
+            ResponseEntity<String> response = restTemplate.exchange(branchesEndpoint, HttpMethod.GET, entity, String.class);
+            return !mapper.readTree(response.getBody()).isEmpty();
+        } catch (HttpClientErrorException.NotFound e) {
+            // the new repository is not visible yet
+            return false;
         }
+    }
 
+    private static HttpHeaders githubHeaders(String token) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("Authorization", "Bearer " + token);
+        headers.add("Accept", "application/vnd.github+json");
+        headers.add("X-GitHub-Api-Version", "2022-11-28");
+        return headers;
     }
 }
@@ -13,7 +13,9 @@ import com.opencsv.bean.StatefulBeanToCsv;
 import com.opencsv.bean.StatefulBeanToCsvBuilder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import edu.ucsb.cs156.frontiers.datasource.ReadFromReplica;
 import edu.ucsb.cs156.frontiers.entities.RosterStudent;
 import edu.ucsb.cs156.frontiers.models.RosterStudentDTO;
 import edu.ucsb.cs156.frontiers.repositories.RosterStudentRepository;
@@ -31,6 +33,8 @@ public class RosterStudentDTOService {
      * @param courseId if of the course
      * @return a list of RosterStudentDTOs
      */
+    @Transactional(readOnly = true)
+    @ReadFromReplica
     public List<RosterStudentDTO> getRosterStudentDTOs(Long courseId) {
         Iterable<RosterStudent> matchedStudents = rosterStudentRepository.findByCourseId(courseId);
         
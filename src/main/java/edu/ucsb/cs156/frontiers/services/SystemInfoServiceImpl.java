@@ -1,5 +1,6 @@
 package edu.ucsb.cs156.frontiers.services;
 
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -42,14 +43,15 @@ public class SystemInfoServiceImpl extends SystemInfoService {
     return commit != null && repo != null ? repo + "/commit/" + commit : null;
   }
 
+  private SystemInfo systemInfo;
+
   /**
-   * This method returns the system information.
-   * 
-   * @see edu.ucsb.cs156.frontiers.models.SystemInfo
-   * @return the system information
+   * Works out the system information once; it only depends on properties,
+   * which don't change while the app runs.
    */
-  public SystemInfo getSystemInfo() {
-    SystemInfo si = SystemInfo.builder()
+  @PostConstruct
+  void init() {
+    systemInfo = SystemInfo.builder()
         .springH2ConsoleEnabled(this.springH2ConsoleEnabled)
         .showSwaggerUILink(this.showSwaggerUILink)
         .oauthLogin(this.oauthLogin)
@@ -58,8 +60,17 @@ public class SystemInfoServiceImpl extends SystemInfoService {
         .commitId(this.commitId)
         .githubUrl(githubUrl(this.sourceRepo, this.commitId))
         .build();
-    log.info("getSystemInfo returns {}", si);
-    return si;
+    log.info("System info: {}", systemInfo);
+  }
+
+  /**
+   * This method returns the system information.
+   * 
+   * @see edu.ucsb.cs156.frontiers.models.SystemInfo
+   * @return the system information (always the same object)
+   */
+  public SystemInfo getSystemInfo() {
+    return systemInfo;
   }
 
 }
@@ -0,0 +1,111 @@
+package edu.ucsb.cs156.frontiers.services;
+
+import java.time.Clock;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Service;
+
+import edu.ucsb.cs156.frontiers.repositories.AdminRepository;
+
+/**
+ * This is a service that works out which role a user signs in with, from
+ * their email: ROLE_ADMIN for emails in ADMIN_EMAILS or the admins table,
+ * ROLE_PROFESSOR for emails in the instructors table, and ROLE_USER for
+ * everyone else. The admin and professor flags of users are only a record of
+ * the role they last signed in with; users who were flagged before these tables
+ * decided roles were copied into them by the 014-Users-backfill-roles changeset.
+ *
+ * Roles are cached by email for {@code app.roles.cacheSeconds}, so that a
+ * burst of sign-ins doesn't look up the same email over and over. Adding or
+ * removing an admin or instructor publishes {@link RolesChanged}, which drops
+ * that email from the cache; the expiry covers changes made through other
+ * instances of the app.
+ */
+@Service
+public class UserRolesService {
+
+  public static final GrantedAuthority ADMIN = new SimpleGrantedAuthority("ROLE_ADMIN");
+  public static final GrantedAuthority PROFESSOR = new SimpleGrantedAuthority("ROLE_PROFESSOR");
+  public static final GrantedAuthority USER = new SimpleGrantedAuthority("ROLE_USER");
+
+  /**
+   * Published when an email is added to or removed from the admins or
+   * instructors table.
+   *
+   * @param email the email whose role may have changed
+   */
+  public record RolesChanged(String email) {
+  }
+
+  private record CachedRole(GrantedAuthority role, long expiresAt) {
+  }
+
+  @Autowired
+  private AdminRepository adminRepository;
+
+  private final Set<String> adminEmails = new HashSet<>();
+
+  @Value("${app.roles.cacheSeconds:300}")
+  private long cacheSeconds;
+
+  private Clock clock = Clock.systemUTC();
+
+  private final Map<String, CachedRole> cache = new ConcurrentHashMap<>();
+
+  @Value("#{'${app.admin.emails}'.split(',')}")
+  void setAdminEmails(List<String> adminEmails) {
+    this.adminEmails.clear();
+    adminEmails.stream().map(String::trim).forEach(this.adminEmails::add);
+  }
+
+  /**
+   * @param email the user's email (may be null)
+   * @return the role the user signs in with
+   */
+  public GrantedAuthority getRole(String email) {
+    if (email == null) {
+      return USER;
+    }
+    if (adminEmails.contains(email)) {
+      return ADMIN;
+    }
+    long now = clock.millis();
+    CachedRole cached = cache.get(email);
+    if (cached == null || cached.expiresAt() <= now) {
+      cached = new CachedRole(lookUp(email), now + cacheSeconds * 1000);
+      cache.put(email, cached);
+    }
+    return cached.role();
+  }
+
+  private GrantedAuthority lookUp(String email) {
+    List<String> tables = adminRepository.findRolesByEmail(email);
+    if (tables.contains("ADMIN")) {
+      return ADMIN;
+    }
+    if (tables.contains("INSTRUCTOR")) {
+      return PROFESSOR;
+    }
+    return USER;
+  }
+
+  /**
+   * Drops an email's role from the cache, so that it is looked up again at the
+   * next sign-in.
+   *
+   * @param event the email whose role may have changed
+   */
+  @EventListener
+  public void rolesChanged(RolesChanged event) {
+    cache.remove(event.email());
+  }
+}
@@ -0,0 +1,78 @@
+package edu.ucsb.cs156.frontiers.services.jobs;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+
+/**
+ * Why a unit of work in a job failed, as far as retrying it is concerned.
+ */
+public enum FailureCategory {
+  /** GitHub's primary or secondary rate limit; worth retrying once it resets */
+  RATE_LIMITED(true),
+  /** The target already exists or is in a conflicting state (409, 422) */
+  CONFLICT(false),
+  /** The app is not allowed to do this (401, 403) */
+  PERMISSION(false),
+  /** A 5xx response or a network error */
+  TRANSIENT(true),
+  /** Anything else */
+  OTHER(false);
+
+  private final boolean retryable;
+
+  FailureCategory(boolean retryable) {
+    this.retryable = retryable;
+  }
+
+  public boolean isRetryable() {
+    return retryable;
+  }
+
+  /**
+   * @return the category name in lower case, for log messages
+   */
+  public String label() {
+    return name().toLowerCase().replace('_', ' ');
+  }
+
+  /**
+   * Categorizes an exception thrown while calling the GitHub API.
+   *
+   * @param e the exception
+   * @return its category
+   */
+  public static FailureCategory of(Exception e) {
+    if (e instanceof ResourceAccessException) {
+      return TRANSIENT;
+    }
+    if (!(e instanceof HttpStatusCodeException httpException)) {
+      return OTHER;
+    }
+    if (httpException.getStatusCode().is5xxServerError()) {
+      return TRANSIENT;
+    }
+    int status = httpException.getStatusCode().value();
+    if (status == HttpStatus.TOO_MANY_REQUESTS.value()) {
+      return RATE_LIMITED;
+    }
+    if (status == HttpStatus.FORBIDDEN.value() && isRateLimit(httpException.getResponseHeaders())) {
+      return RATE_LIMITED;
+    }
+    if (status == HttpStatus.FORBIDDEN.value() || status == HttpStatus.UNAUTHORIZED.value()) {
+      return PERMISSION;
+    }
+    if (status == HttpStatus.CONFLICT.value() || status == HttpStatus.UNPROCESSABLE_ENTITY.value()) {
+      return CONFLICT;
+    }
+    return OTHER;
+  }
+
+  // GitHub signals rate limits on 403s with these headers:
+  // https://docs.github.com/en/rest/using-the-rest-api/rate-limits-for-the-rest-api
+  private static boolean isRateLimit(HttpHeaders headers) {
+    return headers != null
+        && ("0".equals(headers.getFirst("x-ratelimit-remaining")) || headers.containsKey(HttpHeaders.RETRY_AFTER));
+  }
+}
@@ -0,0 +1,11 @@
+package edu.ucsb.cs156.frontiers.services.jobs;
+
+/**
+ * Thrown by {@link JobContext#checkCancelled()} to unwind a job that has been
+ * asked to stop.
+ */
+public class JobCancelledException extends RuntimeException {
+  public JobCancelledException() {
+    super("Job cancelled");
+  }
+}
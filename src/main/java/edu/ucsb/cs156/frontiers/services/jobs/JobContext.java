@@ -1,20 +1,462 @@
 package edu.ucsb.cs156.frontiers.services.jobs;
 
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
 import edu.ucsb.cs156.frontiers.entities.Job;
 import edu.ucsb.cs156.frontiers.repositories.JobsRepository;
-import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
-@AllArgsConstructor
+/**
+ * The JobContext is handed to a running job so that it can write to its log.
+ *
+ * Besides saving the log to the database, the context pushes each new log line
+ * to any clients subscribed through {@link #subscribe(SseEmitter, long)}. Each
+ * log line is sent as a {@code log} event whose id is its 1-based line number,
+ * so a client that reconnects with a {@code Last-Event-ID} only receives the
+ * lines it has not seen yet. Every status change made through
+ * {@link #setStatus(String)} is sent as a {@code status} event.
+ *
+ * Events are queued for each subscriber and sent on the {@code eventExecutor},
+ * so a job never waits for a slow client. A client that falls more than
+ * {@link #MAX_PENDING_EVENTS} events behind is disconnected; EventSource then
+ * reconnects with its Last-Event-ID and catches up from the log.
+ *
+ * Jobs that work through a known number of units (repositories, students, ...)
+ * report structured progress with {@link #startProgress(int)},
+ * {@link #unitDone()} and {@link #unitFailed()}.
+ *
+ * Log lines and progress are kept on the job and saved at most once every
+ * {@link #SAVE_INTERVAL} (each save compresses the whole log again), when
+ * progress starts and when the last unit is reported; {@link #flush()} saves
+ * whatever is left once the job is done.
+ *
+ * Jobs are stopped cooperatively: {@link #cancel()} raises a flag that the job
+ * is expected to check with {@link #checkCancelled()} between units of work.
+ * Threads are never interrupted, as that could land in the middle of saving to
+ * the database; instead, waits go through {@link #sleep(long)}, which returns
+ * early with a {@link JobCancelledException} once the job is cancelled. The
+ * job's own thread is bound to its context, and a job that works on other
+ * threads binds its work with {@link #bind(Callable)}.
+ */
 @Slf4j
 public class JobContext {
+  /** The log and progress are saved at most this often while the job runs */
+  public static final Duration SAVE_INTERVAL = Duration.ofSeconds(1);
+
+  /** How many live events may wait to be sent to a subscriber before it is disconnected */
+  public static final int MAX_PENDING_EVENTS = 1000;
+
   private JobsRepository jobsRepository;
   private Job job;
 
-  public void log(String message) {
+  private final Executor eventExecutor;
+  private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+  private long linesLogged;
+  private boolean finished;
+
+  private final Clock clock;
+  private Instant lastSave = Instant.MIN;
+  private boolean unsaved;
+
+  /** The job each thread is working for, if any */
+  private static final ThreadLocal<JobContext> CURRENT = new ThreadLocal<>();
+  private static final ThreadLocal<Boolean> RUNNING_TO_COMPLETION = ThreadLocal.withInitial(() -> false);
+
+  private volatile boolean cancelled;
+  private final Object cancelLock = new Object();
+
+  /**
+   * A context whose stream events are sent on the thread that logs; for jobs
+   * run without subscribers, e.g. in tests.
+   *
+   * @param jobsRepository where the job is saved, or null to not save it
+   * @param job the job
+   */
+  public JobContext(JobsRepository jobsRepository, Job job) {
+    this(jobsRepository, job, Runnable::run);
+  }
+
+  /**
+   * @param jobsRepository where the job is saved, or null to not save it
+   * @param job the job
+   * @param eventExecutor sends the queued stream events to subscribers
+   */
+  public JobContext(JobsRepository jobsRepository, Job job, Executor eventExecutor) {
+    this(jobsRepository, job, eventExecutor, Clock.systemUTC());
+  }
+
+  JobContext(JobsRepository jobsRepository, Job job, Clock clock) {
+    this(jobsRepository, job, Runnable::run, clock);
+  }
+
+  JobContext(JobsRepository jobsRepository, Job job, Executor eventExecutor, Clock clock) {
+    this.jobsRepository = jobsRepository;
+    this.job = job;
+    this.eventExecutor = eventExecutor;
+    this.clock = clock;
+    this.linesLogged = lines(job.getLog()).length;
+  }
+
+  Job getJob() {
+    return job;
+  }
+
+  public synchronized void log(String message) {
     log.info("Job %s: %s".formatted(job.getId(), message));
-    String previousLog = job.getLog() == null ? "" : (job.getLog() + "\n");
-    job.setLog(previousLog + message);
+    boolean empty = job.getLog() == null || job.getLog().isEmpty();
+    job.setLog(empty ? message : job.getLog() + "\n" + message);
+    save(false);
+    // the lines this adds to the stored log, numbered as subscribe and replay split it:
+    // one per call and one per embedded newline, unless the log is still empty afterwards
+    String[] added = empty ? lines(message) : message.split("\n", -1);
+    for (String line : added) {
+      linesLogged++;
+      for (Subscriber subscriber : subscribers) {
+        subscriber.offer(logEvent(linesLogged, line));
+      }
+    }
+  }
+
+  /**
+   * Changes the job's status and sends it to all subscribers. The job is saved
+   * with the next log line or progress, or by {@link #flush()}.
+   *
+   * @param status the new status, e.g. "complete"
+   */
+  public synchronized void setStatus(String status) {
+    job.setStatus(status);
+    unsaved = true;
+    for (Subscriber subscriber : subscribers) {
+      subscriber.offer(statusEvent(status));
+    }
+  }
+
+  /**
+   * Starts structured progress reporting (or restarts it, for a job with
+   * several phases).
+   *
+   * @param total number of units of work the job is about to process
+   */
+  public synchronized void startProgress(int total) {
+    job.setProgressTotal(total);
+    job.setProgressDone(0);
+    job.setProgressFailed(0);
+    job.setProgressStartedAt(ZonedDateTime.now(clock));
+    save(true);
+  }
+
+  /** Records that a unit of work succeeded. */
+  public synchronized void unitDone() {
+    job.setProgressDone(job.getProgressDone() + 1);
+    save(isLastUnit());
+  }
+
+  /** Records that a unit of work failed. */
+  public synchronized void unitFailed() {
+    job.setProgressFailed(job.getProgressFailed() + 1);
+    save(isLastUnit());
+  }
+
+  private boolean isLastUnit() {
+    return job.getProgressTotal() != null
+        && job.getProgressDone() + job.getProgressFailed() >= job.getProgressTotal();
+  }
+
+  /**
+   * Saves the job, unless it was saved less than {@link #SAVE_INTERVAL} ago and
+   * {@code force} is false.
+   */
+  private void save(boolean force) {
+    Instant now = clock.instant();
+    if (!force && now.isBefore(lastSave.plus(SAVE_INTERVAL))) {
+      unsaved = true;
+      return;
+    }
+    lastSave = now;
+    unsaved = false;
     if (jobsRepository != null) jobsRepository.save(job);
   }
+
+  /** Saves the log lines, progress and status that haven't been saved yet. */
+  public synchronized void flush() {
+    if (unsaved) {
+      save(true);
+    }
+  }
+
+  /**
+   * Asks the job to stop at its next {@link #checkCancelled()}, and wakes up
+   * its threads that are waiting in {@link #sleep(long)}.
+   */
+  public void cancel() {
+    synchronized (cancelLock) {
+      cancelled = true;
+      cancelLock.notifyAll();
+    }
+  }
+
+  public boolean isCancelled() {
+    return cancelled;
+  }
+
+  /**
+   * Jobs call this between units of work so that they stop promptly once
+   * cancelled.
+   *
+   * @throws JobCancelledException if {@link #cancel()} has been called
+   */
+  public void checkCancelled() {
+    if (cancelled) {
+      throw new JobCancelledException();
+    }
+  }
+
+  /**
+   * Waits, unless the job the current thread is working for is cancelled
+   * first. Outside of a job, and in {@link #runToCompletion}, this is
+   * {@link Thread#sleep(long)}.
+   *
+   * @param millis how long to wait
+   * @throws JobCancelledException if the job is cancelled before or while waiting
+   * @throws InterruptedException if the thread is interrupted while waiting
+   */
+  public static void sleep(long millis) throws InterruptedException {
+    JobContext context = CURRENT.get();
+    if (context == null || RUNNING_TO_COMPLETION.get()) {
+      Thread.sleep(millis);
+      return;
+    }
+    long deadline = System.nanoTime() + millis * 1_000_000;
+    synchronized (context.cancelLock) {
+      long remaining = deadline - System.nanoTime();
+      while (!context.cancelled && remaining > 0) {
+        context.cancelLock.wait(remaining / 1_000_000, (int) (remaining % 1_000_000));
+        remaining = deadline - System.nanoTime();
+      }
+    }
+    context.checkCancelled();
+  }
+
+  /**
+   * Runs work that must not be left half done, such as creating a repository
+   * and then giving a student access to it: its waits are not cut short when
+   * the job is cancelled. Check {@link #isCancelled()} before starting it.
+   *
+   * @param work the work
+   * @return what the work returns
+   * @throws Exception what the work throws
+   */
+  public static <T> T runToCompletion(Callable<T> work) throws Exception {
+    boolean previous = RUNNING_TO_COMPLETION.get();
+    RUNNING_TO_COMPLETION.set(true);
+    try {
+      return work.call();
+    } finally {
+      RUNNING_TO_COMPLETION.set(previous);
+    }
+  }
+
+  /**
+   * @return whether the current thread is working for a job
+   */
+  public static boolean inJob() {
+    return CURRENT.get() != null;
+  }
+
+  /**
+   * @param work work done for the job on another thread
+   * @return the work, run with the current thread bound to this job, so that
+   *     its waits end when the job is cancelled
+   */
+  public <T> Callable<T> bind(Callable<T> work) {
+    return () -> {
+      JobContext previous = CURRENT.get();
+      CURRENT.set(this);
+      try {
+        return work.call();
+      } finally {
+        CURRENT.set(previous);
+      }
+    };
+  }
+
+  /** Binds the current thread, which runs the job, to this job */
+  void attach() {
+    CURRENT.set(this);
+  }
+
+  /** Unbinds the current thread once the job is done with it */
+  void detach() {
+    CURRENT.remove();
+  }
+
+  /**
+   * Sends the log lines after {@code lastEventId} and the current status to the
+   * emitter, then keeps it subscribed to new lines until the job finishes.
+   *
+   * @param emitter the emitter to send events to
+   * @param lastEventId number of log lines the client has already received
+   */
+  public synchronized void subscribe(SseEmitter emitter, long lastEventId) {
+    String[] lines = lines(job.getLog());
+    Subscriber subscriber = new Subscriber(emitter, lines.length);
+    for (int i = (int) Math.max(lastEventId, 0); i < lines.length; i++) {
+      subscriber.replay(logEvent(i + 1, lines[i]));
+    }
+    subscriber.replay(statusEvent(job.getStatus()));
+    if (finished) {
+      subscriber.close();
+      return;
+    }
+    emitter.onCompletion(() -> subscribers.remove(subscriber));
+    emitter.onTimeout(() -> subscribers.remove(subscriber));
+    emitter.onError(e -> subscribers.remove(subscriber));
+    subscribers.add(subscriber);
+  }
+
+  /**
+   * Marks the job as finished: closes the streams of all subscribers once
+   * the events queued for them have been sent.
+   */
+  public synchronized void finish() {
+    finished = true;
+    for (Subscriber subscriber : subscribers) {
+      subscriber.close();
+    }
+    subscribers.clear();
+  }
+
+  /**
+   * Sends the log lines of a job after {@code lastEventId}, followed by its status.
+   *
+   * @param emitter the emitter to send events to
+   * @param job the job whose log is replayed
+   * @param lastEventId number of log lines the client has already received
+   */
+  public static void replay(SseEmitter emitter, Job job, long lastEventId) {
+    String[] lines = lines(job.getLog());
+    for (int i = (int) Math.max(lastEventId, 0); i < lines.length; i++) {
+      send(emitter, logEvent(i + 1, lines[i]));
+    }
+    send(emitter, statusEvent(job.getStatus()));
+  }
+
+  private static String[] lines(String log) {
+    return log == null || log.isEmpty() ? new String[0] : log.split("\n", -1);
+  }
+
+  private static SseEmitter.SseEventBuilder logEvent(long lineNumber, String line) {
+    return SseEmitter.event().id(Long.toString(lineNumber)).name("log").data(line);
+  }
+
+  private static SseEmitter.SseEventBuilder statusEvent(String status) {
+    return SseEmitter.event().name("status").data(status);
+  }
+
+  private static boolean send(SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+    try {
+      emitter.send(event);
+      return true;
+    } catch (IOException | IllegalStateException e) {
+      // the client went away
+      log.debug("Could not send job event: {}", e.getMessage());
+      return false;
+    }
+  }
+
+  /**
+   * A client of the event stream, with the events not yet sent to it. At most
+   * one task at a time sends a subscriber's events, in the order they were
+   * queued.
+   */
+  private class Subscriber {
+    private final SseEmitter emitter;
+    private final int capacity;
+    private final Deque<SseEmitter.SseEventBuilder> pending = new ArrayDeque<>();
+    private boolean sending;
+    private boolean closing;
+    private boolean overflowed;
+
+    /**
+     * @param emitter the client's stream
+     * @param backlog how many events may be replayed to the client, which
+     *     don't count towards {@link #MAX_PENDING_EVENTS}
+     */
+    Subscriber(SseEmitter emitter, int backlog) {
+      this.emitter = emitter;
+      this.capacity = backlog + MAX_PENDING_EVENTS;
+    }
+
+    synchronized void replay(SseEmitter.SseEventBuilder event) {
+      pending.add(event);
+      startSending();
+    }
+
+    synchronized void offer(SseEmitter.SseEventBuilder event) {
+      if (overflowed) {
+        return;
+      }
+      if (pending.size() >= capacity) {
+        log.warn("Job {} stream client is {} events behind; disconnecting it", job.getId(), pending.size());
+        overflowed = true;
+        pending.clear();
+      } else {
+        pending.add(event);
+      }
+      startSending();
+    }
+
+    /** Completes the stream once the queued events are sent */
+    synchronized void close() {
+      closing = true;
+      startSending();
+    }
+
+    private void startSending() {
+      if (!sending) {
+        sending = true;
+        eventExecutor.execute(this::sendPending);
+      }
+    }
+
+    private void sendPending() {
+      while (true) {
+        SseEmitter.SseEventBuilder event;
+        synchronized (this) {
+          event = pending.poll();
+          if (event == null) {
+            sending = false;
+            if (!closing && !overflowed) {
+              return;
+            }
+          }
+        }
+        if (event == null) {
+          subscribers.remove(this);
+          emitter.complete();
+          return;
+        }
+        if (!send(emitter, event)) {
+          synchronized (this) {
+            sending = false;
+            pending.clear();
+          }
+          subscribers.remove(this);
+          return;
+        }
+      }
+    }
+  }
 }
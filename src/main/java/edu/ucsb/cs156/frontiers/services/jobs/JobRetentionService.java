@@ -0,0 +1,227 @@
+package edu.ucsb.cs156.frontiers.services.jobs;
+
+import java.time.ZonedDateTime;
+import java.time.temporal.TemporalAccessor;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.auditing.DateTimeProvider;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import edu.ucsb.cs156.frontiers.entities.CompressedTextConverter;
+import edu.ucsb.cs156.frontiers.entities.Job;
+import edu.ucsb.cs156.frontiers.models.JobRetentionStats;
+import edu.ucsb.cs156.frontiers.repositories.JobsRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * This is a service that keeps the jobs table from growing without bound.
+ *
+ * Once a day it:
+ * <ul>
+ * <li>truncates the logs of completed jobs older than
+ * {@code app.jobs.retention.fullLogDays} that take up more than
+ * {@code app.jobs.retention.maxLogBytes} bytes once stored (compressed) to
+ * the longest tail that fits in that many bytes, and</li>
+ * <li>deletes jobs older than {@code app.jobs.retention.deleteAfterDays}.</li>
+ * </ul>
+ * Both steps work in batches of {@code app.jobs.retention.batchSize} jobs, each
+ * in its own transaction, so no single statement holds locks for long.
+ *
+ * What it has reclaimed is also published as the frontiers.jobs.retention.*
+ * counters.
+ */
+@Slf4j
+@Service
+public class JobRetentionService implements MeterBinder {
+
+  private final JobsRepository jobsRepository;
+  private final DateTimeProvider dateTimeProvider;
+  private final TransactionOperations transactionOperations;
+
+  @Value("${app.jobs.retention.enabled:true}")
+  private boolean enabled = true;
+
+  @Value("${app.jobs.retention.fullLogDays:30}")
+  private int fullLogDays = 30;
+
+  @Value("${app.jobs.retention.maxLogBytes:4096}")
+  private int maxLogBytes = 4096;
+
+  @Value("${app.jobs.retention.deleteAfterDays:365}")
+  private int deleteAfterDays = 365;
+
+  @Value("${app.jobs.retention.batchSize:200}")
+  private int batchSize = 200;
+
+  private final AtomicReference<ZonedDateTime> lastRunAt = new AtomicReference<>();
+  private final AtomicLong jobsDeleted = new AtomicLong();
+  private final AtomicLong logsTruncated = new AtomicLong();
+  private final AtomicLong bytesReclaimed = new AtomicLong();
+
+  public JobRetentionService(JobsRepository jobsRepository, DateTimeProvider dateTimeProvider,
+      TransactionOperations transactionOperations) {
+    this.jobsRepository = jobsRepository;
+    this.dateTimeProvider = dateTimeProvider;
+    this.transactionOperations = transactionOperations;
+  }
+
+  /**
+   * Applies the retention policy; runs daily at {@code app.jobs.retention.cron}
+   * (03:15 by default).
+   */
+  @Scheduled(cron = "${app.jobs.retention.cron:0 15 3 * * *}")
+  public void applyRetentionPolicy() {
+    if (!enabled) {
+      return;
+    }
+    ZonedDateTime now = now();
+    int truncated = truncateOldLogs(now.minusDays(fullLogDays));
+    int deleted = deleteOldJobs(now.minusDays(deleteAfterDays));
+    lastRunAt.set(now);
+    log.info("Job retention: truncated {} logs, deleted {} jobs", truncated, deleted);
+  }
+
+  /**
+   * @return what has been reclaimed since the application started
+   */
+  public JobRetentionStats getStats() {
+    return JobRetentionStats.builder()
+        .lastRunAt(lastRunAt.get())
+        .jobsDeleted(jobsDeleted.get())
+        .logsTruncated(logsTruncated.get())
+        .bytesReclaimed(bytesReclaimed.get())
+        .build();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("frontiers.jobs.retention.deleted", jobsDeleted, AtomicLong::get)
+        .description("Jobs deleted by the retention policy")
+        .register(registry);
+    FunctionCounter.builder("frontiers.jobs.retention.truncated", logsTruncated, AtomicLong::get)
+        .description("Job logs truncated by the retention policy")
+        .register(registry);
+    FunctionCounter.builder("frontiers.jobs.retention.reclaimed", bytesReclaimed, AtomicLong::get)
+        .description("Bytes of job logs reclaimed by the retention policy")
+        .baseUnit("bytes")
+        .register(registry);
+  }
+
+  int truncateOldLogs(ZonedDateTime cutoff) {
+    AtomicLong truncated = new AtomicLong();
+    long afterId = 0;
+    List<Long> ids;
+    do {
+      ids = jobsRepository.findIdsOfCompletedJobsWithLargeLogs(
+          cutoff, maxLogBytes, afterId, PageRequest.of(0, batchSize));
+      if (ids.isEmpty()) {
+        break;
+      }
+      List<Long> batch = ids;
+      transactionOperations.executeWithoutResult(status -> {
+        List<Job> jobs = jobsRepository.findAllById(batch);
+        for (Job job : jobs) {
+          String before = job.getLog();
+          String after = truncateToStoredSize(before, maxLogBytes);
+          if (!after.equals(before)) {
+            job.setLog(after);
+            bytesReclaimed.addAndGet(
+                CompressedTextConverter.storedSize(before) - CompressedTextConverter.storedSize(after));
+            truncated.incrementAndGet();
+          }
+        }
+        jobsRepository.saveAll(jobs);
+      });
+      afterId = ids.getLast();
+    } while (ids.size() == batchSize);
+    logsTruncated.addAndGet(truncated.get());
+    return truncated.intValue();
+  }
+
+  int deleteOldJobs(ZonedDateTime cutoff) {
+    int total = 0;
+    List<Long> ids;
+    do {
+      ids = jobsRepository.findIdsCreatedBefore(cutoff, PageRequest.of(0, batchSize));
+      if (ids.isEmpty()) {
+        break;
+      }
+      List<Long> batch = ids;
+      transactionOperations.executeWithoutResult(status -> {
+        bytesReclaimed.addAndGet(jobsRepository.sumLogBytes(batch));
+        jobsRepository.deleteAllByIdInBatch(batch);
+      });
+      jobsDeleted.addAndGet(ids.size());
+      total += ids.size();
+    } while (ids.size() == batchSize);
+    return total;
+  }
+
+  /**
+   * Truncates a log with {@link #truncate} to the longest length whose stored
+   * form, compressed or not, takes up at most {@code maxBytes} bytes.
+   *
+   * @param log the log to truncate
+   * @param maxBytes maximum stored size of the result
+   * @return the truncated log
+   */
+  static String truncateToStoredSize(String log, int maxBytes) {
+    if (CompressedTextConverter.storedSize(log) <= maxBytes) {
+      return log;
+    }
+    // the stored size grows with the length kept, so search for the longest length that fits
+    int fits = 0;
+    int tooLong = log.length();
+    while (tooLong - fits > 1) {
+      int length = (fits + tooLong) >>> 1;
+      if (CompressedTextConverter.storedSize(truncate(log, length)) <= maxBytes) {
+        fits = length;
+      } else {
+        tooLong = length;
+      }
+    }
+    return truncate(log, fits);
+  }
+
+  /**
+   * Keeps the end of a log, starting at a line boundary, behind a marker that
+   * says how much was removed. The result is at most {@code maxLength}
+   * characters long.
+   *
+   * @param log the log to truncate
+   * @param maxLength maximum length of the result
+   * @return the truncated log
+   */
+  static String truncate(String log, int maxLength) {
+    if (log == null || log.length() <= maxLength) {
+      return log;
+    }
+    // the marker can only get shorter once the real count is filled in
+    int keep = Math.max(maxLength - marker(log.length()).length(), 0);
+    String tail = log.substring(log.length() - keep);
+    int newline = tail.indexOf('\n');
+    if (newline >= 0) {
+      tail = tail.substring(newline + 1);
+    }
+    String truncated = marker(log.length() - tail.length()) + tail;
+    return truncated.substring(0, Math.min(truncated.length(), maxLength));
+  }
+
+  private static String marker(int charactersRemoved) {
+    return "[%d characters removed by job retention]\n".formatted(charactersRemoved);
+  }
+
+  private ZonedDateTime now() {
+    TemporalAccessor now = dateTimeProvider.getNow().orElseThrow();
+    return ZonedDateTime.from(now);
+  }
+}
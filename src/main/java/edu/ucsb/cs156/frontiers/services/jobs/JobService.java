@@ -1,45 +1,140 @@
 package edu.ucsb.cs156.frontiers.services.jobs;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.annotation.Lazy;
+import org.springframework.data.auditing.DateTimeProvider;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import edu.ucsb.cs156.frontiers.entities.CompressedTextConverter;
 import edu.ucsb.cs156.frontiers.entities.Job;
+import edu.ucsb.cs156.frontiers.errors.EntityNotFoundException;
+import edu.ucsb.cs156.frontiers.models.JobProgress;
 import edu.ucsb.cs156.frontiers.repositories.JobsRepository;
 import edu.ucsb.cs156.frontiers.services.CurrentUserService;
 
 @Service
 public class JobService {
+  /** How long a client may stay subscribed to a job stream before it has to reconnect */
+  public static final long STREAM_TIMEOUT_MS = 30 * 60 * 1000L;
+
   @Autowired private JobsRepository jobsRepository;
 
   @Autowired private CurrentUserService currentUserService;
 
-  @Lazy @Autowired private JobService self;
+  @Autowired private DateTimeProvider dateTimeProvider;
+
+  @Autowired private MeterRegistry meterRegistry;
+
+  // the proxy, so that runJobAsync is @Async; an ObjectProvider rather than a @Lazy
+  // proxy, which breaks with the AOT-generated proxy classes (see docs/fast-startup.md)
+  @Autowired private ObjectProvider<JobService> self;
+
+  private final Map<Long, JobContext> runningJobs = new ConcurrentHashMap<>();
+
+  // sends stream events, so that a job never waits for a slow client; a virtual
+  // thread per subscriber that has events queued
+  private final SimpleAsyncTaskExecutor streamExecutor = streamExecutor();
+
+  private static SimpleAsyncTaskExecutor streamExecutor() {
+    SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("job-stream-");
+    executor.setVirtualThreads(true);
+    return executor;
+  }
+
+  /**
+   * Registers the frontiers.jobs.running gauge; finished jobs are counted in
+   * frontiers.jobs.finished by status.
+   */
+  @PostConstruct
+  void registerMetrics() {
+    Gauge.builder("frontiers.jobs.running", runningJobs, Map::size)
+        .description("Jobs that are running on this instance")
+        .register(meterRegistry);
+  }
 
   public Job runAsJob(JobContextConsumer jobFunction) {
     Job job = Job.builder().createdBy(currentUserService.getUser()).status("running").build();
 
     jobsRepository.save(job);
-    self.runJobAsync(job, jobFunction);
+    JobContext context = new JobContext(jobsRepository, job, streamExecutor);
+    runningJobs.put(job.getId(), context);
+    self.getObject().runJobAsync(context, job, jobFunction);
 
     return job;
   }
 
   @Async
-  public void runJobAsync(Job job, JobContextConsumer jobFunction) {
-    JobContext context = new JobContext(jobsRepository, job);
-
+  public void runJobAsync(JobContext context, Job job, JobContextConsumer jobFunction) {
+    context.attach();
     try {
+      context.checkCancelled();
       jobFunction.accept(context);
+      context.setStatus("complete");
     } catch (Exception e) {
-      job.setStatus("error");
-      context.log(e.getMessage());
-      return;
+      if (context.isCancelled()) {
+        // a JobCancelledException, or whatever a request cut short by the cancel threw
+        context.setStatus("cancelled");
+        context.log("Cancelled");
+      } else {
+        context.setStatus("error");
+        context.log(e.getMessage());
+      }
+    } finally {
+      context.flush();
+      context.detach();
+      runningJobs.remove(job.getId());
+      meterRegistry.counter("frontiers.jobs.finished", "status", job.getStatus()).increment();
+      context.finish();
     }
+  }
 
-    job.setStatus("complete");
-    jobsRepository.save(job);
+  /**
+   * Asks a running job to stop. The job stops at its next check of
+   * {@link JobContext#checkCancelled()} and ends with status "cancelled".
+   *
+   * @param jobId id of the job
+   * @return true if the job was running, false if it had already finished
+   * @throws EntityNotFoundException if there is no such job
+   */
+  public boolean cancelJob(Long jobId) {
+    JobContext running = runningJobs.get(jobId);
+    if (running != null) {
+      running.cancel();
+      return true;
+    }
+    if (!jobsRepository.existsById(jobId)) {
+      throw new EntityNotFoundException(Job.class, jobId);
+    }
+    return false;
+  }
+
+  /**
+   * Returns the structured progress of a job. For a running job this is read
+   * from memory, so it is current even between the throttled saves.
+   *
+   * @param jobId id of the job
+   * @return the job's progress
+   * @throws EntityNotFoundException if there is no such job
+   */
+  public JobProgress getProgress(Long jobId) {
+    JobContext running = runningJobs.get(jobId);
+    Job job = running != null
+        ? running.getJob()
+        : jobsRepository.findById(jobId).orElseThrow(() -> new EntityNotFoundException(Job.class, jobId));
+    return JobProgress.of(job, ZonedDateTime.from(dateTimeProvider.getNow().orElseThrow()));
   }
 
   public String getJobLogs(Long jobId) {
@@ -51,4 +146,44 @@ public class JobService {
     String log = job.getLog();
     return log != null ? log : "";
   }
+
+  /**
+   * Opens a job's log for reading without loading it as a String; compressed
+   * logs are decompressed as the stream is read.
+   *
+   * @param jobId id of the job
+   * @return the UTF-8 bytes of the log (empty if the job has no log)
+   * @throws IOException if the stored log is corrupt
+   */
+  public InputStream openJobLog(Long jobId) throws IOException {
+    List<byte[]> stored = jobsRepository.findStoredLog(jobId);
+    if (stored.isEmpty()) {
+      throw new IllegalArgumentException("Job not found");
+    }
+    return CompressedTextConverter.open(stored.get(0));
+  }
+
+  /**
+   * Opens a Server-Sent Events stream of a job's log lines and status.
+   *
+   * Lines after {@code lastEventId} are sent straight away. If the job is still
+   * running, new lines are pushed as they are logged and the stream closes when
+   * the job finishes; otherwise the stream closes after the replay.
+   *
+   * @param jobId id of the job
+   * @param lastEventId number of log lines the client has already received
+   * @return the emitter for the stream
+   */
+  public SseEmitter streamJob(Long jobId, long lastEventId) {
+    SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MS);
+    JobContext running = runningJobs.get(jobId);
+    if (running != null) {
+      running.subscribe(emitter, lastEventId);
+      return emitter;
+    }
+    Job job = jobsRepository.findById(jobId).orElseThrow(() -> new EntityNotFoundException(Job.class, jobId));
+    JobContext.replay(emitter, job, lastEventId);
+    emitter.complete();
+    return emitter;
+  }
 }
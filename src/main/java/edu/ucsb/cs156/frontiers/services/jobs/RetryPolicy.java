@@ -0,0 +1,78 @@
+package edu.ucsb.cs156.frontiers.services.jobs;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.client.HttpStatusCodeException;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * How a job retries units of work that failed for a {@link FailureCategory#isRetryable() retryable}
+ * reason: up to {@code maxAttempts} attempts in all, waiting
+ * {@code initialBackoff}, then twice as long, and so on, up to
+ * {@code maxBackoff}. If GitHub says when to come back (Retry-After or
+ * x-ratelimit-reset), the wait is at least that long, still capped at
+ * {@code maxBackoff}.
+ */
+@Builder
+@Getter
+public class RetryPolicy {
+  public static final RetryPolicy DEFAULT = RetryPolicy.builder().build();
+
+  @Builder.Default private final int maxAttempts = 4;
+  @Builder.Default private final Duration initialBackoff = Duration.ofSeconds(2);
+  @Builder.Default private final Duration maxBackoff = Duration.ofMinutes(1);
+  @Builder.Default private final Clock clock = Clock.systemUTC();
+  @Builder.Default private final Sleeper sleeper = JobContext::sleep;
+
+  @FunctionalInterface
+  public interface Sleeper {
+    void sleep(long millis) throws InterruptedException;
+  }
+
+  /**
+   * @param retry 1 for the first retry, 2 for the second, ...
+   * @param failures the exceptions that caused the units to be retried
+   * @return how long to wait before the retry
+   */
+  public Duration backoff(int retry, List<? extends Exception> failures) {
+    Duration backoff = initialBackoff.multipliedBy(1L << Math.min(retry - 1, 20));
+    for (Exception failure : failures) {
+      Duration requested = requestedWait(failure);
+      if (requested.compareTo(backoff) > 0) {
+        backoff = requested;
+      }
+    }
+    return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+  }
+
+  public void sleep(Duration duration) throws InterruptedException {
+    sleeper.sleep(duration.toMillis());
+  }
+
+  private Duration requestedWait(Exception failure) {
+    if (!(failure instanceof HttpStatusCodeException httpException) || httpException.getResponseHeaders() == null) {
+      return Duration.ZERO;
+    }
+    HttpHeaders headers = httpException.getResponseHeaders();
+    try {
+      String retryAfter = headers.getFirst(HttpHeaders.RETRY_AFTER);
+      if (retryAfter != null) {
+        return Duration.ofSeconds(Long.parseLong(retryAfter.trim()));
+      }
+      String reset = headers.getFirst("x-ratelimit-reset");
+      if (reset != null) {
+        Duration untilReset = Duration.between(clock.instant(), Instant.ofEpochSecond(Long.parseLong(reset.trim())));
+        return untilReset.isNegative() ? Duration.ZERO : untilReset;
+      }
+    } catch (NumberFormatException e) {
+      // e.g. an HTTP date in Retry-After; fall back to the exponential backoff
+    }
+    return Duration.ZERO;
+  }
+}
@@ -0,0 +1,317 @@
+package edu.ucsb.cs156.frontiers.services.wiremock;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+import com.github.tomakehurst.wiremock.extension.ResponseDefinitionTransformerV2;
+import com.github.tomakehurst.wiremock.http.QueryParameter;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+
+/**
+ * A stateful stand-in for the parts of the GitHub REST API that Frontiers
+ * uses, so that the GitHub heavy code paths can be load tested offline.
+ *
+ * It is a WireMock response transformer that answers every request itself:
+ * <ul>
+ * <li>{@code GET /app} and {@code GET /app/installations/{id}}; installation
+ * {@code id} belongs to the organization {@code simulated-org-{id}}</li>
+ * <li>{@code POST /app/installations/{id}/access_tokens}</li>
+ * <li>{@code GET /orgs/{org}/members}, paginated with {@code Link} headers;
+ * each organization has {@code members} members named student-0001,
+ * student-0002, ...</li>
+ * <li>{@code GET/POST /orgs/{org}/teams} and
+ * {@code PUT /orgs/{org}/teams/{team}/repos/{owner}/{repo}}</li>
+ * <li>{@code POST /orgs/{org}/repos}, {@code POST /repos/{template}/generate}
+ * (every template exists) and {@code GET /repos/{owner}/{repo}}</li>
+ * <li>{@code GET /repos/{owner}/{repo}/branches}; repositories generated from a
+ * template have a main branch as soon as they are created, others have none</li>
+ * <li>{@code PUT /repos/{owner}/{repo}/collaborators/{user}}</li>
+ * </ul>
+ * Repositories, teams and collaborators are remembered until the simulator is
+ * discarded.
+ *
+ * Each response can be delayed by a log-normal latency, fail with a 502 at a
+ * given rate, and is counted against a per-installation rate limit reported in
+ * the usual {@code x-ratelimit-*} headers; once the limit is used up, requests
+ * fail with a 403 until the window resets. Latencies and failures are drawn
+ * from a seeded Random, so that a run can be repeated.
+ */
+public class GithubSimulator implements ResponseDefinitionTransformerV2 {
+  public static final String NAME = "github-simulator";
+  public static final String ORG_PREFIX = "simulated-org-";
+
+  private static final int DEFAULT_PAGE_SIZE = 30;
+  private static final int MAX_PAGE_SIZE = 100;
+  private static final String APP = "app";
+
+  private static final Pattern INSTALLATION = Pattern.compile("/app/installations/([^/]+)");
+  private static final Pattern ACCESS_TOKENS = Pattern.compile("/app/installations/([^/]+)/access_tokens");
+  private static final Pattern MEMBERS = Pattern.compile("/orgs/([^/]+)/members");
+  private static final Pattern TEAMS = Pattern.compile("/orgs/([^/]+)/teams");
+  private static final Pattern TEAM_REPO = Pattern.compile("/orgs/([^/]+)/teams/([^/]+)/repos/([^/]+)/([^/]+)");
+  private static final Pattern ORG_REPOS = Pattern.compile("/orgs/([^/]+)/repos");
+  private static final Pattern GENERATE = Pattern.compile("/repos/([^/]+)/([^/]+)/generate");
+  private static final Pattern REPO = Pattern.compile("/repos/([^/]+)/([^/]+)");
+  private static final Pattern BRANCHES = Pattern.compile("/repos/([^/]+)/([^/]+)/branches");
+  private static final Pattern COLLABORATOR = Pattern.compile("/repos/([^/]+)/([^/]+)/collaborators/([^/]+)");
+
+  private final GithubSimulatorSettings settings;
+  private final Clock clock;
+  private final Random random;
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  private final Map<String, String> tokenInstallations = new HashMap<>();
+  private final Map<String, RateLimitWindow> rateLimits = new HashMap<>();
+  /** keyed by lower case "owner/name" */
+  private final Map<String, ObjectNode> repositories = new HashMap<>();
+  private final Map<String, Set<String>> collaborators = new HashMap<>();
+  private final Set<String> generatedRepositories = new HashSet<>();
+  /** keyed by lower case organization, then team slug */
+  private final Map<String, Map<String, ObjectNode>> teams = new HashMap<>();
+  private final Set<String> teamRepositories = new HashSet<>();
+  private long nextId = 1;
+
+  public GithubSimulator(GithubSimulatorSettings settings) {
+    this(settings, Clock.systemUTC());
+  }
+
+  GithubSimulator(GithubSimulatorSettings settings, Clock clock) {
+    this.settings = settings;
+    this.clock = clock;
+    this.random = new Random(settings.getSeed());
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public ResponseDefinition transform(ServeEvent serveEvent) {
+    return handle(serveEvent.getRequest());
+  }
+
+  synchronized ResponseDefinition handle(Request request) {
+    ResponseDefinitionBuilder response = ResponseDefinitionBuilder.responseDefinition()
+        .withHeader("Content-Type", "application/json");
+    addLatency(response);
+
+    String authorization = request.getHeader("Authorization");
+    if (authorization == null) {
+      return error(response, 401, "Requires authentication");
+    }
+    String installation = tokenInstallations.getOrDefault(authorization.replaceFirst("^(Bearer|token) ", ""), APP);
+    RateLimitWindow window = rateLimits.computeIfAbsent(installation, key -> new RateLimitWindow());
+    Instant now = clock.instant();
+    if (!now.isBefore(window.resetAt)) {
+      window.resetAt = now.plus(settings.getRateLimitWindow()).truncatedTo(ChronoUnit.SECONDS);
+      window.used = 0;
+    }
+    boolean limited = window.used >= settings.getRateLimit();
+    if (!limited) {
+      window.used++;
+    }
+    response.withHeader("x-ratelimit-limit", Integer.toString(settings.getRateLimit()))
+        .withHeader("x-ratelimit-remaining", Integer.toString(settings.getRateLimit() - window.used))
+        .withHeader("x-ratelimit-used", Integer.toString(window.used))
+        .withHeader("x-ratelimit-reset", Long.toString(window.resetAt.getEpochSecond()))
+        .withHeader("x-ratelimit-resource", "core");
+    if (limited) {
+      return error(response, 403, "API rate limit exceeded for installation ID " + installation + ".");
+    }
+    if (random.nextDouble() < settings.getErrorRate()) {
+      return error(response, 502, "Server Error");
+    }
+
+    try {
+      return route(request, response);
+    } catch (JsonProcessingException e) {
+      return error(response, 400, "Problems parsing JSON");
+    }
+  }
+
+  private ResponseDefinition route(Request request, ResponseDefinitionBuilder response)
+      throws JsonProcessingException {
+    String method = request.getMethod().getName();
+    String path = request.getUrl().replaceFirst("\\?.*", "");
+    Matcher m;
+    if (method.equals("GET") && path.equals("/app")) {
+      ObjectNode app = mapper.createObjectNode()
+          .put("slug", "frontiers-simulator")
+          .put("html_url", "https://github.com/apps/frontiers-simulator");
+      return json(response, 200, app);
+    }
+    if (method.equals("GET") && (m = INSTALLATION.matcher(path)).matches()) {
+      ObjectNode installation = mapper.createObjectNode().put("id", m.group(1));
+      installation.putObject("account").put("login", ORG_PREFIX + m.group(1)).put("type", "Organization");
+      return json(response, 200, installation);
+    }
+    if (method.equals("POST") && (m = ACCESS_TOKENS.matcher(path)).matches()) {
+      String token = "ghs_simulated_%d".formatted(nextId++);
+      tokenInstallations.put(token, m.group(1));
+      ObjectNode body = mapper.createObjectNode()
+          .put("token", token)
+          .put("expires_at", clock.instant().plus(1, ChronoUnit.HOURS).truncatedTo(ChronoUnit.SECONDS).toString());
+      return json(response, 201, body);
+    }
+    if (method.equals("GET") && (m = MEMBERS.matcher(path)).matches()) {
+      List<JsonNode> members = new ArrayList<>();
+      for (int i = 1; i <= settings.getMembers(); i++) {
+        members.add(mapper.createObjectNode()
+            .put("login", "student-%04d".formatted(i))
+            .put("id", 100000 + i)
+            .put("type", "User"));
+      }
+      return page(request, response, members);
+    }
+    if (method.equals("GET") && (m = TEAMS.matcher(path)).matches()) {
+      return page(request, response, new ArrayList<>(teamsOf(m.group(1)).values()));
+    }
+    if (method.equals("POST") && (m = TEAMS.matcher(path)).matches()) {
+      String name = mapper.readTree(request.getBodyAsString()).path("name").asText();
+      String slug = name.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9_]+", "-");
+      Map<String, ObjectNode> orgTeams = teamsOf(m.group(1));
+      if (orgTeams.containsKey(slug)) {
+        return error(response, 422, "Validation Failed");
+      }
+      ObjectNode team = mapper.createObjectNode().put("id", nextId++).put("name", name).put("slug", slug)
+          .put("privacy", "secret");
+      orgTeams.put(slug, team);
+      return json(response, 201, team);
+    }
+    if (method.equals("PUT") && (m = TEAM_REPO.matcher(path)).matches()) {
+      String repo = key(m.group(3), m.group(4));
+      if (!teamsOf(m.group(1)).containsKey(m.group(2)) || !repositories.containsKey(repo)) {
+        return error(response, 404, "Not Found");
+      }
+      teamRepositories.add(key(m.group(1), m.group(2)) + "/" + repo);
+      return response.withStatus(204).build();
+    }
+    if (method.equals("POST") && (m = ORG_REPOS.matcher(path)).matches()) {
+      return createRepository(response, m.group(1), mapper.readTree(request.getBodyAsString()), false);
+    }
+    if (method.equals("POST") && (m = GENERATE.matcher(path)).matches()) {
+      JsonNode body = mapper.readTree(request.getBodyAsString());
+      return createRepository(response, body.path("owner").asText(), body, true);
+    }
+    if (method.equals("GET") && (m = REPO.matcher(path)).matches()) {
+      ObjectNode repository = repositories.get(key(m.group(1), m.group(2)));
+      return repository == null ? error(response, 404, "Not Found") : json(response, 200, repository);
+    }
+    if (method.equals("GET") && (m = BRANCHES.matcher(path)).matches()) {
+      String repo = key(m.group(1), m.group(2));
+      if (!repositories.containsKey(repo)) {
+        return error(response, 404, "Not Found");
+      }
+      ArrayNode branches = mapper.createArrayNode();
+      if (generatedRepositories.contains(repo)) {
+        branches.addObject().put("name", "main");
+      }
+      return json(response, 200, branches);
+    }
+    if (method.equals("PUT") && (m = COLLABORATOR.matcher(path)).matches()) {
+      String repo = key(m.group(1), m.group(2));
+      if (!repositories.containsKey(repo)) {
+        return error(response, 404, "Not Found");
+      }
+      if (!collaborators.get(repo).add(m.group(3).toLowerCase(Locale.ROOT))) {
+        return response.withStatus(204).build();
+      }
+      ObjectNode invitation = mapper.createObjectNode().put("id", nextId++);
+      invitation.putObject("invitee").put("login", m.group(3));
+      invitation.set("repository", repositories.get(repo));
+      return json(response, 201, invitation);
+    }
+    return error(response, 404, "Not Found");
+  }
+
+  private ResponseDefinition createRepository(ResponseDefinitionBuilder response, String owner, JsonNode body,
+      boolean fromTemplate) {
+    String name = body.path("name").asText();
+    String key = key(owner, name);
+    if (repositories.containsKey(key)) {
+      return error(response, 422, "Repository creation failed.");
+    }
+    ObjectNode repository = mapper.createObjectNode()
+        .put("id", nextId++)
+        .put("name", name)
+        .put("full_name", owner + "/" + name)
+        .put("private", body.path("private").asBoolean(false))
+        .put("html_url", "https://github.com/" + owner + "/" + name);
+    repository.putObject("owner").put("login", owner);
+    repositories.put(key, repository);
+    collaborators.put(key, new HashSet<>());
+    if (fromTemplate) {
+      generatedRepositories.add(key);
+    }
+    return json(response, 201, repository);
+  }
+
+  private ResponseDefinition page(Request request, ResponseDefinitionBuilder response, List<JsonNode> items) {
+    int perPage = Math.min(intParameter(request, "per_page", DEFAULT_PAGE_SIZE), MAX_PAGE_SIZE);
+    int page = Math.max(intParameter(request, "page", 1), 1);
+    int lastPage = Math.max((items.size() + perPage - 1) / perPage, 1);
+    ArrayNode body = mapper.createArrayNode();
+    body.addAll(items.subList(Math.min((page - 1) * perPage, items.size()), Math.min(page * perPage, items.size())));
+    if (page < lastPage) {
+      String base = request.getAbsoluteUrl().replaceFirst("\\?.*", "") + "?per_page=" + perPage + "&page=";
+      response.withHeader("Link",
+          "<%s%d>; rel=\"next\", <%s%d>; rel=\"last\"".formatted(base, page + 1, base, lastPage));
+    }
+    return json(response, 200, body);
+  }
+
+  private static int intParameter(Request request, String name, int defaultValue) {
+    QueryParameter parameter = request.queryParameter(name);
+    return parameter.isPresent() ? Integer.parseInt(parameter.firstValue()) : defaultValue;
+  }
+
+  private Map<String, ObjectNode> teamsOf(String org) {
+    return teams.computeIfAbsent(org.toLowerCase(Locale.ROOT), key -> new LinkedHashMap<>());
+  }
+
+  private static String key(String owner, String name) {
+    return (owner + "/" + name).toLowerCase(Locale.ROOT);
+  }
+
+  private void addLatency(ResponseDefinitionBuilder response) {
+    if (settings.getLatencyMedianMillis() <= 0) {
+      return;
+    }
+    double latency = settings.getLatencyMedianMillis() * Math.exp(settings.getLatencySigma() * random.nextGaussian());
+    response.withFixedDelay((int) Math.round(latency));
+  }
+
+  private ResponseDefinition json(ResponseDefinitionBuilder response, int status, JsonNode body) {
+    return response.withStatus(status).withBody(body.toString()).build();
+  }
+
+  private ResponseDefinition error(ResponseDefinitionBuilder response, int status, String message) {
+    return json(response, status, mapper.createObjectNode().put("message", message));
+  }
+
+  private static class RateLimitWindow {
+    private Instant resetAt = Instant.MIN;
+    private int used;
+  }
+}
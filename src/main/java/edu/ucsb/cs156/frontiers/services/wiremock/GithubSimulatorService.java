@@ -0,0 +1,92 @@
+package edu.ucsb.cs156.frontiers.services.wiremock;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.any;
+import static com.github.tomakehurst.wiremock.client.WireMock.anyUrl;
+import static com.github.tomakehurst.wiremock.client.WireMock.ok;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs the {@link GithubSimulator} in-process when the github-simulator
+ * profile is active. That profile also points {@code app.github.api.url} at
+ * the simulator, so that every GitHub service talks to it instead of GitHub.
+ */
+@Slf4j
+@Service
+@Profile("github-simulator")
+public class GithubSimulatorService {
+
+  @Value("${app.github.simulator.port:8091}")
+  private int port;
+
+  @Value("${app.github.simulator.threads:50}")
+  private int threads;
+
+  @Value("${app.github.simulator.members:200}")
+  private int members;
+
+  @Value("${app.github.simulator.latencyMedianMillis:0}")
+  private int latencyMedianMillis;
+
+  @Value("${app.github.simulator.latencySigma:0}")
+  private double latencySigma;
+
+  @Value("${app.github.simulator.errorRate:0}")
+  private double errorRate;
+
+  @Value("${app.github.simulator.rateLimit:5000}")
+  private int rateLimit;
+
+  @Value("${app.github.simulator.rateLimitWindowSeconds:3600}")
+  private long rateLimitWindowSeconds;
+
+  @Value("${app.github.simulator.seed:0}")
+  private long seed;
+
+  private WireMockServer server;
+
+  public WireMockServer getServer() {
+    return server;
+  }
+
+  /**
+   * Starts the simulator on {@code app.github.simulator.port}.
+   */
+  @PostConstruct
+  public void start() {
+    GithubSimulatorSettings settings = GithubSimulatorSettings.builder()
+        .members(members)
+        .latencyMedianMillis(latencyMedianMillis)
+        .latencySigma(latencySigma)
+        .errorRate(errorRate)
+        .rateLimit(rateLimit)
+        .rateLimitWindow(Duration.ofSeconds(rateLimitWindowSeconds))
+        .seed(seed)
+        .build();
+    // no request journal: it would grow without bound during a load test
+    server = new WireMockServer(options()
+        .port(port)
+        .containerThreads(threads)
+        .disableRequestJournal()
+        .extensions(new GithubSimulator(settings)));
+    server.stubFor(any(anyUrl()).willReturn(ok()));
+    server.start();
+    log.info("GitHub API simulator listening on port {} with {}", server.port(), settings);
+  }
+
+  @PreDestroy
+  public void stop() {
+    server.stop();
+  }
+}
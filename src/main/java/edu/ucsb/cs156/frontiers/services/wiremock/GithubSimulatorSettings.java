@@ -0,0 +1,41 @@
+package edu.ucsb.cs156.frontiers.services.wiremock;
+
+import java.time.Duration;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Size of the simulated organizations and the faults injected by the
+ * {@link GithubSimulator}.
+ */
+@Data
+@Builder
+public class GithubSimulatorSettings {
+  /** Number of members in each simulated organization */
+  @Builder.Default
+  private int members = 200;
+
+  /** Median latency added to each response; 0 for none */
+  @Builder.Default
+  private int latencyMedianMillis = 0;
+
+  /** Spread of the log-normal latency; 0 for a fixed latency of the median */
+  @Builder.Default
+  private double latencySigma = 0;
+
+  /** Fraction of requests that fail with a 502 */
+  @Builder.Default
+  private double errorRate = 0;
+
+  /** Requests allowed per installation in each rate limit window */
+  @Builder.Default
+  private int rateLimit = 5000;
+
+  @Builder.Default
+  private Duration rateLimitWindow = Duration.ofHours(1);
+
+  /** Seed for the latency and error injection, so that runs can be repeated */
+  @Builder.Default
+  private long seed = 0;
+}
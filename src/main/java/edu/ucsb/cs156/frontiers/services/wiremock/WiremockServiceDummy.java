@@ -3,6 +3,7 @@ package edu.ucsb.cs156.frontiers.services.wiremock;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 
@@ -14,6 +15,7 @@ import com.github.tomakehurst.wiremock.WireMockServer;
  */
 @Slf4j
 @Service("wiremockService")
+@Lazy
 @Profile("!wiremock")
 @ConfigurationProperties
 public class WiremockServiceDummy extends WiremockService {
@@ -1,7 +1,9 @@
 package edu.ucsb.cs156.frontiers.services.wiremock;
 
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 
@@ -27,6 +29,7 @@ import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options
  */
 @Slf4j
 @Service("wiremockService")
+@Lazy
 @Profile("wiremock")
 @ConfigurationProperties
 public class WiremockServiceImpl extends WiremockService {
@@ -112,7 +115,7 @@ public class WiremockServiceImpl extends WiremockService {
   public void init() {
     log.info("WiremockServiceImpl.init() called");
 
-    WireMockServer wireMockServer = new WireMockServer(options()
+    wireMockServer = new WireMockServer(options()
         .port(8090).globalTemplating(true));
     setupOauthMocks(wireMockServer, true);
 
@@ -120,4 +123,15 @@ public class WiremockServiceImpl extends WiremockService {
 
     log.info("WiremockServiceImpl.init() completed");
   }
+
+  /**
+   * This method stops the WireMockServer when the app shuts down, so that
+   * port 8090 is free for the next instance
+   */
+  @PreDestroy
+  public void stop() {
+    if (wireMockServer != null) {
+      wireMockServer.stop();
+    }
+  }
 }
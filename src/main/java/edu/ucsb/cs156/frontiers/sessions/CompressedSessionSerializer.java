@@ -0,0 +1,50 @@
+package edu.ucsb.cs156.frontiers.sessions;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.core.ConfigurableObjectInputStream;
+import org.springframework.core.serializer.Deserializer;
+import org.springframework.core.serializer.Serializer;
+
+/**
+ * Serializes session attributes with Java serialization, gzip-compressed.
+ *
+ * The signed-in user's security context (a {@code DefaultOidcUser} with its
+ * ID token, claims and authorities) is mostly repeated class and claim names,
+ * so it compresses to a fraction of its serialized size.
+ */
+public class CompressedSessionSerializer implements Serializer<Object>, Deserializer<Object> {
+
+  private final ClassLoader classLoader;
+
+  /**
+   * @param classLoader the class loader session attributes are read back with
+   */
+  public CompressedSessionSerializer(ClassLoader classLoader) {
+    this.classLoader = classLoader;
+  }
+
+  @Override
+  public void serialize(Object object, OutputStream outputStream) throws IOException {
+    GZIPOutputStream gzip = new GZIPOutputStream(outputStream);
+    ObjectOutputStream out = new ObjectOutputStream(gzip);
+    out.writeObject(object);
+    out.flush();
+    gzip.finish();
+  }
+
+  @Override
+  public Object deserialize(InputStream inputStream) throws IOException {
+    ConfigurableObjectInputStream in = new ConfigurableObjectInputStream(new GZIPInputStream(inputStream), classLoader);
+    try {
+      return in.readObject();
+    } catch (ClassNotFoundException e) {
+      throw new IOException("Could not read session attribute", e);
+    }
+  }
+}
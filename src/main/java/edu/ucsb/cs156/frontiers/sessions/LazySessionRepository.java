@@ -0,0 +1,150 @@
+package edu.ucsb.cs156.frontiers.sessions;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+
+/**
+ * Wraps a session repository so that a request that doesn't change its session
+ * doesn't write to the store.
+ *
+ * Spring Session bumps a session's last accessed time on every request, which
+ * for a JDBC store is an update of the session's row each time. Here, the last
+ * accessed time is only moved on once it is {@code touchInterval} old, and
+ * sessions whose attributes, id, timeout and last accessed time are unchanged
+ * are not saved at all. Sessions therefore expire up to {@code touchInterval}
+ * early.
+ *
+ * @param <S> the type of session the wrapped repository stores
+ */
+public class LazySessionRepository<S extends Session> implements SessionRepository<LazySessionRepository.LazySession<S>> {
+
+  private final SessionRepository<S> delegate;
+  private final Duration touchInterval;
+
+  /**
+   * @param delegate the repository that stores the sessions
+   * @param touchInterval how far apart updates of a session's last accessed time have to be
+   */
+  public LazySessionRepository(SessionRepository<S> delegate, Duration touchInterval) {
+    this.delegate = delegate;
+    this.touchInterval = touchInterval;
+  }
+
+  @Override
+  public LazySession<S> createSession() {
+    LazySession<S> session = new LazySession<>(delegate.createSession(), touchInterval);
+    session.changed = true;
+    return session;
+  }
+
+  @Override
+  public void save(LazySession<S> session) {
+    if (session.changed) {
+      delegate.save(session.delegate);
+      session.changed = false;
+    }
+  }
+
+  @Override
+  public LazySession<S> findById(String id) {
+    S session = delegate.findById(id);
+    return session == null ? null : new LazySession<>(session, touchInterval);
+  }
+
+  @Override
+  public void deleteById(String id) {
+    delegate.deleteById(id);
+  }
+
+  /**
+   * A session that remembers whether it has changed since it was loaded.
+   *
+   * @param <S> the type of the wrapped session
+   */
+  public static final class LazySession<S extends Session> implements Session {
+    private final S delegate;
+    private final Duration touchInterval;
+    private boolean changed;
+
+    private LazySession(S delegate, Duration touchInterval) {
+      this.delegate = delegate;
+      this.touchInterval = touchInterval;
+    }
+
+    /** @return the wrapped session */
+    public S getDelegate() {
+      return delegate;
+    }
+
+    @Override
+    public String getId() {
+      return delegate.getId();
+    }
+
+    @Override
+    public String changeSessionId() {
+      changed = true;
+      return delegate.changeSessionId();
+    }
+
+    @Override
+    public <T> T getAttribute(String attributeName) {
+      return delegate.getAttribute(attributeName);
+    }
+
+    @Override
+    public Set<String> getAttributeNames() {
+      return delegate.getAttributeNames();
+    }
+
+    @Override
+    public void setAttribute(String attributeName, Object attributeValue) {
+      changed = true;
+      delegate.setAttribute(attributeName, attributeValue);
+    }
+
+    @Override
+    public void removeAttribute(String attributeName) {
+      changed = true;
+      delegate.removeAttribute(attributeName);
+    }
+
+    @Override
+    public Instant getCreationTime() {
+      return delegate.getCreationTime();
+    }
+
+    @Override
+    public void setLastAccessedTime(Instant lastAccessedTime) {
+      if (Duration.between(delegate.getLastAccessedTime(), lastAccessedTime).compareTo(touchInterval) >= 0) {
+        changed = true;
+        delegate.setLastAccessedTime(lastAccessedTime);
+      }
+    }
+
+    @Override
+    public Instant getLastAccessedTime() {
+      return delegate.getLastAccessedTime();
+    }
+
+    @Override
+    public void setMaxInactiveInterval(Duration interval) {
+      changed = true;
+      delegate.setMaxInactiveInterval(interval);
+    }
+
+    @Override
+    public Duration getMaxInactiveInterval() {
+      return delegate.getMaxInactiveInterval();
+    }
+
+    @Override
+    public boolean isExpired() {
+      return delegate.isExpired();
+    }
+  }
+}
@@ -0,0 +1,171 @@
+package edu.ucsb.cs156.frontiers.startuptime;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Starts the packaged app in a fresh JVM a few times, plain and with the AOT
+ * and CDS optimizations of the fast-startup Maven profile, and reports how
+ * long it takes each way until it is ready to serve requests.
+ *
+ * Run by {@code mvn -P production,fast-startup verify}, after the jar has been
+ * extracted and the CDS archive recorded; see docs/fast-startup.md.
+ */
+@Slf4j
+class StartupTimeTest {
+
+  /** Logged by Spring Boot once the app is started, e.g. "Started FrontiersMain in 4.2 seconds (process running for 4.9)" */
+  private static final Pattern STARTED = Pattern
+      .compile("Started FrontiersMain in ([0-9.]+) seconds \\(process running for ([0-9.]+)\\)");
+  private static final long TIMEOUT_SECONDS = 180;
+
+  private final String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+  private final String jar = System.getProperty("startup.jar");
+  private final String archive = System.getProperty("startup.archive");
+  private final List<String> appArgs = Arrays.asList(System.getProperty("startup.args", "").trim().split("\\s+"));
+  private final int runs = Integer.getInteger("startup.runs", 3);
+
+  record Run(double processSeconds, double contextSeconds, double wallClockSeconds) {
+  }
+
+  record Summary(String mode, List<Run> runs, double medianProcessSeconds) {
+  }
+
+  @Test
+  void reports_time_to_ready_with_and_without_aot_and_cds() throws Exception {
+    assertTrue(Files.exists(Path.of(jar)), "no extracted jar at " + jar);
+    assertTrue(Files.exists(Path.of(archive)), "no CDS archive at " + archive);
+
+    List<Summary> summaries = List.of(
+        measure("plain", List.of()),
+        measure("aot+cds", List.of("-XX:SharedArchiveFile=" + archive, "-Dspring.aot.enabled=true")));
+
+    StringBuilder table = new StringBuilder("%n%-8s %s%n".formatted("mode", "seconds to ready (JVM start to started)"));
+    for (Summary summary : summaries) {
+      table.append("%-8s median %.2f, runs %s%n".formatted(summary.mode(), summary.medianProcessSeconds(),
+          summary.runs().stream().map(r -> "%.2f".formatted(r.processSeconds())).toList()));
+    }
+    log.info("Startup times:{}", table);
+
+    Path report = Path.of(System.getProperty("startup.report", "target/startup/startup-time.json"));
+    Files.createDirectories(report.getParent());
+    Map<String, Object> json = new LinkedHashMap<>();
+    json.put("jar", jar);
+    json.put("javaVersion", System.getProperty("java.version"));
+    json.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+    json.put("modes", summaries);
+    new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(report.toFile(), json);
+    log.info("Startup times written to {}", report);
+  }
+
+  private Summary measure(String mode, List<String> jvmArgs) throws Exception {
+    List<Run> results = new ArrayList<>();
+    for (int i = 0; i < runs; i++) {
+      results.add(start(mode, jvmArgs));
+    }
+    double[] sorted = results.stream().mapToDouble(Run::processSeconds).sorted().toArray();
+    return new Summary(mode, results, sorted[sorted.length / 2]);
+  }
+
+  /** Starts the app, waits until it has started, and stops it again */
+  private Run start(String mode, List<String> jvmArgs) throws Exception {
+    List<String> command = new ArrayList<>();
+    command.add(java);
+    command.addAll(jvmArgs);
+    command.add("-jar");
+    command.add(jar);
+    command.addAll(appArgs);
+
+    long launched = System.nanoTime();
+    Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+    Deque<String> lastLines = new ArrayDeque<>();
+    CompletableFuture<Matcher> started = CompletableFuture.supplyAsync(() -> waitForStarted(process, lastLines));
+    try {
+      Matcher matcher = started.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+      if (matcher == null) {
+        fail("%s: the app exited with %d before it started:%n%s".formatted(mode, process.waitFor(),
+            tail(lastLines)));
+      }
+      double wallClock = (System.nanoTime() - launched) / 1e9;
+      return new Run(Double.parseDouble(matcher.group(2)), Double.parseDouble(matcher.group(1)), wallClock);
+    } catch (TimeoutException e) {
+      return fail("%s: the app didn't start within %ds:%n%s".formatted(mode, TIMEOUT_SECONDS,
+          tail(lastLines)));
+    } finally {
+      process.destroy();
+      if (!process.waitFor(30, TimeUnit.SECONDS)) {
+        process.destroyForcibly();
+      }
+    }
+  }
+
+  /**
+   * Reads the app's output until the "Started ..." line, then keeps reading (and
+   * dropping) it, so the app never blocks on a full pipe.
+   *
+   * @return the "Started ..." line, or null if the app exited without logging it
+   */
+  private static Matcher waitForStarted(Process process, Deque<String> lastLines) {
+    BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+    try {
+      String line;
+      while ((line = output.readLine()) != null) {
+        synchronized (lastLines) {
+          lastLines.addLast(line);
+          if (lastLines.size() > 50) {
+            lastLines.removeFirst();
+          }
+        }
+        Matcher matcher = STARTED.matcher(line);
+        if (matcher.find()) {
+          Thread.ofVirtual().start(() -> drain(output));
+          return matcher;
+        }
+      }
+      return null;
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  private static void drain(BufferedReader output) {
+    try (output) {
+      output.transferTo(Writer.nullWriter());
+    } catch (IOException e) {
+      // the app has been stopped
+    }
+  }
+
+  private static String tail(Deque<String> lastLines) {
+    synchronized (lastLines) {
+      return String.join("\n", lastLines);
+    }
+  }
+}
@@ -0,0 +1,89 @@
+package edu.ucsb.cs156.frontiers.aop;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class LoggingAspectTests {
+
+  public static class ExampleController {
+    @GetMapping("/api/example")
+    public String example() {
+      return "example";
+    }
+
+    @GetMapping("/api/broken")
+    public String broken() {
+      throw new IllegalStateException("broken");
+    }
+  }
+
+  private SimpleMeterRegistry meterRegistry;
+  private ExampleController controller;
+
+  @BeforeEach
+  public void setup() {
+    meterRegistry = new SimpleMeterRegistry();
+    LoggingAspect aspect = new LoggingAspect();
+    ReflectionTestUtils.setField(aspect, "meterRegistry", meterRegistry);
+    ReflectionTestUtils.setField(aspect, "slowRequestMs", 1000L);
+    AspectJProxyFactory factory = new AspectJProxyFactory(new ExampleController());
+    factory.addAspect(aspect);
+    controller = factory.getProxy();
+    RequestContextHolder.setRequestAttributes(
+        new ServletRequestAttributes(new MockHttpServletRequest("GET", "/api/example")));
+  }
+
+  @AfterEach
+  public void teardown() {
+    RequestContextHolder.resetRequestAttributes();
+  }
+
+  private Timer timer(String handler) {
+    return meterRegistry.find("frontiers.controller.requests")
+        .tags("controller", "ExampleController", "handler", handler).timer();
+  }
+
+  @Test
+  public void handler_calls_are_timed_per_handler() {
+    assertEquals("example", controller.example());
+    assertEquals("example", controller.example());
+
+    assertEquals(2, timer("example").count());
+    assertNull(timer("broken"));
+  }
+
+  @Test
+  public void failed_handler_calls_are_timed_too() {
+    assertThrows(IllegalStateException.class, controller::broken);
+
+    assertEquals(1, timer("broken").count());
+  }
+
+  @Test
+  public void slow_handler_calls_are_timed_and_logged() {
+    LoggingAspect aspect = new LoggingAspect();
+    ReflectionTestUtils.setField(aspect, "meterRegistry", meterRegistry);
+    ReflectionTestUtils.setField(aspect, "slowRequestMs", 0L);
+    AspectJProxyFactory factory = new AspectJProxyFactory(new ExampleController());
+    factory.addAspect(aspect);
+    ExampleController slowController = factory.getProxy();
+
+    assertEquals("example", slowController.example());
+
+    assertEquals(1, timer("example").count());
+  }
+}
@@ -6,18 +6,23 @@ import edu.ucsb.cs156.frontiers.testconfig.TestConfig;
 import edu.ucsb.cs156.frontiers.ControllerTestCase;
 import edu.ucsb.cs156.frontiers.entities.Admin;
 import edu.ucsb.cs156.frontiers.repositories.AdminRepository;
+import edu.ucsb.cs156.frontiers.services.UserRolesService.RolesChanged;
 
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
 import org.springframework.test.web.servlet.MvcResult;
 
 
@@ -43,8 +48,12 @@ import static org.mockito.Mockito.when;
 @WebMvcTest(controllers = AdminsController.class)
 @Import(TestConfig.class)
 @TestPropertySource(properties = "ADMIN_EMAILS=djensen@ucsb.edu,benjaminconte@ucsb.edu,samuelzhu@ucsb.edu,divyanipunj@ucsb.edu,sangitakunapuli@ucsb.edu,amey@ucsb.edu,phtcon@ucsb.edu,acdamstedt@ucsb.edu,lzhou@ucsb.edu,hannahzhang@ucsb.edu,yilei_yan@ucsb.edu,zhixiuzhu@ucsb.edu,yuchenliu735@ucsb.edu") 
+@RecordApplicationEvents
 public class AdminsControllerTests extends ControllerTestCase {
 
+       @Autowired
+       ApplicationEvents applicationEvents;
+
 
        @MockBean
        AdminRepository adminRepository;
@@ -126,6 +135,8 @@ public class AdminsControllerTests extends ControllerTestCase {
                               .andExpect(status().isOk()).andReturn();
               // assert
               verify(adminRepository, times(1)).save(admin);
+              assertEquals(List.of(new RolesChanged("acdamstedt@ucsb.edu")),
+                              applicationEvents.stream(RolesChanged.class).toList());
               String expectedJson = mapper.writeValueAsString(admin);
               String responseString = response.getResponse().getContentAsString();
               assertEquals(expectedJson, responseString);
@@ -179,6 +190,8 @@ public class AdminsControllerTests extends ControllerTestCase {
                // assert
                verify(adminRepository, times(1)).findByEmail("acdamstedt@gmail.com");
                verify(adminRepository, times(1)).delete(any());
+               assertEquals(List.of(new RolesChanged("acdamstedt@gmail.com")),
+                               applicationEvents.stream(RolesChanged.class).toList());
 
                Map<String, Object> json = responseToJson(response);
                assertEquals("Admin with id acdamstedt@gmail.com deleted", json.get("message"));
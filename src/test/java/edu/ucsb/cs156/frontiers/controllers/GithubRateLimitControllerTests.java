@@ -0,0 +1,59 @@
+package edu.ucsb.cs156.frontiers.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MvcResult;
+
+import edu.ucsb.cs156.frontiers.ControllerTestCase;
+import edu.ucsb.cs156.frontiers.models.GithubRateLimitStatus;
+import edu.ucsb.cs156.frontiers.repositories.UserRepository;
+import edu.ucsb.cs156.frontiers.services.GithubRateLimitGovernor;
+
+@WebMvcTest(controllers = GithubRateLimitController.class)
+public class GithubRateLimitControllerTests extends ControllerTestCase {
+
+  @MockitoBean
+  UserRepository userRepository;
+
+  @MockitoBean
+  GithubRateLimitGovernor governor;
+
+  @Test
+  public void logged_out_users_cannot_get_status() throws Exception {
+    mockMvc.perform(get("/api/github/ratelimit")).andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void regular_users_cannot_get_status() throws Exception {
+    mockMvc.perform(get("/api/github/ratelimit")).andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void admin_can_get_status() throws Exception {
+    List<GithubRateLimitStatus> statuses = List.of(GithubRateLimitStatus.builder()
+        .installation("12345")
+        .limit(5000)
+        .remaining(4200)
+        .resetAt(ZonedDateTime.parse("2025-05-01T11:00:00Z"))
+        .permitsPerSecond(1.5)
+        .build());
+    when(governor.getStatus()).thenReturn(statuses);
+
+    MvcResult response = mockMvc.perform(get("/api/github/ratelimit"))
+        .andExpect(status().isOk()).andReturn();
+
+    assertEquals(mapper.writeValueAsString(statuses), response.getResponse().getContentAsString());
+  }
+}
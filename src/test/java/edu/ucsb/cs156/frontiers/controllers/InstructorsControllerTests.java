@@ -14,25 +14,34 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
 import org.springframework.test.web.servlet.MvcResult;
 
 import edu.ucsb.cs156.frontiers.ControllerTestCase;
 import edu.ucsb.cs156.frontiers.entities.Instructor;
 import edu.ucsb.cs156.frontiers.repositories.InstructorRepository;
 import edu.ucsb.cs156.frontiers.repositories.UserRepository;
+import edu.ucsb.cs156.frontiers.services.UserRolesService.RolesChanged;
 import edu.ucsb.cs156.frontiers.testconfig.TestConfig;
 
 @WebMvcTest(controllers = InstructorsController.class)
 @Import(TestConfig.class)
+@RecordApplicationEvents
 public class InstructorsControllerTests extends ControllerTestCase {
 
+        @Autowired
+        ApplicationEvents applicationEvents;
+
         @MockBean
         InstructorRepository instructorRepository;
         @MockBean
@@ -69,6 +78,8 @@ public class InstructorsControllerTests extends ControllerTestCase {
 
                 // assert
                 verify(instructorRepository, times(1)).save(eq(instructor));
+                assertEquals(List.of(new RolesChanged("ins@ucsb.edu")),
+                                applicationEvents.stream(RolesChanged.class).toList());
                 String expectedJson = mapper.writeValueAsString(instructor);
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(expectedJson, responseString);
@@ -144,6 +155,8 @@ public class InstructorsControllerTests extends ControllerTestCase {
                 // Assert
                 verify(instructorRepository, times(1)).findById("ins@ucsb.edu");
                 verify(instructorRepository, times(1)).delete(instructor); 
+                assertEquals(List.of(new RolesChanged("ins@ucsb.edu")),
+                                applicationEvents.stream(RolesChanged.class).toList());
                 String expectedMessage = String.format("Instructor with email %s deleted.", instructor.getEmail());
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(expectedMessage, responseString);
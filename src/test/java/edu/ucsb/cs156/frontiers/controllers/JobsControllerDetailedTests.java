@@ -3,29 +3,45 @@ package edu.ucsb.cs156.frontiers.controllers;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import edu.ucsb.cs156.frontiers.ControllerTestCase;
+import edu.ucsb.cs156.frontiers.entities.CompressedTextConverter;
 import edu.ucsb.cs156.frontiers.entities.Job;
 import edu.ucsb.cs156.frontiers.entities.User;
 import edu.ucsb.cs156.frontiers.jobs.UpdateAllJob;
+import edu.ucsb.cs156.frontiers.models.JobProgress;
+import edu.ucsb.cs156.frontiers.models.JobRetentionStats;
+import edu.ucsb.cs156.frontiers.models.JobSummary;
+import edu.ucsb.cs156.frontiers.models.JobSummaryPage;
 import edu.ucsb.cs156.frontiers.repositories.JobsRepository;
 import edu.ucsb.cs156.frontiers.repositories.UserRepository;
 import edu.ucsb.cs156.frontiers.services.UpdateUserService;
+import edu.ucsb.cs156.frontiers.services.jobs.JobRetentionService;
 import edu.ucsb.cs156.frontiers.services.jobs.JobService;
+import io.micrometer.core.instrument.MeterRegistry;
 
+import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import lombok.extern.slf4j.Slf4j;
@@ -36,6 +52,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.AutoConfigureDataJpa;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MvcResult;
@@ -66,9 +85,15 @@ public class JobsControllerDetailedTests extends ControllerTestCase {
   @MockitoBean
   UpdateUserService updateUserService; // This will be used in the UpdateAllJob to call the GithubSignInService
 
+  @MockitoBean
+  JobRetentionService jobRetentionService;
+
   @Autowired
   JobService jobService;
 
+  @Autowired
+  MeterRegistry meterRegistry;
+
   @Autowired
   ObjectMapper objectMapper;
 
@@ -78,25 +103,72 @@ public class JobsControllerDetailedTests extends ControllerTestCase {
 
     // arrange
 
-    Job job1 = Job.builder().log("this is job 1").build();
-    Job job2 = Job.builder().log("this is job 2").build();
+    JobSummary job1 = JobSummary.builder().id(2L).status("complete").build();
+    JobSummary job2 = JobSummary.builder().id(1L).status("error").build();
 
-    ArrayList<Job> expectedJobs = new ArrayList<>();
+    ArrayList<JobSummary> expectedJobs = new ArrayList<>();
     expectedJobs.addAll(Arrays.asList(job1, job2));
 
-    when(jobsRepository.findAll()).thenReturn(expectedJobs);
+    when(jobsRepository.findSummaries(isNull(), isNull(), isNull(), any(Pageable.class))).thenReturn(expectedJobs);
 
     // act
     MvcResult response = mockMvc.perform(get("/api/jobs/all")).andExpect(status().isOk()).andReturn();
 
     // assert
 
-    verify(jobsRepository, atLeastOnce()).findAll();
-    String expectedJson = mapper.writeValueAsString(expectedJobs);
+    verify(jobsRepository, times(1)).findSummaries(null, null, null,
+        PageRequest.of(0, JobsController.DEFAULT_PAGE_SIZE));
+    verify(jobsRepository, never()).findAll();
+    String expectedJson = mapper.writeValueAsString(
+        JobSummaryPage.builder().jobs(expectedJobs).nextCursor(null).build());
     String responseString = response.getResponse().getContentAsString();
     assertEquals(expectedJson, responseString);
   }
 
+  @WithMockUser(roles = { "ADMIN" })
+  @Test
+  public void all_jobs_returns_cursor_when_page_is_full_and_passes_filters() throws Exception {
+
+    // arrange
+
+    JobSummary job1 = JobSummary.builder().id(9L).status("running").createdById(3L).build();
+    JobSummary job2 = JobSummary.builder().id(7L).status("running").createdById(3L).build();
+
+    when(jobsRepository.findSummaries(eq("running"), eq(3L), eq(10L), eq(PageRequest.of(0, 2))))
+        .thenReturn(List.of(job1, job2));
+
+    // act
+    MvcResult response = mockMvc
+        .perform(get("/api/jobs/all?before=10&size=2&status=running&createdById=3"))
+        .andExpect(status().isOk())
+        .andReturn();
+
+    // assert
+
+    Map<String, Object> json = responseToJson(response);
+    assertEquals(7, json.get("nextCursor"));
+    assertEquals(2, ((List<?>) json.get("jobs")).size());
+  }
+
+  @WithMockUser(roles = { "ADMIN" })
+  @Test
+  public void all_jobs_page_size_is_clamped() throws Exception {
+
+    when(jobsRepository.findSummaries(any(), any(), any(), any(Pageable.class))).thenReturn(List.of());
+
+    mockMvc.perform(get("/api/jobs/all?size=100000")).andExpect(status().isOk());
+    mockMvc.perform(get("/api/jobs/all?size=0")).andExpect(status().isOk());
+
+    verify(jobsRepository, times(1)).findSummaries(null, null, null, PageRequest.of(0, JobsController.MAX_PAGE_SIZE));
+    verify(jobsRepository, times(1)).findSummaries(null, null, null, PageRequest.of(0, 1));
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void non_admin_cannot_list_jobs() throws Exception {
+    mockMvc.perform(get("/api/jobs/all")).andExpect(status().isForbidden());
+  }
+
   @WithMockUser(roles = { "ADMIN" })
   @Test
   public void api_getJobLogById__admin_logged_in__returns_job_by_id() throws Exception {
@@ -117,6 +189,9 @@ public class JobsControllerDetailedTests extends ControllerTestCase {
     String expectedJson = mapper.writeValueAsString(job);
     String responseString = response.getResponse().getContentAsString();
     assertEquals(expectedJson, responseString);
+    JsonNode json = mapper.readTree(responseString);
+    assertEquals("completed", json.get("status").asText());
+    assertFalse(json.has("log"));
   }
 
   @WithMockUser(roles = { "ADMIN" })
@@ -166,13 +241,42 @@ public class JobsControllerDetailedTests extends ControllerTestCase {
     // Arrange
     Long jobId = 1L;
     String jobLog = "This is a job log";
-    Job job = Job.builder().build();
-    job.setLog(jobLog);
-    when(jobsRepository.findById(jobId)).thenReturn(Optional.of(job));
+    when(jobsRepository.findStoredLog(jobId))
+        .thenReturn(List.of(new CompressedTextConverter().convertToDatabaseColumn(jobLog)));
 
-    // Act & Assert
+    // Act
+    MvcResult started = mockMvc
+        .perform(get("/api/jobs/logs/{id}", jobId))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    // Assert
     mockMvc
+        .perform(asyncDispatch(started))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType("text/plain;charset=UTF-8"))
+        .andExpect(content().string(jobLog));
+  }
+
+  @WithMockUser(roles = { "ADMIN" })
+  @Test
+  public void test_getJobLogs_admin_can_get_compressed_job_log() throws Exception {
+    // Arrange
+    Long jobId = 1L;
+    String jobLog = "Created repo for student\n".repeat(1000);
+    byte[] stored = new CompressedTextConverter().convertToDatabaseColumn(jobLog);
+    assertTrue(stored.length < jobLog.length() / 5);
+    when(jobsRepository.findStoredLog(jobId)).thenReturn(List.of(stored));
+
+    // Act
+    MvcResult started = mockMvc
         .perform(get("/api/jobs/logs/{id}", jobId))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    // Assert
+    mockMvc
+        .perform(asyncDispatch(started))
         .andExpect(status().isOk())
         .andExpect(content().string(jobLog));
   }
@@ -182,17 +286,104 @@ public class JobsControllerDetailedTests extends ControllerTestCase {
   public void test_getJobLogs_admin_can_get_empty_log() throws Exception {
     // Arrange
     Long jobId = 2L;
-    Job job = Job.builder().build();
-    job.setLog("");
-    when(jobsRepository.findById(jobId)).thenReturn(Optional.of(job));
+    when(jobsRepository.findStoredLog(jobId)).thenReturn(Collections.singletonList(null));
 
-    // Act & Assert
-    mockMvc
+    // Act
+    MvcResult started = mockMvc
         .perform(get("/api/jobs/logs/{id}", jobId))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    // Assert
+    mockMvc
+        .perform(asyncDispatch(started))
         .andExpect(status().isOk())
         .andExpect(content().string(""));
   }
 
+  @WithMockUser(roles = { "ADMIN" })
+  @Test
+  public void admin_can_resume_stream_of_finished_job() throws Exception {
+    // Arrange
+    Job job = Job.builder().id(5L).status("complete").log("one\ntwo\nthree").build();
+    when(jobsRepository.findById(5L)).thenReturn(Optional.of(job));
+
+    // Act
+    MvcResult started = mockMvc
+        .perform(get("/api/jobs/stream/5").header("Last-Event-ID", "1"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    // Assert
+    mockMvc
+        .perform(asyncDispatch(started))
+        .andExpect(status().isOk())
+        .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+        .andExpect(content().string(
+            "id:2\nevent:log\ndata:two\n\n"
+                + "id:3\nevent:log\ndata:three\n\n"
+                + "event:status\ndata:complete\n\n"));
+  }
+
+  @WithMockUser(roles = { "ADMIN" })
+  @Test
+  public void stream_uses_offset_parameter_when_there_is_no_last_event_id() throws Exception {
+    Job job = Job.builder().id(5L).status("error").log("one\ntwo").build();
+    when(jobsRepository.findById(5L)).thenReturn(Optional.of(job));
+
+    MvcResult started = mockMvc
+        .perform(get("/api/jobs/stream/5?offset=2"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    mockMvc
+        .perform(asyncDispatch(started))
+        .andExpect(status().isOk())
+        .andExpect(content().string("event:status\ndata:error\n\n"));
+  }
+
+  @WithMockUser(roles = { "ADMIN" })
+  @Test
+  public void stream_of_missing_job_returns_not_found() throws Exception {
+    when(jobsRepository.findById(6L)).thenReturn(Optional.empty());
+
+    MvcResult response = mockMvc
+        .perform(get("/api/jobs/stream/6"))
+        .andExpect(status().isNotFound())
+        .andReturn();
+
+    Map<String, Object> json = responseToJson(response);
+    assertEquals("Job with id 6 not found", json.get("message"));
+  }
+
+  @WithMockUser(roles = { "ADMIN" })
+  @Test
+  public void admin_can_stream_running_job() throws Exception {
+    // Arrange
+    Job job = Job.builder().id(0L).status("running").build();
+    when(jobsRepository.save(any(Job.class))).thenReturn(job);
+    when(jobsRepository.findById(0L)).thenReturn(Optional.of(job));
+
+    // Act
+    MvcResult launched = mockMvc
+        .perform(post("/api/jobs/launch/testjob?fail=false&sleepMs=500").with(csrf()))
+        .andExpect(status().isOk())
+        .andReturn();
+    long id = objectMapper.readValue(launched.getResponse().getContentAsString(), Job.class).getId();
+    MvcResult started = mockMvc
+        .perform(get("/api/jobs/stream/{id}", id))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    // Assert
+    mockMvc
+        .perform(asyncDispatch(started))
+        .andExpect(status().isOk())
+        .andExpect(content().string(Matchers.endsWith(
+            "id:2\nevent:log\ndata:Goodbye from test job!\n\n"
+                + "event:status\ndata:complete\n\n")));
+  }
+
   @WithMockUser(roles = { "ADMIN" })
   @Test
   public void admin_can_delete_specific_job() throws Exception {
@@ -334,6 +525,157 @@ public class JobsControllerDetailedTests extends ControllerTestCase {
         .untilAsserted(() -> verify(jobsRepository, times(3)).save(eq(jobFailed)));
   }
 
+  @WithMockUser(roles = { "ADMIN" })
+  @Test
+  public void admin_can_get_progress_of_finished_job() throws Exception {
+    ZonedDateTime start = ZonedDateTime.parse("2025-05-01T10:00:00Z");
+    Job job = Job.builder().id(12L).status("complete").updatedAt(start.plusSeconds(20))
+        .progressTotal(40).progressDone(38).progressFailed(2).progressStartedAt(start).build();
+    when(jobsRepository.findById(12L)).thenReturn(Optional.of(job));
+
+    MvcResult response = mockMvc.perform(get("/api/jobs/progress/12")).andExpect(status().isOk()).andReturn();
+
+    JobProgress expected = JobProgress.builder().jobId(12L).status("complete")
+        .total(40).done(38).failed(2).unitsPerSecond(2.0).etaSeconds(0L).build();
+    assertEquals(mapper.writeValueAsString(expected), response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = { "ADMIN" })
+  @Test
+  public void admin_can_get_progress_of_running_job_from_memory() throws Exception {
+    when(jobsRepository.save(any(Job.class))).thenAnswer(invocation -> {
+      Job job = invocation.getArgument(0);
+      job.setId(13L);
+      return job;
+    });
+    mockMvc
+        .perform(post("/api/jobs/launch/testjob?fail=false&sleepMs=60000").with(csrf()))
+        .andExpect(status().isOk());
+
+    mockMvc.perform(get("/api/jobs/progress/13"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.jobId").value(13))
+        .andExpect(jsonPath("$.status").value("running"));
+    verify(jobsRepository, never()).findById(13L);
+    assertTrue(meterRegistry.get("frontiers.jobs.running").gauge().value() >= 1);
+
+    mockMvc.perform(post("/api/jobs/cancel/13").with(csrf())).andExpect(status().isOk());
+  }
+
+  @WithMockUser(roles = { "ADMIN" })
+  @Test
+  public void finished_jobs_are_counted_by_status() throws Exception {
+    when(jobsRepository.save(any(Job.class))).thenAnswer(invocation -> {
+      Job job = invocation.getArgument(0);
+      job.setId(21L);
+      return job;
+    });
+    double completedBefore = meterRegistry.counter("frontiers.jobs.finished", "status", "complete").count();
+
+    mockMvc
+        .perform(post("/api/jobs/launch/testjob?fail=false&sleepMs=0").with(csrf()))
+        .andExpect(status().isOk());
+
+    await()
+        .atMost(5, SECONDS)
+        .untilAsserted(() -> assertEquals(completedBefore + 1,
+            meterRegistry.counter("frontiers.jobs.finished", "status", "complete").count()));
+  }
+
+  @WithMockUser(roles = { "ADMIN" })
+  @Test
+  public void progress_of_unknown_job_returns_404() throws Exception {
+    when(jobsRepository.findById(14L)).thenReturn(Optional.empty());
+
+    mockMvc.perform(get("/api/jobs/progress/14")).andExpect(status().isNotFound());
+  }
+
+  @WithMockUser(roles = { "ADMIN" })
+  @Test
+  public void admin_can_cancel_running_job() throws Exception {
+
+    // arrange
+
+    when(jobsRepository.save(any(Job.class))).thenAnswer(invocation -> {
+      Job job = invocation.getArgument(0);
+      job.setId(77L);
+      return job;
+    });
+    mockMvc
+        .perform(post("/api/jobs/launch/testjob?fail=false&sleepMs=60000").with(csrf()))
+        .andExpect(status().isOk());
+    await()
+        .atMost(5, SECONDS)
+        .untilAsserted(() -> verify(jobsRepository, atLeastOnce()).save(argThat(job ->
+            job.getLog() != null && job.getLog().startsWith("Hello World!"))));
+
+    // act
+    MvcResult response = mockMvc
+        .perform(post("/api/jobs/cancel/77").with(csrf()))
+        .andExpect(status().isOk())
+        .andReturn();
+
+    // assert
+    String expectedJson = mapper.writeValueAsString(Map.of("message", "Job with id 77 is being cancelled"));
+    assertEquals(expectedJson, response.getResponse().getContentAsString());
+    await()
+        .atMost(5, SECONDS)
+        .untilAsserted(() -> verify(jobsRepository, atLeastOnce()).save(argThat(job ->
+            "cancelled".equals(job.getStatus())
+                && "Hello World! from test job!\nCancelled".equals(job.getLog()))));
+  }
+
+  @WithMockUser(roles = { "ADMIN" })
+  @Test
+  public void cancel_of_finished_job_reports_not_running() throws Exception {
+    when(jobsRepository.existsById(78L)).thenReturn(true);
+
+    MvcResult response = mockMvc
+        .perform(post("/api/jobs/cancel/78").with(csrf()))
+        .andExpect(status().isOk())
+        .andReturn();
+
+    String expectedJson = mapper.writeValueAsString(Map.of("message", "Job with id 78 is not running"));
+    assertEquals(expectedJson, response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = { "ADMIN" })
+  @Test
+  public void cancel_of_unknown_job_returns_404() throws Exception {
+    when(jobsRepository.existsById(79L)).thenReturn(false);
+
+    mockMvc
+        .perform(post("/api/jobs/cancel/79").with(csrf()))
+        .andExpect(status().isNotFound());
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void user_cannot_cancel_job() throws Exception {
+    mockMvc
+        .perform(post("/api/jobs/cancel/77").with(csrf()))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "ADMIN" })
+  @Test
+  public void admin_can_get_retention_stats() throws Exception {
+    JobRetentionStats stats = JobRetentionStats.builder()
+        .jobsDeleted(3).logsTruncated(2).bytesReclaimed(12345).build();
+    when(jobRetentionService.getStats()).thenReturn(stats);
+
+    MvcResult response = mockMvc.perform(get("/api/jobs/retention")).andExpect(status().isOk()).andReturn();
+
+    assertEquals(mapper.writeValueAsString(stats), response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void user_cannot_get_retention_stats() throws Exception {
+    mockMvc.perform(get("/api/jobs/retention")).andExpect(status().is(403));
+    verify(jobRetentionService, never()).getStats();
+  }
+
   @WithMockUser(roles = { "ADMIN" })
   @Test
   public void admin_can_launch_updateAll_job() throws Exception {
@@ -372,6 +714,6 @@ public class JobsControllerDetailedTests extends ControllerTestCase {
     // assert
     String responseString = response.getResponse().getContentAsString();
     Job jobReturned = objectMapper.readValue(responseString, Job.class);
-    MatcherAssert.assertThat(jobReturned.getStatus(), Matchers.anyOf(Matchers.is("completed"), Matchers.is("running")));
+    MatcherAssert.assertThat(jobReturned.getStatus(), Matchers.anyOf(Matchers.is("complete"), Matchers.is("running")));
   }
 }
\ No newline at end of file
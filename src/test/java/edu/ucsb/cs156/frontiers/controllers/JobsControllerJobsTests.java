@@ -25,6 +25,7 @@ import edu.ucsb.cs156.frontiers.jobs.UpdateAllJob;
 import edu.ucsb.cs156.frontiers.repositories.JobsRepository;
 import edu.ucsb.cs156.frontiers.repositories.UserRepository;
 import edu.ucsb.cs156.frontiers.services.UpdateUserService;
+import edu.ucsb.cs156.frontiers.services.jobs.JobRetentionService;
 import edu.ucsb.cs156.frontiers.services.jobs.JobService;
 import lombok.extern.slf4j.Slf4j;
 
@@ -52,6 +53,9 @@ public class JobsControllerJobsTests extends ControllerTestCase {
   @MockitoBean
   UpdateUserService updateUserService; // This will be used in the UpdateAllJob to call the GithubSignInService
 
+  @MockitoBean
+  JobRetentionService jobRetentionService;
+
   @MockitoBean
   JobService jobService;
 
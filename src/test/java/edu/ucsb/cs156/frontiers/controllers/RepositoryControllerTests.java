@@ -6,6 +6,7 @@ import edu.ucsb.cs156.frontiers.ControllerTestCase;
 import edu.ucsb.cs156.frontiers.entities.Course;
 import edu.ucsb.cs156.frontiers.entities.Job;
 import edu.ucsb.cs156.frontiers.entities.User;
+import edu.ucsb.cs156.frontiers.enums.RepositoryAccessMode;
 import edu.ucsb.cs156.frontiers.jobs.CreateStudentRepositoriesJob;
 import edu.ucsb.cs156.frontiers.repositories.CourseRepository;
 import edu.ucsb.cs156.frontiers.services.CurrentUserService;
@@ -13,11 +14,13 @@ import edu.ucsb.cs156.frontiers.services.RepositoryService;
 import edu.ucsb.cs156.frontiers.services.jobs.JobService;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.AutoConfigureDataJpa;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.Map;
@@ -27,6 +30,8 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -128,4 +133,53 @@ public class RepositoryControllerTests extends ControllerTestCase {
         assertEquals("EntityNotFoundException", json.get("type"));
         assertEquals("Course with id 2 not found", json.get("message"));
     }
+
+    @Test
+    @WithMockUser(roles = {"ADMIN"})
+    public void access_mode_defaults_to_collaborator_and_can_be_team() throws Exception {
+        Course course = Course.builder().id(2L).orgName("ucsb-cs156").installationId("1234").courseName("course").creator(currentUserService.getUser()).build();
+        doReturn(Optional.of(course)).when(courseRepository).findById(eq(2L));
+        doReturn(Job.builder().build()).when(service).runAsJob(any(CreateStudentRepositoriesJob.class));
+
+        mockMvc.perform(post("/api/repos/createRepos")
+                        .with(csrf())
+                        .param("courseId", "2")
+                        .param("repoPrefix", "repo1"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/repos/createRepos")
+                        .with(csrf())
+                        .param("courseId", "2")
+                        .param("repoPrefix", "repo1")
+                        .param("accessMode", "TEAM"))
+                .andExpect(status().isOk());
+
+        ArgumentCaptor<CreateStudentRepositoriesJob> jobs = ArgumentCaptor.forClass(CreateStudentRepositoriesJob.class);
+        verify(service, times(2)).runAsJob(jobs.capture());
+        assertEquals(RepositoryAccessMode.COLLABORATOR, ReflectionTestUtils.getField(jobs.getAllValues().get(0), "accessMode"));
+        assertEquals(RepositoryAccessMode.TEAM, ReflectionTestUtils.getField(jobs.getAllValues().get(1), "accessMode"));
+    }
+
+    @Test
+    @WithMockUser(roles = {"ADMIN"})
+    public void template_repo_defaults_to_course_org() throws Exception {
+        Course course = Course.builder().id(2L).orgName("ucsb-cs156").installationId("1234").courseName("course").creator(currentUserService.getUser()).build();
+        doReturn(Optional.of(course)).when(courseRepository).findById(eq(2L));
+        doReturn(Job.builder().build()).when(service).runAsJob(any(CreateStudentRepositoriesJob.class));
+
+        for (String templateRepo : new String[] {"starter", "ucsb-cs156-templates/starter", " "}) {
+            mockMvc.perform(post("/api/repos/createRepos")
+                            .with(csrf())
+                            .param("courseId", "2")
+                            .param("repoPrefix", "repo1")
+                            .param("templateRepo", templateRepo))
+                    .andExpect(status().isOk());
+        }
+
+        ArgumentCaptor<CreateStudentRepositoriesJob> jobs = ArgumentCaptor.forClass(CreateStudentRepositoriesJob.class);
+        verify(service, times(3)).runAsJob(jobs.capture());
+        assertEquals("ucsb-cs156/starter", ReflectionTestUtils.getField(jobs.getAllValues().get(0), "templateRepository"));
+        assertEquals("ucsb-cs156-templates/starter", ReflectionTestUtils.getField(jobs.getAllValues().get(1), "templateRepository"));
+        assertEquals(null, ReflectionTestUtils.getField(jobs.getAllValues().get(2), "templateRepository"));
+        assertEquals(4, ReflectionTestUtils.getField(jobs.getAllValues().get(0), "concurrency"));
+    }
 }
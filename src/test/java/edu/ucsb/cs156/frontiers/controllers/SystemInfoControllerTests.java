@@ -13,6 +13,7 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MvcResult;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -50,4 +51,52 @@ public class SystemInfoControllerTests extends ControllerTestCase {
     String responseString = response.getResponse().getContentAsString();
     assertEquals(expectedJson, responseString);
   }
+
+  @Test
+  public void systemInfo__has_an_etag_and_must_be_revalidated() throws Exception {
+
+    // arrange
+
+    SystemInfo systemInfo = SystemInfo.builder().oauthLogin("/oauth2/authorization/google").build();
+    when(mockSystemInfoService.getSystemInfo()).thenReturn(systemInfo);
+
+    // act
+
+    MvcResult response = mockMvc.perform(get("/api/systemInfo"))
+        .andExpect(status().isOk())
+        .andExpect(header().string("Cache-Control", "no-cache"))
+        .andExpect(content().contentType("application/json"))
+        .andReturn();
+    String etag = response.getResponse().getHeader("ETag");
+
+    // assert
+
+    mockMvc.perform(get("/api/systemInfo").header("If-None-Match", etag))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string("ETag", etag))
+        .andExpect(content().string(""));
+  }
+
+  @Test
+  public void systemInfo__is_serialized_again_when_it_changes() throws Exception {
+
+    // arrange
+
+    SystemInfo before = SystemInfo.builder().oauthLogin("/oauth2/authorization/google").build();
+    SystemInfo after = SystemInfo.builder().oauthLogin("/oauth2/authorization/github").build();
+    when(mockSystemInfoService.getSystemInfo()).thenReturn(before);
+    String etag = mockMvc.perform(get("/api/systemInfo")).andReturn().getResponse().getHeader("ETag");
+    assertEquals(etag, mockMvc.perform(get("/api/systemInfo")).andReturn().getResponse().getHeader("ETag"));
+
+    // act
+
+    when(mockSystemInfoService.getSystemInfo()).thenReturn(after);
+    MvcResult response = mockMvc.perform(get("/api/systemInfo").header("If-None-Match", etag))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+
+    assertEquals(mapper.writeValueAsString(after), response.getResponse().getContentAsString());
+    assertNotEquals(etag, response.getResponse().getHeader("ETag"));
+  }
 }
@@ -4,21 +4,24 @@ import edu.ucsb.cs156.frontiers.ControllerTestCase;
 import edu.ucsb.cs156.frontiers.controllers.UserInfoController;
 import edu.ucsb.cs156.frontiers.models.CurrentUser;
 import edu.ucsb.cs156.frontiers.repositories.UserRepository;
+import edu.ucsb.cs156.frontiers.services.CurrentUserResponseCache;
 import edu.ucsb.cs156.frontiers.testconfig.TestConfig;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockHttpSession;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MvcResult;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(controllers = UserInfoController.class)
-@Import(TestConfig.class)
+@Import({ TestConfig.class, CurrentUserResponseCache.class })
 public class UserInfoControllerTests extends ControllerTestCase {
 
   @MockBean
@@ -48,4 +51,27 @@ public class UserInfoControllerTests extends ControllerTestCase {
     String responseString = response.getResponse().getContentAsString();
     assertEquals(expectedJson, responseString);
   }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void currentUser__is_cached_in_the_session_with_an_etag() throws Exception {
+
+    // arrange
+
+    MockHttpSession session = new MockHttpSession();
+    MvcResult response = mockMvc.perform(get("/api/currentUser").session(session))
+        .andExpect(status().isOk())
+        .andExpect(header().string("Cache-Control", "no-cache, private"))
+        .andReturn();
+    String etag = response.getResponse().getHeader("ETag");
+
+    // act and assert
+
+    assertNotNull(etag);
+    mockMvc.perform(get("/api/currentUser").session(session).header("If-None-Match", etag))
+        .andExpect(status().isNotModified())
+        .andExpect(content().string(""));
+    assertEquals(response.getResponse().getContentAsString(),
+        mockMvc.perform(get("/api/currentUser").session(session)).andReturn().getResponse().getContentAsString());
+  }
 }
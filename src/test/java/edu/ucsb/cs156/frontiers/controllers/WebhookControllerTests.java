@@ -8,7 +8,9 @@ import edu.ucsb.cs156.frontiers.enums.OrgStatus;
 import edu.ucsb.cs156.frontiers.repositories.CourseRepository;
 import edu.ucsb.cs156.frontiers.repositories.RosterStudentRepository;
 import edu.ucsb.cs156.frontiers.repositories.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
@@ -33,6 +35,9 @@ public class WebhookControllerTests extends ControllerTestCase {
     @MockitoBean
     CourseRepository  courseRepository;
 
+    @Autowired
+    MeterRegistry meterRegistry;
+
     @Test
     public void successfulWebhook() throws Exception {
         Course course = Course.builder().installationId("1234").build();
@@ -540,4 +545,60 @@ public class WebhookControllerTests extends ControllerTestCase {
         String actualBody = response.getResponse().getContentAsString();
         assertEquals("success", actualBody);
     }
+
+    @Test
+    public void countsEventsByActionAndOutcome() throws Exception {
+        meterRegistry.clear();
+        Course course = Course.builder().installationId("1234").build();
+        RosterStudent student = RosterStudent.builder().githubLogin("testLogin").course(course).build();
+        doReturn(Optional.of(course)).when(courseRepository).findByInstallationId("1234");
+        doReturn(Optional.empty()).when(courseRepository).findByInstallationId("9999");
+        doReturn(Optional.of(student)).when(rosterStudentRepository).findByCourseAndGithubLogin(course, "testLogin");
+        doReturn(Optional.empty()).when(rosterStudentRepository).findByCourseAndGithubLogin(course, "nobody");
+
+        sendWebhook("""
+                { "action": "member_added", "membership": { "user": { "login": "testLogin" } }, "installation": { "id": "1234" } }
+                """);
+        sendWebhook("""
+                { "action": "member_invited", "user": { "login": "testLogin" }, "installation": { "id": "1234" } }
+                """);
+        sendWebhook("""
+                { "action": "member_added", "membership": { "user": { "login": "nobody" } }, "installation": { "id": "1234" } }
+                """);
+        sendWebhook("""
+                { "action": "member_added", "membership": { "user": { "login": "testLogin" } }, "installation": { "id": "9999" } }
+                """);
+        sendWebhook("""
+                { "action": "member_invited", "installation": { "id": "1234" } }
+                """);
+        sendWebhook("""
+                { "action": "member_removed" }
+                """);
+        sendWebhook("""
+                { "zen": "Keep it logically awesome." }
+                """);
+        sendWebhook("""
+                { "action": "made_up_1234" }
+                """);
+
+        assertEquals(1.0, webhookEvents("member_added", "updated"));
+        assertEquals(1.0, webhookEvents("member_invited", "updated"));
+        assertEquals(1.0, webhookEvents("member_added", "unknown_student"));
+        assertEquals(1.0, webhookEvents("member_added", "unknown_course"));
+        assertEquals(1.0, webhookEvents("member_invited", "malformed"));
+        assertEquals(3.0, webhookEvents("other", "ignored"));
+        assertEquals(3, meterRegistry.get("frontiers.webhook.events").counters().stream()
+                .map(counter -> counter.getId().getTag("action")).distinct().count());
+    }
+
+    private void sendWebhook(String body) throws Exception {
+        mockMvc.perform(post("/api/webhooks/github")
+                .content(body)
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+    }
+
+    private double webhookEvents(String action, String outcome) {
+        return meterRegistry.get("frontiers.webhook.events").tag("action", action).tag("outcome", outcome).counter().count();
+    }
 }
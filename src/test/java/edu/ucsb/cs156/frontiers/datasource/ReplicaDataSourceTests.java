@@ -0,0 +1,78 @@
+package edu.ucsb.cs156.frontiers.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ReplicaDataSourceTests {
+
+  private final DataSource primaryPool = mock(DataSource.class);
+  private final DataSource replicaPool = mock(DataSource.class);
+  private final Connection primaryConnection = mock(Connection.class);
+  private final Connection replicaConnection = mock(Connection.class);
+  private final ReplicaLagMonitor monitor = mock(ReplicaLagMonitor.class);
+  private final ReplicaDataSource dataSource = new ReplicaDataSource(replicaPool, primaryPool, monitor);
+
+  @BeforeEach
+  public void setup() throws SQLException {
+    when(primaryPool.getConnection()).thenReturn(primaryConnection);
+    when(primaryPool.getConnection("user", "password")).thenReturn(primaryConnection);
+    ReplicaRouting.setRequested(true);
+  }
+
+  @AfterEach
+  public void teardown() {
+    ReplicaRouting.setRequested(false);
+  }
+
+  @Test
+  public void connections_come_from_the_replica_while_it_is_usable() throws SQLException {
+    when(monitor.isUsable()).thenReturn(true);
+    when(replicaPool.getConnection()).thenReturn(replicaConnection);
+    when(replicaPool.getConnection("user", "password")).thenReturn(replicaConnection);
+
+    assertSame(replicaConnection, dataSource.getConnection());
+    assertSame(replicaConnection, dataSource.getConnection("user", "password"));
+  }
+
+  @Test
+  public void connections_come_from_the_primary_unless_the_replica_is_asked_for() throws SQLException {
+    when(monitor.isUsable()).thenReturn(true);
+    ReplicaRouting.setRequested(false);
+
+    assertSame(primaryConnection, dataSource.getConnection());
+    assertSame(primaryConnection, dataSource.getConnection("user", "password"));
+    verifyNoInteractions(replicaPool);
+  }
+
+  @Test
+  public void connections_come_from_the_primary_while_the_replica_is_not_usable() throws SQLException {
+    assertSame(primaryConnection, dataSource.getConnection());
+    assertSame(primaryConnection, dataSource.getConnection("user", "password"));
+    verifyNoInteractions(replicaPool);
+  }
+
+  @Test
+  public void connections_come_from_the_primary_when_the_replica_fails() throws SQLException {
+    SQLException down = new SQLException("Connection is not available, request timed out after 2000ms");
+    when(monitor.isUsable()).thenReturn(true);
+    when(replicaPool.getConnection()).thenThrow(down);
+    when(replicaPool.getConnection("user", "password")).thenThrow(down);
+
+    assertSame(primaryConnection, dataSource.getConnection());
+    assertSame(primaryConnection, dataSource.getConnection("user", "password"));
+    verify(monitor, times(2)).markUnavailable(down);
+  }
+}
@@ -0,0 +1,98 @@
+package edu.ucsb.cs156.frontiers.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.SQLException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+public class ReplicaLagMonitorTests {
+
+  private EmbeddedDatabase replica;
+  private JdbcTemplate jdbcTemplate;
+  private ReplicaLagMonitor monitor;
+
+  @BeforeEach
+  public void setup() {
+    replica = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+    jdbcTemplate = new JdbcTemplate(replica);
+    jdbcTemplate.execute("create table replication (lag double)");
+    jdbcTemplate.update("insert into replication values (0.5)");
+    monitor = new ReplicaLagMonitor(replica, "select lag from replication", 5);
+  }
+
+  @AfterEach
+  public void teardown() {
+    replica.shutdown();
+  }
+
+  private void lag(Double seconds) {
+    jdbcTemplate.update("update replication set lag = ?", seconds);
+  }
+
+  @Test
+  public void replica_is_not_used_before_the_first_check() {
+    assertFalse(monitor.isUsable());
+    assertTrue(Double.isNaN(monitor.getLagSeconds()));
+  }
+
+  @Test
+  public void replica_is_used_while_it_keeps_up() {
+    monitor.check();
+    assertTrue(monitor.isUsable());
+    assertEquals(0.5, monitor.getLagSeconds());
+
+    lag(5.0);
+    monitor.check();
+    assertTrue(monitor.isUsable());
+    assertEquals(5.0, monitor.getLagSeconds());
+  }
+
+  @Test
+  public void no_lag_reported_is_no_lag() {
+    lag(null);
+    monitor.check();
+    assertTrue(monitor.isUsable());
+    assertEquals(0.0, monitor.getLagSeconds());
+  }
+
+  @Test
+  public void replica_is_not_used_while_it_is_too_far_behind() {
+    lag(30.0);
+    monitor.check();
+    assertFalse(monitor.isUsable());
+    assertEquals(30.0, monitor.getLagSeconds());
+
+    lag(0.0);
+    monitor.check();
+    assertTrue(monitor.isUsable());
+
+    lag(7.5);
+    monitor.check();
+    monitor.check();
+    assertFalse(monitor.isUsable());
+    assertEquals(7.5, monitor.getLagSeconds());
+  }
+
+  @Test
+  public void replica_is_not_used_while_it_does_not_answer() {
+    monitor.check();
+    assertTrue(monitor.isUsable());
+
+    jdbcTemplate.execute("drop table replication");
+    monitor.check();
+    assertFalse(monitor.isUsable());
+    assertTrue(Double.isNaN(monitor.getLagSeconds()));
+
+    monitor.markUnavailable(new SQLException("still down"));
+    assertFalse(monitor.isUsable());
+  }
+}
@@ -0,0 +1,142 @@
+package edu.ucsb.cs156.frontiers.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/** Routing between two H2 databases, one standing in for the primary and one for the replica */
+public class ReplicaRoutingTests {
+
+  private EmbeddedDatabase primary;
+  private EmbeddedDatabase replica;
+  private boolean replicaDown;
+  private ReplicaLagMonitor monitor;
+  private JdbcTemplate jdbcTemplate;
+  private TransactionTemplate transactionTemplate;
+
+  private EmbeddedDatabase database(String name) {
+    EmbeddedDatabase database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2)
+        .generateUniqueName(true).build();
+    JdbcTemplate jdbc = new JdbcTemplate(database);
+    jdbc.execute("create table node (name varchar(10), lag double)");
+    jdbc.update("insert into node values (?, 0)", name);
+    return database;
+  }
+
+  @BeforeEach
+  public void setup() {
+    primary = database("primary");
+    replica = database("replica");
+    DataSource replicaPool = new DelegatingDataSource(replica) {
+      @Override
+      public Connection getConnection() throws SQLException {
+        if (replicaDown) {
+          throw new SQLException("Connection refused");
+        }
+        return super.getConnection();
+      }
+    };
+    monitor = new ReplicaLagMonitor(replicaPool, "select lag from node", 5);
+    DataSource routing = ReplicaDataSource.routing(primary, replicaPool, monitor);
+    jdbcTemplate = new JdbcTemplate(routing);
+    transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(routing));
+  }
+
+  @AfterEach
+  public void teardown() {
+    primary.shutdown();
+    replica.shutdown();
+  }
+
+  private String node(boolean readOnly) {
+    transactionTemplate.setReadOnly(readOnly);
+    return transactionTemplate.execute(status -> jdbcTemplate.queryForObject("select name from node", String.class));
+  }
+
+  /** Stands in for a controller or service with a {@link ReadFromReplica} method */
+  public class Reads {
+    @ReadFromReplica
+    public String fromReplica(boolean readOnly) {
+      return node(readOnly);
+    }
+
+    public String fromPrimary(boolean readOnly) {
+      return node(readOnly);
+    }
+
+    @ReadFromReplica
+    public String failing() {
+      throw new IllegalStateException("failed");
+    }
+  }
+
+  private Reads reads() {
+    AspectJProxyFactory factory = new AspectJProxyFactory(new Reads());
+    factory.addAspect(new ReplicaRouting());
+    return factory.getProxy();
+  }
+
+  @Test
+  public void read_only_transactions_of_methods_that_ask_for_it_read_from_the_replica() {
+    monitor.check();
+    assertTrue(monitor.isUsable());
+
+    assertEquals("replica", reads().fromReplica(true));
+    assertEquals("primary", reads().fromReplica(false));
+    assertEquals("primary", jdbcTemplate.queryForObject("select name from node", String.class));
+    assertFalse(ReplicaRouting.isRequested());
+  }
+
+  @Test
+  public void other_read_only_transactions_read_from_the_primary() {
+    monitor.check();
+
+    assertEquals("primary", node(true));
+    assertEquals("primary", reads().fromPrimary(true));
+  }
+
+  @Test
+  public void asking_for_the_replica_ends_with_the_method_that_asked() {
+    assertThrows(IllegalStateException.class, () -> reads().failing());
+    assertFalse(ReplicaRouting.isRequested());
+  }
+
+  @Test
+  public void read_only_transactions_read_from_the_primary_while_the_replica_lags() {
+    new JdbcTemplate(replica).update("update node set lag = 60");
+    monitor.check();
+    assertFalse(monitor.isUsable());
+
+    assertEquals("primary", reads().fromReplica(true));
+  }
+
+  @Test
+  public void read_only_transactions_read_from_the_primary_when_the_replica_goes_away() {
+    monitor.check();
+    replicaDown = true;
+
+    assertEquals("primary", reads().fromReplica(true));
+    assertFalse(monitor.isUsable());
+
+    monitor.check();
+    assertFalse(monitor.isUsable());
+  }
+}
@@ -0,0 +1,86 @@
+package edu.ucsb.cs156.frontiers.entities;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+public class CompressedTextConverterTests {
+
+  private final CompressedTextConverter converter = new CompressedTextConverter();
+
+  @Test
+  public void null_round_trips() {
+    assertNull(converter.convertToDatabaseColumn(null));
+    assertNull(converter.convertToEntityAttribute(null));
+    assertEquals(0, CompressedTextConverter.storedSize(null));
+  }
+
+  @Test
+  public void short_text_is_stored_as_plain_utf8() {
+    String text = "Créé ".repeat(10);
+    byte[] stored = converter.convertToDatabaseColumn(text);
+
+    assertArrayEquals(text.getBytes(StandardCharsets.UTF_8), stored);
+    assertFalse(CompressedTextConverter.isCompressed(stored));
+    assertEquals(text, converter.convertToEntityAttribute(stored));
+  }
+
+  @Test
+  public void text_at_threshold_is_not_compressed() {
+    String text = "x".repeat(CompressedTextConverter.COMPRESSION_THRESHOLD);
+    assertEquals(CompressedTextConverter.COMPRESSION_THRESHOLD, CompressedTextConverter.storedSize(text));
+  }
+
+  @Test
+  public void long_text_is_compressed_and_read_back() throws Exception {
+    StringBuilder log = new StringBuilder();
+    for (int i = 0; i < 2000; i++) {
+      log.append("Created repo assignment-student%d for student%d\n".formatted(i, i));
+    }
+    String text = log.toString();
+    byte[] stored = converter.convertToDatabaseColumn(text);
+
+    assertTrue(CompressedTextConverter.isCompressed(stored));
+    assertTrue(stored.length * 5 < text.length(), "compressed to " + stored.length);
+    assertEquals(text, converter.convertToEntityAttribute(stored));
+    assertEquals(text, new String(CompressedTextConverter.open(stored).readAllBytes(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void corrupt_compressed_value_throws() {
+    byte[] stored = { (byte) 0x1f, (byte) 0x8b, 1, 2, 3 };
+    assertThrows(UncheckedIOException.class, () -> converter.convertToEntityAttribute(stored));
+  }
+
+  @Test
+  public void is_compressed_checks_both_magic_bytes() {
+    assertFalse(CompressedTextConverter.isCompressed(new byte[] {}));
+    assertFalse(CompressedTextConverter.isCompressed(new byte[] { (byte) 0x1f }));
+    assertFalse(CompressedTextConverter.isCompressed(new byte[] { (byte) 0x1f, 'a' }));
+    assertFalse(CompressedTextConverter.isCompressed(new byte[] { 'a', (byte) 0x8b }));
+  }
+
+  @Test
+  public void write_failures_are_unchecked() {
+    OutputStream broken = new OutputStream() {
+      @Override
+      public void write(int b) throws IOException {
+        throw new IOException("disk full");
+      }
+    };
+
+    UncheckedIOException e = assertThrows(UncheckedIOException.class,
+        () -> CompressedTextConverter.gzip("text".getBytes(StandardCharsets.UTF_8), broken));
+    assertEquals("disk full", e.getCause().getMessage());
+  }
+}
@@ -6,20 +6,39 @@ import edu.ucsb.cs156.frontiers.entities.Job;
 import edu.ucsb.cs156.frontiers.entities.RosterStudent;
 import edu.ucsb.cs156.frontiers.entities.User;
 import edu.ucsb.cs156.frontiers.enums.OrgStatus;
+import edu.ucsb.cs156.frontiers.enums.RepositoryAccessMode;
+import edu.ucsb.cs156.frontiers.errors.GithubGraphQLException;
 import edu.ucsb.cs156.frontiers.services.RepositoryService;
+import edu.ucsb.cs156.frontiers.services.jobs.JobCancelledException;
 import edu.ucsb.cs156.frontiers.services.jobs.JobContext;
+import edu.ucsb.cs156.frontiers.services.jobs.RetryPolicy;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -42,7 +61,7 @@ public class CreateStudentRepositoriesJobTest {
         RosterStudent student = RosterStudent.builder().githubLogin("studentLogin").orgStatus(OrgStatus.MEMBER).build();
         course.setRosterStudents(List.of(student));
 
-        doNothing().when(service).createStudentRepository(eq(course), eq(student), contains("repo-prefix"), eq(false));
+        doNothing().when(service).createStudentRepository(eq(course), eq(student), contains("repo-prefix"), eq(false), eq(RepositoryAccessMode.COLLABORATOR), isNull());
 
         var repoJob = spy(CreateStudentRepositoriesJob.builder()
                 .repositoryService(service)
@@ -57,7 +76,9 @@ public class CreateStudentRepositoriesJobTest {
                 Done""";
         assertEquals(expected, jobStarted.getLog());
 
-        verify(service, times(1)).createStudentRepository(eq(course), eq(student), contains("repo-prefix"), eq(false));
+        verify(service, times(1)).createStudentRepository(eq(course), eq(student), contains("repo-prefix"), eq(false), eq(RepositoryAccessMode.COLLABORATOR), isNull());
+        assertEquals(1, jobStarted.getProgressTotal());
+        assertEquals(1, jobStarted.getProgressDone());
     }
 
     @Test
@@ -66,7 +87,7 @@ public class CreateStudentRepositoriesJobTest {
         RosterStudent student = RosterStudent.builder().githubLogin("studentLogin").orgStatus(OrgStatus.MEMBER).build();
         course.setRosterStudents(List.of(student));
 
-        doNothing().when(service).createStudentRepository(eq(course), eq(student), contains("repo-prefix"), eq(true));
+        doNothing().when(service).createStudentRepository(eq(course), eq(student), contains("repo-prefix"), eq(true), eq(RepositoryAccessMode.COLLABORATOR), isNull());
 
         var repoJob = spy(CreateStudentRepositoriesJob.builder()
                 .repositoryService(service)
@@ -81,7 +102,7 @@ public class CreateStudentRepositoriesJobTest {
                 Done""";
         assertEquals(expected, jobStarted.getLog());
 
-        verify(service, times(1)).createStudentRepository(eq(course), eq(student), contains("repo-prefix"), eq(true));
+        verify(service, times(1)).createStudentRepository(eq(course), eq(student), contains("repo-prefix"), eq(true), eq(RepositoryAccessMode.COLLABORATOR), isNull());
     }
 
 
@@ -104,7 +125,8 @@ public class CreateStudentRepositoriesJobTest {
                 Done""";
         assertEquals(expected, jobStarted.getLog());
 
-        verify(service, times(0)).createStudentRepository(any(),any(),any(),any());
+        verify(service, times(0)).createStudentRepository(any(),any(),any(),any(),any(),any());
+        assertEquals(0, jobStarted.getProgressTotal());
     }
 
     @Test
@@ -125,6 +147,314 @@ public class CreateStudentRepositoriesJobTest {
                 Done""";
         assertEquals(expected, jobStarted.getLog());
 
-        verify(service, times(0)).createStudentRepository(any(),any(),any(),any());
+        verify(service, times(0)).createStudentRepository(any(),any(),any(),any(),any(),any());
+    }
+
+    @Test
+    public void stopsBetweenStudentsWhenCancelled() throws Exception {
+        Course course = Course.builder().orgName("ucsb-cs156").installationId("1234").build();
+        RosterStudent student1 = RosterStudent.builder().githubLogin("first").orgStatus(OrgStatus.MEMBER).build();
+        RosterStudent student2 = RosterStudent.builder().githubLogin("second").orgStatus(OrgStatus.MEMBER).build();
+        course.setRosterStudents(List.of(student1, student2));
+
+        doAnswer(invocation -> {
+            ctx.cancel();
+            return null;
+        }).when(service).createStudentRepository(eq(course), eq(student1), any(), any(), eq(RepositoryAccessMode.COLLABORATOR), isNull());
+
+        var repoJob = CreateStudentRepositoriesJob.builder()
+                .repositoryService(service)
+                .repositoryPrefix("repo-prefix")
+                .isPrivate(false)
+                .course(course)
+                .build();
+
+        assertThrows(JobCancelledException.class, () -> repoJob.accept(ctx));
+        assertEquals("Processing...", jobStarted.getLog());
+
+        verify(service, times(1)).createStudentRepository(any(),any(),any(),any(),any(),any());
+    }
+
+    @Test
+    public void cancelledWorkerFinishesItsCurrentStudent() throws Exception {
+        Course course = Course.builder().orgName("ucsb-cs156").installationId("1234").build();
+        RosterStudent student1 = RosterStudent.builder().githubLogin("first").orgStatus(OrgStatus.MEMBER).build();
+        RosterStudent student2 = RosterStudent.builder().githubLogin("second").orgStatus(OrgStatus.MEMBER).build();
+        course.setRosterStudents(List.of(student1, student2));
+        AtomicBoolean finished = new AtomicBoolean();
+
+        doAnswer(invocation -> {
+            ctx.cancel();
+            // e.g. waiting for the template contents before giving access
+            JobContext.sleep(10);
+            assertFalse(Thread.currentThread().isInterrupted());
+            finished.set(true);
+            return null;
+        }).when(service).createStudentRepository(eq(course), eq(student1), any(), any(), eq(RepositoryAccessMode.COLLABORATOR), isNull());
+
+        var repoJob = CreateStudentRepositoriesJob.builder()
+                .repositoryService(service)
+                .repositoryPrefix("repo-prefix")
+                .isPrivate(false)
+                .course(course)
+                .concurrency(1)
+                .build();
+
+        assertThrows(JobCancelledException.class, () -> repoJob.accept(ctx));
+
+        assertTrue(finished.get());
+        verify(service, times(1)).createStudentRepository(any(),any(),any(),any(),any(),any());
+    }
+
+    @Test
+    public void retriesTransientFailureWithBackoff() throws Exception {
+        Course course = Course.builder().orgName("ucsb-cs156").installationId("1234").build();
+        RosterStudent student1 = RosterStudent.builder().githubLogin("first").orgStatus(OrgStatus.MEMBER).build();
+        RosterStudent student2 = RosterStudent.builder().githubLogin("second").orgStatus(OrgStatus.MEMBER).build();
+        course.setRosterStudents(List.of(student1, student2));
+        List<Long> sleeps = new ArrayList<>();
+
+        doThrow(new HttpServerErrorException(HttpStatus.BAD_GATEWAY)).doNothing()
+                .when(service).createStudentRepository(eq(course), eq(student1), any(), any(), eq(RepositoryAccessMode.COLLABORATOR), isNull());
+        doNothing().when(service).createStudentRepository(eq(course), eq(student2), any(), any(), eq(RepositoryAccessMode.COLLABORATOR), isNull());
+
+        var repoJob = CreateStudentRepositoriesJob.builder()
+                .repositoryService(service)
+                .repositoryPrefix("repo-prefix")
+                .isPrivate(false)
+                .course(course)
+                .retryPolicy(RetryPolicy.builder().sleeper(sleeps::add).build())
+                .build();
+
+        repoJob.accept(ctx);
+        String expected = """
+                Processing...
+                Retrying 1 students in 2 seconds
+                Done""";
+        assertEquals(expected, jobStarted.getLog());
+        assertEquals(List.of(2000L), sleeps);
+        assertEquals(2, jobStarted.getProgressDone());
+        assertEquals(0, jobStarted.getProgressFailed());
+        verify(service, times(2)).createStudentRepository(eq(course), eq(student1), any(), any(), eq(RepositoryAccessMode.COLLABORATOR), isNull());
+        verify(service, times(1)).createStudentRepository(eq(course), eq(student2), any(), any(), eq(RepositoryAccessMode.COLLABORATOR), isNull());
+    }
+
+    @Test
+    public void permanentFailureDoesNotStopOtherStudents() throws Exception {
+        Course course = Course.builder().orgName("ucsb-cs156").installationId("1234").build();
+        RosterStudent student1 = RosterStudent.builder().githubLogin("first").orgStatus(OrgStatus.MEMBER).build();
+        RosterStudent student2 = RosterStudent.builder().githubLogin("second").orgStatus(OrgStatus.MEMBER).build();
+        RosterStudent student3 = RosterStudent.builder().githubLogin("third").orgStatus(OrgStatus.MEMBER).build();
+        course.setRosterStudents(List.of(student1, student2, student3));
+        HttpClientErrorException conflict = new HttpClientErrorException(HttpStatus.UNPROCESSABLE_ENTITY);
+        HttpClientErrorException forbidden = new HttpClientErrorException(HttpStatus.FORBIDDEN);
+
+        doThrow(conflict).when(service).createStudentRepository(eq(course), eq(student1), any(), any(), eq(RepositoryAccessMode.COLLABORATOR), isNull());
+        doNothing().when(service).createStudentRepository(eq(course), eq(student2), any(), any(), eq(RepositoryAccessMode.COLLABORATOR), isNull());
+        doThrow(forbidden).when(service).createStudentRepository(eq(course), eq(student3), any(), any(), eq(RepositoryAccessMode.COLLABORATOR), isNull());
+
+        var repoJob = CreateStudentRepositoriesJob.builder()
+                .repositoryService(service)
+                .repositoryPrefix("repo-prefix")
+                .isPrivate(false)
+                .course(course)
+                .retryPolicy(RetryPolicy.builder().sleeper(millis -> fail("should not retry")).build())
+                .build();
+
+        repoJob.accept(ctx);
+        String expected = """
+                Processing...
+                Failed for first (conflict): %s
+                Failed for third (permission): %s
+                Failed for 2 of 3 students:
+                  conflict: first
+                  permission: third
+                Done""".formatted(conflict.getMessage(), forbidden.getMessage());
+        assertEquals(expected, jobStarted.getLog());
+        assertEquals(1, jobStarted.getProgressDone());
+        assertEquals(2, jobStarted.getProgressFailed());
+        verify(service, times(3)).createStudentRepository(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void givesUpAfterMaxAttempts() throws Exception {
+        Course course = Course.builder().orgName("ucsb-cs156").installationId("1234").build();
+        RosterStudent student = RosterStudent.builder().githubLogin("first").orgStatus(OrgStatus.MEMBER).build();
+        course.setRosterStudents(List.of(student));
+        HttpServerErrorException unavailable = new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+        List<Long> sleeps = new ArrayList<>();
+
+        doThrow(unavailable).when(service).createStudentRepository(any(), any(), any(), any(), any(), any());
+
+        var repoJob = CreateStudentRepositoriesJob.builder()
+                .repositoryService(service)
+                .repositoryPrefix("repo-prefix")
+                .isPrivate(false)
+                .course(course)
+                .retryPolicy(RetryPolicy.builder().maxAttempts(3).sleeper(sleeps::add).build())
+                .build();
+
+        repoJob.accept(ctx);
+        String expected = """
+                Processing...
+                Retrying 1 students in 2 seconds
+                Retrying 1 students in 4 seconds
+                Failed for first (transient): %s
+                Failed for 1 of 1 students:
+                  transient: first
+                Done""".formatted(unavailable.getMessage());
+        assertEquals(expected, jobStarted.getLog());
+        assertEquals(List.of(2000L, 4000L), sleeps);
+        assertEquals(1, jobStarted.getProgressFailed());
+        verify(service, times(3)).createStudentRepository(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void unexpectedExceptionIsRecordedAsOther() throws Exception {
+        Course course = Course.builder().orgName("ucsb-cs156").installationId("1234").build();
+        RosterStudent student = RosterStudent.builder().githubLogin("first").orgStatus(OrgStatus.MEMBER).build();
+        course.setRosterStudents(List.of(student));
+
+        doThrow(new IllegalStateException("boom")).when(service).createStudentRepository(any(), any(), any(), any(), any(), any());
+
+        var repoJob = CreateStudentRepositoriesJob.builder()
+                .repositoryService(service)
+                .repositoryPrefix("repo-prefix")
+                .isPrivate(false)
+                .course(course)
+                .build();
+
+        repoJob.accept(ctx);
+        String expected = """
+                Processing...
+                Failed for first (other): boom
+                Failed for 1 of 1 students:
+                  other: first
+                Done""";
+        assertEquals(expected, jobStarted.getLog());
+    }
+
+    @Test
+    public void skipsExistingRepositoriesFoundInBulk() throws Exception {
+        Course course = Course.builder().orgName("ucsb-cs156").installationId("1234").build();
+        RosterStudent student1 = RosterStudent.builder().githubLogin("first").orgStatus(OrgStatus.MEMBER).build();
+        RosterStudent student2 = RosterStudent.builder().githubLogin("second").orgStatus(OrgStatus.MEMBER).build();
+        course.setRosterStudents(List.of(student1, student2));
+
+        doReturn(Optional.of(Set.of("repo-prefix-first")))
+                .when(service).findExistingRepositories(course, List.of("repo-prefix-first", "repo-prefix-second"));
+        doNothing().when(service).createMissingStudentRepository(course, student2, "repo-prefix", false, RepositoryAccessMode.COLLABORATOR, null);
+
+        var repoJob = CreateStudentRepositoriesJob.builder()
+                .repositoryService(service)
+                .repositoryPrefix("repo-prefix")
+                .isPrivate(false)
+                .course(course)
+                .build();
+
+        repoJob.accept(ctx);
+        String expected = """
+                Processing...
+                1 of 2 repositories already exist
+                Done""";
+        assertEquals(expected, jobStarted.getLog());
+        assertEquals(2, jobStarted.getProgressDone());
+        verify(service, times(1)).createMissingStudentRepository(any(), any(), any(), any(), any(), any());
+        verify(service, never()).createStudentRepository(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void checksEachRepositoryWhenBulkLookupFails() throws Exception {
+        Course course = Course.builder().orgName("ucsb-cs156").installationId("1234").build();
+        RosterStudent student = RosterStudent.builder().githubLogin("first").orgStatus(OrgStatus.MEMBER).build();
+        course.setRosterStudents(List.of(student));
+
+        doThrow(new GithubGraphQLException("Parse error")).when(service).findExistingRepositories(any(), any());
+        doNothing().when(service).createStudentRepository(course, student, "repo-prefix", false, RepositoryAccessMode.COLLABORATOR, null);
+
+        var repoJob = CreateStudentRepositoriesJob.builder()
+                .repositoryService(service)
+                .repositoryPrefix("repo-prefix")
+                .isPrivate(false)
+                .course(course)
+                .build();
+
+        repoJob.accept(ctx);
+        String expected = """
+                Processing...
+                Could not look up existing repositories, checking each one instead: GitHub GraphQL query failed: Parse error
+                Done""";
+        assertEquals(expected, jobStarted.getLog());
+        verify(service, times(1)).createStudentRepository(course, student, "repo-prefix", false, RepositoryAccessMode.COLLABORATOR, null);
+    }
+
+    @Test
+    public void teamModeCreatesMissingTeamsAndGrantsReposToTeams() throws Exception {
+        Course course = Course.builder().orgName("ucsb-cs156").installationId("1234").build();
+        RosterStudent student1 = RosterStudent.builder().githubLogin("first").orgStatus(OrgStatus.MEMBER).build();
+        RosterStudent student2 = RosterStudent.builder().githubLogin("Second").orgStatus(OrgStatus.MEMBER).build();
+        course.setRosterStudents(List.of(student1, student2));
+
+        doReturn(Set.of("student-first", "staff")).when(service).findTeamSlugs(course);
+        doNothing().when(service).createStudentTeam(course, student2);
+        doNothing().when(service).createStudentRepository(eq(course), any(), eq("repo-prefix"), eq(true), eq(RepositoryAccessMode.TEAM), isNull());
+
+        var repoJob = CreateStudentRepositoriesJob.builder()
+                .repositoryService(service)
+                .repositoryPrefix("repo-prefix")
+                .isPrivate(true)
+                .accessMode(RepositoryAccessMode.TEAM)
+                .course(course)
+                .build();
+
+        repoJob.accept(ctx);
+        assertEquals("""
+                Processing...
+                Done""", jobStarted.getLog());
+        verify(service, times(1)).findTeamSlugs(course);
+        verify(service, times(1)).createStudentTeam(any(), any());
+        verify(service, times(1)).createStudentRepository(course, student1, "repo-prefix", true, RepositoryAccessMode.TEAM, null);
+        verify(service, times(1)).createStudentRepository(course, student2, "repo-prefix", true, RepositoryAccessMode.TEAM, null);
+    }
+
+    @Test
+    public void generatesFromTemplateWithBoundedConcurrency() throws Exception {
+        Course course = Course.builder().orgName("ucsb-cs156").installationId("1234").build();
+        RosterStudent student1 = RosterStudent.builder().githubLogin("first").orgStatus(OrgStatus.MEMBER).build();
+        RosterStudent student2 = RosterStudent.builder().githubLogin("second").orgStatus(OrgStatus.MEMBER).build();
+        RosterStudent student3 = RosterStudent.builder().githubLogin("third").orgStatus(OrgStatus.MEMBER).build();
+        course.setRosterStudents(List.of(student1, student2, student3));
+        // the first two students can only finish if they are processed at the same time
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        doAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            bothStarted.countDown();
+            boolean together = bothStarted.await(5, TimeUnit.SECONDS);
+            running.decrementAndGet();
+            if(!together){
+                throw new IllegalStateException("not concurrent");
+            }
+            return null;
+        }).when(service).createStudentRepository(eq(course), any(), eq("repo-prefix"), eq(false),
+                eq(RepositoryAccessMode.COLLABORATOR), eq("ucsb-cs156/starter"));
+
+        var repoJob = CreateStudentRepositoriesJob.builder()
+                .repositoryService(service)
+                .repositoryPrefix("repo-prefix")
+                .isPrivate(false)
+                .templateRepository("ucsb-cs156/starter")
+                .concurrency(2)
+                .course(course)
+                .build();
+
+        repoJob.accept(ctx);
+        assertEquals("""
+                Processing...
+                Done""", jobStarted.getLog());
+        assertEquals(3, jobStarted.getProgressDone());
+        assertEquals(2, maxRunning.get());
     }
 }
@@ -12,6 +12,7 @@ import edu.ucsb.cs156.frontiers.repositories.RosterStudentRepository;
 import edu.ucsb.cs156.frontiers.repositories.UserRepository;
 import edu.ucsb.cs156.frontiers.services.OrganizationLinkerService;
 import edu.ucsb.cs156.frontiers.services.OrganizationMemberService;
+import edu.ucsb.cs156.frontiers.services.jobs.JobCancelledException;
 import edu.ucsb.cs156.frontiers.services.jobs.JobContext;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -26,6 +27,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -78,6 +80,8 @@ public class UpdateOrgMembershipJobTests {
 
         verify(rosterStudentRepository, times(1)).save(eq(student1Updated));
         verify(rosterStudentRepository, times(1)).save(eq(student2Updated));
+        assertEquals(2, jobStarted.getProgressTotal());
+        assertEquals(2, jobStarted.getProgressDone());
     }
 
     @Test
@@ -104,5 +108,27 @@ public class UpdateOrgMembershipJobTests {
         verify(rosterStudentRepository, times(0)).save(any());
     }
 
+    @Test
+    public void stops_between_members_when_cancelled() throws Exception {
+        OrgMember orgMember1 = OrgMember.builder().githubId(123456).githubLogin("division7").build();
+        OrgMember orgMember2 = OrgMember.builder().githubId(123457).githubLogin("division8").build();
+        Course course = Course.builder().orgName("ucsb-cs156").installationId("1234").build();
+
+        doReturn(List.of(orgMember1, orgMember2)).when(organizationMemberService).getOrganizationMembers(eq(course));
+        doAnswer(invocation -> {
+            ctx.cancel();
+            return Optional.empty();
+        }).when(rosterStudentRepository).findByCourseAndGithubId(eq(course), eq(123456));
 
+        var matchJob = UpdateOrgMembershipJob.builder()
+                .rosterStudentRepository(rosterStudentRepository)
+                .organizationMemberService(organizationMemberService)
+                .course(course)
+                .build();
+
+        assertThrows(JobCancelledException.class, () -> matchJob.accept(ctx));
+        assertEquals("Processing...", jobStarted.getLog());
+
+        verify(rosterStudentRepository, never()).findByCourseAndGithubId(eq(course), eq(123457));
+    }
 }
@@ -0,0 +1,85 @@
+package edu.ucsb.cs156.frontiers.logging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+
+public class LogRateLimitFilterTests {
+
+  private final AtomicLong now = new AtomicLong(1_000_000L);
+  private final LoggerContext context = new LoggerContext();
+  private LogRateLimitFilter filter;
+  private Logger hot;
+  private Logger quiet;
+
+  @BeforeEach
+  public void setup() {
+    filter = new LogRateLimitFilter(now::get);
+    filter.setMaxPerSecond(3);
+    hot = context.getLogger("hot");
+    quiet = context.getLogger("quiet");
+    context.getLogger(Logger.ROOT_LOGGER_NAME).setLevel(Level.INFO);
+  }
+
+  private FilterReply info(Logger logger) {
+    return filter.decide(null, logger, Level.INFO, "message {}", new Object[] { 1 }, null);
+  }
+
+  @Test
+  public void default_limit_is_200_a_second() {
+    assertEquals(200, new LogRateLimitFilter().getMaxPerSecond());
+  }
+
+  @Test
+  public void each_logger_gets_max_per_second_events() {
+    for (int i = 0; i < 3; i++) {
+      assertEquals(FilterReply.NEUTRAL, info(hot));
+    }
+    assertEquals(FilterReply.DENY, info(hot));
+    assertEquals(FilterReply.DENY, info(hot));
+    assertEquals(FilterReply.NEUTRAL, info(quiet));
+    assertEquals(2, filter.getDropped());
+  }
+
+  @Test
+  public void budget_is_renewed_every_second() {
+    for (int i = 0; i < 3; i++) {
+      info(hot);
+    }
+    now.addAndGet(TimeUnit.MILLISECONDS.toNanos(999));
+    assertEquals(FilterReply.DENY, info(hot));
+
+    now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+    assertEquals(FilterReply.NEUTRAL, info(hot));
+    assertEquals(1, filter.getDropped());
+  }
+
+  @Test
+  public void warnings_and_errors_are_never_dropped() {
+    for (int i = 0; i < 3; i++) {
+      info(hot);
+    }
+    assertEquals(FilterReply.NEUTRAL, filter.decide(null, hot, Level.WARN, "careful", null, null));
+    assertEquals(FilterReply.NEUTRAL, filter.decide(null, hot, Level.ERROR, "failed", null, null));
+    assertEquals(0, filter.getDropped());
+  }
+
+  @Test
+  public void level_checks_and_disabled_levels_do_not_use_up_the_budget() {
+    for (int i = 0; i < 10; i++) {
+      assertEquals(FilterReply.NEUTRAL, filter.decide(null, hot, Level.INFO, null, null, null));
+      assertEquals(FilterReply.NEUTRAL, filter.decide(null, hot, Level.DEBUG, "debug {}", null, null));
+    }
+    assertEquals(FilterReply.NEUTRAL, info(hot));
+    assertEquals(0, filter.getDropped());
+  }
+}
@@ -0,0 +1,73 @@
+package edu.ucsb.cs156.frontiers.models;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.ZonedDateTime;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ucsb.cs156.frontiers.entities.Job;
+
+/**
+ * This is a test class for the JobProgress class.
+ */
+public class JobProgressTests {
+
+  private static final ZonedDateTime START = ZonedDateTime.parse("2025-05-01T10:00:00Z");
+
+  @Test
+  public void running_job_rate_and_eta_are_measured_up_to_now() {
+    Job job = Job.builder().id(7L).status("running")
+        .progressTotal(100).progressDone(18).progressFailed(2).progressStartedAt(START).build();
+
+    JobProgress progress = JobProgress.of(job, START.plusSeconds(10));
+
+    assertEquals(JobProgress.builder().jobId(7L).status("running")
+        .total(100).done(18).failed(2).unitsPerSecond(2.0).etaSeconds(40L).build(), progress);
+  }
+
+  @Test
+  public void finished_job_rate_is_measured_up_to_last_update() {
+    Job job = Job.builder().status("complete").updatedAt(START.plusSeconds(50))
+        .progressTotal(100).progressDone(100).progressStartedAt(START).build();
+
+    JobProgress progress = JobProgress.of(job, START.plusSeconds(5000));
+
+    assertEquals(2.0, progress.getUnitsPerSecond());
+    assertEquals(0L, progress.getEtaSeconds());
+  }
+
+  @Test
+  public void job_without_total_has_rate_but_no_eta() {
+    Job job = Job.builder().status("running").progressDone(5).progressStartedAt(START).build();
+
+    JobProgress progress = JobProgress.of(job, START.plusSeconds(10));
+
+    assertNull(progress.getTotal());
+    assertEquals(0.5, progress.getUnitsPerSecond());
+    assertNull(progress.getEtaSeconds());
+  }
+
+  @Test
+  public void nothing_is_estimated_before_the_first_unit_or_without_elapsed_time() {
+    Job notStarted = Job.builder().status("running").build();
+    Job noneProcessed = Job.builder().status("running").progressTotal(10).progressStartedAt(START).build();
+    Job noTimeElapsed = Job.builder().status("running").progressTotal(10).progressDone(1).progressStartedAt(START).build();
+
+    for (JobProgress progress : new JobProgress[] {
+        JobProgress.of(notStarted, START),
+        JobProgress.of(noneProcessed, START.plusSeconds(10)),
+        JobProgress.of(noTimeElapsed, START) }) {
+      assertNull(progress.getUnitsPerSecond());
+      assertNull(progress.getEtaSeconds());
+    }
+  }
+
+  @Test
+  public void job_without_updated_at_is_measured_up_to_now() {
+    Job job = Job.builder().status("complete").progressTotal(4).progressDone(4).progressStartedAt(START).build();
+
+    assertEquals(1.0, JobProgress.of(job, START.plusSeconds(4)).getUnitsPerSecond());
+  }
+}
@@ -0,0 +1,200 @@
+package edu.ucsb.cs156.frontiers.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.ucsb.cs156.frontiers.entities.User;
+import edu.ucsb.cs156.frontiers.models.CurrentUser;
+import edu.ucsb.cs156.frontiers.services.CurrentUserResponseCache.UserChanged;
+import edu.ucsb.cs156.frontiers.services.UserRolesService.RolesChanged;
+
+@ExtendWith(MockitoExtension.class)
+public class CurrentUserResponseCacheTests {
+
+  private static final Instant START = Instant.parse("2025-01-06T17:00:00Z");
+  private static final String EMAIL = "cgaucho@ucsb.edu";
+
+  @Mock
+  private CurrentUserService currentUserService;
+
+  @Spy
+  private ObjectMapper mapper = new ObjectMapper();
+
+  @InjectMocks
+  private CurrentUserResponseCache cache;
+
+  private final MockHttpSession session = new MockHttpSession();
+
+  private final User user = User.builder().id(1L).email(EMAIL).fullName("Chris Gaucho").build();
+
+  @BeforeEach
+  public void setup() {
+    ReflectionTestUtils.setField(cache, "cacheSeconds", 300L);
+    at(Duration.ZERO);
+    signIn("ROLE_USER");
+    lenient().when(currentUserService.getCurrentUser())
+        .thenAnswer(invocation -> CurrentUser.builder().user(user).roles(List.of()).build());
+  }
+
+  @AfterEach
+  public void teardown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  private void at(Duration sinceStart) {
+    ReflectionTestUtils.setField(cache, "clock", Clock.fixed(START.plus(sinceStart), ZoneOffset.UTC));
+  }
+
+  private void signIn(String... roles) {
+    SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(EMAIL, null, roles));
+  }
+
+  private String body(ResponseEntity<byte[]> response) {
+    return new String(response.getBody());
+  }
+
+  @Test
+  public void the_response_is_the_current_user_with_an_etag() throws Exception {
+    ResponseEntity<byte[]> response = cache.response(session);
+
+    assertEquals(200, response.getStatusCode().value());
+    assertEquals(mapper.writeValueAsString(currentUserService.getCurrentUser()), body(response));
+    assertEquals("application/json", response.getHeaders().getContentType().toString());
+    assertEquals("no-cache, private", response.getHeaders().getCacheControl());
+    assertEquals(34, response.getHeaders().getETag().length());
+  }
+
+  @Test
+  public void the_response_is_made_once_per_session() throws Exception {
+    ResponseEntity<byte[]> first = cache.response(session);
+    at(Duration.ofSeconds(299));
+    ResponseEntity<byte[]> second = cache.response(session);
+
+    assertArrayEquals(first.getBody(), second.getBody());
+    assertEquals(first.getHeaders().getETag(), second.getHeaders().getETag());
+    verify(currentUserService, times(1)).getCurrentUser();
+
+    cache.response(new MockHttpSession());
+    verify(currentUserService, times(2)).getCurrentUser();
+  }
+
+  @Test
+  public void the_response_is_made_again_when_it_expires() throws Exception {
+    cache.response(session);
+    user.setFullName("Chris Gaucho Jr.");
+    at(Duration.ofSeconds(300));
+
+    assertEquals(mapper.writeValueAsString(CurrentUser.builder().user(user).roles(List.of()).build()),
+        body(cache.response(session)));
+    verify(currentUserService, times(2)).getCurrentUser();
+  }
+
+  @Test
+  public void the_response_is_made_again_when_the_sign_in_changes() throws Exception {
+    String before = cache.response(session).getHeaders().getETag();
+
+    user.setGithubLogin("cgaucho");
+    signIn("ROLE_USER", "ROLE_GITHUB");
+
+    ResponseEntity<byte[]> after = cache.response(session);
+    assertNotEquals(before, after.getHeaders().getETag());
+    verify(currentUserService, times(2)).getCurrentUser();
+  }
+
+  @Test
+  public void the_response_is_made_again_when_the_user_changes() throws Exception {
+    cache.response(session);
+
+    at(Duration.ofSeconds(10));
+    cache.userChanged(new UserChanged(EMAIL));
+    at(Duration.ofSeconds(11));
+    cache.response(session);
+    verify(currentUserService, times(2)).getCurrentUser();
+
+    // the change was before this response was made
+    at(Duration.ofSeconds(12));
+    cache.response(session);
+    verify(currentUserService, times(2)).getCurrentUser();
+  }
+
+  @Test
+  public void the_response_is_made_again_when_the_users_role_changes() throws Exception {
+    cache.response(session);
+
+    at(Duration.ofSeconds(10));
+    cache.rolesChanged(new RolesChanged(EMAIL));
+    cache.rolesChanged(new RolesChanged("someone.else@ucsb.edu"));
+    cache.response(session);
+    verify(currentUserService, times(2)).getCurrentUser();
+
+    // a change at the same time as the response was made may have been missed by it
+    cache.rolesChanged(new RolesChanged(EMAIL));
+    cache.response(session);
+    verify(currentUserService, times(3)).getCurrentUser();
+  }
+
+  @Test
+  public void changes_are_forgotten_once_no_cached_response_can_predate_them() throws Exception {
+    cache.userChanged(new UserChanged("someone.else@ucsb.edu"));
+    at(Duration.ofSeconds(300));
+    cache.userChanged(new UserChanged(EMAIL));
+
+    @SuppressWarnings("unchecked")
+    Map<String, Long> changedAt = (Map<String, Long>) ReflectionTestUtils.getField(cache, "changedAt");
+    assertEquals(Set.of("someone.else@ucsb.edu", EMAIL), changedAt.keySet());
+
+    at(Duration.ofSeconds(301));
+    cache.userChanged(new UserChanged(EMAIL));
+    assertEquals(Set.of(EMAIL), changedAt.keySet());
+  }
+
+  @Test
+  public void users_not_in_the_database_are_cached_too() throws Exception {
+    when(currentUserService.getCurrentUser())
+        .thenAnswer(invocation -> CurrentUser.builder().roles(List.of()).build());
+
+    assertEquals("{\"user\":null,\"roles\":[]}", body(cache.response(session)));
+    cache.userChanged(new UserChanged(EMAIL));
+    at(Duration.ofSeconds(1));
+    cache.response(session);
+    verify(currentUserService, times(1)).getCurrentUser();
+  }
+
+  @Test
+  public void the_cached_response_is_in_the_session() throws Exception {
+    ResponseEntity<byte[]> response = cache.response(session);
+    CurrentUserResponseCache.CachedResponse cached = (CurrentUserResponseCache.CachedResponse) session
+        .getAttribute(CurrentUserResponseCache.SESSION_ATTRIBUTE);
+    assertArrayEquals(response.getBody(), cached.json());
+    assertEquals(EMAIL + " [ROLE_USER]", cached.key());
+  }
+}
@@ -0,0 +1,103 @@
+package edu.ucsb.cs156.frontiers.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import edu.ucsb.cs156.frontiers.entities.Course;
+import edu.ucsb.cs156.frontiers.errors.GithubGraphQLException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+
+import java.util.Map;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalToJson;
+import static com.github.tomakehurst.wiremock.client.WireMock.okJson;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class GithubGraphQLServiceTests {
+
+    private WireMockServer wireMockServer;
+    private GithubGraphQLService graphQLService;
+    private final Course course = Course.builder().orgName("ucsb-cs156").installationId("1234").build();
+
+    @BeforeEach
+    public void setup() throws Exception {
+        wireMockServer = new WireMockServer(options().dynamicPort());
+        wireMockServer.start();
+        JwtService jwtService = mock(JwtService.class);
+        when(jwtService.getInstallationToken(course)).thenReturn("real.installation.token");
+        graphQLService = new GithubGraphQLService(jwtService, new ObjectMapper(), new RestTemplateBuilder(),
+                true, wireMockServer.baseUrl() + "/graphql");
+    }
+
+    @AfterEach
+    public void teardown() {
+        wireMockServer.stop();
+    }
+
+    @Test
+    public void query_posts_query_and_variables_and_returns_data() throws Exception {
+        wireMockServer.stubFor(post(urlEqualTo("/graphql"))
+                .withHeader("Authorization", equalTo("Bearer real.installation.token"))
+                .withRequestBody(equalToJson("""
+                        {"query": "query($org: String!) { organization(login: $org) { login } }", "variables": {"org": "ucsb-cs156"}}
+                        """))
+                .willReturn(okJson("""
+                        {"data": {"organization": {"login": "ucsb-cs156"}}}
+                        """)));
+
+        JsonNode data = graphQLService.query(course,
+                "query($org: String!) { organization(login: $org) { login } }", Map.of("org", "ucsb-cs156"));
+
+        assertEquals("ucsb-cs156", data.path("organization").path("login").asText());
+        wireMockServer.verify(1, postRequestedFor(urlEqualTo("/graphql")));
+    }
+
+    @Test
+    public void missing_objects_are_returned_as_null() throws Exception {
+        wireMockServer.stubFor(post(urlEqualTo("/graphql"))
+                .willReturn(okJson("""
+                        {"data": {"r0": {"name": "repo1-a"}, "r1": null},
+                         "errors": [{"type": "NOT_FOUND", "path": ["r1"], "message": "Could not resolve to a Repository with the name 'ucsb-cs156/repo1-b'."}]}
+                        """)));
+
+        JsonNode data = graphQLService.query(course, "query { ... }", Map.of());
+
+        assertTrue(data.hasNonNull("r0"));
+        assertFalse(data.hasNonNull("r1"));
+    }
+
+    @Test
+    public void other_errors_are_thrown() {
+        wireMockServer.stubFor(post(urlEqualTo("/graphql"))
+                .willReturn(okJson("""
+                        {"errors": [
+                          {"type": "NOT_FOUND", "message": "missing"},
+                          {"type": "RATE_LIMITED", "message": "API rate limit exceeded"},
+                          {"message": "Parse error"}]}
+                        """)));
+
+        GithubGraphQLException e = assertThrows(GithubGraphQLException.class,
+                () -> graphQLService.query(course, "query { ... }", Map.of()));
+
+        assertEquals("GitHub GraphQL query failed: API rate limit exceeded; Parse error", e.getMessage());
+    }
+
+    @Test
+    public void is_enabled_reflects_configuration() {
+        assertTrue(graphQLService.isEnabled());
+        assertFalse(new GithubGraphQLService(null, null, new RestTemplateBuilder(), false, "").isEnabled());
+    }
+}
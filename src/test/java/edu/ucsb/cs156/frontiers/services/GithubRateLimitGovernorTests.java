@@ -0,0 +1,305 @@
+package edu.ucsb.cs156.frontiers.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import edu.ucsb.cs156.frontiers.models.GithubRateLimitStatus;
+import edu.ucsb.cs156.frontiers.services.jobs.JobCancelledException;
+import edu.ucsb.cs156.frontiers.testconfig.MutableClock;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class GithubRateLimitGovernorTests {
+
+  private static final Instant START = Instant.parse("2025-05-01T10:00:00Z");
+
+  private MutableClock clock;
+  private List<Long> sleeps;
+  private GithubRateLimitGovernor governor;
+
+  @BeforeEach
+  public void setup() {
+    clock = new MutableClock(START);
+    sleeps = new ArrayList<>();
+    // 10 per second, bursts of 2, keep 100 requests in reserve
+    governor = new GithubRateLimitGovernor(10, 2, 100, clock, millis -> {
+      sleeps.add(millis);
+      clock.advance(Duration.ofMillis(millis));
+    }, () -> true);
+  }
+
+  @Test
+  public void burst_is_free_then_requests_are_paced_at_max_rate() throws Exception {
+    for (int i = 0; i < 5; i++) {
+      governor.acquire("1");
+    }
+
+    assertEquals(List.of(100L, 100L, 100L), sleeps);
+  }
+
+  @Test
+  public void idle_time_refills_the_burst() throws Exception {
+    governor.acquire("1");
+    governor.acquire("1");
+    clock.advance(Duration.ofSeconds(5));
+    governor.acquire("1");
+    governor.acquire("1");
+
+    assertEquals(List.of(), sleeps);
+  }
+
+  @Test
+  public void installations_have_separate_budgets() throws Exception {
+    governor.acquire("1");
+    governor.acquire("1");
+    governor.acquire("2");
+    governor.acquire("2");
+
+    assertEquals(List.of(), sleeps);
+  }
+
+  @Test
+  public void concurrent_callers_are_served_in_turn() throws Exception {
+    // callers that don't advance the clock, as if they were on different threads
+    List<Long> waits = new ArrayList<>();
+    GithubRateLimitGovernor shared = new GithubRateLimitGovernor(10, 1, 100, clock, waits::add, () -> true);
+
+    for (int i = 0; i < 4; i++) {
+      shared.acquire("1");
+    }
+
+    assertEquals(List.of(100L, 200L, 300L), waits);
+  }
+
+  @Test
+  public void caller_that_stops_waiting_gives_its_permit_back() throws Exception {
+    List<Long> waits = new ArrayList<>();
+    boolean[] cancelled = { false };
+    GithubRateLimitGovernor shared = new GithubRateLimitGovernor(10, 1, 100, clock, millis -> {
+      waits.add(millis);
+      if (cancelled[0]) {
+        throw new JobCancelledException();
+      }
+    }, () -> true);
+    shared.acquire("1");
+    shared.acquire("1");
+
+    cancelled[0] = true;
+    assertThrows(JobCancelledException.class, () -> shared.acquire("1"));
+    cancelled[0] = false;
+    shared.acquire("1");
+
+    // the cancelled caller's slot, 200 ms from now, goes to the next caller
+    assertEquals(List.of(100L, 200L, 200L), waits);
+  }
+
+  @Test
+  public void permit_given_back_after_its_time_is_stored() throws Exception {
+    GithubRateLimitGovernor interrupted = new GithubRateLimitGovernor(10, 1, 100, clock, millis -> {
+      sleeps.add(millis);
+      clock.advance(Duration.ofMillis(millis + 50));
+      throw new InterruptedException();
+    }, () -> true);
+    interrupted.acquire("1");
+    assertThrows(InterruptedException.class, () -> interrupted.acquire("1"));
+
+    // the unused permit is stored, so the next caller goes straight through
+    interrupted.acquire("1");
+    assertEquals(List.of(100L), sleeps);
+  }
+
+  @Test
+  public void pace_spreads_remaining_budget_until_reset() throws Exception {
+    // 100 spendable requests over the next 200 seconds: one every 2 seconds
+    governor.update("1", headers(5000, 200, START.plusSeconds(200)));
+    governor.acquire("1");
+    governor.acquire("1");
+    governor.acquire("1");
+
+    assertEquals(List.of(2000L), sleeps);
+    assertEquals(0.5, governor.getStatus().get(0).getPermitsPerSecond(), 1e-9);
+  }
+
+  @Test
+  public void pace_is_capped_at_max_rate() throws Exception {
+    governor.update("1", headers(5000, 4000, START.plusSeconds(60)));
+
+    assertEquals(10.0, governor.getStatus().get(0).getPermitsPerSecond(), 1e-9);
+  }
+
+  @Test
+  public void pauses_until_reset_once_down_to_reserve() throws Exception {
+    Instant reset = START.plusSeconds(600);
+    governor.update("1", headers(5000, 100, reset));
+
+    assertEquals(reset.atZone(ZoneOffset.UTC), governor.getStatus().get(0).getPausedUntil());
+
+    governor.acquire("1");
+    assertEquals(List.of(600_000L), sleeps);
+    assertNull(governor.getStatus().get(0).getPausedUntil());
+  }
+
+  @Test
+  public void requests_that_are_not_for_a_job_spend_the_reserve_without_waiting() throws Exception {
+    GithubRateLimitGovernor interactive = new GithubRateLimitGovernor(10, 1, 100, clock, sleeps::add, () -> false);
+    interactive.update("1", headers(5000, 100, START.plusSeconds(600)));
+
+    for (int i = 0; i < 5; i++) {
+      interactive.acquire("1");
+    }
+
+    assertEquals(List.of(), sleeps);
+    assertEquals(START.plusSeconds(600).atZone(ZoneOffset.UTC), interactive.getStatus().get(0).getPausedUntil());
+  }
+
+  @Test
+  public void retry_after_pauses_installation() throws Exception {
+    governor.acquire("1");
+    HttpHeaders headers = new HttpHeaders();
+    headers.add(HttpHeaders.RETRY_AFTER, "30");
+    governor.update("1", headers);
+
+    governor.acquire("1");
+
+    assertEquals(List.of(30_000L), sleeps);
+  }
+
+  @Test
+  public void stale_reset_and_unparseable_headers_do_not_change_pace() throws Exception {
+    governor.update("1", headers(5000, 150, START.minusSeconds(1)));
+    HttpHeaders headers = new HttpHeaders();
+    headers.add(HttpHeaders.RETRY_AFTER, "Wed, 21 Oct 2015 07:28:00 GMT");
+    governor.update("1", headers);
+
+    GithubRateLimitStatus status = governor.getStatus().get(0);
+    assertEquals(10.0, status.getPermitsPerSecond(), 1e-9);
+    assertEquals(150, status.getRemaining());
+    assertNull(status.getPausedUntil());
+  }
+
+  @Test
+  public void responses_without_rate_limit_headers_are_ignored() {
+    governor.update("1", new HttpHeaders());
+
+    assertEquals(List.of(), governor.getStatus());
+  }
+
+  @Test
+  public void status_lists_installations_in_order() throws Exception {
+    governor.acquire("2");
+    governor.update("1", headers(5000, 4999, START.plusSeconds(3600)));
+
+    List<GithubRateLimitStatus> status = governor.getStatus();
+
+    assertEquals(List.of(
+        GithubRateLimitStatus.builder()
+            .installation("1")
+            .limit(5000)
+            .remaining(4999)
+            .resetAt(ZonedDateTime.parse("2025-05-01T11:00:00Z"))
+            .permitsPerSecond((4999 - 100) / 3600.0)
+            .build(),
+        GithubRateLimitStatus.builder()
+            .installation("2")
+            .permitsPerSecond(10.0)
+            .build()), status);
+  }
+
+  @Test
+  public void budgets_are_published_as_gauges() throws Exception {
+    governor.update("1", headers(5000, 4999, START.plusSeconds(3600)));
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    governor.bindTo(registry);
+    governor.acquire("2");
+
+    assertEquals(4999, registry.get("frontiers.github.ratelimit.remaining").tag("installation", "1").gauge().value());
+    assertEquals((4999 - 100) / 3600.0,
+        registry.get("frontiers.github.ratelimit.permits_per_second").tag("installation", "1").gauge().value(), 1e-9);
+    assertTrue(Double.isNaN(
+        registry.get("frontiers.github.ratelimit.remaining").tag("installation", "2").gauge().value()));
+    assertEquals(10.0,
+        registry.get("frontiers.github.ratelimit.permits_per_second").tag("installation", "2").gauge().value(), 1e-9);
+  }
+
+  @Test
+  public void requests_are_attributed_by_registered_token() {
+    governor.registerToken("ghs_abc", "12345");
+
+    assertEquals("12345", governor.installationFor("Bearer ghs_abc"));
+    assertEquals("12345", governor.installationFor("token ghs_abc"));
+    assertEquals(GithubRateLimitGovernor.APP, governor.installationFor("Bearer some.app.jwt"));
+    assertEquals(GithubRateLimitGovernor.APP, governor.installationFor(null));
+  }
+
+  @Test
+  public void rate_limits_other_than_core_have_their_own_buckets() throws Exception {
+    assertEquals("12345", GithubRateLimitGovernor.bucketFor("12345", null));
+    assertEquals("12345", GithubRateLimitGovernor.bucketFor("12345", "core"));
+    assertEquals("12345/graphql", GithubRateLimitGovernor.bucketFor("12345", "graphql"));
+
+    governor.update(GithubRateLimitGovernor.bucketFor("12345", "graphql"), headers(5000, 100, START.plusSeconds(600)));
+    governor.acquire("12345");
+
+    assertEquals(List.of(), sleeps);
+  }
+
+  @Test
+  public void least_recently_used_tokens_are_forgotten() {
+    for (int i = 0; i <= 1000; i++) {
+      governor.registerToken("ghs_" + i, "installation" + i);
+    }
+
+    assertEquals(GithubRateLimitGovernor.APP, governor.installationFor("Bearer ghs_0"));
+    assertEquals("installation1", governor.installationFor("Bearer ghs_1"));
+    assertEquals("installation1000", governor.installationFor("Bearer ghs_1000"));
+  }
+
+  @Test
+  public void partial_headers_are_recorded() {
+    HttpHeaders limitOnly = new HttpHeaders();
+    limitOnly.add("x-ratelimit-limit", "5000");
+    HttpHeaders resetOnly = new HttpHeaders();
+    resetOnly.add("x-ratelimit-reset", Long.toString(START.plusSeconds(60).getEpochSecond()));
+    HttpHeaders remainingOnly = new HttpHeaders();
+    remainingOnly.add("x-ratelimit-remaining", "4000");
+
+    governor.update("1", limitOnly);
+    governor.update("2", resetOnly);
+    governor.update("3", remainingOnly);
+
+    List<GithubRateLimitStatus> status = governor.getStatus();
+    assertEquals(5000, status.get(0).getLimit());
+    assertEquals(ZonedDateTime.parse("2025-05-01T10:01:00Z"), status.get(1).getResetAt());
+    assertEquals(4000, status.get(2).getRemaining());
+  }
+
+  @Test
+  public void spring_constructor_uses_system_clock() throws Exception {
+    GithubRateLimitGovernor fromSpring = new GithubRateLimitGovernor(10, 10, 100);
+
+    fromSpring.acquire("1");
+
+    assertEquals(10.0, fromSpring.getStatus().get(0).getPermitsPerSecond(), 1e-9);
+  }
+
+  private static HttpHeaders headers(int limit, int remaining, Instant reset) {
+    HttpHeaders headers = new HttpHeaders();
+    headers.add("x-ratelimit-limit", Integer.toString(limit));
+    headers.add("x-ratelimit-remaining", Integer.toString(remaining));
+    headers.add("x-ratelimit-reset", Long.toString(reset.getEpochSecond()));
+    return headers;
+  }
+}
@@ -0,0 +1,199 @@
+package edu.ucsb.cs156.frontiers.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import java.io.IOException;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+@ExtendWith(MockitoExtension.class)
+public class GithubRateLimitInterceptorTests {
+
+  @Mock
+  private GithubRateLimitGovernor governor;
+
+  @InjectMocks
+  private GithubRateLimitInterceptor interceptor;
+
+  private RestTemplate restTemplate;
+  private MockRestServiceServer server;
+  private SimpleMeterRegistry meterRegistry;
+
+  @BeforeEach
+  public void setup() {
+    ReflectionTestUtils.setField(interceptor, "githubApiUrl", "https://api.github.com");
+    meterRegistry = new SimpleMeterRegistry();
+    ReflectionTestUtils.setField(interceptor, "meterRegistry", meterRegistry);
+    restTemplate = new RestTemplate();
+    interceptor.customize(restTemplate);
+    server = MockRestServiceServer.bindTo(restTemplate).build();
+  }
+
+  @Test
+  public void github_requests_wait_for_permit_and_report_headers() throws Exception {
+    when(governor.installationFor("Bearer ghs_abc")).thenReturn("12345");
+    HttpHeaders responseHeaders = new HttpHeaders();
+    responseHeaders.add("x-ratelimit-remaining", "4999");
+    server.expect(requestTo("https://api.github.com/orgs/ucsb-cs156/members"))
+        .andRespond(withSuccess().headers(responseHeaders));
+
+    restTemplate.exchange("https://api.github.com/orgs/ucsb-cs156/members", HttpMethod.GET,
+        new HttpEntity<>(authorization("Bearer ghs_abc")), String.class);
+
+    server.verify();
+    InOrder order = inOrder(governor);
+    order.verify(governor).acquire("12345");
+    ArgumentCaptor<HttpHeaders> reported = ArgumentCaptor.forClass(HttpHeaders.class);
+    order.verify(governor).update(eq("12345"), reported.capture());
+    assertEquals("4999", reported.getValue().getFirst("x-ratelimit-remaining"));
+  }
+
+  @Test
+  public void graphql_requests_are_paced_by_their_own_bucket() throws Exception {
+    when(governor.installationFor("Bearer ghs_abc")).thenReturn("12345");
+    HttpHeaders responseHeaders = new HttpHeaders();
+    responseHeaders.add("x-ratelimit-remaining", "4999");
+    responseHeaders.add("x-ratelimit-resource", "graphql");
+    server.expect(requestTo("https://api.github.com/graphql")).andRespond(withSuccess().headers(responseHeaders));
+
+    restTemplate.exchange("https://api.github.com/graphql", HttpMethod.POST,
+        new HttpEntity<>("{}", authorization("Bearer ghs_abc")), String.class);
+
+    server.verify();
+    verify(governor).acquire("12345/graphql");
+    verify(governor).update(eq("12345/graphql"), any());
+    verify(governor, never()).update(eq("12345"), any());
+  }
+
+  @Test
+  public void headers_are_reported_to_the_bucket_of_the_limit_they_describe() throws Exception {
+    when(governor.installationFor("Bearer ghs_abc")).thenReturn("12345");
+    HttpHeaders responseHeaders = new HttpHeaders();
+    responseHeaders.add("x-ratelimit-remaining", "29");
+    responseHeaders.add("x-ratelimit-resource", "search");
+    server.expect(requestTo("https://api.github.com/search/users")).andRespond(withSuccess().headers(responseHeaders));
+
+    restTemplate.exchange("https://api.github.com/search/users", HttpMethod.GET,
+        new HttpEntity<>(authorization("Bearer ghs_abc")), String.class);
+
+    server.verify();
+    verify(governor).acquire("12345");
+    verify(governor).update(eq("12345/search"), any());
+  }
+
+  @Test
+  public void other_hosts_are_not_governed() {
+    server.expect(requestTo("https://github.com/login/oauth/access_token")).andRespond(withSuccess());
+
+    restTemplate.getForObject("https://github.com/login/oauth/access_token", String.class);
+
+    server.verify();
+    verifyNoInteractions(governor);
+  }
+
+  @Test
+  public void configured_api_url_is_governed_instead_of_github() throws Exception {
+    ReflectionTestUtils.setField(interceptor, "githubApiUrl", "http://localhost:8091");
+    when(governor.installationFor(null)).thenReturn(GithubRateLimitGovernor.APP);
+    server.expect(requestTo("http://localhost:8091/app")).andRespond(withSuccess());
+    server.expect(requestTo("http://localhost:8090/oauth/token")).andRespond(withSuccess());
+
+    restTemplate.getForObject("http://localhost:8091/app", String.class);
+    restTemplate.getForObject("http://localhost:8090/oauth/token", String.class);
+
+    server.verify();
+    verify(governor).acquire(GithubRateLimitGovernor.APP);
+    verify(governor).update(eq(GithubRateLimitGovernor.APP), any());
+  }
+
+  @Test
+  public void interrupted_wait_fails_request_and_keeps_interrupt() throws Exception {
+    when(governor.installationFor(null)).thenReturn(GithubRateLimitGovernor.APP);
+    doThrow(new InterruptedException()).when(governor).acquire(GithubRateLimitGovernor.APP);
+
+    try {
+      assertThrows(ResourceAccessException.class,
+          () -> restTemplate.getForObject("https://api.github.com/app", String.class));
+      assertTrue(Thread.currentThread().isInterrupted());
+    } finally {
+      Thread.interrupted();
+    }
+    verify(governor, never()).update(any(), any());
+  }
+
+  @Test
+  public void github_requests_are_timed_by_endpoint_and_status() {
+    when(governor.installationFor(null)).thenReturn(GithubRateLimitGovernor.APP);
+    server.expect(requestTo("https://api.github.com/orgs/ucsb-cs156/members?page=2")).andRespond(withSuccess());
+    server.expect(requestTo("https://api.github.com/repos/ucsb-cs156/jpa01-cgaucho"))
+        .andRespond(withStatus(HttpStatus.NOT_FOUND));
+    server.expect(requestTo("https://api.github.com/app")).andRespond(request -> {
+      throw new IOException("connection reset");
+    });
+
+    restTemplate.getForObject("https://api.github.com/orgs/ucsb-cs156/members?page=2", String.class);
+    assertThrows(HttpClientErrorException.NotFound.class,
+        () -> restTemplate.getForObject("https://api.github.com/repos/ucsb-cs156/jpa01-cgaucho", String.class));
+    assertThrows(ResourceAccessException.class,
+        () -> restTemplate.getForObject("https://api.github.com/app", String.class));
+
+    server.verify();
+    assertEquals(1, githubRequests("/orgs/{}/members", "200").count());
+    assertEquals(1, githubRequests("/repos/{}/{}", "404").count());
+    assertEquals(1, githubRequests("/app", "IO_ERROR").count());
+  }
+
+  @Test
+  public void endpoint_replaces_names_and_ids() {
+    assertEquals("/app/installations/{}/access_tokens",
+        GithubRateLimitInterceptor.endpoint("/app/installations/1234/access_tokens"));
+    assertEquals("/orgs/{}/teams/{}/repos/{}/{}",
+        GithubRateLimitInterceptor.endpoint("/orgs/ucsb-cs156/teams/team-1/repos/ucsb-cs156/jpa01"));
+    assertEquals("/repos/{}/{}/collaborators/{}",
+        GithubRateLimitInterceptor.endpoint("/repos/ucsb-cs156/jpa01-cgaucho/collaborators/cgaucho"));
+    assertEquals("/graphql", GithubRateLimitInterceptor.endpoint("/graphql"));
+    assertEquals("/", GithubRateLimitInterceptor.endpoint("/"));
+  }
+
+  private Timer githubRequests(String endpoint, String status) {
+    return meterRegistry.get("frontiers.github.requests")
+        .tag("method", "GET").tag("endpoint", endpoint).tag("status", status).timer();
+  }
+
+  private static HttpHeaders authorization(String value) {
+    HttpHeaders headers = new HttpHeaders();
+    headers.add(HttpHeaders.AUTHORIZATION, value);
+    return headers;
+  }
+}
@@ -0,0 +1,133 @@
+package edu.ucsb.cs156.frontiers.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+public class IndexHtmlServiceTests {
+
+  private static final byte[] HTML = "<!doctype html><html><body><div id=\"root\"></div></body></html>"
+      .getBytes(StandardCharsets.UTF_8);
+  private static final byte[] BROTLI = { 1, 2, 3 };
+
+  @TempDir
+  Path build;
+
+  private Path index;
+
+  @BeforeEach
+  public void setup() throws IOException {
+    index = build.resolve("index.html");
+    Files.write(index, HTML);
+  }
+
+  private IndexHtmlService service() throws IOException {
+    return new IndexHtmlService(new DefaultResourceLoader(), index.toUri().toString());
+  }
+
+  private static byte[] gzip(byte[] content) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+      gzip.write(content);
+    }
+    return bytes.toByteArray();
+  }
+
+  private void precompress() throws IOException {
+    Files.write(build.resolve("index.html.gz"), gzip(HTML));
+    Files.write(build.resolve("index.html.br"), BROTLI);
+  }
+
+  @Test
+  public void serves_index_html_with_an_etag_and_no_cache() throws IOException {
+    ResponseEntity<byte[]> response = service().response(null, "gzip, deflate, br");
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertArrayEquals(HTML, response.getBody());
+    HttpHeaders headers = response.getHeaders();
+    assertTrue(headers.getETag().matches("\"[0-9a-f]{32}\""));
+    assertEquals("no-cache", headers.getCacheControl());
+    assertEquals("text/html;charset=UTF-8", headers.getContentType().toString());
+    assertEquals("Accept-Encoding", headers.getFirst(HttpHeaders.VARY));
+    assertNull(headers.getFirst(HttpHeaders.CONTENT_ENCODING));
+  }
+
+  @Test
+  public void serves_the_best_precompressed_variant_the_client_accepts() throws IOException {
+    precompress();
+    IndexHtmlService service = service();
+
+    ResponseEntity<byte[]> brotli = service.response(null, "gzip, deflate, br");
+    assertArrayEquals(BROTLI, brotli.getBody());
+    assertEquals("br", brotli.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+
+    ResponseEntity<byte[]> gzip = service.response(null, "gzip;q=1.0, br;q=0");
+    assertArrayEquals(gzip(HTML), gzip.getBody());
+    assertEquals("gzip", gzip.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+
+    ResponseEntity<byte[]> plain = service.response(null, null);
+    assertArrayEquals(HTML, plain.getBody());
+    assertNull(plain.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+
+    assertNotEquals(brotli.getHeaders().getETag(), gzip.getHeaders().getETag());
+    assertNotEquals(gzip.getHeaders().getETag(), plain.getHeaders().getETag());
+    assertEquals(plain.getHeaders().getETag().replace("\"", "") + "-br", brotli.getHeaders().getETag().replace("\"", ""));
+  }
+
+  @Test
+  public void answers_304_when_the_client_has_the_current_copy() throws IOException {
+    precompress();
+    IndexHtmlService service = service();
+    String etag = service.response(null, "br").getHeaders().getETag();
+
+    ResponseEntity<byte[]> response = service.response(etag, "br");
+    assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+    assertNull(response.getBody());
+    assertEquals(etag, response.getHeaders().getETag());
+    assertEquals("br", response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+
+    assertEquals(HttpStatus.NOT_MODIFIED, service.response("\"old\", W/" + etag, "br").getStatusCode());
+    assertEquals(HttpStatus.NOT_MODIFIED, service.response("*", "br").getStatusCode());
+    // the br variant's ETag doesn't match the gzip variant
+    assertEquals(HttpStatus.OK, service.response(etag, "gzip").getStatusCode());
+    assertEquals(HttpStatus.OK, service.response("\"old\"", "br").getStatusCode());
+  }
+
+  @Test
+  public void answers_404_without_a_frontend() throws IOException {
+    Files.delete(index);
+    assertEquals(HttpStatus.NOT_FOUND, service().response(null, "br").getStatusCode());
+  }
+
+  @Test
+  public void accepts_reads_accept_encoding() {
+    assertTrue(IndexHtmlService.accepts(null, ""));
+    assertFalse(IndexHtmlService.accepts(null, "br"));
+    assertTrue(IndexHtmlService.accepts("gzip, deflate, br, zstd", "br"));
+    assertTrue(IndexHtmlService.accepts("GZIP", "gzip"));
+    assertTrue(IndexHtmlService.accepts("br;q=0.5", "br"));
+    assertTrue(IndexHtmlService.accepts("br; level=1", "br"));
+    assertFalse(IndexHtmlService.accepts("gzip", "br"));
+    assertFalse(IndexHtmlService.accepts("br;q=0", "br"));
+    assertFalse(IndexHtmlService.accepts("br;q=0.000", "br"));
+    assertFalse(IndexHtmlService.accepts("br;q=high", "br"));
+  }
+}
@@ -4,11 +4,15 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
 
+import edu.ucsb.cs156.frontiers.entities.CompressedTextConverter;
 import edu.ucsb.cs156.frontiers.entities.Job;
 import edu.ucsb.cs156.frontiers.repositories.JobsRepository;
 import edu.ucsb.cs156.frontiers.services.jobs.JobService;
@@ -63,4 +67,36 @@ public class JobLogsServiceTests {
     // Act & Assert
     assertThrows(IllegalArgumentException.class, () -> jobService.getJobLogs(jobId));
   }
+
+  @Test
+  void test_openJobLog_decompresses_stored_log() throws Exception {
+    // Arrange
+    String log = "Created repo for student\n".repeat(100);
+    when(jobRepository.findStoredLog(1L))
+        .thenReturn(List.of(new CompressedTextConverter().convertToDatabaseColumn(log)));
+
+    // Act
+    String result = new String(jobService.openJobLog(1L).readAllBytes(), StandardCharsets.UTF_8);
+
+    // Assert
+    assertEquals(log, result);
+  }
+
+  @Test
+  void test_openJobLog_with_null_log() throws Exception {
+    // Arrange
+    when(jobRepository.findStoredLog(2L)).thenReturn(Collections.singletonList(null));
+
+    // Act & Assert
+    assertEquals(0, jobService.openJobLog(2L).readAllBytes().length);
+  }
+
+  @Test
+  void test_openJobLog_job_not_found() {
+    // Arrange
+    when(jobRepository.findStoredLog(3L)).thenReturn(List.of());
+
+    // Act & Assert
+    assertThrows(IllegalArgumentException.class, () -> jobService.openJobLog(3L));
+  }
 }
@@ -76,6 +76,9 @@ public class JwtServiceTests {
     @MockitoBean
     private DateTimeProvider dateTimeProvider;
 
+    @MockitoBean
+    private GithubRateLimitGovernor rateLimitGovernor;
+
     private Instant setInstant = Instant.parse("2024-05-23T08:00:00.00Z");
 
 
@@ -110,6 +113,7 @@ public class JwtServiceTests {
         doReturn(Optional.of(setInstant)).when(dateTimeProvider).getNow();
         String token = jwtService.getInstallationToken(course);
         assertEquals(expectedToken, token);
+        verify(rateLimitGovernor).registerToken(expectedToken, "03112004");
     }
 
     public void validateJwt(String compacted, Instant setInstant) throws InvalidKeySpecException, NoSuchAlgorithmException {
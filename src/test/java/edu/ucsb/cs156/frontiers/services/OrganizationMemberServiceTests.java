@@ -16,6 +16,7 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.client.MockRestServiceServer;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -23,6 +24,8 @@ import java.util.Map;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.*;
 import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
@@ -46,6 +49,9 @@ public class OrganizationMemberServiceTests {
     @MockitoBean
     private WiremockService wiremockService;
 
+    @MockitoBean
+    private GithubGraphQLService graphQLService;
+
     private Course testCourse;
     private static final String TEST_TOKEN = "test-token";
     private static final String TEST_ORG = "test-org";
@@ -155,4 +161,44 @@ public class OrganizationMemberServiceTests {
         assertEquals(result, List.of());
     }
 
-}
\ No newline at end of file
+    @Test
+    void testGetOrganizationMembers_GraphQL() throws Exception {
+        when(graphQLService.isEnabled()).thenReturn(true);
+        List<Map<String, Object>> variables = new ArrayList<>();
+        when(graphQLService.query(eq(testCourse), contains("membersWithRole(first: 100, after: $cursor)"), any()))
+                .thenAnswer(invocation -> {
+                    variables.add(new HashMap<>(invocation.getArgument(2)));
+                    return objectMapper.readTree(variables.size() == 1 ? """
+                            {"organization": {"membersWithRole": {
+                              "pageInfo": {"hasNextPage": true, "endCursor": "Y3Vyc29yOjE="},
+                              "nodes": [{"login": "user1", "databaseId": 1}, {"login": "user2", "databaseId": 2}]}}}
+                            """ : """
+                            {"organization": {"membersWithRole": {
+                              "pageInfo": {"hasNextPage": false, "endCursor": "Y3Vyc29yOjM="},
+                              "nodes": [{"login": "user3", "databaseId": 3}]}}}
+                            """);
+                });
+
+        Iterable<OrgMember> result = organizationMemberService.getOrganizationMembers(testCourse);
+
+        assertIterableEquals(List.of(
+                OrgMember.builder().githubId(1).githubLogin("user1").build(),
+                OrgMember.builder().githubId(2).githubLogin("user2").build(),
+                OrgMember.builder().githubId(3).githubLogin("user3").build()), result);
+        assertEquals(List.of(
+                Map.of("org", TEST_ORG),
+                Map.of("org", TEST_ORG, "cursor", "Y3Vyc29yOjE=")), variables);
+        mockServer.verify();
+    }
+
+    @Test
+    void testNextPageUrl() {
+        assertEquals("https://api.github.com/organizations/1/members?page=2",
+                OrganizationMemberService.nextPageUrl(List.of(
+                        "<https://api.github.com/organizations/1/members?page=2>; rel=\"next\", <https://api.github.com/organizations/1/members?page=5>; rel=\"last\"")));
+        assertNull(OrganizationMemberService.nextPageUrl(List.of(
+                "<https://api.github.com/organizations/1/members?page=4>; rel=\"prev\", <https://api.github.com/organizations/1/members?page=1>; rel=\"first\"")));
+        assertNull(OrganizationMemberService.nextPageUrl(List.of()));
+    }
+
+}
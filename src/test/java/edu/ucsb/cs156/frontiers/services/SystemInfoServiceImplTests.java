@@ -2,6 +2,7 @@ package edu.ucsb.cs156.frontiers.services;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.Test;
@@ -36,6 +37,11 @@ class SystemInfoServiceImplTests {
     assertTrue(si.getGithubUrl().contains("/commit/"));
   }
 
+  @Test
+  void test_getSystemInfo_is_built_once() {
+    assertSame(systemInfoService.getSystemInfo(), systemInfoService.getSystemInfo());
+  }
+
   @Test
   void test_githubUrl() {
     assertEquals(
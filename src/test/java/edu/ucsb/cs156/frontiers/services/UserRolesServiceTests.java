@@ -0,0 +1,102 @@
+package edu.ucsb.cs156.frontiers.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import edu.ucsb.cs156.frontiers.repositories.AdminRepository;
+import edu.ucsb.cs156.frontiers.services.UserRolesService.RolesChanged;
+
+@ExtendWith(MockitoExtension.class)
+public class UserRolesServiceTests {
+
+  private static final Instant START = Instant.parse("2025-01-06T17:00:00Z");
+
+  @Mock
+  private AdminRepository adminRepository;
+
+  @InjectMocks
+  private UserRolesService userRolesService;
+
+  @BeforeEach
+  public void setup() {
+    userRolesService.setAdminEmails(List.of("phtcon@ucsb.edu", " djensen@ucsb.edu"));
+    ReflectionTestUtils.setField(userRolesService, "cacheSeconds", 300L);
+    ReflectionTestUtils.setField(userRolesService, "clock", Clock.fixed(START, ZoneOffset.UTC));
+  }
+
+  private void advance(Duration duration) {
+    ReflectionTestUtils.setField(userRolesService, "clock", Clock.fixed(START.plus(duration), ZoneOffset.UTC));
+  }
+
+  @Test
+  public void admin_emails_are_admins_without_a_query() {
+    assertEquals(UserRolesService.ADMIN, userRolesService.getRole("phtcon@ucsb.edu"));
+    assertEquals(UserRolesService.ADMIN, userRolesService.getRole("djensen@ucsb.edu"));
+    verify(adminRepository, never()).findRolesByEmail(any());
+  }
+
+  @Test
+  public void users_without_an_email_are_users() {
+    assertEquals(UserRolesService.USER, userRolesService.getRole(null));
+    verify(adminRepository, never()).findRolesByEmail(any());
+  }
+
+  @Test
+  public void roles_come_from_the_admins_and_instructors_tables() {
+    when(adminRepository.findRolesByEmail("admin@ucsb.edu")).thenReturn(List.of("ADMIN", "INSTRUCTOR"));
+    when(adminRepository.findRolesByEmail("prof@ucsb.edu")).thenReturn(List.of("INSTRUCTOR"));
+    when(adminRepository.findRolesByEmail("student@ucsb.edu")).thenReturn(List.of());
+
+    assertEquals(UserRolesService.ADMIN, userRolesService.getRole("admin@ucsb.edu"));
+    assertEquals(UserRolesService.PROFESSOR, userRolesService.getRole("prof@ucsb.edu"));
+    assertEquals(UserRolesService.USER, userRolesService.getRole("student@ucsb.edu"));
+  }
+
+  @Test
+  public void roles_are_cached_until_they_expire() {
+    when(adminRepository.findRolesByEmail("prof@ucsb.edu")).thenReturn(List.of("INSTRUCTOR"), List.of());
+
+    assertEquals(UserRolesService.PROFESSOR, userRolesService.getRole("prof@ucsb.edu"));
+    advance(Duration.ofSeconds(299));
+    assertEquals(UserRolesService.PROFESSOR, userRolesService.getRole("prof@ucsb.edu"));
+    verify(adminRepository, times(1)).findRolesByEmail("prof@ucsb.edu");
+
+    advance(Duration.ofSeconds(300));
+    assertEquals(UserRolesService.USER, userRolesService.getRole("prof@ucsb.edu"));
+    verify(adminRepository, times(2)).findRolesByEmail("prof@ucsb.edu");
+  }
+
+  @Test
+  public void roles_are_looked_up_again_when_they_change() {
+    when(adminRepository.findRolesByEmail("prof@ucsb.edu")).thenReturn(List.of(), List.of("INSTRUCTOR"));
+    when(adminRepository.findRolesByEmail("student@ucsb.edu")).thenReturn(List.of());
+
+    assertEquals(UserRolesService.USER, userRolesService.getRole("prof@ucsb.edu"));
+    assertEquals(UserRolesService.USER, userRolesService.getRole("student@ucsb.edu"));
+
+    userRolesService.rolesChanged(new RolesChanged("prof@ucsb.edu"));
+
+    assertEquals(UserRolesService.PROFESSOR, userRolesService.getRole("prof@ucsb.edu"));
+    assertEquals(UserRolesService.USER, userRolesService.getRole("student@ucsb.edu"));
+    verify(adminRepository, times(2)).findRolesByEmail("prof@ucsb.edu");
+    verify(adminRepository, times(1)).findRolesByEmail("student@ucsb.edu");
+  }
+}
@@ -0,0 +1,78 @@
+package edu.ucsb.cs156.frontiers.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+public class FailureCategoryTests {
+
+  private static HttpClientErrorException clientError(HttpStatus status, HttpHeaders headers) {
+    return HttpClientErrorException.create(status, status.getReasonPhrase(), headers, new byte[0],
+        StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void server_errors_and_network_errors_are_transient() {
+    assertEquals(FailureCategory.TRANSIENT, FailureCategory.of(new HttpServerErrorException(HttpStatus.BAD_GATEWAY)));
+    assertEquals(FailureCategory.TRANSIENT, FailureCategory.of(new ResourceAccessException("Connection reset")));
+  }
+
+  @Test
+  public void rate_limits_are_recognized() {
+    HttpHeaders exhausted = new HttpHeaders();
+    exhausted.add("x-ratelimit-remaining", "0");
+    HttpHeaders retryAfter = new HttpHeaders();
+    retryAfter.add(HttpHeaders.RETRY_AFTER, "60");
+
+    assertEquals(FailureCategory.RATE_LIMITED,
+        FailureCategory.of(clientError(HttpStatus.TOO_MANY_REQUESTS, new HttpHeaders())));
+    assertEquals(FailureCategory.RATE_LIMITED, FailureCategory.of(clientError(HttpStatus.FORBIDDEN, exhausted)));
+    assertEquals(FailureCategory.RATE_LIMITED, FailureCategory.of(clientError(HttpStatus.FORBIDDEN, retryAfter)));
+  }
+
+  @Test
+  public void permission_errors_are_recognized() {
+    HttpHeaders remaining = new HttpHeaders();
+    remaining.add("x-ratelimit-remaining", "4999");
+
+    assertEquals(FailureCategory.PERMISSION, FailureCategory.of(clientError(HttpStatus.FORBIDDEN, remaining)));
+    assertEquals(FailureCategory.PERMISSION, FailureCategory.of(new HttpClientErrorException(HttpStatus.FORBIDDEN)));
+    assertEquals(FailureCategory.PERMISSION, FailureCategory.of(new HttpClientErrorException(HttpStatus.UNAUTHORIZED)));
+  }
+
+  @Test
+  public void conflicts_are_recognized() {
+    assertEquals(FailureCategory.CONFLICT, FailureCategory.of(new HttpClientErrorException(HttpStatus.CONFLICT)));
+    assertEquals(FailureCategory.CONFLICT,
+        FailureCategory.of(new HttpClientErrorException(HttpStatus.UNPROCESSABLE_ENTITY)));
+  }
+
+  @Test
+  public void everything_else_is_other() {
+    assertEquals(FailureCategory.OTHER, FailureCategory.of(new HttpClientErrorException(HttpStatus.NOT_FOUND)));
+    assertEquals(FailureCategory.OTHER, FailureCategory.of(new IllegalStateException("boom")));
+  }
+
+  @Test
+  public void only_rate_limits_and_transient_failures_are_retryable() {
+    assertTrue(FailureCategory.RATE_LIMITED.isRetryable());
+    assertTrue(FailureCategory.TRANSIENT.isRetryable());
+    assertFalse(FailureCategory.CONFLICT.isRetryable());
+    assertFalse(FailureCategory.PERMISSION.isRetryable());
+    assertFalse(FailureCategory.OTHER.isRetryable());
+  }
+
+  @Test
+  public void label_is_readable() {
+    assertEquals("rate limited", FailureCategory.RATE_LIMITED.label());
+  }
+}
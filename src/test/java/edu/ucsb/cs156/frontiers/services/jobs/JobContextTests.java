@@ -1,11 +1,42 @@
 package edu.ucsb.cs156.frontiers.services.jobs;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
 
 import edu.ucsb.cs156.frontiers.entities.Job;
+import edu.ucsb.cs156.frontiers.repositories.JobsRepository;
 import edu.ucsb.cs156.frontiers.services.jobs.JobContext;
+import edu.ucsb.cs156.frontiers.testconfig.MutableClock;
 
 
 public class JobContextTests {
@@ -24,4 +55,432 @@ public class JobContextTests {
     assertEquals("This is a log message", job1.getLog());
   }
 
+  @Test
+  public void log_is_saved_at_most_once_per_interval_and_on_flush() throws Exception {
+    JobsRepository jobsRepository = mock(JobsRepository.class);
+    Job job = Job.builder().build();
+    MutableClock clock = new MutableClock(Instant.parse("2025-05-01T10:00:00Z"));
+    JobContext ctx = new JobContext(jobsRepository, job, clock);
+
+    ctx.log("one");
+    clock.advance(Duration.ofMillis(999));
+    ctx.log("two");
+
+    assertEquals("one\ntwo", job.getLog());
+    verify(jobsRepository, times(1)).save(job);
+
+    clock.advance(Duration.ofMillis(1));
+    ctx.log("three");
+    verify(jobsRepository, times(2)).save(job);
+
+    // nothing left to save
+    ctx.flush();
+    verify(jobsRepository, times(2)).save(job);
+
+    ctx.log("four");
+    ctx.setStatus("complete");
+    ctx.flush();
+    verify(jobsRepository, times(3)).save(job);
+  }
+
+  @Test
+  public void status_is_saved_on_flush() throws Exception {
+    JobsRepository jobsRepository = mock(JobsRepository.class);
+    Job job = Job.builder().status("running").build();
+    JobContext ctx = new JobContext(jobsRepository, job);
+
+    ctx.setStatus("complete");
+    verify(jobsRepository, never()).save(job);
+
+    ctx.flush();
+    verify(jobsRepository, times(1)).save(job);
+  }
+
+  @Test
+  public void subscribe_replays_lines_after_last_event_id_then_streams_new_lines() throws Exception {
+    Job job = Job.builder().status("running").log("line 1\nline 2\nline 3").build();
+    JobContext ctx = new JobContext(null, job);
+    SseEmitter emitter = mock(SseEmitter.class);
+
+    ctx.subscribe(emitter, 1);
+    ctx.log("line 4\nline 5");
+    ctx.setStatus("complete");
+    ctx.finish();
+
+    assertEquals(List.of(
+        "id:2\nevent:log\ndata:line 2\n\n",
+        "id:3\nevent:log\ndata:line 3\n\n",
+        "event:status\ndata:running\n\n",
+        "id:4\nevent:log\ndata:line 4\n\n",
+        "id:5\nevent:log\ndata:line 5\n\n",
+        "event:status\ndata:complete\n\n"), sentEvents(emitter, 6));
+    verify(emitter, times(1)).complete();
+  }
+
+  @Test
+  public void empty_lines_are_numbered_as_the_stored_log_is_split() throws Exception {
+    Job job = Job.builder().status("running").build();
+    JobContext ctx = new JobContext(null, job);
+    SseEmitter live = mock(SseEmitter.class);
+    ctx.subscribe(live, 0);
+
+    ctx.log("first");
+    ctx.log("");
+    ctx.log("third");
+
+    assertEquals(List.of(
+        "event:status\ndata:running\n\n",
+        "id:1\nevent:log\ndata:first\n\n",
+        "id:2\nevent:log\ndata:\n\n",
+        "id:3\nevent:log\ndata:third\n\n"), sentEvents(live, 4));
+
+    // a client that received the empty line resumes from its id without missing "third"
+    SseEmitter resumed = mock(SseEmitter.class);
+    ctx.subscribe(resumed, 2);
+    ctx.log("fourth");
+
+    assertEquals(List.of(
+        "id:3\nevent:log\ndata:third\n\n",
+        "event:status\ndata:running\n\n",
+        "id:4\nevent:log\ndata:fourth\n\n"), sentEvents(resumed, 3));
+  }
+
+  @Test
+  public void logging_to_an_empty_log_does_not_add_a_blank_first_line() {
+    Job job = Job.builder().status("running").log("").build();
+    JobContext ctx = new JobContext(null, job);
+
+    ctx.log("first");
+
+    assertEquals("first", job.getLog());
+  }
+
+  @Test
+  public void subscribe_after_finish_replays_and_completes() throws Exception {
+    Job job = Job.builder().status("error").log("oops").build();
+    JobContext ctx = new JobContext(null, job);
+    ctx.finish();
+    SseEmitter emitter = mock(SseEmitter.class);
+
+    ctx.subscribe(emitter, 0);
+    ctx.log("after finish");
+
+    assertEquals(List.of(
+        "id:1\nevent:log\ndata:oops\n\n",
+        "event:status\ndata:error\n\n"), sentEvents(emitter, 2));
+    verify(emitter, times(1)).complete();
+  }
+
+  @Test
+  public void subscriber_that_fails_is_dropped() throws Exception {
+    Job job = Job.builder().status("running").build();
+    JobContext ctx = new JobContext(null, job);
+    SseEmitter emitter = mock(SseEmitter.class);
+    ctx.subscribe(emitter, 0);
+    doThrow(new IOException("Broken pipe")).when(emitter).send(any(SseEventBuilder.class));
+
+    ctx.log("first");
+    ctx.log("second");
+    ctx.finish();
+
+    // status on subscribe, then the failed attempt for "first"; nothing after that
+    verify(emitter, times(2)).send(any(SseEventBuilder.class));
+    verify(emitter, never()).complete();
+  }
+
+  @Test
+  public void subscriber_that_times_out_or_errors_is_dropped() throws Exception {
+    Job job = Job.builder().status("running").log("").build();
+    JobContext ctx = new JobContext(null, job);
+    SseEmitter timesOut = mock(SseEmitter.class);
+    SseEmitter errors = mock(SseEmitter.class);
+    ctx.subscribe(timesOut, 0);
+    ctx.subscribe(errors, 0);
+    ArgumentCaptor<Runnable> onTimeout = ArgumentCaptor.forClass(Runnable.class);
+    verify(timesOut).onTimeout(onTimeout.capture());
+    ArgumentCaptor<Consumer<Throwable>> onError = ArgumentCaptor.captor();
+    verify(errors).onError(onError.capture());
+
+    onTimeout.getValue().run();
+    onError.getValue().accept(new IOException("Broken pipe"));
+    ctx.log("first");
+
+    // only the status sent on subscribe: an empty log has no lines to replay
+    verify(timesOut, times(1)).send(any(SseEventBuilder.class));
+    verify(errors, times(1)).send(any(SseEventBuilder.class));
+  }
+
+  @Test
+  public void every_status_change_is_sent() throws Exception {
+    Job job = Job.builder().status("running").build();
+    JobContext ctx = new JobContext(null, job);
+    SseEmitter emitter = mock(SseEmitter.class);
+    ctx.subscribe(emitter, 0);
+
+    ctx.setStatus("cancelled");
+    ctx.log("Cancelled");
+    ctx.finish();
+
+    assertEquals("cancelled", job.getStatus());
+    assertEquals(List.of(
+        "event:status\ndata:running\n\n",
+        "event:status\ndata:cancelled\n\n",
+        "id:1\nevent:log\ndata:Cancelled\n\n"), sentEvents(emitter, 3));
+    verify(emitter, times(1)).complete();
+  }
+
+  @Test
+  public void events_are_sent_on_the_event_executor_in_order() throws Exception {
+    List<Runnable> tasks = new ArrayList<>();
+    Job job = Job.builder().status("running").build();
+    JobContext ctx = new JobContext(null, job, tasks::add);
+    SseEmitter emitter = mock(SseEmitter.class);
+
+    ctx.subscribe(emitter, 0);
+    ctx.log("one");
+    ctx.log("two");
+    ctx.setStatus("complete");
+    ctx.finish();
+
+    // the job never sent anything itself; one task sends everything queued
+    verify(emitter, never()).send(any(SseEventBuilder.class));
+    assertEquals(1, tasks.size());
+    tasks.get(0).run();
+
+    assertEquals(List.of(
+        "event:status\ndata:running\n\n",
+        "id:1\nevent:log\ndata:one\n\n",
+        "id:2\nevent:log\ndata:two\n\n",
+        "event:status\ndata:complete\n\n"), sentEvents(emitter, 4));
+    verify(emitter, times(1)).complete();
+  }
+
+  @Test
+  public void a_new_task_sends_events_queued_after_the_last_one_finished() throws Exception {
+    List<Runnable> tasks = new ArrayList<>();
+    JobContext ctx = new JobContext(null, Job.builder().status("running").build(), tasks::add);
+    SseEmitter emitter = mock(SseEmitter.class);
+    ctx.subscribe(emitter, 0);
+    tasks.remove(0).run();
+
+    ctx.log("one");
+    assertEquals(1, tasks.size());
+    tasks.remove(0).run();
+
+    assertEquals(List.of(
+        "event:status\ndata:running\n\n",
+        "id:1\nevent:log\ndata:one\n\n"), sentEvents(emitter, 2));
+    verify(emitter, never()).complete();
+  }
+
+  @Test
+  public void subscriber_that_falls_too_far_behind_is_disconnected() throws Exception {
+    List<Runnable> tasks = new ArrayList<>();
+    JobContext ctx = new JobContext(null, Job.builder().status("running").log("old line").build(), tasks::add);
+    SseEmitter emitter = mock(SseEmitter.class);
+    ctx.subscribe(emitter, 0);
+
+    // the replayed line and status don't count towards the limit
+    for (int i = 0; i <= JobContext.MAX_PENDING_EVENTS; i++) {
+      ctx.log("line " + i);
+    }
+    ctx.log("one too many");
+    tasks.get(0).run();
+
+    verify(emitter, never()).send(any(SseEventBuilder.class));
+    verify(emitter, times(1)).complete();
+    // no longer subscribed
+    ctx.log("after disconnect");
+    assertEquals(1, tasks.size());
+  }
+
+  @Test
+  public void check_cancelled_throws_only_after_cancel() {
+    JobContext ctx = new JobContext(null, Job.builder().build());
+
+    ctx.checkCancelled();
+    assertFalse(ctx.isCancelled());
+
+    ctx.cancel();
+
+    assertTrue(ctx.isCancelled());
+    assertThrows(JobCancelledException.class, ctx::checkCancelled);
+  }
+
+  @Test
+  public void sleep_outside_a_job_just_sleeps() throws Exception {
+    long start = System.nanoTime();
+
+    JobContext.sleep(20);
+
+    assertTrue(System.nanoTime() - start >= 20_000_000);
+  }
+
+  @Test
+  public void sleep_in_a_job_waits_until_the_time_is_up() throws Exception {
+    JobContext ctx = new JobContext(null, Job.builder().build());
+    long start = System.nanoTime();
+
+    ctx.bind(() -> {
+      JobContext.sleep(20);
+      return null;
+    }).call();
+
+    assertTrue(System.nanoTime() - start >= 20_000_000);
+  }
+
+  @Test
+  public void sleep_in_a_job_ends_as_soon_as_it_is_cancelled() throws Exception {
+    JobContext ctx = new JobContext(null, Job.builder().build());
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      CountDownLatch sleeping = new CountDownLatch(1);
+      Future<Object> work = executor.submit(ctx.bind(() -> {
+        sleeping.countDown();
+        JobContext.sleep(60_000);
+        return null;
+      }));
+      sleeping.await();
+
+      ctx.cancel();
+
+      ExecutionException thrown = assertThrows(ExecutionException.class, () -> work.get(10, TimeUnit.SECONDS));
+      assertInstanceOf(JobCancelledException.class, thrown.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void sleep_in_a_cancelled_job_does_not_wait() throws Exception {
+    JobContext ctx = new JobContext(null, Job.builder().build());
+    ctx.cancel();
+    ctx.cancel();
+
+    ctx.attach();
+    try {
+      assertThrows(JobCancelledException.class, () -> JobContext.sleep(60_000));
+    } finally {
+      ctx.detach();
+    }
+    // the thread is no longer bound to the job
+    JobContext.sleep(0);
+  }
+
+  @Test
+  public void bind_restores_the_job_the_thread_was_working_for() throws Exception {
+    JobContext outer = new JobContext(null, Job.builder().build());
+    JobContext inner = new JobContext(null, Job.builder().build());
+    inner.cancel();
+
+    outer.bind(() -> {
+      assertThrows(JobCancelledException.class, () -> inner.bind(() -> {
+        JobContext.sleep(60_000);
+        return null;
+      }).call());
+      // back to the outer job, which isn't cancelled
+      JobContext.sleep(0);
+      return null;
+    }).call();
+  }
+
+  @Test
+  public void threads_bound_to_a_job_are_in_the_job() throws Exception {
+    JobContext ctx = new JobContext(null, Job.builder().build());
+
+    assertFalse(JobContext.inJob());
+    assertTrue(ctx.bind(JobContext::inJob).call());
+    assertFalse(JobContext.inJob());
+  }
+
+  @Test
+  public void waits_that_run_to_completion_are_not_cut_short_by_cancelling() throws Exception {
+    JobContext ctx = new JobContext(null, Job.builder().build());
+
+    String result =
+        ctx.bind(
+                () ->
+                    JobContext.runToCompletion(
+                        () -> {
+                          ctx.cancel();
+                          JobContext.sleep(10);
+                          return "finished";
+                        }))
+            .call();
+
+    assertEquals("finished", result);
+    Callable<Object> outside =
+        ctx.bind(
+            () -> {
+              JobContext.sleep(10);
+              return null;
+            });
+    assertThrows(JobCancelledException.class, outside::call);
+  }
+
+  @Test
+  public void progress_is_saved_at_start_at_most_once_per_interval_and_at_the_end() {
+    JobsRepository jobsRepository = mock(JobsRepository.class);
+    Job job = Job.builder().build();
+    MutableClock clock = new MutableClock(Instant.parse("2025-05-01T10:00:00Z"));
+    JobContext ctx = new JobContext(jobsRepository, job, clock);
+
+    ctx.startProgress(4);
+    assertEquals(4, job.getProgressTotal());
+    assertEquals(ZonedDateTime.parse("2025-05-01T10:00:00Z"), job.getProgressStartedAt());
+    verify(jobsRepository, times(1)).save(job);
+
+    clock.advance(Duration.ofMillis(400));
+    ctx.unitDone();
+    clock.advance(Duration.ofMillis(400));
+    ctx.unitFailed();
+    // still within the interval since the save at start
+    verify(jobsRepository, times(1)).save(job);
+
+    clock.advance(Duration.ofMillis(200));
+    ctx.unitDone();
+    verify(jobsRepository, times(2)).save(job);
+
+    // the last unit is always saved
+    ctx.unitDone();
+    verify(jobsRepository, times(3)).save(job);
+    assertEquals(3, job.getProgressDone());
+    assertEquals(1, job.getProgressFailed());
+  }
+
+  @Test
+  public void start_progress_resets_counts() {
+    Job job = Job.builder().progressTotal(2).progressDone(2).progressFailed(1).build();
+    JobContext ctx = new JobContext(null, job);
+
+    ctx.startProgress(10);
+
+    assertEquals(10, job.getProgressTotal());
+    assertEquals(0, job.getProgressDone());
+    assertEquals(0, job.getProgressFailed());
+  }
+
+  @Test
+  public void units_reported_without_a_total_are_saved_at_most_once_per_interval() {
+    JobsRepository jobsRepository = mock(JobsRepository.class);
+    Job job = Job.builder().build();
+    JobContext ctx = new JobContext(jobsRepository, job, new MutableClock(Instant.parse("2025-05-01T10:00:00Z")));
+
+    ctx.unitDone();
+    ctx.unitDone();
+
+    assertEquals(2, job.getProgressDone());
+    verify(jobsRepository, times(1)).save(job);
+  }
+
+  private static List<String> sentEvents(SseEmitter emitter, int count) throws IOException {
+    ArgumentCaptor<SseEventBuilder> captor = ArgumentCaptor.forClass(SseEventBuilder.class);
+    verify(emitter, times(count)).send(captor.capture());
+    return captor.getAllValues().stream()
+        .map(event -> event.build().stream()
+            .map(part -> part.getData().toString())
+            .collect(Collectors.joining()))
+        .toList();
+  }
+
 }
@@ -0,0 +1,220 @@
+package edu.ucsb.cs156.frontiers.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.auditing.DateTimeProvider;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionOperations;
+
+import edu.ucsb.cs156.frontiers.entities.CompressedTextConverter;
+import edu.ucsb.cs156.frontiers.entities.Job;
+import edu.ucsb.cs156.frontiers.models.JobRetentionStats;
+import edu.ucsb.cs156.frontiers.repositories.JobsRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class JobRetentionServiceTests {
+
+  private static final ZonedDateTime NOW = ZonedDateTime.of(2025, 6, 1, 3, 15, 0, 0, ZoneOffset.UTC);
+
+  private JobsRepository jobsRepository;
+  private JobRetentionService service;
+
+  @BeforeEach
+  public void setup() {
+    jobsRepository = mock(JobsRepository.class);
+    DateTimeProvider dateTimeProvider = () -> Optional.of(NOW);
+    service = new JobRetentionService(jobsRepository, dateTimeProvider, TransactionOperations.withoutTransaction());
+    ReflectionTestUtils.setField(service, "maxLogBytes", 60);
+    ReflectionTestUtils.setField(service, "batchSize", 2);
+  }
+
+  @Test
+  public void truncate_leaves_short_logs_alone() {
+    assertNull(JobRetentionService.truncate(null, 10));
+    assertEquals("short", JobRetentionService.truncate("short", 10));
+  }
+
+  @Test
+  public void truncate_keeps_tail_from_a_line_boundary() {
+    String log = "line 1\nline 2\nline 3\nline 4\nline 5\nline 6\nline 7\nline 8\nline 9\nline 10\n"
+        + "line 11\nline 12\nline 13\nline 14\nline 15\nline 16";
+
+    String result = JobRetentionService.truncate(log, 100);
+
+    assertTrue(result.length() <= 100);
+    assertTrue(result.endsWith("\nline 16"));
+    String[] lines = result.split("\n");
+    assertEquals("[%d characters removed by job retention]".formatted(
+        log.length() - (result.length() - lines[0].length() - 1)), lines[0]);
+    assertTrue(lines[1].startsWith("line "));
+    assertTrue(log.endsWith(result.substring(lines[0].length() + 1)));
+  }
+
+  @Test
+  public void truncate_never_exceeds_max_length() {
+    String log = "x".repeat(500);
+
+    String result = JobRetentionService.truncate(log, 50);
+
+    assertEquals(50, result.length());
+    assertTrue(result.startsWith("["));
+  }
+
+  @Test
+  public void truncate_to_stored_size_leaves_logs_that_fit_alone() {
+    assertNull(JobRetentionService.truncateToStoredSize(null, 10));
+    assertEquals("short", JobRetentionService.truncateToStoredSize("short", 10));
+  }
+
+  @Test
+  public void truncate_to_stored_size_counts_compressed_bytes() {
+    StringBuilder log = new StringBuilder();
+    for (int i = 1; i <= 5000; i++) {
+      log.append("Processing student%d\n".formatted(i));
+    }
+    log.append("Done");
+
+    String result = JobRetentionService.truncateToStoredSize(log.toString(), 2048);
+
+    assertTrue(CompressedTextConverter.storedSize(result) <= 2048);
+    // compressed, so far more characters are kept than the budget has bytes
+    assertTrue(result.length() > 4 * 2048);
+    assertTrue(result.startsWith("["));
+    assertTrue(result.endsWith("\nProcessing student5000\nDone"));
+  }
+
+  @Test
+  public void apply_truncates_old_logs_and_deletes_old_jobs_in_batches() {
+    Job job1 = Job.builder().id(1L).status("complete").log("a".repeat(100)).build();
+    Job job2 = Job.builder().id(2L).status("complete").log("b".repeat(200)).build();
+    Job job3 = Job.builder().id(3L).status("complete").log("c".repeat(300)).build();
+    // only 50 characters, but larger than 60 bytes
+    Job job4 = Job.builder().id(4L).status("complete").log("é".repeat(50)).build();
+    when(jobsRepository.findIdsOfCompletedJobsWithLargeLogs(eq(NOW.minusDays(30)), eq(60), eq(0L), any(Pageable.class)))
+        .thenReturn(List.of(1L, 2L));
+    when(jobsRepository.findIdsOfCompletedJobsWithLargeLogs(eq(NOW.minusDays(30)), eq(60), eq(2L), any(Pageable.class)))
+        .thenReturn(List.of(3L, 4L));
+    when(jobsRepository.findIdsOfCompletedJobsWithLargeLogs(eq(NOW.minusDays(30)), eq(60), eq(4L), any(Pageable.class)))
+        .thenReturn(List.of());
+    when(jobsRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(job1, job2));
+    when(jobsRepository.findAllById(List.of(3L, 4L))).thenReturn(List.of(job3, job4));
+    when(jobsRepository.findIdsCreatedBefore(eq(NOW.minusDays(365)), any(Pageable.class)))
+        .thenReturn(List.of(10L, 11L), List.of());
+    when(jobsRepository.sumLogBytes(List.of(10L, 11L))).thenReturn(1000L);
+
+    service.applyRetentionPolicy();
+
+    for (Job job : List.of(job1, job2, job3, job4)) {
+      assertTrue(job.getLog().startsWith("["));
+      assertTrue(CompressedTextConverter.storedSize(job.getLog()) <= 60);
+    }
+    verify(jobsRepository, times(3)).findIdsOfCompletedJobsWithLargeLogs(
+        eq(NOW.minusDays(30)), eq(60), anyLong(), eq(PageRequest.of(0, 2)));
+    verify(jobsRepository).saveAll(List.of(job1, job2));
+    verify(jobsRepository).saveAll(List.of(job3, job4));
+    verify(jobsRepository).deleteAllByIdInBatch(List.of(10L, 11L));
+    verify(jobsRepository, times(1)).deleteAllByIdInBatch(any());
+
+    long truncatedBytes = CompressedTextConverter.storedSize("a".repeat(100))
+        + CompressedTextConverter.storedSize("b".repeat(200))
+        + CompressedTextConverter.storedSize("c".repeat(300))
+        + CompressedTextConverter.storedSize("é".repeat(50))
+        - CompressedTextConverter.storedSize(job1.getLog()) - CompressedTextConverter.storedSize(job2.getLog())
+        - CompressedTextConverter.storedSize(job3.getLog()) - CompressedTextConverter.storedSize(job4.getLog());
+    assertEquals(JobRetentionStats.builder()
+        .lastRunAt(NOW).logsTruncated(4).jobsDeleted(2).bytesReclaimed(1000 + truncatedBytes).build(),
+        service.getStats());
+  }
+
+  @Test
+  public void apply_stops_after_a_partial_batch() {
+    Job job = Job.builder().id(5L).status("complete").log("d".repeat(100)).build();
+    when(jobsRepository.findIdsOfCompletedJobsWithLargeLogs(any(), anyInt(), anyLong(), any())).thenReturn(List.of(5L));
+    when(jobsRepository.findAllById(List.of(5L))).thenReturn(List.of(job));
+    when(jobsRepository.findIdsCreatedBefore(any(), any())).thenReturn(List.of(12L));
+
+    service.applyRetentionPolicy();
+
+    verify(jobsRepository, times(1)).findIdsOfCompletedJobsWithLargeLogs(any(), anyInt(), anyLong(), any());
+    verify(jobsRepository, times(1)).findIdsCreatedBefore(any(), any());
+    verify(jobsRepository).deleteAllByIdInBatch(List.of(12L));
+    assertEquals(1, service.getStats().getLogsTruncated());
+    assertEquals(1, service.getStats().getJobsDeleted());
+  }
+
+  @Test
+  public void apply_leaves_logs_that_already_fit_alone() {
+    // e.g. stored before compression was enabled, so it was larger in the database
+    Job job = Job.builder().id(6L).status("complete").log("e".repeat(50)).build();
+    when(jobsRepository.findIdsOfCompletedJobsWithLargeLogs(any(), anyInt(), anyLong(), any())).thenReturn(List.of(6L));
+    when(jobsRepository.findAllById(List.of(6L))).thenReturn(List.of(job));
+    when(jobsRepository.findIdsCreatedBefore(any(), any())).thenReturn(List.of());
+
+    service.applyRetentionPolicy();
+
+    assertEquals("e".repeat(50), job.getLog());
+    assertEquals(0, service.getStats().getLogsTruncated());
+    assertEquals(0, service.getStats().getBytesReclaimed());
+  }
+
+  @Test
+  public void apply_with_nothing_to_do_only_records_the_run() {
+    when(jobsRepository.findIdsOfCompletedJobsWithLargeLogs(any(), anyInt(), anyLong(), any())).thenReturn(List.of());
+    when(jobsRepository.findIdsCreatedBefore(any(), any())).thenReturn(List.of());
+
+    service.applyRetentionPolicy();
+
+    verify(jobsRepository, never()).saveAll(any());
+    verify(jobsRepository, never()).deleteAllByIdInBatch(any());
+    assertEquals(JobRetentionStats.builder().lastRunAt(NOW).build(), service.getStats());
+  }
+
+  @Test
+  public void apply_does_nothing_when_disabled() {
+    ReflectionTestUtils.setField(service, "enabled", false);
+
+    service.applyRetentionPolicy();
+
+    verifyNoInteractions(jobsRepository);
+    assertNull(service.getStats().getLastRunAt());
+  }
+
+  @Test
+  public void reclaimed_totals_are_published_as_counters() {
+    Job old = Job.builder().id(1L).status("complete").log("y".repeat(200)).build();
+    when(jobsRepository.findIdsOfCompletedJobsWithLargeLogs(any(), anyInt(), eq(0L), any())).thenReturn(List.of(1L));
+    when(jobsRepository.findAllById(List.of(1L))).thenReturn(List.of(old));
+    when(jobsRepository.findIdsCreatedBefore(any(), any())).thenReturn(List.of(7L), List.of());
+    when(jobsRepository.sumLogBytes(List.of(7L))).thenReturn(500L);
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    service.bindTo(registry);
+
+    service.applyRetentionPolicy();
+
+    assertEquals(1, registry.get("frontiers.jobs.retention.deleted").functionCounter().count());
+    assertEquals(1, registry.get("frontiers.jobs.retention.truncated").functionCounter().count());
+    assertEquals(service.getStats().getBytesReclaimed(),
+        registry.get("frontiers.jobs.retention.reclaimed").functionCounter().count());
+  }
+}
@@ -0,0 +1,90 @@
+package edu.ucsb.cs156.frontiers.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+public class RetryPolicyTests {
+
+  private static final Instant NOW = Instant.parse("2025-05-01T10:00:00Z");
+
+  private final RetryPolicy policy = RetryPolicy.builder()
+      .initialBackoff(Duration.ofSeconds(1))
+      .maxBackoff(Duration.ofSeconds(30))
+      .clock(Clock.fixed(NOW, ZoneOffset.UTC))
+      .build();
+
+  private static HttpClientErrorException rateLimited(String header, String value) {
+    HttpHeaders headers = new HttpHeaders();
+    headers.add(header, value);
+    return HttpClientErrorException.create(HttpStatus.FORBIDDEN, "Forbidden", headers, new byte[0],
+        StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void backoff_doubles_up_to_the_maximum() {
+    List<Exception> failures = List.of(new HttpServerErrorException(HttpStatus.BAD_GATEWAY));
+
+    assertEquals(Duration.ofSeconds(1), policy.backoff(1, failures));
+    assertEquals(Duration.ofSeconds(2), policy.backoff(2, failures));
+    assertEquals(Duration.ofSeconds(16), policy.backoff(5, failures));
+    assertEquals(Duration.ofSeconds(30), policy.backoff(6, failures));
+    assertEquals(Duration.ofSeconds(30), policy.backoff(100, failures));
+  }
+
+  @Test
+  public void backoff_honours_retry_after() {
+    assertEquals(Duration.ofSeconds(7), policy.backoff(1, List.of(rateLimited(HttpHeaders.RETRY_AFTER, "7"))));
+    assertEquals(Duration.ofSeconds(30), policy.backoff(1, List.of(rateLimited(HttpHeaders.RETRY_AFTER, "3600"))));
+  }
+
+  @Test
+  public void backoff_honours_rate_limit_reset() {
+    String inTwelveSeconds = Long.toString(NOW.plusSeconds(12).getEpochSecond());
+    String inThePast = Long.toString(NOW.minusSeconds(12).getEpochSecond());
+
+    assertEquals(Duration.ofSeconds(12), policy.backoff(1, List.of(rateLimited("x-ratelimit-reset", inTwelveSeconds))));
+    assertEquals(Duration.ofSeconds(1), policy.backoff(1, List.of(rateLimited("x-ratelimit-reset", inThePast))));
+  }
+
+  @Test
+  public void unparseable_or_missing_headers_fall_back_to_exponential_backoff() {
+    HttpClientErrorException noHeaders = HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "Too Many",
+        null, new byte[0], StandardCharsets.UTF_8);
+
+    assertEquals(Duration.ofSeconds(1),
+        policy.backoff(1, List.of(rateLimited(HttpHeaders.RETRY_AFTER, "Wed, 21 Oct 2015 07:28:00 GMT"))));
+    assertEquals(Duration.ofSeconds(1), policy.backoff(1, List.of(rateLimited("x-other", "1"))));
+    assertEquals(Duration.ofSeconds(1), policy.backoff(1, List.of(noHeaders)));
+    assertEquals(Duration.ofSeconds(1), policy.backoff(1, List.of(new ResourceAccessException("Read timed out"))));
+  }
+
+  @Test
+  public void sleep_uses_the_sleeper() throws Exception {
+    List<Long> sleeps = new ArrayList<>();
+    RetryPolicy recording = RetryPolicy.builder().sleeper(sleeps::add).build();
+
+    recording.sleep(Duration.ofMillis(1500));
+
+    assertEquals(List.of(1500L), sleeps);
+  }
+
+  @Test
+  public void default_policy_makes_four_attempts() {
+    assertEquals(4, RetryPolicy.DEFAULT.getMaxAttempts());
+    assertEquals(Duration.ofSeconds(2), RetryPolicy.DEFAULT.backoff(1, List.of()));
+  }
+}
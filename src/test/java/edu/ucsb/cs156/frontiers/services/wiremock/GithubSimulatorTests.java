@@ -0,0 +1,185 @@
+package edu.ucsb.cs156.frontiers.services.wiremock;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.any;
+import static com.github.tomakehurst.wiremock.client.WireMock.anyUrl;
+import static com.github.tomakehurst.wiremock.client.WireMock.ok;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.tomakehurst.wiremock.WireMockServer;
+
+import edu.ucsb.cs156.frontiers.testconfig.MutableClock;
+
+public class GithubSimulatorTests {
+
+  private final ObjectMapper mapper = new ObjectMapper();
+  private final TestRestTemplate restTemplate = new TestRestTemplate();
+  private final MutableClock clock = new MutableClock(Instant.parse("2025-05-01T10:00:00Z"));
+  private WireMockServer server;
+
+  private void start(GithubSimulatorSettings settings) {
+    server = new WireMockServer(options().dynamicPort().extensions(new GithubSimulator(settings, clock)));
+    server.stubFor(any(anyUrl()).willReturn(ok()));
+    server.start();
+  }
+
+  @AfterEach
+  public void teardown() {
+    server.stop();
+  }
+
+  @Test
+  public void members_are_paginated_with_link_headers() throws Exception {
+    start(GithubSimulatorSettings.builder().members(65).build());
+
+    ResponseEntity<String> first = call(HttpMethod.GET, "/orgs/ucsb-cs156/members", null);
+    ResponseEntity<String> last = call(HttpMethod.GET, "/orgs/ucsb-cs156/members?per_page=30&page=3", null);
+
+    assertEquals(30, mapper.readTree(first.getBody()).size());
+    assertEquals("student-0001", mapper.readTree(first.getBody()).get(0).get("login").asText());
+    assertEquals("<%s/orgs/ucsb-cs156/members?per_page=30&page=2>; rel=\"next\", <%s/orgs/ucsb-cs156/members?per_page=30&page=3>; rel=\"last\""
+        .formatted(server.baseUrl(), server.baseUrl()), first.getHeaders().getFirst("Link"));
+    assertEquals(5, mapper.readTree(last.getBody()).size());
+    assertEquals(100065, mapper.readTree(last.getBody()).get(4).get("id").asInt());
+    assertNull(last.getHeaders().getFirst("Link"));
+  }
+
+  @Test
+  public void repositories_and_collaborators_are_remembered() throws Exception {
+    start(GithubSimulatorSettings.builder().build());
+
+    assertEquals(404, call(HttpMethod.GET, "/repos/ucsb-cs156/jpa01-cgaucho", null).getStatusCode().value());
+    assertEquals(201, call(HttpMethod.POST, "/orgs/ucsb-cs156/repos",
+        "{\"name\": \"jpa01-cgaucho\", \"private\": true}").getStatusCode().value());
+    assertEquals(422, call(HttpMethod.POST, "/orgs/ucsb-cs156/repos",
+        "{\"name\": \"jpa01-cgaucho\"}").getStatusCode().value());
+    JsonNode repository = mapper.readTree(call(HttpMethod.GET, "/repos/ucsb-cs156/jpa01-cgaucho", null).getBody());
+    assertEquals("ucsb-cs156/jpa01-cgaucho", repository.get("full_name").asText());
+    assertTrue(repository.get("private").asBoolean());
+
+    assertEquals(201, call(HttpMethod.PUT, "/repos/ucsb-cs156/jpa01-cgaucho/collaborators/cgaucho",
+        "{\"permission\": \"admin\"}").getStatusCode().value());
+    assertEquals(204, call(HttpMethod.PUT, "/repos/ucsb-cs156/jpa01-cgaucho/collaborators/cgaucho",
+        "{\"permission\": \"admin\"}").getStatusCode().value());
+    assertEquals(404, call(HttpMethod.PUT, "/repos/ucsb-cs156/jpa01-ldelplaya/collaborators/ldelplaya",
+        "{\"permission\": \"admin\"}").getStatusCode().value());
+
+    assertEquals(201, call(HttpMethod.POST, "/repos/ucsb-cs156/jpa01-template/generate",
+        "{\"owner\": \"ucsb-cs156\", \"name\": \"jpa01-ldelplaya\"}").getStatusCode().value());
+    assertEquals(200, call(HttpMethod.GET, "/repos/ucsb-cs156/jpa01-ldelplaya", null).getStatusCode().value());
+  }
+
+  @Test
+  public void only_repositories_generated_from_a_template_have_a_branch() throws Exception {
+    start(GithubSimulatorSettings.builder().build());
+    call(HttpMethod.POST, "/orgs/ucsb-cs156/repos", "{\"name\": \"jpa01-cgaucho\"}");
+    call(HttpMethod.POST, "/repos/ucsb-cs156/jpa01-template/generate",
+        "{\"owner\": \"ucsb-cs156\", \"name\": \"jpa01-ldelplaya\"}");
+
+    assertEquals("[]", call(HttpMethod.GET, "/repos/ucsb-cs156/jpa01-cgaucho/branches", null).getBody());
+    assertEquals("[{\"name\":\"main\"}]",
+        call(HttpMethod.GET, "/repos/ucsb-cs156/jpa01-ldelplaya/branches?per_page=1", null).getBody());
+    assertEquals(404, call(HttpMethod.GET, "/repos/ucsb-cs156/jpa01-nobody/branches", null).getStatusCode().value());
+  }
+
+  @Test
+  public void teams_are_created_listed_and_given_repositories() throws Exception {
+    start(GithubSimulatorSettings.builder().build());
+    call(HttpMethod.POST, "/orgs/ucsb-cs156/repos", "{\"name\": \"jpa01-cgaucho\"}");
+
+    assertEquals(201, call(HttpMethod.POST, "/orgs/ucsb-cs156/teams",
+        "{\"name\": \"student-cgaucho\", \"privacy\": \"secret\"}").getStatusCode().value());
+    assertEquals(422, call(HttpMethod.POST, "/orgs/ucsb-cs156/teams",
+        "{\"name\": \"student-cgaucho\"}").getStatusCode().value());
+    JsonNode teams = mapper.readTree(call(HttpMethod.GET, "/orgs/ucsb-cs156/teams?per_page=100", null).getBody());
+    assertEquals("student-cgaucho", teams.get(0).get("slug").asText());
+
+    assertEquals(204, call(HttpMethod.PUT, "/orgs/ucsb-cs156/teams/student-cgaucho/repos/ucsb-cs156/jpa01-cgaucho",
+        "{\"permission\": \"admin\"}").getStatusCode().value());
+    assertEquals(404, call(HttpMethod.PUT, "/orgs/ucsb-cs156/teams/student-nobody/repos/ucsb-cs156/jpa01-cgaucho",
+        "{\"permission\": \"admin\"}").getStatusCode().value());
+  }
+
+  @Test
+  public void installations_and_app_are_served() throws Exception {
+    start(GithubSimulatorSettings.builder().build());
+
+    JsonNode installation = mapper.readTree(call(HttpMethod.GET, "/app/installations/1234", null).getBody());
+    JsonNode app = mapper.readTree(call(HttpMethod.GET, "/app", null).getBody());
+
+    assertEquals("simulated-org-1234", installation.get("account").get("login").asText());
+    assertEquals("Organization", installation.get("account").get("type").asText());
+    assertEquals("https://github.com/apps/frontiers-simulator", app.get("html_url").asText());
+  }
+
+  @Test
+  public void rate_limit_is_counted_per_installation_and_resets() throws Exception {
+    start(GithubSimulatorSettings.builder().rateLimit(2).rateLimitWindow(Duration.ofMinutes(1)).build());
+    ResponseEntity<String> tokenResponse = call(HttpMethod.POST, "/app/installations/1234/access_tokens", null);
+    assertEquals(201, tokenResponse.getStatusCode().value());
+    String token = mapper.readTree(tokenResponse.getBody()).get("token").asText();
+
+    ResponseEntity<String> first = call(token, HttpMethod.GET, "/orgs/ucsb-cs156/members");
+    ResponseEntity<String> second = call(token, HttpMethod.GET, "/orgs/ucsb-cs156/members");
+    ResponseEntity<String> limited = call(token, HttpMethod.GET, "/orgs/ucsb-cs156/members");
+
+    assertEquals("1", first.getHeaders().getFirst("x-ratelimit-remaining"));
+    assertEquals("0", second.getHeaders().getFirst("x-ratelimit-remaining"));
+    assertEquals(403, limited.getStatusCode().value());
+    assertEquals(Long.toString(Instant.parse("2025-05-01T10:01:00Z").getEpochSecond()),
+        limited.getHeaders().getFirst("x-ratelimit-reset"));
+    // the app's own JWT has used one request of its separate budget
+    assertEquals("2", call(HttpMethod.GET, "/app", null).getHeaders().getFirst("x-ratelimit-used"));
+
+    clock.advance(Duration.ofMinutes(1));
+    assertEquals("1", call(token, HttpMethod.GET, "/orgs/ucsb-cs156/members")
+        .getHeaders().getFirst("x-ratelimit-remaining"));
+  }
+
+  @Test
+  public void errors_and_latency_are_injected() {
+    start(GithubSimulatorSettings.builder().errorRate(1).latencyMedianMillis(200).build());
+
+    long started = System.nanoTime();
+    ResponseEntity<String> response = call(HttpMethod.GET, "/app", null);
+
+    assertEquals(502, response.getStatusCode().value());
+    assertTrue(Duration.ofNanos(System.nanoTime() - started).toMillis() >= 200);
+  }
+
+  @Test
+  public void requests_without_authorization_or_to_unknown_paths_fail() {
+    start(GithubSimulatorSettings.builder().build());
+
+    assertEquals(401, restTemplate.getForEntity(server.baseUrl() + "/app", String.class).getStatusCode().value());
+    assertEquals(404, call(HttpMethod.GET, "/user/repos", null).getStatusCode().value());
+    assertEquals(400, call(HttpMethod.POST, "/orgs/ucsb-cs156/repos", "not json").getStatusCode().value());
+  }
+
+  private ResponseEntity<String> call(HttpMethod method, String path, String body) {
+    HttpHeaders headers = new HttpHeaders();
+    headers.add("Authorization", "Bearer app.jwt");
+    return restTemplate.exchange(server.baseUrl() + path, method, new HttpEntity<>(body, headers), String.class);
+  }
+
+  private ResponseEntity<String> call(String token, HttpMethod method, String path) {
+    HttpHeaders headers = new HttpHeaders();
+    headers.add("Authorization", "Bearer " + token);
+    return restTemplate.exchange(server.baseUrl() + path, method, new HttpEntity<>(headers), String.class);
+  }
+}
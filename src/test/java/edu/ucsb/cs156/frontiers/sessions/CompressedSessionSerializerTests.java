@@ -0,0 +1,95 @@
+package edu.ucsb.cs156.frontiers.sessions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.core.oidc.user.DefaultOidcUser;
+import org.springframework.security.oauth2.core.oidc.user.OidcUser;
+
+public class CompressedSessionSerializerTests {
+
+  record Attribute(String value) implements Serializable {
+  }
+
+  private final CompressedSessionSerializer serializer = new CompressedSessionSerializer(getClass().getClassLoader());
+
+  private SecurityContextImpl signedIn() {
+    Instant now = Instant.now();
+    OidcIdToken idToken = OidcIdToken.withTokenValue("eyJhbGciOiJSUzI1NiJ9.e30.c2lnbmF0dXJl")
+        .issuer("https://accounts.google.com")
+        .subject("115856948234298493496")
+        .audience(List.of("frontiers"))
+        .issuedAt(now)
+        .expiresAt(now.plusSeconds(3600))
+        .claims(claims -> claims.putAll(Map.of(
+            "email", "cgaucho@ucsb.edu",
+            "email_verified", true,
+            "name", "Chris Gaucho",
+            "given_name", "Chris",
+            "family_name", "Gaucho",
+            "picture", "https://example.org/picture.jpg",
+            "hd", "ucsb.edu")))
+        .build();
+    DefaultOidcUser user = new DefaultOidcUser(
+        List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_ADMIN")), idToken, "email");
+    return new SecurityContextImpl(new OAuth2AuthenticationToken(user, user.getAuthorities(), "my-oauth-provider"));
+  }
+
+  private byte[] serialize(Object object) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    serializer.serialize(object, out);
+    return out.toByteArray();
+  }
+
+  @Test
+  public void security_context_round_trips() throws Exception {
+    SecurityContextImpl context = signedIn();
+
+    Object read = serializer.deserialize(new ByteArrayInputStream(serialize(context)));
+
+    assertEquals(context, read);
+    OidcUser user = (OidcUser) assertInstanceOf(SecurityContextImpl.class, read).getAuthentication().getPrincipal();
+    assertEquals("cgaucho@ucsb.edu", user.getName());
+    assertEquals("Chris", user.getGivenName());
+  }
+
+  @Test
+  public void security_context_is_smaller_than_plain_serialization() throws Exception {
+    SecurityContextImpl context = signedIn();
+    ByteArrayOutputStream plain = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(plain)) {
+      out.writeObject(context);
+    }
+
+    int compressed = serialize(context).length;
+
+    assertTrue(compressed * 3 < plain.size() * 2, compressed + " bytes compressed, " + plain.size() + " plain");
+  }
+
+  @Test
+  public void classes_the_class_loader_does_not_know_are_an_io_exception() throws Exception {
+    byte[] bytes = serialize(new Attribute("value"));
+    CompressedSessionSerializer bootstrapOnly = new CompressedSessionSerializer(new ClassLoader(null) {
+    });
+
+    IOException e = assertThrows(IOException.class, () -> bootstrapOnly.deserialize(new ByteArrayInputStream(bytes)));
+
+    assertInstanceOf(ClassNotFoundException.class, e.getCause());
+  }
+}
@@ -0,0 +1,153 @@
+package edu.ucsb.cs156.frontiers.sessions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.session.MapSession;
+import org.springframework.session.MapSessionRepository;
+
+import edu.ucsb.cs156.frontiers.sessions.LazySessionRepository.LazySession;
+
+public class LazySessionRepositoryTests {
+
+  private MapSessionRepository store;
+  private LazySessionRepository<MapSession> repository;
+
+  @BeforeEach
+  public void setup() {
+    store = spy(new MapSessionRepository(new ConcurrentHashMap<>()));
+    repository = new LazySessionRepository<>(store, Duration.ofSeconds(60));
+  }
+
+  private LazySession<MapSession> saved() {
+    LazySession<MapSession> session = repository.createSession();
+    session.setAttribute("user", "cgaucho");
+    repository.save(session);
+    return repository.findById(session.getId());
+  }
+
+  @Test
+  public void new_sessions_are_saved() {
+    LazySession<MapSession> session = repository.createSession();
+    repository.save(session);
+
+    verify(store).save(any());
+    assertEquals(session.getId(), repository.findById(session.getId()).getId());
+  }
+
+  @Test
+  public void unknown_sessions_are_not_found() {
+    assertNull(repository.findById("nope"));
+  }
+
+  @Test
+  public void unchanged_sessions_are_not_saved_again() {
+    LazySession<MapSession> session = saved();
+    session.setLastAccessedTime(session.getLastAccessedTime().plusSeconds(59));
+    repository.save(session);
+
+    verify(store, times(1)).save(any());
+    assertEquals("cgaucho", session.getAttribute("user"));
+    assertEquals(Set.of("user"), session.getAttributeNames());
+  }
+
+  @Test
+  public void sessions_are_saved_once_per_change() {
+    LazySession<MapSession> session = saved();
+    session.setAttribute("user", "ldelplaya");
+    repository.save(session);
+    repository.save(session);
+
+    verify(store, times(2)).save(any());
+    assertEquals("ldelplaya", repository.findById(session.getId()).getAttribute("user"));
+  }
+
+  @Test
+  public void removing_an_attribute_is_a_change() {
+    LazySession<MapSession> session = saved();
+    session.removeAttribute("user");
+    repository.save(session);
+
+    verify(store, times(2)).save(any());
+    assertNull(repository.findById(session.getId()).getAttribute("user"));
+  }
+
+  @Test
+  public void changing_the_timeout_is_a_change() {
+    LazySession<MapSession> session = saved();
+    session.setMaxInactiveInterval(Duration.ofMinutes(5));
+    repository.save(session);
+
+    verify(store, times(2)).save(any());
+    assertEquals(Duration.ofMinutes(5), repository.findById(session.getId()).getMaxInactiveInterval());
+  }
+
+  @Test
+  public void changing_the_id_is_a_change() {
+    LazySession<MapSession> session = saved();
+    String oldId = session.getId();
+    String newId = session.changeSessionId();
+    repository.save(session);
+
+    assertNotEquals(oldId, newId);
+    verify(store, times(2)).save(any());
+    assertNull(repository.findById(oldId));
+    assertEquals(newId, repository.findById(newId).getId());
+  }
+
+  @Test
+  public void last_accessed_time_moves_on_after_the_touch_interval() {
+    LazySession<MapSession> session = saved();
+    Instant created = session.getCreationTime();
+    Instant later = session.getLastAccessedTime().plusSeconds(60);
+    session.setLastAccessedTime(later);
+    repository.save(session);
+
+    verify(store, times(2)).save(any());
+    LazySession<MapSession> reloaded = repository.findById(session.getId());
+    assertEquals(later, reloaded.getLastAccessedTime());
+    assertEquals(created, reloaded.getCreationTime());
+  }
+
+  @Test
+  public void last_accessed_time_stays_within_the_touch_interval() {
+    LazySession<MapSession> session = saved();
+    Instant before = session.getLastAccessedTime();
+    session.setLastAccessedTime(before.plusSeconds(30));
+
+    assertEquals(before, session.getLastAccessedTime());
+    assertEquals(before, session.getDelegate().getLastAccessedTime());
+  }
+
+  @Test
+  public void expiry_is_that_of_the_wrapped_session() {
+    LazySession<MapSession> session = saved();
+    assertFalse(session.isExpired());
+
+    session.getDelegate().setLastAccessedTime(Instant.now().minus(Duration.ofHours(1)));
+    assertTrue(session.isExpired());
+  }
+
+  @Test
+  public void sessions_are_deleted_from_the_store() {
+    LazySession<MapSession> session = saved();
+    repository.deleteById(session.getId());
+
+    verify(store).deleteById(session.getId());
+    assertNull(repository.findById(session.getId()));
+  }
+}
@@ -0,0 +1,46 @@
+package edu.ucsb.cs156.frontiers.testconfig;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A clock for tests that stands still until it is moved with
+ * {@link #advance(Duration)}. Clocks made from it with {@link #withZone(ZoneId)}
+ * move with it.
+ */
+public class MutableClock extends Clock {
+  private final AtomicReference<Instant> now;
+  private final ZoneId zone;
+
+  public MutableClock(Instant now) {
+    this(new AtomicReference<>(now), ZoneOffset.UTC);
+  }
+
+  private MutableClock(AtomicReference<Instant> now, ZoneId zone) {
+    this.now = now;
+    this.zone = zone;
+  }
+
+  public void advance(Duration duration) {
+    now.updateAndGet(instant -> instant.plus(duration));
+  }
+
+  @Override
+  public ZoneId getZone() {
+    return zone;
+  }
+
+  @Override
+  public Clock withZone(ZoneId zone) {
+    return new MutableClock(now, zone);
+  }
+
+  @Override
+  public Instant instant() {
+    return now.get();
+  }
+}
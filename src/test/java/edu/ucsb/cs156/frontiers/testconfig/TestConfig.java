@@ -9,6 +9,8 @@ import org.springframework.context.annotation.Import;
 import edu.ucsb.cs156.frontiers.config.SecurityConfig;
 import edu.ucsb.cs156.frontiers.services.CurrentUserService;
 import edu.ucsb.cs156.frontiers.services.GrantedAuthoritiesService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 @TestConfiguration
 @Import(SecurityConfig.class)
@@ -30,4 +32,7 @@ public class TestConfig {
     @Bean
     public GoogleSignInService googleSignInService() {return new MockGoogleSignInService();}
 
+    @Bean
+    public MeterRegistry meterRegistry() {return new SimpleMeterRegistry();}
+
 }
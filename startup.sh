@@ -9,4 +9,11 @@ export JDBC_DATABASE_URL=jdbc:postgresql://$(echo "$DATABASE_URL" | cut --delimi
 
 export JDBC_DATABASE_USERNAME=postgres
 
+# Built with the fast-startup Maven profile: start from the extracted jar, with
+# the AOT-generated code and the CDS archive (see docs/fast-startup.md)
+APPLICATION_DIR=$(dirname $1)/application
+if [ -f "$APPLICATION_DIR/application.jsa" ]; then
+exec java -XX:SharedArchiveFile=$APPLICATION_DIR/application.jsa -Dspring.aot.enabled=true -jar $APPLICATION_DIR/$(basename $1)
+fi
+
 java -jar $1